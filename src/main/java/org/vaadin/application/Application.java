@@ -1,11 +1,14 @@
 package org.vaadin.application;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.server.PWA;
 import com.vaadin.flow.theme.Theme;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The entry point of the Spring Boot application. This class is responsible for
@@ -28,6 +31,21 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * </p>
  *
  * <p>
+ * The {@code @EnableCaching} annotation enables Spring's cache abstraction,
+ * which is used to keep computed forecasts between page visits.
+ * </p>
+ *
+ * <p>
+ * The {@code @EnableScheduling} annotation enables scheduled jobs, such as the
+ * daily net worth snapshot.
+ * </p>
+ *
+ * <p>
+ * The {@code @Push} annotation enables server push, so that views can show
+ * data read in the background as soon as it is available.
+ * </p>
+ *
+ * <p>
  * The {@code @Theme} annotation specifies the theme to be used for styling the
  * Vaadin
  * components in the application.
@@ -37,6 +55,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @see org.springframework.boot.SpringApplication
  */
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
+@Push
 @PWA(name = "Project Base for Vaadin with Spring", shortName = "Project Base")
 @Theme("my-theme")
 public class Application implements AppShellConfigurator {
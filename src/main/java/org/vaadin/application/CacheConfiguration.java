@@ -0,0 +1,47 @@
+package org.vaadin.application;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.vaadin.application.service.ForecastService;
+
+/**
+ * Configures the caches of the application.
+ *
+ * <p>
+ * Caches are Caffeine caches bounded by the specification in
+ * {@code fintrack.forecast.cache.spec}, so entries of inactive users expire
+ * and the number of entries never exceeds the configured maximum. Only the
+ * declared caches exist. The cache manager is transaction-aware: puts and
+ * evictions made inside a transaction take effect after it has committed, so
+ * a reader cannot cache data that is about to change between an eviction and
+ * the commit.
+ * </p>
+ */
+@Configuration
+public class CacheConfiguration {
+
+    /**
+     * The Caffeine specification of the forecast cache if not configured.
+     */
+    public static final String DEFAULT_FORECAST_CACHE_SPEC = "maximumSize=10000,expireAfterAccess=1h";
+
+    /**
+     * Creates the cache manager.
+     *
+     * @param forecastCacheSpec the Caffeine specification of the forecast cache
+     * @return the transaction-aware cache manager
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${fintrack.forecast.cache.spec:" + DEFAULT_FORECAST_CACHE_SPEC + "}") String forecastCacheSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(forecastCacheSpec);
+        cacheManager.setCacheNames(List.of(ForecastService.FORECAST_CACHE));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,16 +1,20 @@
 package org.vaadin.application.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.vaadin.application.dto.NetWorthPoint;
 import org.vaadin.application.model.Asset;
 import org.vaadin.application.service.AssetService;
+import org.vaadin.application.service.NetWorthHistoryService;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Rest controller for managing asset-related operations.
  * This controller provides endpoints to get assets by user ID, add a new asset,
- * and delete an existing asset.
+ * delete an existing asset and read the net worth history of a user.
  */
 @RestController
 @RequestMapping("/asset")
@@ -19,6 +23,9 @@ public class AssetController {
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private NetWorthHistoryService netWorthHistoryService;
+
     /**
      * Retrieves a list of assets associated with a specific user ID.
      *
@@ -50,4 +57,19 @@ public class AssetController {
     public void deleteAsset(@PathVariable Long id) {
         assetService.deleteAsset(id);
     }
+
+    /**
+     * Retrieves the daily net worth snapshots of a user within a range of dates.
+     *
+     * @param userId the ID of the user whose history is to be retrieved
+     * @param from   the first date of the range (inclusive)
+     * @param to     the last date of the range (inclusive)
+     * @return one point per recorded day in ascending order of dates
+     */
+    @GetMapping("/user/{userId}/net-worth")
+    public List<NetWorthPoint> getNetWorthHistory(@PathVariable Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return netWorthHistoryService.getHistoryPoints(userId, from, to);
+    }
 }
@@ -4,14 +4,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.vaadin.application.model.Budget;
 import org.vaadin.application.service.BudgetService;
+import org.vaadin.application.service.ExpenseService;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Rest controller for managing budget-related operations.
- * This controller provides endpoints to get budgets by user ID, add a new
- * budget,
- * and delete an existing budget.
+ * This controller provides endpoints to get budgets and their expense totals
+ * by user ID, add a new budget, and delete an existing budget.
  */
 @RestController
 @RequestMapping("/budget")
@@ -20,6 +22,9 @@ public class BudgetController {
     @Autowired
     private BudgetService budgetService;
 
+    @Autowired
+    private ExpenseService expenseService;
+
     /**
      * Retrieves a list of budgets associated with a specific user ID.
      *
@@ -31,6 +36,17 @@ public class BudgetController {
         return budgetService.getBudgetsByUserId(userId);
     }
 
+    /**
+     * Retrieves the total expenses of every budget of a specific user.
+     *
+     * @param userId the ID of the user whose budget totals are to be retrieved
+     * @return a map of budget IDs to the total of their expenses
+     */
+    @GetMapping("/user/{userId}/totals")
+    public Map<Long, BigDecimal> getTotalExpensesByBudget(@PathVariable Long userId) {
+        return expenseService.getTotalExpensesByBudget(userId);
+    }
+
     /**
      * Adds a new budget.
      *
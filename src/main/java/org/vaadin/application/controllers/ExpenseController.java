@@ -1,33 +1,140 @@
 package org.vaadin.application.controllers;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.vaadin.application.dto.ExpenseBatchResult;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.dto.ExpensePage;
 import org.vaadin.application.model.Expense;
 import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.LedgerExportService;
+import org.vaadin.application.service.LedgerWriteService;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 
 /**
  * Rest controller for managing expense-related operations.
- * This controller provides endpoints to get expenses by user ID,
- * add a new expense, and delete an existing expense.
+ * This controller provides endpoints to get expenses by user ID (paginated or
+ * streamed) or export them as CSV,
+ * add a new expense or a batch of expenses, update an existing expense, and
+ * delete an existing expense. Writes go through {@link LedgerWriteService} so that budgets are
+ * updated in the same transaction.
  */
 @RestController
 @RequestMapping("/expense")
 public class ExpenseController {
 
+    /**
+     * The maximum number of expenses on one page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
     /**
-     * Retrieves a list of expenses associated with a specific user ID.
+     * Retrieves one page of the expenses associated with a specific user ID,
+     * newest first. Pass the {@code next} cursor of a page as {@code after} to
+     * get the following page.
      *
      * @param userId the ID of the user whose expenses are to be retrieved
-     * @return a list of expenses associated with the specified user ID
+     * @param limit  the maximum number of expenses on the page, at most
+     *               {@value #MAX_PAGE_SIZE}
+     * @param after  the cursor of the previous page, or absent for the first page
+     * @return the page of expenses
+     */
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ExpensePage getExpensesByUserId(@PathVariable Long userId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        ExpenseCursor cursor = null;
+        if (after != null) {
+            try {
+                cursor = ExpenseCursor.fromToken(after);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+            }
+        }
+        return expenseService.getExpenseLinePage(userId, cursor, limit);
+    }
+
+    /**
+     * Streams all expenses associated with a specific user ID as newline
+     * delimited JSON, newest first. Rows are written as they are read from the
+     * database, so the response uses constant memory regardless of the size of
+     * the ledger.
+     *
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @return the body writing one JSON object per line
+     */
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamExpensesByUserId(@PathVariable Long userId) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                expenseService.streamExpenseLines(userId, line -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(line));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Exports all expenses of a user as a CSV file, newest first, optionally gzip
+     * compressed. Rows are written as they are read from the database, so the
+     * response uses constant memory regardless of the size of the ledger.
+     *
+     * @param userId the ID of the user whose expenses are to be exported
+     * @param gzip   whether to compress the file with gzip
+     * @return the body writing the CSV file
      */
-    @GetMapping("/user/{userId}")
-    public List<Expense> getExpensesByUserId(@PathVariable Long userId) {
-        return expenseService.getExpensesByUserId(userId);
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportExpensesByUserId(@PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = outputStream -> ledgerExportService.exportExpenses(userId, outputStream, gzip);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(LedgerExportService.contentType(gzip)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(LedgerExportService.fileName("expenses", gzip)).build().toString())
+                .body(body);
     }
 
     /**
@@ -38,7 +145,58 @@ public class ExpenseController {
      */
     @PostMapping("/add")
     public Expense addExpense(@RequestBody Expense expense) {
-        return expenseService.addExpense(expense);
+        return ledgerWriteService.recordExpense(expense);
+    }
+
+    /**
+     * Updates an existing expense.
+     *
+     * @param expense the expense object with updated information
+     * @return the updated expense object
+     */
+    @PutMapping("/update")
+    public Expense updateExpense(@RequestBody Expense expense) {
+        return ledgerWriteService.amendExpense(expense);
+    }
+
+    /**
+     * Adds many expenses sent as a JSON array. The elements of the array are
+     * read one at a time while the rows are inserted in JDBC batches in a single
+     * transaction, so large imports do not need to fit into memory.
+     *
+     * @param body the request body holding the array of expenses
+     * @return the number of added expenses
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ExpenseBatchResult addExpenses(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "expected a JSON array of expenses");
+            }
+            // Reading from inside the array yields its elements one by one
+            parser.nextToken();
+            try (MappingIterator<ExpenseImport> expenses = objectMapper.readerFor(ExpenseImport.class)
+                    .readValues(parser)) {
+                return recordExpenses(expenses);
+            }
+        }
+    }
+
+    /**
+     * Adds many expenses sent as newline delimited JSON. The request body is read
+     * while the rows are inserted, so large imports do not need to fit into
+     * memory.
+     *
+     * @param body the request body holding one expense per line
+     * @return the number of added expenses
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ExpenseBatchResult addExpensesFromStream(InputStream body) throws IOException {
+        try (MappingIterator<ExpenseImport> expenses = objectMapper.readerFor(ExpenseImport.class).readValues(body)) {
+            return recordExpenses(expenses);
+        }
     }
 
     /**
@@ -48,6 +206,20 @@ public class ExpenseController {
      */
     @DeleteMapping("/delete/{id}")
     public void deleteExpense(@PathVariable Long id) {
-        expenseService.deleteExpense(id);
+        ledgerWriteService.removeExpense(id);
+    }
+
+    /**
+     * Records a batch of expenses, reporting invalid input as a bad request.
+     *
+     * @param expenses the expenses to be recorded
+     * @return the number of recorded expenses
+     */
+    private ExpenseBatchResult recordExpenses(Iterator<ExpenseImport> expenses) {
+        try {
+            return new ExpenseBatchResult(ledgerWriteService.recordExpenses(expenses));
+        } catch (IllegalArgumentException | RuntimeJsonMappingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 }
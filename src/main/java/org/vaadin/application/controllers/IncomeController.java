@@ -1,15 +1,21 @@
 package org.vaadin.application.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.vaadin.application.model.Income;
 import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerExportService;
 
 import java.util.List;
 
 /**
  * Rest controller for managing income-related operations.
- * This controller provides endpoints to get incomes by user ID,
+ * This controller provides endpoints to get or export incomes by user ID,
  * add a new income, and delete an existing income.
  */
 @RestController
@@ -19,6 +25,9 @@ public class IncomeController {
     @Autowired
     private IncomeService incomeService;
 
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
     /**
      * Retrieves a list of incomes associated with a specific user ID.
      *
@@ -30,6 +39,26 @@ public class IncomeController {
         return incomeService.getIncomesByUserId(userId);
     }
 
+    /**
+     * Exports all incomes of a user as a CSV file, newest first, optionally gzip
+     * compressed. Rows are written as they are read from the database, so the
+     * response uses constant memory regardless of the size of the ledger.
+     *
+     * @param userId the ID of the user whose incomes are to be exported
+     * @param gzip   whether to compress the file with gzip
+     * @return the body writing the CSV file
+     */
+    @GetMapping("/user/{userId}/export")
+    public ResponseEntity<StreamingResponseBody> exportIncomesByUserId(@PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody body = outputStream -> ledgerExportService.exportIncomes(userId, outputStream, gzip);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(LedgerExportService.contentType(gzip)))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(LedgerExportService.fileName("incomes", gzip)).build().toString())
+                .body(body);
+    }
+
     /**
      * Adds a new income.
      *
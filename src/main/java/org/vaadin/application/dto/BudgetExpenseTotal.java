@@ -0,0 +1,12 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection holding the summed expenses of one budget.
+ *
+ * @param budgetId the ID of the budget
+ * @param total    the sum of all expense amounts assigned to the budget
+ */
+public record BudgetExpenseTotal(Long budgetId, BigDecimal total) {
+}
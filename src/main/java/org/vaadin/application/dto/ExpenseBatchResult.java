@@ -0,0 +1,9 @@
+package org.vaadin.application.dto;
+
+/**
+ * Result of a batch ingestion of expenses.
+ *
+ * @param inserted the number of inserted expenses
+ */
+public record ExpenseBatchResult(int inserted) {
+}
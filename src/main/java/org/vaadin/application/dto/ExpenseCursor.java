@@ -0,0 +1,90 @@
+package org.vaadin.application.dto;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import org.vaadin.application.model.Expense;
+
+/**
+ * Position of an expense in the (date, id) order used for keyset pagination.
+ * The next page starts directly after the expense the cursor points to.
+ *
+ * <p>
+ * A cursor can be passed to clients as a token of the form
+ * {@code yyyy-MM-dd_id}, see {@link #toToken()} and {@link #fromToken(String)}.
+ * </p>
+ *
+ * @param date the date of the expense
+ * @param id   the ID of the expense, used to break ties between equal dates
+ */
+public record ExpenseCursor(Date date, Long id) {
+
+    private static final char TOKEN_SEPARATOR = '_';
+
+    /**
+     * Creates a cursor pointing to an expense.
+     *
+     * @param expense the expense to point to
+     * @return the cursor
+     */
+    public static ExpenseCursor of(Expense expense) {
+        return new ExpenseCursor(expense.getDate(), expense.getId());
+    }
+
+    /**
+     * Creates a cursor pointing to an expense line.
+     *
+     * @param line the expense line to point to
+     * @return the cursor
+     */
+    public static ExpenseCursor of(ExpenseLine line) {
+        return new ExpenseCursor(java.sql.Date.valueOf(line.date()), line.id());
+    }
+
+    /**
+     * Parses a cursor token created by {@link #toToken()}.
+     *
+     * @param token the token to parse
+     * @return the cursor
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static ExpenseCursor fromToken(String token) {
+        int separator = token.lastIndexOf(TOKEN_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+        try {
+            LocalDate date = LocalDate.parse(token.substring(0, separator));
+            Long id = Long.valueOf(token.substring(separator + 1));
+            return new ExpenseCursor(java.sql.Date.valueOf(date), id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Converts the cursor to a token that can be passed to clients.
+     *
+     * @return the token
+     */
+    public String toToken() {
+        return toLocalDate(date) + String.valueOf(TOKEN_SEPARATOR) + id;
+    }
+
+    /**
+     * Converts a date read from an expense to a local date.
+     *
+     * @param date the date to convert, may be null
+     * @return the local date, or null
+     */
+    public static LocalDate toLocalDate(Date date) {
+        if (date == null) {
+            return null;
+        }
+        if (date instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
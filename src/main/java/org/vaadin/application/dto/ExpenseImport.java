@@ -0,0 +1,19 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * An expense received by the batch ingestion endpoint. References to other
+ * entities are plain IDs, so that rows can be inserted without loading them.
+ *
+ * @param userId      the ID of the user who incurred the expense
+ * @param description the description of the expense
+ * @param amount      the amount of the expense, greater than 0
+ * @param date        the date of the expense
+ * @param budgetId    the ID of the budget of the expense, or {@code null}
+ * @param categoryId  the ID of the category of the expense, or {@code null}
+ */
+public record ExpenseImport(Long userId, String description, BigDecimal amount, LocalDate date, Long budgetId,
+        Long categoryId) {
+}
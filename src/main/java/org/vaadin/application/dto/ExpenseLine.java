@@ -0,0 +1,37 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Read-only projection of an expense holding only the columns needed to list
+ * it. Unlike the {@link org.vaadin.application.model.Expense} entity it carries
+ * no user, budget or category entities.
+ *
+ * @param id          the ID of the expense
+ * @param description the description of the expense
+ * @param amount      the amount of the expense
+ * @param date        the date of the expense
+ * @param budgetId    the ID of the budget of the expense, or {@code null}
+ * @param budgetName  the name of the budget of the expense, or {@code null}
+ */
+public record ExpenseLine(Long id, String description, BigDecimal amount, LocalDate date, Long budgetId,
+        String budgetName) {
+
+    /**
+     * Creates a line from the column values of a query, converting the date of
+     * the expense.
+     *
+     * @param id          the ID of the expense
+     * @param description the description of the expense
+     * @param amount      the amount of the expense
+     * @param date        the date of the expense
+     * @param budgetId    the ID of the budget of the expense, or {@code null}
+     * @param budgetName  the name of the budget of the expense, or {@code null}
+     */
+    public ExpenseLine(Long id, String description, BigDecimal amount, Date date, Long budgetId,
+            String budgetName) {
+        this(id, description, amount, ExpenseCursor.toLocalDate(date), budgetId, budgetName);
+    }
+}
@@ -0,0 +1,20 @@
+package org.vaadin.application.dto;
+
+import java.util.List;
+
+/**
+ * One page of expense lines returned by cursor pagination.
+ *
+ * @param items the expense lines on the page, newest first
+ * @param next  the cursor to pass as {@code after} to get the next page, or
+ *              {@code null} if this is the last page
+ */
+public record ExpensePage(List<ExpenseLine> items, String next) {
+
+    /**
+     * Creates a page, copying the given lines.
+     */
+    public ExpensePage {
+        items = List.copyOf(items);
+    }
+}
@@ -0,0 +1,12 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The progress of all financial goals of a user.
+ *
+ * @param saved  the amount saved towards all goals
+ * @param target the target amount of all goals
+ */
+public record GoalProgress(BigDecimal saved, BigDecimal target) {
+}
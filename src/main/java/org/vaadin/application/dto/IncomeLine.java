@@ -0,0 +1,45 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Date;
+import org.vaadin.application.model.Income;
+
+/**
+ * Read-only projection of an income holding only the columns needed to list
+ * it. Unlike the {@link org.vaadin.application.model.Income} entity it carries
+ * no user entity.
+ *
+ * @param id               the ID of the income
+ * @param source           the source of the income
+ * @param amount           the amount of the income
+ * @param date             the date of the income
+ * @param paymentFrequency the payment frequency of the income
+ */
+public record IncomeLine(Long id, String source, BigDecimal amount, LocalDate date, String paymentFrequency) {
+
+    /**
+     * Creates a line from the column values of a query, converting the date of
+     * the income.
+     *
+     * @param id               the ID of the income
+     * @param source           the source of the income
+     * @param amount           the amount of the income
+     * @param date             the date of the income
+     * @param paymentFrequency the payment frequency of the income
+     */
+    public IncomeLine(Long id, String source, BigDecimal amount, Date date, String paymentFrequency) {
+        this(id, source, amount, ExpenseCursor.toLocalDate(date), paymentFrequency);
+    }
+
+    /**
+     * Creates the line of an income entity.
+     *
+     * @param income the income
+     * @return the line holding the values of the income
+     */
+    public static IncomeLine of(Income income) {
+        return new IncomeLine(income.getId(), income.getSource(), income.getAmount(), income.getDate(),
+                income.getPaymentFrequency());
+    }
+}
@@ -0,0 +1,68 @@
+package org.vaadin.application.dto;
+
+/**
+ * A change to the ledger of a user, published by the services that write
+ * expenses, incomes, budgets and financial goals once the change has been
+ * committed. Open views of the same user apply it without reading their data
+ * again.
+ */
+public sealed interface LedgerEvent {
+
+    /**
+     * Gets the ID of the user whose ledger changed.
+     *
+     * @return the ID of the user
+     */
+    Long userId();
+
+    /**
+     * The kind of change to a record.
+     */
+    enum Change {
+        ADDED, UPDATED, REMOVED
+    }
+
+    /**
+     * Expenses were recorded, amended or removed.
+     *
+     * @param userId      the ID of the user
+     * @param change      the kind of change
+     * @param expenseId   the ID of the expense, or null if several expenses were
+     *                    changed at once, by an import or by the removal of a
+     *                    category or budget
+     * @param amountCents the change of the user's total expenses in cents
+     */
+    record ExpenseChanged(Long userId, Change change, Long expenseId, long amountCents) implements LedgerEvent {
+    }
+
+    /**
+     * An income was added, updated or removed.
+     *
+     * @param userId the ID of the user
+     * @param change the kind of change
+     * @param before the income before the change, null if it was added
+     * @param after  the income after the change, null if it was removed
+     */
+    record IncomeChanged(Long userId, Change change, IncomeLine before, IncomeLine after) implements LedgerEvent {
+    }
+
+    /**
+     * A budget was added or removed.
+     *
+     * @param userId   the ID of the user
+     * @param change   the kind of change
+     * @param budgetId the ID of the budget
+     */
+    record BudgetChanged(Long userId, Change change, Long budgetId) implements LedgerEvent {
+    }
+
+    /**
+     * A financial goal was added, updated or removed.
+     *
+     * @param userId the ID of the user
+     * @param change the kind of change
+     * @param goalId the ID of the goal
+     */
+    record GoalChanged(Long userId, Change change, Long goalId) implements LedgerEvent {
+    }
+}
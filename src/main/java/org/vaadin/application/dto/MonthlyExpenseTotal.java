@@ -0,0 +1,28 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Read-only projection holding the summed expenses of a user for one calendar
+ * month and one budget.
+ *
+ * @param year       the calendar year of the bucket
+ * @param month      the calendar month of the bucket (1 = January)
+ * @param budgetName the name of the budget, or {@code null} for expenses
+ *                   without a budget
+ * @param total      the sum of all expense amounts in the bucket
+ */
+public record MonthlyExpenseTotal(Integer year, Integer month, String budgetName, BigDecimal total) {
+
+    /**
+     * Creates a monthly total from an absolute month index as stored in the
+     * monthly expense rollup.
+     *
+     * @param monthIndex the month as {@code year * 12 + month - 1}
+     * @param budgetName the name of the budget, or {@code null}
+     * @param total      the sum of all expense amounts in the bucket
+     */
+    public MonthlyExpenseTotal(Integer monthIndex, String budgetName, BigDecimal total) {
+        this(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1, budgetName, total);
+    }
+}
@@ -0,0 +1,56 @@
+package org.vaadin.application.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.vaadin.application.util.MonthlySeries;
+
+/**
+ * Immutable result of a net cashflow forecast. Every series starts at the same
+ * month and has the same length, so position {@code i} of any series belongs to
+ * the month labelled {@code monthLabels().get(i)}.
+ *
+ * @param predictedExpensesByBudget the predicted expenses per month for each
+ *                                  budget, in display order
+ * @param predictedNetCashflow      the predicted net cashflow per month
+ */
+public record NetCashflowForecast(Map<String, MonthlySeries> predictedExpensesByBudget,
+        MonthlySeries predictedNetCashflow) {
+
+    /**
+     * Creates a forecast, freezing copies of the given series so that the result
+     * can be shared safely between sessions.
+     */
+    public NetCashflowForecast {
+        Map<String, MonthlySeries> expensesCopy = new LinkedHashMap<>();
+        predictedExpensesByBudget.forEach((budget, expenses) -> expensesCopy.put(budget, expenses.copy().freeze()));
+        predictedExpensesByBudget = Collections.unmodifiableMap(expensesCopy);
+        predictedNetCashflow = predictedNetCashflow.copy().freeze();
+    }
+
+    /**
+     * Gets the number of forecasted months.
+     *
+     * @return the forecast horizon in months
+     */
+    public int months() {
+        return predictedNetCashflow.length();
+    }
+
+    /**
+     * Gets the labels of the forecasted months in chronological order, for
+     * example {@code "JANUARY 2025"}. The year is part of the label because
+     * horizons longer than 12 months repeat month names.
+     *
+     * @return the month labels
+     */
+    public List<String> monthLabels() {
+        List<String> labels = new ArrayList<>(months());
+        for (int i = 0; i < months(); i++) {
+            labels.add(predictedNetCashflow.monthAt(i).getMonth() + " " + predictedNetCashflow.monthAt(i).getYear());
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,16 @@
+package org.vaadin.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The net worth and goal progress of a user on one day, as recorded by the
+ * daily snapshot.
+ *
+ * @param date        the day of the snapshot
+ * @param netWorth    the net worth of the user
+ * @param goalsSaved  the amount saved towards all goals
+ * @param goalsTarget the target amount of all goals
+ */
+public record NetWorthPoint(LocalDate date, BigDecimal netWorth, BigDecimal goalsSaved, BigDecimal goalsTarget) {
+}
@@ -1,9 +1,11 @@
 package org.vaadin.application.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
 import java.math.BigDecimal;
+import java.util.Date;
 
 /**
  * Entity representing an asset.
@@ -48,11 +50,20 @@ public class Asset {
     @DecimalMin(value = "0.0", inclusive = true)
     private BigDecimal interestRate;
 
+    /**
+     * The date on which the value was recorded. The interest rate compounds
+     * from this date. Set to the current date when the asset is saved without
+     * one.
+     */
+    @Temporal(TemporalType.DATE)
+    private Date valuedOn;
+
     /**
      * The user associated with the asset.
      * Cannot be null.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -148,6 +159,24 @@ public class Asset {
         this.interestRate = interestRate;
     }
 
+    /**
+     * Gets the date on which the value of the asset was recorded.
+     *
+     * @return the valuation date
+     */
+    public Date getValuedOn() {
+        return valuedOn;
+    }
+
+    /**
+     * Sets the date on which the value of the asset was recorded.
+     *
+     * @param valuedOn the valuation date to set
+     */
+    public void setValuedOn(Date valuedOn) {
+        this.valuedOn = valuedOn;
+    }
+
     /**
      * Gets the user associated with the asset.
      *
@@ -1,5 +1,7 @@
 package org.vaadin.application.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
@@ -10,6 +12,7 @@ import java.math.BigDecimal;
  * A budget is associated with a user and has a name and amount.
  */
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "budget")
 public class Budget {
     /**
@@ -38,7 +41,8 @@ public class Budget {
      * The user associated with the budget.
      * Cannot be null.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
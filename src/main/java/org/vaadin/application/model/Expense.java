@@ -1,5 +1,6 @@
 package org.vaadin.application.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
@@ -12,12 +13,25 @@ import java.util.Date;
  * Entity representing an expense.
  * An expense is associated with a user and may belong to an expense category.
  * It has a description, amount, and date.
+ * The associations are loaded lazily; queries that need the budget name the
+ * {@link #WITH_BUDGET} entity graph.
  */
 @Entity
 @Table(name = "expense")
+@NamedEntityGraph(name = Expense.WITH_BUDGET, attributeNodes = @NamedAttributeNode("budget"))
 public class Expense implements Serializable {
     /**
-     * The unique identifier for the expense.
+     * The entity graph that loads the budget together with the expense, used by
+     * the expense grid to show budget names.
+     */
+    public static final String WITH_BUDGET = "Expense.withBudget";
+
+    /**
+     * The unique identifier for the expense, assigned by the auto-increment
+     * column of the expense table. It is not a pooled or hi-lo generator: bulk
+     * imports insert rows with JDBC and rely on the same column, and MySQL has
+     * no sequences, so a pooled generator would need a table of its own that
+     * both paths reserve blocks from.
      */
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -50,7 +64,7 @@ public class Expense implements Serializable {
      * The category to which the expense belongs.
      * This is optional.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private ExpenseCategory category;
 
@@ -58,12 +72,13 @@ public class Expense implements Serializable {
      * The user who incurred the expense.
      * Cannot be null.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
     // New relationship to Budget
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "budget_id")
     private Budget budget;
 
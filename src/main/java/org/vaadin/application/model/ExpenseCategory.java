@@ -1,5 +1,7 @@
 package org.vaadin.application.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.util.Set;
@@ -10,6 +12,7 @@ import java.util.Set;
  * expenses.
  */
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "expense_category")
 public class ExpenseCategory {
     /**
@@ -30,7 +33,8 @@ public class ExpenseCategory {
      * The user associated with the expense category.
      * Cannot be null.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
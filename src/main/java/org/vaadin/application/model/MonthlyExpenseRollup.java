@@ -0,0 +1,90 @@
+package org.vaadin.application.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Entity representing the summed expenses of one user in one calendar month
+ * for one budget and category.
+ * The rows are maintained in the same transaction as the expenses they
+ * summarise, so monthly totals can be read from a handful of rows instead of
+ * scanning every expense.
+ */
+@Entity
+@Table(name = "monthly_expense_rollup")
+public class MonthlyExpenseRollup {
+    /**
+     * The user, month, budget and category the row summarises.
+     */
+    @EmbeddedId
+    private MonthlyExpenseRollupId id;
+
+    /**
+     * The sum of the amounts of the expenses in the bucket.
+     */
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    /**
+     * The number of expenses in the bucket.
+     */
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    // Getters and Setters
+
+    /**
+     * Gets the key of the bucket.
+     *
+     * @return the key of the bucket
+     */
+    public MonthlyExpenseRollupId getId() {
+        return id;
+    }
+
+    /**
+     * Sets the key of the bucket.
+     *
+     * @param id the key to set
+     */
+    public void setId(MonthlyExpenseRollupId id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the sum of the amounts of the expenses in the bucket.
+     *
+     * @return the total of the bucket
+     */
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    /**
+     * Sets the sum of the amounts of the expenses in the bucket.
+     *
+     * @param total the total to set
+     */
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    /**
+     * Gets the number of expenses in the bucket.
+     *
+     * @return the number of expenses
+     */
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    /**
+     * Sets the number of expenses in the bucket.
+     *
+     * @param expenseCount the number of expenses to set
+     */
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
@@ -0,0 +1,131 @@
+package org.vaadin.application.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Objects;
+
+import org.vaadin.application.util.MonthlySeries;
+
+/**
+ * Composite key of a {@link MonthlyExpenseRollup} row.
+ * A key identifies the expenses of one user in one calendar month that share
+ * the same budget and category. Expenses without a budget or category use
+ * {@link #NONE} instead, because key columns cannot be null.
+ */
+@Embeddable
+public class MonthlyExpenseRollupId implements Serializable {
+
+    /**
+     * The budget or category ID used for expenses without a budget or category.
+     */
+    public static final long NONE = 0L;
+
+    /**
+     * The ID of the user the expenses belong to.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The month of the expenses as an absolute month index, see
+     * {@link MonthlySeries#toIndex(YearMonth)}.
+     */
+    @Column(name = "month_index", nullable = false)
+    private Integer monthIndex;
+
+    /**
+     * The ID of the budget of the expenses, or {@link #NONE}.
+     */
+    @Column(name = "budget_id", nullable = false)
+    private Long budgetId;
+
+    /**
+     * The ID of the category of the expenses, or {@link #NONE}.
+     */
+    @Column(name = "category_id", nullable = false)
+    private Long categoryId;
+
+    /**
+     * Creates an empty key. Required by JPA.
+     */
+    protected MonthlyExpenseRollupId() {
+    }
+
+    /**
+     * Creates the key of the bucket an expense falls into.
+     *
+     * @param userId     the ID of the user
+     * @param date       the date of the expense
+     * @param budgetId   the ID of the budget, or null if the expense has none
+     * @param categoryId the ID of the category, or null if the expense has none
+     */
+    public MonthlyExpenseRollupId(Long userId, LocalDate date, Long budgetId, Long categoryId) {
+        this.userId = userId;
+        this.monthIndex = MonthlySeries.toIndex(YearMonth.from(date));
+        this.budgetId = budgetId != null ? budgetId : NONE;
+        this.categoryId = categoryId != null ? categoryId : NONE;
+    }
+
+    /**
+     * Gets the ID of the user.
+     *
+     * @return the ID of the user
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the month as an absolute month index.
+     *
+     * @return the month index
+     */
+    public Integer getMonthIndex() {
+        return monthIndex;
+    }
+
+    /**
+     * Gets the ID of the budget.
+     *
+     * @return the ID of the budget, or {@link #NONE}
+     */
+    public Long getBudgetId() {
+        return budgetId;
+    }
+
+    /**
+     * Gets the ID of the category.
+     *
+     * @return the ID of the category, or {@link #NONE}
+     */
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MonthlyExpenseRollupId other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId) && Objects.equals(monthIndex, other.monthIndex)
+                && Objects.equals(budgetId, other.budgetId) && Objects.equals(categoryId, other.categoryId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, monthIndex, budgetId, categoryId);
+    }
+
+    @Override
+    public String toString() {
+        return "MonthlyExpenseRollupId[userId=" + userId + ", monthIndex=" + monthIndex + ", budgetId=" + budgetId
+                + ", categoryId=" + categoryId + "]";
+    }
+}
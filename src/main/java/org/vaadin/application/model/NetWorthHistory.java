@@ -0,0 +1,91 @@
+package org.vaadin.application.model;
+
+import jakarta.persistence.*;
+
+import org.vaadin.application.util.NetWorthSeries;
+
+/**
+ * Entity representing the daily net worth snapshots of one user in one
+ * calendar year.
+ * The snapshots are stored delta encoded as written by
+ * {@link NetWorthSeries#encode(int)}, starting from the first day of the year.
+ */
+@Entity
+@Table(name = "net_worth_history")
+public class NetWorthHistory {
+
+    /**
+     * The largest number of bytes the snapshots of a year may take. A year of
+     * daily snapshots takes at most 366 times
+     * {@link NetWorthSeries#MAX_BYTES_PER_SNAPSHOT} bytes, which is below it.
+     */
+    public static final int MAX_SNAPSHOT_BYTES = 16384;
+
+    /**
+     * The user and year of the snapshots.
+     */
+    @EmbeddedId
+    private NetWorthHistoryId id;
+
+    /**
+     * The encoded snapshots.
+     */
+    @Column(nullable = false, length = MAX_SNAPSHOT_BYTES)
+    private byte[] snapshots;
+
+    /**
+     * Creates an empty row. Required by JPA.
+     */
+    protected NetWorthHistory() {
+    }
+
+    /**
+     * Creates a row without snapshots.
+     *
+     * @param id the user and year of the snapshots
+     */
+    public NetWorthHistory(NetWorthHistoryId id) {
+        this.id = id;
+        this.snapshots = new byte[0];
+    }
+
+    // Getters and Setters
+
+    /**
+     * Gets the user and year of the snapshots.
+     *
+     * @return the key of the row
+     */
+    public NetWorthHistoryId getId() {
+        return id;
+    }
+
+    /**
+     * Gets the encoded snapshots.
+     *
+     * @return the encoded snapshots
+     */
+    public byte[] getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Sets the encoded snapshots.
+     *
+     * @param snapshots the encoded snapshots to set
+     */
+    public void setSnapshots(byte[] snapshots) {
+        this.snapshots = snapshots;
+    }
+
+    /**
+     * Decodes the snapshots within a range of days and appends them to a series.
+     *
+     * @param series  the series to append to
+     * @param fromDay the first day of the range
+     * @param toDay   the last day of the range
+     */
+    public void decodeInto(NetWorthSeries series, int fromDay, int toDay) {
+        series.decode(snapshots, id.getFirstDay(), fromDay, toDay);
+    }
+}
@@ -0,0 +1,94 @@
+package org.vaadin.application.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Composite key of a {@link NetWorthHistory} row.
+ * A key identifies the snapshots of one user in one calendar year.
+ */
+@Embeddable
+public class NetWorthHistoryId implements Serializable {
+
+    /**
+     * The ID of the user the snapshots belong to.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * The calendar year of the snapshots.
+     */
+    @Column(name = "snapshot_year", nullable = false)
+    private Integer year;
+
+    /**
+     * Creates an empty key. Required by JPA.
+     */
+    protected NetWorthHistoryId() {
+    }
+
+    /**
+     * Creates the key of the year a snapshot falls into.
+     *
+     * @param userId the ID of the user
+     * @param date   the date of the snapshot
+     */
+    public NetWorthHistoryId(Long userId, LocalDate date) {
+        this.userId = userId;
+        this.year = date.getYear();
+    }
+
+    /**
+     * Gets the ID of the user.
+     *
+     * @return the ID of the user
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Gets the calendar year.
+     *
+     * @return the year
+     */
+    public Integer getYear() {
+        return year;
+    }
+
+    /**
+     * Gets the first day of the year, from which the snapshots of the year are
+     * encoded.
+     *
+     * @return the first day of the year as days since 1970-01-01
+     */
+    public int getFirstDay() {
+        return (int) LocalDate.of(year, 1, 1).toEpochDay();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof NetWorthHistoryId other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId) && Objects.equals(year, other.year);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, year);
+    }
+
+    @Override
+    public String toString() {
+        return "NetWorthHistoryId[userId=" + userId + ", year=" + year + "]";
+    }
+}
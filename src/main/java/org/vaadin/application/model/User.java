@@ -1,5 +1,6 @@
 package org.vaadin.application.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.util.Set;
@@ -11,6 +12,7 @@ import java.util.Set;
  * expense categories, financial goals, and incomes.
  */
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "user")
 public class User {
 
@@ -1,8 +1,13 @@
 package org.vaadin.application.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import org.vaadin.application.model.Budget;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -19,4 +24,18 @@ public interface BudgetRepository extends JpaRepository<Budget, Long> {
      * @return a list of budgets associated with the specified user ID
      */
     List<Budget> findByUserId(Long userId);
+
+    /**
+     * Atomically adds a delta to the current amount of a budget. The addition is
+     * done by the database in a single UPDATE statement, so concurrent calls on
+     * the same budget cannot overwrite each other.
+     *
+     * @param id    the ID of the budget to update
+     * @param delta the amount to add, negative to subtract
+     * @return the number of updated budgets, 0 if the budget does not exist
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Budget b SET b.currentAmount = COALESCE(b.currentAmount, 0) + :delta WHERE b.id = :id")
+    int adjustCurrentAmount(@Param("id") Long id, @Param("delta") BigDecimal delta);
 }
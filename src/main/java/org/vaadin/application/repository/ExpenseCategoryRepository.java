@@ -1,6 +1,9 @@
 package org.vaadin.application.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.vaadin.application.model.ExpenseCategory;
 
 import java.util.List;
@@ -19,4 +22,22 @@ public interface ExpenseCategoryRepository extends JpaRepository<ExpenseCategory
      * @return a list of expense categories associated with the specified user ID
      */
     List<ExpenseCategory> findByUserId(Long userId);
+
+    /**
+     * Finds one page of a user's expense categories, newest category first.
+     *
+     * @param userId   the ID of the user whose expense categories are to be retrieved
+     * @param pageable the page to retrieve
+     * @return the expense categories on the page
+     */
+    @Query("SELECT c FROM ExpenseCategory c WHERE c.user.id = :userId ORDER BY c.id DESC")
+    List<ExpenseCategory> findPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Counts the expense categories associated with a specific user ID.
+     *
+     * @param userId the ID of the user whose expense categories are to be counted
+     * @return the number of expense categories of the user
+     */
+    long countByUserId(Long userId);
 }
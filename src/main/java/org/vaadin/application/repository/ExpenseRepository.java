@@ -1,13 +1,23 @@
 package org.vaadin.application.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.vaadin.application.dto.BudgetExpenseTotal;
+import org.vaadin.application.dto.ExpenseLine;
 import org.vaadin.application.model.Expense;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link Expense} entities.
@@ -16,6 +26,11 @@ import java.util.List;
  */
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
+    /**
+     * The number of rows fetched per round trip when streaming expenses.
+     */
+    String STREAM_FETCH_SIZE = "500";
+
     /**
      * Finds a list of expenses associated with a specific user ID.
      *
@@ -24,6 +39,60 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     List<Expense> findByUserId(Long userId);
 
+    /**
+     * Finds one page of expenses associated with a specific user ID, together
+     * with their budgets.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param pageable the page to retrieve, including its sort order
+     * @return the expenses on the requested page
+     */
+    @EntityGraph(Expense.WITH_BUDGET)
+    List<Expense> findByUserId(Long userId, Pageable pageable);
+
+    /**
+     * Counts the expenses associated with a specific user ID.
+     *
+     * @param userId the ID of the user whose expenses are to be counted
+     * @return the number of expenses of the user
+     */
+    long countByUserId(Long userId);
+
+    /**
+     * Finds the expenses of a user that come directly before a position in
+     * descending (date, id) order. Only the requested number of rows is read, no
+     * matter how deep into the ledger the position is.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param date     the date of the last expense of the previous page
+     * @param id       the ID of the last expense of the previous page
+     * @param pageable the number of expenses to retrieve
+     * @return the next expenses, newest first
+     */
+    @EntityGraph(Expense.WITH_BUDGET)
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId "
+            + "AND (e.date < :date OR (e.date = :date AND e.id < :id)) "
+            + "ORDER BY e.date DESC, e.id DESC")
+    List<Expense> findByUserIdBefore(@Param("userId") Long userId, @Param("date") Date date,
+            @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the expenses of a user that come directly after a position in
+     * ascending (date, id) order.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param date     the date of the last expense of the previous page
+     * @param id       the ID of the last expense of the previous page
+     * @param pageable the number of expenses to retrieve
+     * @return the next expenses, oldest first
+     */
+    @EntityGraph(Expense.WITH_BUDGET)
+    @Query("SELECT e FROM Expense e WHERE e.user.id = :userId "
+            + "AND (e.date > :date OR (e.date = :date AND e.id > :id)) "
+            + "ORDER BY e.date ASC, e.id ASC")
+    List<Expense> findByUserIdAfter(@Param("userId") Long userId, @Param("date") Date date,
+            @Param("id") Long id, Pageable pageable);
+
     /**
      * Calculates the total expenses for a user within a specific period.
      *
@@ -54,6 +123,40 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     List<Expense> findByBudgetId(Long budgetId);
 
+    /**
+     * Sums the expenses of a category grouped by budget.
+     *
+     * @param categoryId the ID of the category whose expenses are to be summed
+     * @return one total per budget of the category's expenses; expenses without
+     *         a budget are summed under a {@code null} budget ID
+     */
+    @Query("SELECT new org.vaadin.application.dto.BudgetExpenseTotal(b.id, SUM(e.amount)) "
+            + "FROM Expense e LEFT JOIN e.budget b "
+            + "WHERE e.category.id = :categoryId "
+            + "GROUP BY b.id")
+    List<BudgetExpenseTotal> sumTotalsByBudgetForCategory(@Param("categoryId") Long categoryId);
+
+    /**
+     * Deletes all expenses of a category with a single statement.
+     *
+     * @param categoryId the ID of the category whose expenses are to be deleted
+     * @return the number of deleted expenses
+     */
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.category.id = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Removes a budget from all its expenses with a single statement, leaving
+     * them without a budget.
+     *
+     * @param budgetId the ID of the budget to remove from its expenses
+     * @return the number of changed expenses
+     */
+    @Modifying
+    @Query("UPDATE Expense e SET e.budget = null WHERE e.budget.id = :budgetId")
+    int clearBudget(@Param("budgetId") Long budgetId);
+
 
     /**
      * Finds a list of all the types of budgets associated with a user's expenses
@@ -62,4 +165,86 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      */
     @Query("SELECT DISTINCT e.budget.name FROM Expense e WHERE e.user.id = :userId")
     List<String> getDistinctBudgets(@Param("userId") Long userId);
+
+    /**
+     * Finds the newest expense lines of a user.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param pageable the number of lines to retrieve
+     * @return the newest expense lines, newest first
+     */
+    @Query("SELECT new org.vaadin.application.dto.ExpenseLine(e.id, e.description, e.amount, e.date, b.id, b.name) "
+            + "FROM Expense e LEFT JOIN e.budget b "
+            + "WHERE e.user.id = :userId "
+            + "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseLine> findLinesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Finds the expense lines of a user that come directly before a position in
+     * descending (date, id) order.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param date     the date of the last expense of the previous page
+     * @param id       the ID of the last expense of the previous page
+     * @param pageable the number of lines to retrieve
+     * @return the next expense lines, newest first
+     */
+    @Query("SELECT new org.vaadin.application.dto.ExpenseLine(e.id, e.description, e.amount, e.date, b.id, b.name) "
+            + "FROM Expense e LEFT JOIN e.budget b "
+            + "WHERE e.user.id = :userId AND (e.date < :date OR (e.date = :date AND e.id < :id)) "
+            + "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseLine> findLinesByUserIdBefore(@Param("userId") Long userId, @Param("date") Date date,
+            @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the expense lines of a user that come directly after a position in
+     * ascending (date, id) order.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param date     the date of the last expense of the previous page
+     * @param id       the ID of the last expense of the previous page
+     * @param pageable the number of lines to retrieve
+     * @return the next expense lines, oldest first
+     */
+    @Query("SELECT new org.vaadin.application.dto.ExpenseLine(e.id, e.description, e.amount, e.date, b.id, b.name) "
+            + "FROM Expense e LEFT JOIN e.budget b "
+            + "WHERE e.user.id = :userId AND (e.date > :date OR (e.date = :date AND e.id > :id)) "
+            + "ORDER BY e.date ASC, e.id ASC")
+    List<ExpenseLine> findLinesByUserIdAfter(@Param("userId") Long userId, @Param("date") Date date,
+            @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds one page of expense lines of a user in the sort order of the page.
+     * Sort properties refer to the expense as {@code e} and to its budget as
+     * {@code b}, for example {@code b.name}.
+     *
+     * @param userId   the ID of the user whose expenses are to be retrieved
+     * @param pageable the page to retrieve, including its sort order
+     * @return the expense lines on the page
+     */
+    @Query("SELECT new org.vaadin.application.dto.ExpenseLine(e.id, e.description, e.amount, e.date, b.id, b.name) "
+            + "FROM Expense e LEFT JOIN e.budget b "
+            + "WHERE e.user.id = :userId")
+    List<ExpenseLine> findLinePageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Streams all expense lines of a user, newest first. Rows are read from a
+     * cursor {@link #STREAM_FETCH_SIZE} at a time, so the ledger is never held in
+     * memory as a whole. The stream must be consumed and closed inside a
+     * transaction. With MySQL the fetch size relies on {@code useCursorFetch=true},
+     * which is set on the datasource in {@code application.properties}.
+     *
+     * @param userId the ID of the user whose expenses are to be streamed
+     * @return a stream of the user's expense lines
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new org.vaadin.application.dto.ExpenseLine(e.id, e.description, e.amount, e.date, b.id, b.name) "
+            + "FROM Expense e LEFT JOIN e.budget b "
+            + "WHERE e.user.id = :userId "
+            + "ORDER BY e.date DESC, e.id DESC")
+    Stream<ExpenseLine> streamLinesByUserId(@Param("userId") Long userId);
 }
@@ -1,6 +1,9 @@
 package org.vaadin.application.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.vaadin.application.dto.GoalProgress;
 import org.vaadin.application.model.FinancialGoal;
 
 import java.util.List;
@@ -19,4 +22,14 @@ public interface FinancialGoalRepository extends JpaRepository<FinancialGoal, Lo
      * @return a list of financial goals associated with the specified user ID
      */
     List<FinancialGoal> findByUserId(Long userId);
+
+    /**
+     * Sums the saved and target amounts of all financial goals of a user.
+     *
+     * @param userId the ID of the user whose goals are to be summed
+     * @return the progress of all goals, with zero amounts if there are none
+     */
+    @Query("SELECT new org.vaadin.application.dto.GoalProgress(COALESCE(SUM(g.amountSaved), 0), "
+            + "COALESCE(SUM(g.targetAmount), 0)) FROM FinancialGoal g WHERE g.user.id = :userId")
+    GoalProgress sumProgressByUserId(@Param("userId") Long userId);
 }
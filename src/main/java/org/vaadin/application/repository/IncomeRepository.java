@@ -1,12 +1,12 @@
 package org.vaadin.application.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.vaadin.application.dto.IncomeLine;
 import org.vaadin.application.model.Income;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -25,14 +25,33 @@ public interface IncomeRepository extends JpaRepository<Income, Long> {
     List<Income> findByUserId(Long userId);
 
     /**
-     * Calculates the total income for a user within a specific period.
+     * Finds the income lines of a user, newest first.
      *
-     * @param userId    the ID of the user whose total income is to be calculated
-     * @param startDate the start date of the period
-     * @param endDate   the end date of the period
-     * @return the total amount of income for the specified user within the period
+     * @param userId the ID of the user whose incomes are to be retrieved
+     * @return the income lines of the user
+     */
+    @Query("SELECT new org.vaadin.application.dto.IncomeLine(i.id, i.source, i.amount, i.date, i.paymentFrequency) "
+            + "FROM Income i WHERE i.user.id = :userId "
+            + "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeLine> findLinesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Finds one page of the income lines of a user, newest first.
+     *
+     * @param userId   the ID of the user whose incomes are to be retrieved
+     * @param pageable the page to retrieve
+     * @return the income lines on the page
+     */
+    @Query("SELECT new org.vaadin.application.dto.IncomeLine(i.id, i.source, i.amount, i.date, i.paymentFrequency) "
+            + "FROM Income i WHERE i.user.id = :userId "
+            + "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeLine> findLinesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Counts the incomes associated with a specific user ID.
+     *
+     * @param userId the ID of the user whose incomes are to be counted
+     * @return the number of incomes of the user
      */
-    @Query("SELECT SUM(i.amount) FROM Income i WHERE i.user.id = :userId AND i.date BETWEEN :startDate AND :endDate")
-    BigDecimal findTotalIncomeForPeriod(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+    long countByUserId(Long userId);
 }
@@ -0,0 +1,178 @@
+package org.vaadin.application.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.vaadin.application.dto.BudgetExpenseTotal;
+import org.vaadin.application.dto.MonthlyExpenseTotal;
+import org.vaadin.application.model.MonthlyExpenseRollup;
+import org.vaadin.application.model.MonthlyExpenseRollupId;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link MonthlyExpenseRollup} entities.
+ * Reads are served from one row per (user, month, budget, category) bucket, so
+ * their cost grows with the number of months rather than the number of
+ * expenses. Months are absolute month indexes as used by
+ * {@link org.vaadin.application.util.MonthlySeries}.
+ */
+public interface MonthlyExpenseRollupRepository extends JpaRepository<MonthlyExpenseRollup, MonthlyExpenseRollupId> {
+
+    /**
+     * Adds an amount and a number of expenses to a bucket, creating the bucket if
+     * it does not exist yet. The statement is applied atomically by the database,
+     * so concurrent writes to the same bucket do not overwrite each other.
+     *
+     * @param userId     the ID of the user
+     * @param monthIndex the absolute month index
+     * @param budgetId   the ID of the budget, or {@link MonthlyExpenseRollupId#NONE}
+     * @param categoryId the ID of the category, or {@link MonthlyExpenseRollupId#NONE}
+     * @param amount     the amount to add, negative to subtract
+     * @param count      the number of expenses to add, negative to subtract
+     * @return the number of affected rows as reported by the database
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_expense_rollup "
+            + "(user_id, month_index, budget_id, category_id, total, expense_count) "
+            + "VALUES (:userId, :monthIndex, :budgetId, :categoryId, :amount, :count) "
+            + "ON DUPLICATE KEY UPDATE total = total + VALUES(total), "
+            + "expense_count = expense_count + VALUES(expense_count)", nativeQuery = true)
+    int addToBucket(@Param("userId") Long userId, @Param("monthIndex") int monthIndex,
+            @Param("budgetId") long budgetId, @Param("categoryId") long categoryId,
+            @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    /**
+     * Sums a user's expenses within a range of months, grouped by month and
+     * budget name.
+     *
+     * @param userId     the ID of the user whose expenses are to be summed
+     * @param firstMonth the first month index of the range (inclusive)
+     * @param lastMonth  the last month index of the range (inclusive)
+     * @return one total per (month, budget) bucket that has expenses; expenses
+     *         without a budget have a {@code null} budget name
+     */
+    @Query("SELECT new org.vaadin.application.dto.MonthlyExpenseTotal(r.id.monthIndex, b.name, SUM(r.total)) "
+            + "FROM MonthlyExpenseRollup r LEFT JOIN Budget b ON b.id = r.id.budgetId "
+            + "WHERE r.id.userId = :userId AND r.id.monthIndex BETWEEN :firstMonth AND :lastMonth "
+            + "AND r.expenseCount > 0 "
+            + "GROUP BY r.id.monthIndex, b.name")
+    List<MonthlyExpenseTotal> sumMonthlyTotalsByBudget(@Param("userId") Long userId,
+            @Param("firstMonth") int firstMonth, @Param("lastMonth") int lastMonth);
+
+    /**
+     * Sums a user's expenses within a range of months.
+     *
+     * @param userId     the ID of the user whose expenses are to be summed
+     * @param firstMonth the first month index of the range (inclusive)
+     * @param lastMonth  the last month index of the range (inclusive)
+     * @return the total amount of the expenses, 0 if there are none
+     */
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM MonthlyExpenseRollup r "
+            + "WHERE r.id.userId = :userId AND r.id.monthIndex BETWEEN :firstMonth AND :lastMonth")
+    BigDecimal sumTotalForMonths(@Param("userId") Long userId, @Param("firstMonth") int firstMonth,
+            @Param("lastMonth") int lastMonth);
+
+    /**
+     * Sums all expenses of a user.
+     *
+     * @param userId the ID of the user whose expenses are to be summed
+     * @return the total amount of all expenses of the user, 0 if there are none
+     */
+    @Query("SELECT COALESCE(SUM(r.total), 0) FROM MonthlyExpenseRollup r WHERE r.id.userId = :userId")
+    BigDecimal sumTotalByUserId(@Param("userId") Long userId);
+
+    /**
+     * Sums a user's expenses grouped by budget. Expenses without a budget are not
+     * included.
+     *
+     * @param userId the ID of the user whose expenses are to be summed
+     * @return one total per budget that has expenses
+     */
+    @Query("SELECT new org.vaadin.application.dto.BudgetExpenseTotal(r.id.budgetId, SUM(r.total)) "
+            + "FROM MonthlyExpenseRollup r "
+            + "WHERE r.id.userId = :userId AND r.id.budgetId <> "
+            + MonthlyExpenseRollupId.NONE + " AND r.expenseCount > 0 "
+            + "GROUP BY r.id.budgetId")
+    List<BudgetExpenseTotal> sumTotalsByBudget(@Param("userId") Long userId);
+
+    /**
+     * Deletes the buckets of a user.
+     *
+     * @param userId the ID of the user whose buckets are to be deleted
+     * @return the number of deleted buckets
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyExpenseRollup r WHERE r.id.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes the buckets of a category. Every expense of the category falls into
+     * one of them, so this removes exactly the category's expenses from the
+     * rollup.
+     *
+     * @param userId     the ID of the user owning the category
+     * @param categoryId the ID of the category whose buckets are to be deleted
+     * @return the number of deleted buckets
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyExpenseRollup r WHERE r.id.userId = :userId AND r.id.categoryId = :categoryId")
+    int deleteByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
+    /**
+     * Finds the buckets of a budget.
+     *
+     * @param userId   the ID of the user owning the budget
+     * @param budgetId the ID of the budget whose buckets are to be found
+     * @return the buckets of the budget
+     */
+    @Query("SELECT r FROM MonthlyExpenseRollup r WHERE r.id.userId = :userId AND r.id.budgetId = :budgetId")
+    List<MonthlyExpenseRollup> findByUserIdAndBudgetId(@Param("userId") Long userId,
+            @Param("budgetId") Long budgetId);
+
+    /**
+     * Deletes the buckets of a budget.
+     *
+     * @param userId   the ID of the user owning the budget
+     * @param budgetId the ID of the budget whose buckets are to be deleted
+     * @return the number of deleted buckets
+     */
+    @Modifying
+    @Query("DELETE FROM MonthlyExpenseRollup r WHERE r.id.userId = :userId AND r.id.budgetId = :budgetId")
+    int deleteByUserIdAndBudgetId(@Param("userId") Long userId, @Param("budgetId") Long budgetId);
+
+    /**
+     * Fills the buckets of all users from the expense table. Existing buckets
+     * must be deleted first.
+     *
+     * @return the number of created buckets
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_expense_rollup "
+            + "(user_id, month_index, budget_id, category_id, total, expense_count) "
+            + "SELECT e.user_id, YEAR(e.date) * 12 + MONTH(e.date) - 1, COALESCE(e.budget_id, 0), "
+            + "COALESCE(e.category_id, 0), SUM(e.amount), COUNT(*) "
+            + "FROM expense e "
+            + "GROUP BY e.user_id, YEAR(e.date) * 12 + MONTH(e.date) - 1, COALESCE(e.budget_id, 0), "
+            + "COALESCE(e.category_id, 0)", nativeQuery = true)
+    int insertFromExpenses();
+
+    /**
+     * Fills the buckets of a user from the expense table. Existing buckets of the
+     * user must be deleted first.
+     *
+     * @param userId the ID of the user whose buckets are to be filled
+     * @return the number of created buckets
+     */
+    @Modifying
+    @Query(value = "INSERT INTO monthly_expense_rollup "
+            + "(user_id, month_index, budget_id, category_id, total, expense_count) "
+            + "SELECT e.user_id, YEAR(e.date) * 12 + MONTH(e.date) - 1, COALESCE(e.budget_id, 0), "
+            + "COALESCE(e.category_id, 0), SUM(e.amount), COUNT(*) "
+            + "FROM expense e WHERE e.user_id = :userId "
+            + "GROUP BY e.user_id, YEAR(e.date) * 12 + MONTH(e.date) - 1, COALESCE(e.budget_id, 0), "
+            + "COALESCE(e.category_id, 0)", nativeQuery = true)
+    int insertFromExpensesOfUser(@Param("userId") Long userId);
+}
@@ -0,0 +1,31 @@
+package org.vaadin.application.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.vaadin.application.model.NetWorthHistory;
+import org.vaadin.application.model.NetWorthHistoryId;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link NetWorthHistory} entities.
+ * Every row holds a year of snapshots, so a range of years is read from
+ * consecutive entries of the primary key.
+ */
+public interface NetWorthHistoryRepository extends JpaRepository<NetWorthHistory, NetWorthHistoryId> {
+
+    /**
+     * Finds the snapshots of a user within a range of years.
+     *
+     * @param userId    the ID of the user
+     * @param firstYear the first year of the range (inclusive)
+     * @param lastYear  the last year of the range (inclusive)
+     * @return one row per year that has snapshots, in ascending order of years
+     */
+    @Query("SELECT h FROM NetWorthHistory h "
+            + "WHERE h.id.userId = :userId AND h.id.year BETWEEN :firstYear AND :lastYear "
+            + "ORDER BY h.id.year")
+    List<NetWorthHistory> findByUserIdAndYears(@Param("userId") Long userId, @Param("firstYear") int firstYear,
+            @Param("lastYear") int lastYear);
+}
@@ -1,8 +1,11 @@
 package org.vaadin.application.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.vaadin.application.model.User;
 
+import java.util.List;
+
 /**
  * Repository interface for managing {@link User} entities.
  * This interface extends {@link JpaRepository}, providing CRUD operations and
@@ -17,4 +20,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return the user with the specified name, or null if no user is found
      */
     User findByName(String name);
+
+    /**
+     * Finds the IDs of all users without loading them.
+     *
+     * @return the IDs of all users in ascending order
+     */
+    @Query("SELECT u.id FROM User u ORDER BY u.id")
+    List<Long> findAllIds();
 }
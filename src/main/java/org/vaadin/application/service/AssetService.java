@@ -1,11 +1,14 @@
 package org.vaadin.application.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.vaadin.application.model.Asset;
 import org.vaadin.application.repository.AssetRepository;
+import org.vaadin.application.util.MonthlySeries;
 
 /**
  * Service class for managing asset-related operations. This class interacts
@@ -18,6 +21,9 @@ public class AssetService {
   @Autowired
   private AssetRepository assetRepository;
 
+  @Autowired
+  private AssetValuationService assetValuationService;
+
   /**
    * Retrieves a list of assets associated with a specific user ID.
    *
@@ -29,13 +35,19 @@ public class AssetService {
   }
 
   /**
-   * Adds a new asset to the repository.
+   * Adds a new asset to the repository. An asset without a valuation date is
+   * valued on the current date.
    *
    * @param asset the asset object to be added
    * @return the newly added asset object
    */
   public Asset addAsset(Asset asset) {
-    return assetRepository.save(asset);
+    if (asset.getValuedOn() == null) {
+      asset.setValuedOn(java.sql.Date.valueOf(LocalDate.now()));
+    }
+    Asset savedAsset = assetRepository.save(asset);
+    assetValuationService.assetsChanged(savedAsset.getUser().getId());
+    return savedAsset;
   }
 
   /**
@@ -49,46 +61,72 @@ public class AssetService {
   }
 
   /**
-   * Deletes an asset by its ID.
+   * Deletes an asset by its ID. Nothing happens if the asset does not exist.
    *
    * @param id the ID of the asset to be deleted
    */
   public void deleteAsset(Long id) {
-    assetRepository.deleteById(id);
+    assetRepository.findById(id).ifPresent(asset -> {
+      assetRepository.delete(asset);
+      assetValuationService.assetsChanged(asset.getUser().getId());
+    });
   }
 
   /**
-   * Calculates the total value of the user's assets from the previous year. This
-   * method is not yet
-   * implemented.
+   * Calculates the total value of the user's assets one year ago, with the
+   * interest of every asset compounded back from the date its value was
+   * recorded.
    *
    * @param userId the ID of the user whose total assets are to be calculated
-   * @return the total value of the user's assets from the previous year
-   * @throws UnsupportedOperationException if the method is not yet implemented
+   * @return the total value of the user's assets one year ago
    */
   public BigDecimal getTotalAssetsLastYear(Long userId) {
-    // TODO Auto-generated method stub
-    throw new UnsupportedOperationException("Unimplemented method 'getTotalAssetsLastYear'");
+    return getTotalAssets(userId, LocalDate.now().minusYears(1));
   }
 
   /**
-   * Calculates the current total value of the user's assets. This method is not
-   * yet implemented.
+   * Calculates the current total value of the user's assets, with the interest
+   * of every asset compounded since the date its value was recorded.
    *
    * @param userId the ID of the user whose current total assets are to be
    *               calculated
    * @return the current total value of the user's assets
-   * @throws UnsupportedOperationException if the method is not yet implemented
    */
   public BigDecimal getTotalAssetsCurrent(Long userId) {
-    // TODO Auto-generated method stub
-    throw new UnsupportedOperationException("Unimplemented method 'getTotalAssetsCurrent'");
+    return getTotalAssets(userId, LocalDate.now());
+  }
+
+  /**
+   * Calculates the total value of the user's assets on any date, see
+   * {@link AssetValuationService#getTotalValue(Long, LocalDate)}.
+   *
+   * @param userId the ID of the user whose total assets are to be calculated
+   * @param asOf   the date to value the assets on
+   * @return the total value of the user's assets on that date
+   */
+  public BigDecimal getTotalAssets(Long userId, LocalDate asOf) {
+    return assetValuationService.getTotalValue(userId, asOf);
+  }
+
+  /**
+   * Projects the total value of the user's assets on the first day of each of a
+   * number of months, see
+   * {@link AssetValuationService#getProjection(Long, YearMonth, int)}.
+   *
+   * @param userId     the ID of the user whose assets are projected
+   * @param firstMonth the first month of the projection
+   * @param months     the number of months to project
+   * @return the projected total values per month
+   */
+  public MonthlySeries getAssetProjection(Long userId, YearMonth firstMonth, int months) {
+    return assetValuationService.getProjection(userId, firstMonth, months);
   }
 
   /**
    * Updates an existing asset with new information. If the asset exists, its
    * details will be
-   * updated and saved.
+   * updated and saved. A new value or interest rate is valued on the given
+   * valuation date, or on the current date if none is given.
    *
    * @param updatedAsset the asset object containing the updated information
    * @return the updated asset if the asset was found and updated, or {@code null}
@@ -99,15 +137,31 @@ public class AssetService {
     // Find the existing asset by ID
     Asset existingAsset = findAssetById(updatedAsset.getId());
     if (existingAsset != null) {
+      boolean revalued = differs(existingAsset.getValue(), updatedAsset.getValue())
+          || differs(existingAsset.getInterestRate(), updatedAsset.getInterestRate())
+          || updatedAsset.getValuedOn() != null;
       // Update the details of the existing asset
       existingAsset.setName(updatedAsset.getName());
       existingAsset.setValue(updatedAsset.getValue());
       existingAsset.setCategory(updatedAsset.getCategory());
       existingAsset.setInterestRate(updatedAsset.getInterestRate());
+      if (revalued) {
+        existingAsset.setValuedOn(updatedAsset.getValuedOn() != null ? updatedAsset.getValuedOn()
+            : java.sql.Date.valueOf(LocalDate.now()));
+      }
 
       // Save the updated asset to the repository
-      return assetRepository.save(existingAsset);
+      Asset savedAsset = assetRepository.save(existingAsset);
+      assetValuationService.assetsChanged(savedAsset.getUser().getId());
+      return savedAsset;
     }
     return null; // Return null if the asset does not exist
   }
+
+  private static boolean differs(BigDecimal amount, BigDecimal otherAmount) {
+    if (amount == null || otherAmount == null) {
+      return amount != otherAmount;
+    }
+    return amount.compareTo(otherAmount) != 0;
+  }
 }
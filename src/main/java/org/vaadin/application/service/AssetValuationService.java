@@ -0,0 +1,222 @@
+package org.vaadin.application.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.model.Asset;
+import org.vaadin.application.repository.AssetRepository;
+import org.vaadin.application.util.AssetValuation;
+import org.vaadin.application.util.LongTotals;
+import org.vaadin.application.util.MoneyCents;
+import org.vaadin.application.util.MonthlySeries;
+
+/**
+ * Service class valuing the assets of a user on any date, with the interest
+ * rate of every asset compounding from the date its value was recorded, see
+ * {@link AssetValuation}.
+ *
+ * <p>
+ * Every user's assets have a version, which {@link AssetService} increments
+ * whenever it writes one of them. The assets of recently valued users are kept
+ * in memory together with their version, and so are the totals and
+ * projections calculated from them, so each total is only calculated once per
+ * user, asset version and date. A write discards the user's assets and results
+ * once its transaction has committed.
+ * </p>
+ */
+@Service
+public class AssetValuationService {
+
+    /**
+     * The number of users whose assets are kept in memory.
+     */
+    static final int MAX_CACHED_USERS = 1_000;
+
+    /**
+     * The number of totals and projections kept per user; more are calculated
+     * but not kept.
+     */
+    static final int MAX_RESULTS_PER_USER = 400;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    /**
+     * The valued assets in access order, guarded by synchronizing on the map.
+     */
+    private final LinkedHashMap<Long, Portfolio> portfolios = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Portfolio> eldest) {
+            return size() > MAX_CACHED_USERS;
+        }
+    };
+
+    /**
+     * The asset version of every user whose assets were written since the
+     * start, guarded by {@link #portfolios}. Users without an entry are at
+     * version 0.
+     */
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    /**
+     * Calculates the total value of a user's assets on a date.
+     *
+     * @param userId the ID of the user
+     * @param asOf   the date to value the assets on
+     * @return the total value
+     */
+    public BigDecimal getTotalValue(Long userId, LocalDate asOf) {
+        Portfolio portfolio = getPortfolio(userId);
+        int day = (int) asOf.toEpochDay();
+        Long totalCents;
+        synchronized (portfolio) {
+            totalCents = portfolio.totals.get(day);
+        }
+        if (totalCents == null) {
+            totalCents = portfolio.valuation.valueAt(day);
+            synchronized (portfolio) {
+                if (portfolio.results() < MAX_RESULTS_PER_USER) {
+                    portfolio.totals.put(day, totalCents);
+                }
+            }
+        }
+        return MoneyCents.toBigDecimal(totalCents);
+    }
+
+    /**
+     * Projects the total value of a user's assets on the first day of each of a
+     * number of months.
+     *
+     * @param userId     the ID of the user
+     * @param firstMonth the first month of the projection
+     * @param months     the number of months to project
+     * @return the projected values, which the caller may change
+     */
+    public MonthlySeries getProjection(Long userId, YearMonth firstMonth, int months) {
+        Portfolio portfolio = getPortfolio(userId);
+        long key = LongTotals.key(MonthlySeries.toIndex(firstMonth), months);
+        MonthlySeries projection;
+        synchronized (portfolio) {
+            projection = portfolio.projections.get(key);
+        }
+        if (projection == null) {
+            projection = new MonthlySeries(firstMonth, months);
+            portfolio.valuation.setMonthStartValues(projection);
+            projection.freeze();
+            synchronized (portfolio) {
+                if (portfolio.results() < MAX_RESULTS_PER_USER) {
+                    portfolio.projections.put(key, projection);
+                }
+            }
+        }
+        return projection.copy();
+    }
+
+    /**
+     * Reports that assets of a user were added, changed or removed. The cached
+     * valuation of the user is discarded once the current transaction has
+     * committed, or immediately outside of a transaction.
+     *
+     * @param userId the ID of the user
+     */
+    public void assetsChanged(Long userId) {
+        afterCommit(() -> {
+            synchronized (portfolios) {
+                versions.merge(userId, 1L, Long::sum);
+                portfolios.remove(userId);
+            }
+        });
+    }
+
+    /**
+     * Gets the asset version of a user.
+     *
+     * @param userId the ID of the user
+     * @return the number of committed asset writes of the user since the start
+     */
+    public long getVersion(Long userId) {
+        synchronized (portfolios) {
+            return versions.getOrDefault(userId, 0L);
+        }
+    }
+
+    /**
+     * Gets the valued assets of a user, loading them if they are not cached or
+     * were written since.
+     *
+     * @param userId the ID of the user
+     * @return the valued assets
+     */
+    private Portfolio getPortfolio(Long userId) {
+        long version;
+        synchronized (portfolios) {
+            version = versions.getOrDefault(userId, 0L);
+            Portfolio portfolio = portfolios.get(userId);
+            if (portfolio != null && portfolio.version == version) {
+                return portfolio;
+            }
+        }
+
+        List<Asset> assets = assetRepository.findByUserId(userId);
+        AssetValuation valuation = new AssetValuation(assets.size());
+        int today = (int) LocalDate.now().toEpochDay();
+        for (Asset asset : assets) {
+            LocalDate valuedOn = ExpenseCursor.toLocalDate(asset.getValuedOn());
+            valuation.add(MoneyCents.of(asset.getValue()), valuedOn != null ? (int) valuedOn.toEpochDay() : today,
+                    asset.getInterestRate());
+        }
+        Portfolio portfolio = new Portfolio(version, valuation);
+
+        synchronized (portfolios) {
+            // Assets written while loading are at a newer version, whose
+            // portfolio is loaded by the next call
+            if (versions.getOrDefault(userId, 0L) == version) {
+                portfolios.put(userId, portfolio);
+            }
+        }
+        return portfolio;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    /**
+     * The assets of a user at one version and the results calculated from them,
+     * guarded by synchronizing on the portfolio.
+     */
+    private static final class Portfolio {
+
+        private final long version;
+        private final AssetValuation valuation;
+        private final Map<Integer, Long> totals = new HashMap<>();
+        private final Map<Long, MonthlySeries> projections = new HashMap<>();
+
+        private Portfolio(long version, AssetValuation valuation) {
+            this.version = version;
+            this.valuation = valuation;
+        }
+
+        private int results() {
+            return totals.size() + projections.size();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package org.vaadin.application.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.vaadin.application.dto.LedgerEvent;
+import org.vaadin.application.dto.LedgerEvent.BudgetChanged;
+import org.vaadin.application.dto.LedgerEvent.Change;
 import org.vaadin.application.model.Budget;
 import org.vaadin.application.repository.BudgetRepository;
 
@@ -11,7 +15,9 @@ import java.util.List;
 /**
  * Service class for managing budget-related operations.
  * This class interacts with the {@link BudgetRepository} to perform CRUD
- * operations on {@link Budget} entities.
+ * operations on {@link Budget} entities. Budgets are deleted through
+ * {@link LedgerWriteService}, which also updates their expenses. Added and
+ * deleted budgets are published as {@link LedgerEvent}s.
  */
 @Service
 public class BudgetService {
@@ -19,6 +25,12 @@ public class BudgetService {
     @Autowired
     private BudgetRepository budgetRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
     /**
      * Retrieves a list of budgets associated with a specific user ID.
      *
@@ -36,7 +48,10 @@ public class BudgetService {
      * @return the newly added budget object
      */
     public Budget addBudget(Budget budget) {
-        return budgetRepository.save(budget);
+        Budget savedBudget = budgetRepository.save(budget);
+        eventPublisher.publishEvent(new BudgetChanged(savedBudget.getUser().getId(), Change.ADDED,
+                savedBudget.getId()));
+        return savedBudget;
     }
 
     /**
@@ -50,39 +65,34 @@ public class BudgetService {
     }
 
     /**
-     * Deletes a budget by its ID.
+     * Deletes a budget by its ID. Its expenses are kept without a budget, see
+     * {@link LedgerWriteService#removeBudget(Long)}.
      *
      * @param id the ID of the budget to be deleted
      */
     public void deleteBudget(Long id) {
-        budgetRepository.deleteById(id);
+        ledgerWriteService.removeBudget(id);
     }
 
     /**
-     * Increases the current amount of a budget.
+     * Increases the current amount of a budget. The update is applied atomically
+     * in the database, so concurrent changes to the same budget are not lost.
      *
      * @param budgetId the ID of the budget to update
      * @param amount   the amount to add to the current amount
      */
     public void increaseCurrentAmount(Long budgetId, BigDecimal amount) {
-        Budget budget = findBudgetById(budgetId);
-        if (budget != null) {
-            budget.setCurrentAmount(budget.getCurrentAmount().add(amount));
-            budgetRepository.save(budget);
-        }
+        budgetRepository.adjustCurrentAmount(budgetId, amount);
     }
 
     /**
-     * Decreases the current amount of a budget.
+     * Decreases the current amount of a budget. The update is applied atomically
+     * in the database, so concurrent changes to the same budget are not lost.
      *
      * @param budgetId the ID of the budget to update
      * @param amount   the amount to subtract from the current amount
      */
     public void decreaseCurrentAmount(Long budgetId, BigDecimal amount) {
-        Budget budget = findBudgetById(budgetId);
-        if (budget != null) {
-            budget.setCurrentAmount(budget.getCurrentAmount().subtract(amount));
-            budgetRepository.save(budget);
-        }
+        budgetRepository.adjustCurrentAmount(budgetId, amount.negate());
     }
 }
@@ -0,0 +1,83 @@
+package org.vaadin.application.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded thread pool on which views load their data in the background, so
+ * that a view can be shown before its database queries have finished.
+ *
+ * <p>
+ * The pool has {@code fintrack.dashboard.executor.threads} threads and queues
+ * up to {@code fintrack.dashboard.executor.queue-capacity} waiting tasks. When
+ * the queue is full a task runs on the thread that submitted it, so an
+ * overloaded pool slows down the submitting request instead of failing it or
+ * letting the queue grow without bound.
+ * </p>
+ */
+@Component
+public class DashboardExecutor {
+
+    /**
+     * The number of threads if not configured.
+     */
+    public static final int DEFAULT_THREADS = 8;
+
+    /**
+     * The number of waiting tasks if not configured.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    @Value("${fintrack.dashboard.executor.threads:" + DEFAULT_THREADS + "}")
+    private int threads = DEFAULT_THREADS;
+
+    @Value("${fintrack.dashboard.executor.queue-capacity:" + DEFAULT_QUEUE_CAPACITY + "}")
+    private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Starts the threads of the pool.
+     */
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Stops the pool. Tasks that have not started yet are dropped.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a task on the pool.
+     *
+     * @param <T>  the type of the result
+     * @param task the task to run
+     * @return a future completed with the result of the task, or exceptionally
+     *         with the exception it threw
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+}
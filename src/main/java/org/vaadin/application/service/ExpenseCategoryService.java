@@ -1,6 +1,7 @@
 package org.vaadin.application.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.vaadin.application.model.ExpenseCategory;
 import org.vaadin.application.repository.ExpenseCategoryRepository;
@@ -18,6 +19,9 @@ public class ExpenseCategoryService {
     @Autowired
     private ExpenseCategoryRepository expenseCategoryRepository;
 
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
     /**
      * Retrieves a list of expense categories associated with a specific user ID.
      *
@@ -28,6 +32,27 @@ public class ExpenseCategoryService {
         return expenseCategoryRepository.findByUserId(userId);
     }
 
+    /**
+     * Retrieves one page of a user's expense categories, newest category first.
+     *
+     * @param userId   the ID of the user whose expense categories are to be retrieved
+     * @param pageable the page to retrieve
+     * @return the expense categories on the page
+     */
+    public List<ExpenseCategory> getExpenseCategoriesByUserId(Long userId, Pageable pageable) {
+        return expenseCategoryRepository.findPageByUserId(userId, pageable);
+    }
+
+    /**
+     * Counts the expense categories of a specific user.
+     *
+     * @param userId the ID of the user whose expense categories are to be counted
+     * @return the number of expense categories of the user
+     */
+    public long countExpenseCategoriesByUserId(Long userId) {
+        return expenseCategoryRepository.countByUserId(userId);
+    }
+
     /**
      * Adds a new expense category to the repository.
      *
@@ -49,12 +74,16 @@ public class ExpenseCategoryService {
     }
 
     /**
-     * Deletes an expense category by its ID.
+     * Deletes an expense category by its ID. The expenses of the category are
+     * deleted with it, so the deletion goes through
+     * {@link LedgerWriteService#removeExpenseCategory(Long)}, which takes them
+     * off the budgets and the monthly expense rollup in the same transaction.
+     * Nothing happens if the category does not exist.
      *
      * @param id the ID of the expense category to be deleted
      */
     public void deleteExpenseCategory(Long id) {
-        expenseCategoryRepository.deleteById(id);
+        ledgerWriteService.removeExpenseCategory(id);
     }
 
     /**
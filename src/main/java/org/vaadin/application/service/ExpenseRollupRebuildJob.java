@@ -0,0 +1,46 @@
+package org.vaadin.application.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.vaadin.application.repository.ExpenseRepository;
+import org.vaadin.application.repository.MonthlyExpenseRollupRepository;
+
+/**
+ * Regenerates the monthly expense rollup when the application starts.
+ *
+ * <p>
+ * The rollup is rebuilt if {@code fintrack.expense.rollup.rebuild-on-startup}
+ * is set, or if it is empty while there are expenses, which is the case the
+ * first time the application runs against an existing ledger.
+ * </p>
+ */
+@Component
+public class ExpenseRollupRebuildJob implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpenseRollupRebuildJob.class);
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Value("${fintrack.expense.rollup.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rebuildOnStartup || rollupRepository.count() == 0 && expenseRepository.count() > 0) {
+            int buckets = expenseRollupService.rebuild();
+            LOGGER.info("Rebuilt monthly expense rollup with {} buckets", buckets);
+        }
+    }
+}
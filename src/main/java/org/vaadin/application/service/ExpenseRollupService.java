@@ -0,0 +1,187 @@
+package org.vaadin.application.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.MonthlyExpenseRollup;
+import org.vaadin.application.model.MonthlyExpenseRollupId;
+import org.vaadin.application.repository.MonthlyExpenseRollupRepository;
+import org.vaadin.application.util.MoneyCents;
+
+/**
+ * Service class for maintaining the {@link MonthlyExpenseRollup} table.
+ *
+ * <p>
+ * The rollup holds the sum and count of the expenses per user, month, budget
+ * and category. Writes to it must be part of the transaction that writes the
+ * expenses, so the change methods require an active transaction. If the rollup
+ * ever gets out of step with the expense table, {@link #rebuild()} regenerates
+ * it from scratch.
+ * </p>
+ */
+@Service
+public class ExpenseRollupService {
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    /**
+     * Adds an expense to the bucket it falls into.
+     *
+     * @param expense the expense that was recorded
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(Expense expense) {
+        apply(keyOf(expense), expense.getAmount(), 1);
+    }
+
+    /**
+     * Removes an expense from the bucket it falls into.
+     *
+     * @param expense the expense that was removed
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtract(Expense expense) {
+        apply(keyOf(expense), expense.getAmount().negate(), -1);
+    }
+
+    /**
+     * Removes all expenses of a category by deleting the buckets of the category.
+     *
+     * @param userId     the ID of the user owning the category
+     * @param categoryId the ID of the category whose expenses were removed
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void subtractCategory(Long userId, Long categoryId) {
+        rollupRepository.deleteByUserIdAndCategoryId(userId, categoryId);
+    }
+
+    /**
+     * Moves the expenses of a removed budget to the buckets without a budget:
+     * every bucket of the budget is added to the bucket of the same month and
+     * category without a budget, and then deleted.
+     *
+     * @param userId   the ID of the user who owned the budget
+     * @param budgetId the ID of the budget whose expenses no longer have a budget
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moveBudgetToNone(Long userId, Long budgetId) {
+        for (MonthlyExpenseRollup rollup : rollupRepository.findByUserIdAndBudgetId(userId, budgetId)) {
+            MonthlyExpenseRollupId key = rollup.getId();
+            if (rollup.getExpenseCount() != 0 || rollup.getTotal().signum() != 0) {
+                rollupRepository.addToBucket(userId, key.getMonthIndex(), MonthlyExpenseRollupId.NONE,
+                        key.getCategoryId(), rollup.getTotal(), rollup.getExpenseCount());
+            }
+        }
+        rollupRepository.deleteByUserIdAndBudgetId(userId, budgetId);
+    }
+
+    /**
+     * Applies a batch of changes with one statement per affected bucket.
+     *
+     * @param changes the changes to apply
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Changes changes) {
+        changes.buckets.forEach((key, bucket) -> apply(key, MoneyCents.toBigDecimal(bucket[Changes.CENTS]),
+                bucket[Changes.COUNT]));
+    }
+
+    /**
+     * Adds an amount and a number of expenses to a bucket. Nothing is written if
+     * both are zero.
+     *
+     * @param key    the bucket to change
+     * @param amount the amount to add, negative to subtract
+     * @param count  the number of expenses to add, negative to subtract
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(MonthlyExpenseRollupId key, BigDecimal amount, long count) {
+        if (amount.signum() != 0 || count != 0) {
+            rollupRepository.addToBucket(key.getUserId(), key.getMonthIndex(), key.getBudgetId(),
+                    key.getCategoryId(), amount, count);
+        }
+    }
+
+    /**
+     * Regenerates the rollup of all users from the expense table.
+     *
+     * @return the number of buckets created
+     */
+    @Transactional
+    public int rebuild() {
+        forecastCache.clear();
+        rollupRepository.deleteAllInBatch();
+        return rollupRepository.insertFromExpenses();
+    }
+
+    /**
+     * Regenerates the rollup of a single user from the expense table.
+     *
+     * @param userId the ID of the user whose rollup is to be regenerated
+     * @return the number of buckets created
+     */
+    @Transactional
+    public int rebuild(Long userId) {
+        forecastCache.evict(userId);
+        rollupRepository.deleteByUserId(userId);
+        return rollupRepository.insertFromExpensesOfUser(userId);
+    }
+
+    /**
+     * Returns the key of the bucket an expense falls into.
+     *
+     * @param expense the expense
+     * @return the key of its bucket
+     */
+    public static MonthlyExpenseRollupId keyOf(Expense expense) {
+        return new MonthlyExpenseRollupId(expense.getUser().getId(), ExpenseCursor.toLocalDate(expense.getDate()),
+                expense.getBudget() != null ? expense.getBudget().getId() : null,
+                expense.getCategory() != null ? expense.getCategory().getId() : null);
+    }
+
+    /**
+     * Changes to the rollup collected in memory, for example during an import,
+     * so that every bucket is written once.
+     */
+    public static final class Changes {
+
+        private static final int CENTS = 0;
+        private static final int COUNT = 1;
+
+        /**
+         * The total in cents and the number of expenses of every bucket.
+         */
+        private final Map<MonthlyExpenseRollupId, long[]> buckets = new HashMap<>();
+
+        /**
+         * Adds one expense to a bucket.
+         *
+         * @param key    the bucket of the expense
+         * @param amount the amount of the expense
+         */
+        public void add(MonthlyExpenseRollupId key, BigDecimal amount) {
+            long[] bucket = buckets.computeIfAbsent(key, k -> new long[2]);
+            bucket[CENTS] = MoneyCents.add(bucket[CENTS], MoneyCents.of(amount));
+            bucket[COUNT]++;
+        }
+
+        /**
+         * Checks whether any change was collected.
+         *
+         * @return true if no change was collected
+         */
+        public boolean isEmpty() {
+            return buckets.isEmpty();
+        }
+    }
+}
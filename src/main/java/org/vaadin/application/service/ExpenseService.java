@@ -2,28 +2,78 @@ package org.vaadin.application.service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.Month;
-import java.util.Calendar;
-import java.util.EnumMap;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.dto.BudgetExpenseTotal;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseLine;
+import org.vaadin.application.dto.ExpensePage;
+import org.vaadin.application.dto.MonthlyExpenseTotal;
+import org.vaadin.application.model.Budget;
 import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.MonthlyExpenseRollupId;
+import org.vaadin.application.repository.BudgetRepository;
 import org.vaadin.application.repository.ExpenseRepository;
+import org.vaadin.application.repository.MonthlyExpenseRollupRepository;
+import org.vaadin.application.util.LedgerSnapshot;
+import org.vaadin.application.util.LongTotals;
+import org.vaadin.application.util.MoneyCents;
+import org.vaadin.application.util.MonthlySeries;
 
 /**
  * Service class for managing expense-related operations.
- * This class interacts with the {@link ExpenseRepository} to perform CRUD
- * operations on {@link Expense} entities.
+ * This class interacts with the {@link ExpenseRepository} to read
+ * {@link Expense} entities; expenses are written through
+ * {@link LedgerWriteService}, which keeps the budgets and the monthly expense
+ * rollup in step. Totals are calculated by scanning the
+ * user's {@link LedgerSnapshot} from the {@link LedgerCache}; for users whose
+ * ledger is too large to be cached they are read from the monthly expense
+ * rollup maintained by {@link LedgerWriteService}.
  */
 @Service
 public class ExpenseService {
 
+    /**
+     * The name used for expenses that are not associated with a budget.
+     */
+    public static final String NO_BUDGET = "no-budget";
+
+    /**
+     * The properties expense lines can be sorted by, mapped to their path in the
+     * line queries.
+     */
+    private static final Map<String, String> LINE_SORT_PROPERTIES = Map.of(
+            "id", "id",
+            "description", "description",
+            "amount", "amount",
+            "date", "date",
+            "budgetName", "b.name");
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private LedgerCache ledgerCache;
+
     /**
      * Retrieves a list of expenses associated with a specific user ID.
      *
@@ -35,32 +85,178 @@ public class ExpenseService {
     }
 
     /**
-     * Adds a new expense to the repository.
+     * Retrieves one page of a user's expenses using keyset pagination on
+     * (date, id). The cost of a page does not depend on how far into the ledger
+     * it is. The budgets of the expenses are loaded in the same query.
      *
-     * @param expense the expense object to be added
-     * @return the newly added expense object
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @param after the position after which the page starts, or null for the first page
+     * @param limit the maximum number of expenses to retrieve
+     * @param ascending true to order oldest first, false to order newest first
+     * @return the expenses on the page
      */
-    public Expense addExpense(Expense expense) {
-        return expenseRepository.save(expense);
+    public List<Expense> getExpensesPage(Long userId, ExpenseCursor after, int limit, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        if (after == null) {
+            return expenseRepository.findByUserId(userId, PageRequest.of(0, limit, Sort.by(direction, "date", "id")));
+        }
+        Pageable firstRows = PageRequest.of(0, limit);
+        return ascending
+                ? expenseRepository.findByUserIdAfter(userId, after.date(), after.id(), firstRows)
+                : expenseRepository.findByUserIdBefore(userId, after.date(), after.id(), firstRows);
     }
 
     /**
-     * Finds an expense by its ID.
+     * Retrieves one page of a user's expenses in an arbitrary sort order. The
+     * expense ID is appended to the sort order so that pages are stable. The
+     * budgets of the expenses are loaded in the same query.
      *
-     * @param id the ID of the expense to find
-     * @return the expense object if found, or null if not found
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @param pageable the page to retrieve, including its sort order
+     * @return the expenses on the page
      */
-    public Expense findExpenseById(Long id) {
-        return expenseRepository.findById(id).orElse(null);
+    public List<Expense> getExpensesPage(Long userId, Pageable pageable) {
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+        return expenseRepository.findByUserId(userId,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
+    }
+
+    /**
+     * Counts the expenses of a specific user.
+     *
+     * @param userId the ID of the user whose expenses are to be counted
+     * @return the number of expenses of the user
+     */
+    public long countExpensesByUserId(Long userId) {
+        return expenseRepository.countByUserId(userId);
+    }
+
+    /**
+     * Calculates the total of all expenses of a specific user in the database.
+     *
+     * @param userId the ID of the user whose total expenses are to be calculated
+     * @return the total amount of all expenses of the user
+     */
+    public BigDecimal getTotalExpenses(Long userId) {
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            return MoneyCents.toBigDecimal(snapshot.sumExpenseCents());
+        }
+        return rollupRepository.sumTotalByUserId(userId);
+    }
+
+    /**
+     * Retrieves all expense lines of a user, newest first, as read-only
+     * projections.
+     *
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @return the expense lines of the user
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseLine> getExpenseLines(Long userId) {
+        return expenseRepository.findLinesByUserId(userId, Pageable.unpaged());
+    }
+
+    /**
+     * Retrieves one window of a user's expense lines using keyset pagination on
+     * (date, id).
+     *
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @param after the position after which the window starts, or null for the first window
+     * @param limit the maximum number of lines to retrieve
+     * @param ascending true to order oldest first, false to order newest first
+     * @return the expense lines in the window
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseLine> getExpenseLines(Long userId, ExpenseCursor after, int limit, boolean ascending) {
+        Pageable firstRows = PageRequest.of(0, limit);
+        if (after == null) {
+            return ascending
+                    ? expenseRepository.findLinePageByUserId(userId,
+                            PageRequest.of(0, limit, Sort.by(Sort.Direction.ASC, "date", "id")))
+                    : expenseRepository.findLinesByUserId(userId, firstRows);
+        }
+        return ascending
+                ? expenseRepository.findLinesByUserIdAfter(userId, after.date(), after.id(), firstRows)
+                : expenseRepository.findLinesByUserIdBefore(userId, after.date(), after.id(), firstRows);
+    }
+
+    /**
+     * Retrieves one page of a user's expense lines in an arbitrary sort order.
+     * The lines can be sorted by {@code id}, {@code description}, {@code amount},
+     * {@code date} and {@code budgetName}; the expense ID is appended to the sort
+     * order so that pages are stable.
+     *
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @param pageable the page to retrieve, including its sort order
+     * @return the expense lines on the page
+     * @throws IllegalArgumentException if the lines cannot be sorted by a property
+     */
+    @Transactional(readOnly = true)
+    public List<ExpenseLine> getExpenseLines(Long userId, Pageable pageable) {
+        List<Sort.Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            String property = LINE_SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                throw new IllegalArgumentException("Expense lines cannot be sorted by " + order.getProperty());
+            }
+            orders.add(order.withProperty(property));
+        }
+        if (pageable.getSort().getOrderFor("id") == null) {
+            orders.add(Sort.Order.asc("id"));
+        }
+        return expenseRepository.findLinePageByUserId(userId,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(orders)));
+    }
+
+    /**
+     * Retrieves one page of a user's expense lines, newest first, using keyset
+     * pagination.
+     *
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @param after the position after which the page starts, or null for the first page
+     * @param limit the maximum number of lines on the page
+     * @return the page, including the cursor of the next page if there is one
+     */
+    public ExpensePage getExpenseLinePage(Long userId, ExpenseCursor after, int limit) {
+        // Read one extra row to find out whether there is a next page
+        Pageable rows = PageRequest.of(0, limit + 1);
+        List<ExpenseLine> lines = after == null
+                ? expenseRepository.findLinesByUserId(userId, rows)
+                : expenseRepository.findLinesByUserIdBefore(userId, after.date(), after.id(), rows);
+
+        if (lines.size() <= limit) {
+            return new ExpensePage(lines, null);
+        }
+        List<ExpenseLine> page = lines.subList(0, limit);
+        return new ExpensePage(page, ExpenseCursor.of(page.get(limit - 1)).toToken());
     }
 
     /**
-     * Deletes an expense by its ID.
+     * Passes every expense line of a user, newest first, to a consumer while the
+     * rows are read from the database. Only the rows of the current fetch are
+     * held in memory.
      *
-     * @param id the ID of the expense to be deleted
+     * @param userId the ID of the user whose expenses are to be streamed
+     * @param consumer the consumer receiving each line
      */
-    public void deleteExpense(Long id) {
-        expenseRepository.deleteById(id);
+    @Transactional(readOnly = true)
+    public void streamExpenseLines(Long userId, Consumer<ExpenseLine> consumer) {
+        try (Stream<ExpenseLine> lines = expenseRepository.streamLinesByUserId(userId)) {
+            lines.forEach(consumer);
+        }
+    }
+
+    /**
+     * Finds an expense by its ID.
+     *
+     * @param id the ID of the expense to find
+     * @return the expense object if found, or null if not found
+     */
+    public Expense findExpenseById(Long id) {
+        return expenseRepository.findById(id).orElse(null);
     }
 
     /**
@@ -70,10 +266,14 @@ public class ExpenseService {
      * @return the total amount of expenses for the user in the current month
      */
     public BigDecimal getTotalExpensesForCurrentMonth(Long userId) {
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        LocalDate endOfMonth = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
-
-        return expenseRepository.findTotalExpensesForPeriod(userId, startOfMonth, endOfMonth);
+        YearMonth currentMonth = YearMonth.now();
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            return MoneyCents.toBigDecimal(snapshot.sumExpenseCents(epochDay(currentMonth.atDay(1)),
+                    epochDay(currentMonth.atEndOfMonth())));
+        }
+        int currentMonthIndex = MonthlySeries.toIndex(currentMonth);
+        return rollupRepository.sumTotalForMonths(userId, currentMonthIndex, currentMonthIndex);
     }
 
     /**
@@ -87,89 +287,148 @@ public class ExpenseService {
     }
 
     /**
-     * Updates an existing expense in the repository.
+     * Calculates the total expenses of every budget of a specific user.
      *
-     * @param expense the expense object with updated information
-     * @return the updated expense object
+     * @param userId the ID of the user whose budget totals are to be calculated
+     * @return a map of budget IDs to the total of their expenses; budgets without
+     *         expenses are not included
      */
-    public Expense updateExpense(Expense expense) {
-        if (expenseRepository.existsById(expense.getId())) {
-            return expenseRepository.save(expense);
-        } else {
-            throw new IllegalArgumentException("Expense not found with ID: " + expense.getId());
+    public Map<Long, BigDecimal> getTotalExpensesByBudget(Long userId) {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            LongTotals budgetTotals = new LongTotals();
+            snapshot.sumExpenseCentsByBudget(budgetTotals);
+            for (int slot = 0; slot < budgetTotals.slots(); slot++) {
+                if (budgetTotals.isUsed(slot) && budgetTotals.keyAt(slot) != MonthlyExpenseRollupId.NONE) {
+                    totals.put(budgetTotals.keyAt(slot), MoneyCents.toBigDecimal(budgetTotals.valueAt(slot)));
+                }
+            }
+            return totals;
         }
+        for (BudgetExpenseTotal budgetTotal : rollupRepository.sumTotalsByBudget(userId)) {
+            totals.put(budgetTotal.budgetId(), budgetTotal.total());
+        }
+        return totals;
     }
 
     /**
-     * Retrieves a map of expenses in the previous x months for a particular user.
+     * Retrieves the expenses in the previous x months for a particular user. The
+     * series runs from the first of the previous months up to and including the
+     * current month.
      *
      * @param userId the ID of the user whose total expenses are to be calculated
-     * @param previousMonths the number of previous months that expenses should be retrieved for          
-     * @return
-     */
-    public Map<Month, BigDecimal> getExpensesForPreviousMonths(Long userId, int previousMonths, String budgetName) {
-
-        Map<Month, BigDecimal> monthlyExpenses = new EnumMap<>(Month.class);
-        List<Expense> expenses = getExpensesByUserId(userId);
-
-        LocalDate dateOfCurrentMonth = LocalDate.now();
-        LocalDate dateOfFirstMonth = dateOfCurrentMonth.minusMonths(previousMonths);
-
-       configureExpensesMap(monthlyExpenses, dateOfCurrentMonth, dateOfFirstMonth, previousMonths);
-
-        if (!expenses.isEmpty() || expenses != null) {
-            for (Expense expense : expenses) {
-                if (expense.getBudget() != null && expense.getBudget().getName().equalsIgnoreCase(budgetName)
-                        || expense.getBudget() == null && budgetName.equals("no-budget")) {
-                    
-                    LocalDate expenseDate= getLocalDateFromExpense(expense);
-                    if (!expenseDate.isBefore(dateOfFirstMonth.minusMonths(1)) && !expenseDate.isAfter(dateOfCurrentMonth)) {
-                        Month expenseMonth = Month.of(expenseDate.getMonthValue());
-                        monthlyExpenses.put(expenseMonth,
-                                monthlyExpenses.getOrDefault(expenseMonth, BigDecimal.ZERO).add(expense.getAmount()));
-                    }
-                }
+     * @param previousMonths the number of previous months that expenses should be retrieved for
+     * @param budgetName the name of the budget to include, or "no-budget" for expenses without a budget
+     * @return the total expenses of the budget per month
+     */
+    public MonthlySeries getExpensesForPreviousMonths(Long userId, int previousMonths, String budgetName) {
+        YearMonth currentMonth = YearMonth.now();
+        MonthlySeries monthlyExpenses = createHistorySeries(currentMonth, previousMonths);
+
+        for (MonthlyExpenseTotal monthlyTotal : findMonthlyTotals(userId, monthlyExpenses)) {
+            if (monthlyTotal.budgetName() != null && monthlyTotal.budgetName().equalsIgnoreCase(budgetName)
+                    || monthlyTotal.budgetName() == null && budgetName.equals(NO_BUDGET)) {
+                addMonthlyTotal(monthlyExpenses, monthlyTotal);
             }
-            return monthlyExpenses;
         }
         return monthlyExpenses;
     }
 
     /**
-     * Configures a map to hold monthly expenses with the appropriate Month keys, 
-     * starting from the specified number of previous months up to the current month.
-     * 
-     * @param monthlyExpenses the map to be configured, where each key is a Month
-     * @param dateOfCurrentMonth the date of the current month
-     * @param dateOfFirstMonth the date representing the first month in the series of previous months
-     * @param previousMonths the number of past months to include in the map
+     * Retrieves the expenses in the previous x months for a particular user, split
+     * by budget. All budgets are summed in a single scan of the user's ledger
+     * snapshot, or with a single grouped query of the monthly expense rollup if
+     * the ledger is not cached. Budget names are compared ignoring case, as in
+     * {@link #getExpensesForPreviousMonths(Long, int, String)}, so budgets whose
+     * names differ only in case share one series, whichever path is taken.
+     *
+     * @param userId the ID of the user whose expenses are to be retrieved
+     * @param previousMonths the number of previous months that expenses should be retrieved for
+     * @return a map of budget names (ordered by name ignoring case, with "no-budget"
+     *         always last) to the monthly expenses of that budget
+     */
+    public Map<String, MonthlySeries> getExpensesForPreviousMonthsByBudget(Long userId, int previousMonths) {
+        YearMonth currentMonth = YearMonth.now();
+
+        Map<String, MonthlySeries> budgetExpenses = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        MonthlySeries noBudgetExpenses = createHistorySeries(currentMonth, previousMonths);
+
+        for (MonthlyExpenseTotal monthlyTotal : findMonthlyTotals(userId, noBudgetExpenses)) {
+            if (monthlyTotal.budgetName() == null) {
+                addMonthlyTotal(noBudgetExpenses, monthlyTotal);
+                continue;
+            }
+            MonthlySeries monthlyExpenses = budgetExpenses.computeIfAbsent(monthlyTotal.budgetName(),
+                    name -> createHistorySeries(currentMonth, previousMonths));
+            addMonthlyTotal(monthlyExpenses, monthlyTotal);
+        }
+
+        Map<String, MonthlySeries> orderedExpenses = new LinkedHashMap<>(budgetExpenses);
+        orderedExpenses.put(NO_BUDGET, noBudgetExpenses);
+        return orderedExpenses;
+    }
+
+    /**
+     * Reads the grouped monthly expense totals for the months covered by a series.
+     *
+     * @param userId the ID of the user whose expenses are to be summed
+     * @param series the series whose months should be read
+     * @return the monthly totals per budget
      */
-    private void configureExpensesMap(Map<Month, BigDecimal> monthlyExpenses, LocalDate dateOfCurrentMonth, LocalDate dateOfFirstMonth, int previousMonths) {
-        monthlyExpenses.put(Month.of(dateOfCurrentMonth.getMonthValue()), BigDecimal.ZERO);
+    private List<MonthlyExpenseTotal> findMonthlyTotals(Long userId, MonthlySeries series) {
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot == null) {
+            return rollupRepository.sumMonthlyTotalsByBudget(userId,
+                    MonthlySeries.toIndex(series.getFirstMonth()), MonthlySeries.toIndex(series.getLastMonth()));
+        }
+
+        LongTotals monthlyTotals = new LongTotals();
+        snapshot.sumExpenseCentsByBudgetAndMonth(epochDay(series.getFirstMonth().atDay(1)),
+                epochDay(series.getLastMonth().atEndOfMonth()), monthlyTotals);
 
-        for (int i = 0; i < previousMonths; i++) {
-            LocalDate monthDate = dateOfFirstMonth.plusMonths(i);
-            Month month = Month.of(monthDate.getMonthValue());
-            monthlyExpenses.put(month, BigDecimal.ZERO);
+        Map<Long, String> budgetNames = new HashMap<>();
+        if (monthlyTotals.size() > 0) {
+            for (Budget budget : budgetRepository.findByUserId(userId)) {
+                budgetNames.put(budget.getId(), budget.getName());
+            }
         }
 
+        List<MonthlyExpenseTotal> totals = new ArrayList<>(monthlyTotals.size());
+        for (int slot = 0; slot < monthlyTotals.slots(); slot++) {
+            if (monthlyTotals.isUsed(slot)) {
+                long key = monthlyTotals.keyAt(slot);
+                totals.add(new MonthlyExpenseTotal(LongTotals.low(key), budgetNames.get((long) LongTotals.high(key)),
+                        MoneyCents.toBigDecimal(monthlyTotals.valueAt(slot))));
+            }
+        }
+        return totals;
     }
 
     /**
-     *  Converts the date of an {@link Expense}, which is in {@link java.util.Date} format, to a {@link LocalDate}.
-     * 
-     * @param expense the expense object containing the date to be converted
-     * @return a LocalDate representing the same date as the Date in the expense
+     * Adds a grouped monthly total to the month it belongs to.
+     *
+     * @param monthlyExpenses the series to add the total to
+     * @param monthlyTotal the grouped total to add
      */
-    private LocalDate getLocalDateFromExpense(Expense expense) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(expense.getDate());
-        return 
-        LocalDate.of(
-            calendar.get(Calendar.YEAR),
-            calendar.get(Calendar.MONTH) + 1,
-            calendar.get(Calendar.DAY_OF_MONTH));
-   
+    private void addMonthlyTotal(MonthlySeries monthlyExpenses, MonthlyExpenseTotal monthlyTotal) {
+        monthlyExpenses.addCents(monthlyTotal.year(), monthlyTotal.month(), MoneyCents.of(monthlyTotal.total()));
+    }
+
+    /**
+     * Creates an empty series covering the specified number of previous months
+     * up to and including the current month.
+     *
+     * @param currentMonth the current month
+     * @param previousMonths the number of past months to include in the series
+     * @return the empty series
+     */
+    private MonthlySeries createHistorySeries(YearMonth currentMonth, int previousMonths) {
+        return MonthlySeries.between(currentMonth.minusMonths(previousMonths), currentMonth);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return (int) date.toEpochDay();
     }
 
     /**
@@ -1,7 +1,11 @@
 package org.vaadin.application.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.vaadin.application.dto.LedgerEvent;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.GoalChanged;
 import org.vaadin.application.model.FinancialGoal;
 import org.vaadin.application.repository.FinancialGoalRepository;
 
@@ -10,7 +14,8 @@ import java.util.List;
 /**
  * Service class for managing financial goal-related operations.
  * This class interacts with the {@link FinancialGoalRepository} to perform CRUD
- * operations on {@link FinancialGoal} entities.
+ * operations on {@link FinancialGoal} entities. Every change is published as
+ * a {@link LedgerEvent}.
  */
 @Service
 public class FinancialGoalService {
@@ -18,6 +23,9 @@ public class FinancialGoalService {
     @Autowired
     private FinancialGoalRepository financialGoalRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Retrieves a list of financial goals associated with a specific user ID.
      *
@@ -35,7 +43,9 @@ public class FinancialGoalService {
      * @return the newly added financial goal object
      */
     public FinancialGoal addFinancialGoal(FinancialGoal financialGoal) {
-        return financialGoalRepository.save(financialGoal);
+        FinancialGoal savedGoal = financialGoalRepository.save(financialGoal);
+        eventPublisher.publishEvent(new GoalChanged(savedGoal.getUser().getId(), Change.ADDED, savedGoal.getId()));
+        return savedGoal;
     }
 
     /**
@@ -60,7 +70,10 @@ public class FinancialGoalService {
             existingGoal.setSavedAmount(financialGoal.getSavedAmount());
             existingGoal.setTargetAmount(financialGoal.getTargetAmount());
             existingGoal.setDescription(financialGoal.getDescription());
-            return financialGoalRepository.save(existingGoal);
+            FinancialGoal savedGoal = financialGoalRepository.save(existingGoal);
+            eventPublisher.publishEvent(new GoalChanged(savedGoal.getUser().getId(), Change.UPDATED,
+                    savedGoal.getId()));
+            return savedGoal;
         }
         return null;
     }
@@ -71,6 +84,10 @@ public class FinancialGoalService {
      * @param id the ID of the financial goal to be deleted
      */
     public void deleteFinancialGoal(Long id) {
+        Long userId = financialGoalRepository.findById(id).map(goal -> goal.getUser().getId()).orElse(null);
         financialGoalRepository.deleteById(id);
+        if (userId != null) {
+            eventPublisher.publishEvent(new GoalChanged(userId, Change.REMOVED, id));
+        }
     }
 }
@@ -0,0 +1,116 @@
+package org.vaadin.application.service;
+
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.vaadin.application.dto.NetCashflowForecast;
+
+/**
+ * Cache of the forecasts computed by {@link ForecastService}.
+ *
+ * <p>
+ * The cache holds one entry per user with that user's forecasts for the
+ * current month, so a write evicts exactly the forecasts of the user it
+ * changed. Forecasts of past months are dropped as soon as a forecast of a new
+ * month is computed. The underlying cache is bounded and transaction-aware,
+ * see {@link org.vaadin.application.CacheConfiguration}: an eviction made in a
+ * transaction takes effect once it has committed. A forecast that a reader
+ * computes while the entry of its user is evicted is stored in the evicted
+ * entry and therefore never served.
+ * </p>
+ */
+@Component
+public class ForecastCache {
+
+    /**
+     * The number of forecasts kept per user, for different numbers of previous
+     * months and horizons.
+     */
+    static final int MAX_FORECASTS_PER_USER = 16;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Gets a forecast of a user, computing and caching it if it is not cached.
+     *
+     * @param userId         the ID of the user
+     * @param previousMonths the number of months the forecast is based on
+     * @param horizonMonths  the number of forecasted months
+     * @param forecast       computes the forecast
+     * @return the cached or computed forecast
+     */
+    public NetCashflowForecast get(Long userId, int previousMonths, int horizonMonths,
+            Supplier<NetCashflowForecast> forecast) {
+        UserForecasts forecasts = cache().get(userId, UserForecasts::new);
+        return forecasts.get(new Key(YearMonth.now(), previousMonths, horizonMonths), forecast);
+    }
+
+    /**
+     * Discards the forecasts of a user after the current transaction has
+     * committed, or right away if there is no transaction.
+     *
+     * @param userId the ID of the user
+     */
+    public void evict(Long userId) {
+        cache().evict(userId);
+    }
+
+    /**
+     * Discards the forecasts of all users after the current transaction has
+     * committed, or right away if there is no transaction.
+     */
+    public void clear() {
+        cache().clear();
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(ForecastService.FORECAST_CACHE);
+    }
+
+    /**
+     * The forecasts of one user.
+     */
+    private static final class UserForecasts {
+
+        private final Map<Key, NetCashflowForecast> forecasts = new ConcurrentHashMap<>();
+
+        /**
+         * Gets a forecast, computing it if it is not cached. The forecast is
+         * computed outside of any lock, so two readers may both compute it; the
+         * first one is kept.
+         *
+         * @param key      the key of the forecast
+         * @param forecast computes the forecast
+         * @return the cached or computed forecast
+         */
+        private NetCashflowForecast get(Key key, Supplier<NetCashflowForecast> forecast) {
+            NetCashflowForecast cached = forecasts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            forecasts.keySet().removeIf(other -> !other.month().equals(key.month()));
+            if (forecasts.size() >= MAX_FORECASTS_PER_USER) {
+                forecasts.clear();
+            }
+            NetCashflowForecast computed = forecast.get();
+            NetCashflowForecast existing = forecasts.putIfAbsent(key, computed);
+            return existing != null ? existing : computed;
+        }
+    }
+
+    /**
+     * Identifies a forecast of a user.
+     *
+     * @param month          the month the forecast was computed in
+     * @param previousMonths the number of months the forecast is based on
+     * @param horizonMonths  the number of forecasted months
+     */
+    private record Key(YearMonth month, int previousMonths, int horizonMonths) {
+    }
+}
@@ -0,0 +1,138 @@
+package org.vaadin.application.service;
+
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.vaadin.application.dto.NetCashflowForecast;
+import org.vaadin.application.util.MoneyCents;
+import org.vaadin.application.util.MonthlySeries;
+
+/**
+ * Service class for forecasting a user's expenses and net cashflow.
+ * Forecasts are based on the expense history provided by {@link ExpenseService}
+ * and the recurring income provided by {@link IncomeService}.
+ *
+ * <p>
+ * Results are kept in the {@link ForecastCache} per user, number of previous
+ * months and forecast horizon. The forecasts of a user are evicted whenever an
+ * expense or income of that user is written, so revisiting the forecast page
+ * does not recompute anything until the underlying data changes.
+ * </p>
+ */
+@Service
+public class ForecastService {
+
+    /**
+     * The name of the cache holding computed forecasts.
+     */
+    public static final String FORECAST_CACHE = "netCashflowForecasts";
+
+    /**
+     * The default number of future months that are forecasted.
+     */
+    public static final int FORECAST_MONTHS = 12;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    /**
+     * Forecasts the expenses of every budget and the net cashflow of a user,
+     * assuming a linear trend over the previous months. The forecast starts with
+     * the month after the current one. Cached forecasts roll over with the
+     * calendar.
+     *
+     * @param userId         the ID of the user whose cashflow is forecasted
+     * @param previousMonths the number of months that the prediction should be based on
+     * @param horizonMonths  the number of future months to forecast
+     * @return the immutable forecast
+     */
+    public NetCashflowForecast getForecast(Long userId, int previousMonths, int horizonMonths) {
+        return forecastCache.get(userId, previousMonths, horizonMonths,
+                () -> computeForecast(userId, previousMonths, horizonMonths));
+    }
+
+    /**
+     * Computes a forecast without consulting the cache.
+     *
+     * @param userId         the ID of the user whose cashflow is forecasted
+     * @param previousMonths the number of months that the prediction should be based on
+     * @param horizonMonths  the number of future months to forecast
+     * @return the immutable forecast
+     */
+    private NetCashflowForecast computeForecast(Long userId, int previousMonths, int horizonMonths) {
+        YearMonth firstForecastMonth = YearMonth.now().plusMonths(1);
+
+        Map<String, MonthlySeries> pastExpensesByBudget =
+                expenseService.getExpensesForPreviousMonthsByBudget(userId, previousMonths);
+
+        Map<String, MonthlySeries> predictedExpensesByBudget = new LinkedHashMap<>();
+        MonthlySeries totalPredictedExpenses = new MonthlySeries(firstForecastMonth, horizonMonths);
+        for (Map.Entry<String, MonthlySeries> entry : pastExpensesByBudget.entrySet()) {
+            MonthlySeries predictedBudgetExpenses =
+                    predictMonthlyExpenses(entry.getValue(), firstForecastMonth, horizonMonths);
+            predictedExpensesByBudget.put(entry.getKey(), predictedBudgetExpenses);
+            totalPredictedExpenses.addSeries(predictedBudgetExpenses);
+        }
+
+        MonthlySeries predictedNetCashflow = predictNetCashflow(userId, totalPredictedExpenses);
+        return new NetCashflowForecast(predictedExpensesByBudget, predictedNetCashflow);
+    }
+
+    /**
+     * Calculates and predicts the users net cashflow based on the income they are
+     * paid in each month and their predicted expenses. The income follows the pay
+     * days of every income, see {@link IncomeService#getScheduledIncome}.
+     *
+     * @param userId                 the ID of the user whose income is used
+     * @param totalPredictedExpenses the predicted expenses of all budgets per month
+     * @return the predicted net cashflow per month, covering the same months as the expenses
+     */
+    private MonthlySeries predictNetCashflow(Long userId, MonthlySeries totalPredictedExpenses) {
+        MonthlySeries predictedCashflows = incomeService.getScheduledIncome(userId,
+                totalPredictedExpenses.getFirstMonth(), totalPredictedExpenses.length());
+
+        for (int i = 0; i < predictedCashflows.length(); i++) {
+            predictedCashflows.setCents(i,
+                    MoneyCents.subtract(predictedCashflows.getCents(i), totalPredictedExpenses.getCents(i)));
+        }
+        return predictedCashflows;
+    }
+
+    /**
+     * Calculates and predicts the expenses of a budget (assuming a linear trend)
+     * based on the expenses of the previous months. The average of the history is
+     * extended by the average change between consecutive months; predictions never
+     * drop below zero.
+     *
+     * @param pastExpenses       the past monthly expenses of a single budget, in chronological order
+     * @param firstForecastMonth the first month to predict
+     * @param horizonMonths      the number of months to predict
+     * @return the predicted expenses per month, starting with {@code firstForecastMonth}
+     */
+    private MonthlySeries predictMonthlyExpenses(MonthlySeries pastExpenses, YearMonth firstForecastMonth,
+            int horizonMonths) {
+        MonthlySeries predictedExpenses = new MonthlySeries(firstForecastMonth, horizonMonths);
+
+        if (pastExpenses.length() == 0) {
+            return predictedExpenses;
+        }
+
+        long averageExpense = pastExpenses.mean(0, pastExpenses.length(), RoundingMode.HALF_UP);
+        long averageChange = pastExpenses.meanDelta(0, pastExpenses.length(), RoundingMode.HALF_EVEN);
+
+        for (int i = 0; i < horizonMonths; i++) {
+            long predictedMonthExpense = MoneyCents.add(averageExpense, MoneyCents.multiply(averageChange, i + 1));
+            predictedExpenses.setCents(i, Math.max(0, predictedMonthExpense));
+        }
+        return predictedExpenses;
+    }
+}
@@ -0,0 +1,64 @@
+package org.vaadin.application.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.vaadin.application.dto.LedgerEvent;
+
+/**
+ * {@link LedgerEventBroadcaster} delivering events to the listeners of this
+ * process only. It is used unless {@code fintrack.ledger.events.transport}
+ * selects another transport.
+ *
+ * <p>
+ * Listeners are called one after the other on the publishing thread. A
+ * listener that throws is logged and does not keep the event from the other
+ * listeners.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "fintrack.ledger.events.transport", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryLedgerEventBroadcaster implements LedgerEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryLedgerEventBroadcaster.class);
+
+    /**
+     * The listeners per user. Users without listeners have no entry.
+     */
+    private final Map<Long, List<Consumer<LedgerEvent>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(LedgerEvent event) {
+        List<Consumer<LedgerEvent>> userListeners = listeners.get(event.userId());
+        if (userListeners == null) {
+            return;
+        }
+        for (Consumer<LedgerEvent> listener : userListeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Ledger event listener of user {} failed", event.userId(), e);
+            }
+        }
+    }
+
+    @Override
+    public Subscription subscribe(Long userId, Consumer<LedgerEvent> listener) {
+        listeners.compute(userId, (id, userListeners) -> {
+            List<Consumer<LedgerEvent>> updated = userListeners != null ? userListeners
+                    : new CopyOnWriteArrayList<>();
+            updated.add(listener);
+            return updated;
+        });
+        return () -> listeners.computeIfPresent(userId, (id, userListeners) -> {
+            userListeners.remove(listener);
+            return userListeners.isEmpty() ? null : userListeners;
+        });
+    }
+}
@@ -1,18 +1,35 @@
 package org.vaadin.application.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.dto.IncomeLine;
+import org.vaadin.application.dto.LedgerEvent;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.IncomeChanged;
 import org.vaadin.application.model.Income;
 import org.vaadin.application.repository.IncomeRepository;
+import org.vaadin.application.util.IncomeColumns;
+import org.vaadin.application.util.LedgerSnapshot;
+import org.vaadin.application.util.MoneyCents;
+import org.vaadin.application.util.MonthlySeries;
+import org.vaadin.application.util.PaySchedule;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for managing income-related operations.
  * This class interacts with the {@link IncomeRepository} to perform CRUD
- * operations on {@link Income} entities.
+ * operations on {@link Income} entities. Totals are calculated by scanning the
+ * user's {@link LedgerSnapshot} from the {@link LedgerCache}, or queried from
+ * the database if the user's ledger is too large to be cached. Every change
+ * is published as a {@link LedgerEvent}.
  */
 @Service
 public class IncomeService {
@@ -20,6 +37,15 @@ public class IncomeService {
     @Autowired
     private IncomeRepository incomeRepository;
 
+    @Autowired
+    private LedgerCache ledgerCache;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Retrieves a list of incomes associated with a specific user ID.
      *
@@ -30,6 +56,41 @@ public class IncomeService {
         return incomeRepository.findByUserId(userId);
     }
 
+    /**
+     * Retrieves the income lines of a specific user, newest first. The lines are
+     * read in a read-only transaction as projections, so no entities are managed
+     * or checked for changes.
+     *
+     * @param userId the ID of the user whose incomes are to be retrieved
+     * @return the income lines of the user
+     */
+    @Transactional(readOnly = true)
+    public List<IncomeLine> getIncomeLines(Long userId) {
+        return incomeRepository.findLinesByUserId(userId);
+    }
+
+    /**
+     * Retrieves one page of the income lines of a specific user, newest first.
+     *
+     * @param userId   the ID of the user whose incomes are to be retrieved
+     * @param pageable the page to retrieve
+     * @return the income lines on the page
+     */
+    @Transactional(readOnly = true)
+    public List<IncomeLine> getIncomeLines(Long userId, Pageable pageable) {
+        return incomeRepository.findLinesByUserId(userId, pageable);
+    }
+
+    /**
+     * Counts the incomes of a specific user.
+     *
+     * @param userId the ID of the user whose incomes are to be counted
+     * @return the number of incomes of the user
+     */
+    public long countIncomesByUserId(Long userId) {
+        return incomeRepository.countByUserId(userId);
+    }
+
     /**
      * Adds a new income to the repository.
      *
@@ -37,7 +98,12 @@ public class IncomeService {
      * @return the newly added income object
      */
     public Income addIncome(Income income) {
-        return incomeRepository.save(income);
+        Income savedIncome = incomeRepository.save(income);
+        ledgerCache.incomeAdded(savedIncome);
+        forecastCache.evict(savedIncome.getUser().getId());
+        eventPublisher.publishEvent(new IncomeChanged(savedIncome.getUser().getId(), Change.ADDED, null,
+                IncomeLine.of(savedIncome)));
+        return savedIncome;
     }
 
     /**
@@ -51,24 +117,108 @@ public class IncomeService {
     }
 
     /**
-     * Deletes an income by its ID.
+     * Deletes an income by its ID. Nothing happens if the income does not exist.
      *
      * @param id the ID of the income to be deleted
      */
     public void deleteIncome(Long id) {
-        incomeRepository.deleteById(id);
+        incomeRepository.findById(id).ifPresent(income -> {
+            incomeRepository.delete(income);
+            ledgerCache.incomeRemoved(income);
+            forecastCache.evict(income.getUser().getId());
+            eventPublisher.publishEvent(new IncomeChanged(income.getUser().getId(), Change.REMOVED,
+                    IncomeLine.of(income), null));
+        });
     }
 
     /**
-     * Calculates the total income for the current month for a specific user.
+     * Calculates the income a specific user is paid in the current month. Every
+     * income counts once for each of its pay days in the month, see
+     * {@link PaySchedule}.
      *
      * @param userId the ID of the user whose total income is to be calculated
      * @return the total amount of income for the user in the current month
      */
     public BigDecimal getTotalIncomeForCurrentMonth(Long userId) {
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        LocalDate endOfMonth = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
-        return incomeRepository.findTotalIncomeForPeriod(userId, startOfMonth, endOfMonth);
+        YearMonth currentMonth = YearMonth.now();
+        int startOfMonth = (int) currentMonth.atDay(1).toEpochDay();
+        int endOfMonth = (int) currentMonth.atEndOfMonth().toEpochDay();
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            return MoneyCents.toBigDecimal(snapshot.sumScheduledIncomeCents(startOfMonth, endOfMonth));
+        }
+        long totalCents = 0;
+        for (IncomeLine line : getIncomeLines(userId)) {
+            long payDays = PaySchedule.of(line.date(), line.paymentFrequency()).count(startOfMonth, endOfMonth);
+            totalCents = MoneyCents.add(totalCents, MoneyCents.multiply(MoneyCents.of(line.amount()), payDays));
+        }
+        return MoneyCents.toBigDecimal(totalCents);
+    }
+
+    /**
+     * Calculates the income a specific user is paid in each of a number of
+     * months. Every income counts once for each of its pay days in a month, see
+     * {@link PaySchedule}.
+     *
+     * @param userId     the ID of the user whose income is to be calculated
+     * @param firstMonth the first month
+     * @param months     the number of months
+     * @return the income per month in cents
+     */
+    public MonthlySeries getScheduledIncome(Long userId, YearMonth firstMonth, int months) {
+        MonthlySeries income = new MonthlySeries(firstMonth, months);
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            snapshot.addScheduledIncomeCents(income);
+            return income;
+        }
+        IncomeColumns incomes = new IncomeColumns(0);
+        for (IncomeLine line : getIncomeLines(userId)) {
+            incomes.add(line.id(), (int) line.date().toEpochDay(), MoneyCents.of(line.amount()),
+                    line.paymentFrequency(), line.source());
+        }
+        incomes.addScheduledCents(income);
+        return income;
+    }
+
+    /**
+     * Calculates the total of all incomes of a specific user.
+     *
+     * @param userId the ID of the user whose total income is to be calculated
+     * @return the total amount of all incomes of the user
+     */
+    public BigDecimal getTotalIncome(Long userId) {
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            return MoneyCents.toBigDecimal(snapshot.sumIncomeCents());
+        }
+        long totalCents = 0;
+        for (IncomeLine line : getIncomeLines(userId)) {
+            totalCents = MoneyCents.add(totalCents, MoneyCents.of(line.amount()));
+        }
+        return MoneyCents.toBigDecimal(totalCents);
+    }
+
+    /**
+     * Calculates the total income of every source of a specific user.
+     *
+     * @param userId the ID of the user whose incomes are to be summed
+     * @return a map of sources to the total of their incomes
+     */
+    public Map<String, BigDecimal> getTotalIncomeBySource(Long userId) {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        LedgerSnapshot snapshot = ledgerCache.get(userId);
+        if (snapshot != null) {
+            snapshot.forEachIncomeSource(
+                    (source, totalCents) -> totals.put(source, MoneyCents.toBigDecimal(totalCents)));
+            return totals;
+        }
+        Map<String, Long> totalCents = new HashMap<>();
+        for (IncomeLine line : getIncomeLines(userId)) {
+            totalCents.merge(line.source(), MoneyCents.of(line.amount()), MoneyCents::add);
+        }
+        totalCents.forEach((source, cents) -> totals.put(source, MoneyCents.toBigDecimal(cents)));
+        return totals;
     }
 
     /**
@@ -80,33 +230,18 @@ public class IncomeService {
     public Income updateIncome(Income updatedIncome) {
         Income existingIncome = incomeRepository.findById(updatedIncome.getId()).orElse(null);
         if (existingIncome != null) {
+            IncomeLine before = IncomeLine.of(existingIncome);
             existingIncome.setSource(updatedIncome.getSource());
             existingIncome.setAmount(updatedIncome.getAmount());
             existingIncome.setDate(updatedIncome.getDate());
             existingIncome.setPaymentFrequency(updatedIncome.getPaymentFrequency());
-            return incomeRepository.save(existingIncome);
+            Income savedIncome = incomeRepository.save(existingIncome);
+            ledgerCache.incomeUpdated(savedIncome);
+            forecastCache.evict(savedIncome.getUser().getId());
+            eventPublisher.publishEvent(new IncomeChanged(savedIncome.getUser().getId(), Change.UPDATED, before,
+                    IncomeLine.of(savedIncome)));
+            return savedIncome;
         }
         return null;
     }
-
-
-    public BigDecimal getTotalIncomeAllMonths(Long userId) {
-        List<Income> incomes = getIncomesByUserId(userId);
-        BigDecimal totalIncome = new BigDecimal(0);
-        for (Income income : incomes) {
-            BigDecimal incomeOneOff = new BigDecimal(0);
-            switch (income.getPaymentFrequency()) {
-                case "Weekly":
-                incomeOneOff = income.getAmount().multiply(new BigDecimal(4));
-                break;
-                case "Biweekly":
-                incomeOneOff = income.getAmount().multiply(new BigDecimal(2));
-                break;
-                case "Monthly":
-                incomeOneOff = income.getAmount();
-            }
-            totalIncome = totalIncome.add(incomeOneOff);
-        }
-        return totalIncome;
-    }
 }
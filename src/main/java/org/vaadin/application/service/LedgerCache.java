@@ -0,0 +1,438 @@
+package org.vaadin.application.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.Income;
+import org.vaadin.application.util.ExpenseColumns;
+import org.vaadin.application.util.IncomeColumns;
+import org.vaadin.application.util.LedgerSnapshot;
+import org.vaadin.application.util.MoneyCents;
+
+/**
+ * Service class caching a {@link LedgerSnapshot} of the expenses and incomes
+ * of recently active users.
+ *
+ * <p>
+ * A user's snapshot is loaded from the database on first use and afterwards
+ * kept up to date by the services that write expenses and incomes, which report
+ * their changes to this cache. Changes made in a transaction are applied once
+ * the transaction has committed, so rolled back writes never reach the cache.
+ * Writes that cannot be described row by row, such as imports, evict the
+ * snapshot instead.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by the total size of the snapshots
+ * ({@code fintrack.ledger.cache.max-bytes}). When it is exceeded the least
+ * recently used snapshots are evicted. A user whose ledger alone exceeds the
+ * bound is not cached at all; {@link #get(Long)} returns null for them and
+ * callers fall back to querying the database. Only the most recently rejected
+ * users are remembered ({@code fintrack.ledger.cache.max-oversized-users}); a
+ * forgotten user is loaded and checked again on the next read.
+ * </p>
+ */
+@Service
+public class LedgerCache {
+
+    /**
+     * The total size of all snapshots in bytes if not configured.
+     */
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The number of users remembered as too large to be cached if not
+     * configured.
+     */
+    public static final int DEFAULT_MAX_OVERSIZED_USERS = 1024;
+
+    private static final String SELECT_EXPENSES_SQL = "SELECT id, date, amount, budget_id, category_id "
+            + "FROM expense WHERE user_id = ?";
+
+    private static final String SELECT_INCOMES_SQL = "SELECT id, date, amount, payment_frequency, source "
+            + "FROM income WHERE user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${fintrack.ledger.cache.max-bytes:" + DEFAULT_MAX_BYTES + "}")
+    private long maxBytes = DEFAULT_MAX_BYTES;
+
+    @Value("${fintrack.ledger.cache.max-oversized-users:" + DEFAULT_MAX_OVERSIZED_USERS + "}")
+    private int maxOversizedUsers = DEFAULT_MAX_OVERSIZED_USERS;
+
+    /**
+     * The cached snapshots in access order, guarded by synchronizing on the map.
+     */
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The loads in progress per user, guarded by {@link #entries}.
+     */
+    private final Map<Long, Load> loads = new HashMap<>();
+
+    /**
+     * The users whose ledger was too large to be cached, in access order and
+     * guarded by {@link #entries}. Once it holds more than
+     * {@link #maxOversizedUsers} users the least recently read one is forgotten.
+     */
+    private final LinkedHashMap<Long, Boolean> oversized = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > maxOversizedUsers;
+        }
+    };
+
+    /**
+     * The total size of the cached snapshots, guarded by {@link #entries}.
+     */
+    private long cachedBytes;
+
+    /**
+     * Gets the snapshot of a user, loading it if it is not cached.
+     *
+     * @param userId the ID of the user
+     * @return the snapshot, or null if the user's ledger is too large to be cached
+     */
+    public LedgerSnapshot get(Long userId) {
+        Load load;
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                return entry.snapshot;
+            }
+            if (oversized.get(userId) != null) {
+                return null;
+            }
+            load = loads.computeIfAbsent(userId, id -> new Load());
+            load.loaders++;
+        }
+
+        LedgerSnapshot snapshot = null;
+        try {
+            snapshot = load(userId);
+        } finally {
+            synchronized (entries) {
+                if (--load.loaders == 0) {
+                    loads.remove(userId);
+                }
+                if (snapshot != null && !load.stale) {
+                    snapshot = install(userId, snapshot);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reports an expense that was recorded.
+     *
+     * @param expense the saved expense
+     */
+    public void expenseRecorded(Expense expense) {
+        Long userId = expense.getUser().getId();
+        long id = expense.getId();
+        int epochDay = epochDay(expense);
+        long cents = MoneyCents.of(expense.getAmount());
+        int budgetId = idOf(expense.getBudget() != null ? expense.getBudget().getId() : null);
+        int categoryId = idOf(expense.getCategory() != null ? expense.getCategory().getId() : null);
+        afterCommit(() -> patch(userId, snapshot -> snapshot.putExpense(id, epochDay, cents, budgetId, categoryId)));
+    }
+
+    /**
+     * Reports an expense that was amended.
+     *
+     * @param expense the expense with its new values
+     */
+    public void expenseAmended(Expense expense) {
+        Long userId = expense.getUser().getId();
+        long id = expense.getId();
+        int epochDay = epochDay(expense);
+        long cents = MoneyCents.of(expense.getAmount());
+        int budgetId = idOf(expense.getBudget() != null ? expense.getBudget().getId() : null);
+        int categoryId = idOf(expense.getCategory() != null ? expense.getCategory().getId() : null);
+        afterCommit(() -> patch(userId, snapshot -> snapshot.putExpense(id, epochDay, cents, budgetId, categoryId)));
+    }
+
+    /**
+     * Reports an expense that was removed.
+     *
+     * @param expense the removed expense
+     */
+    public void expenseRemoved(Expense expense) {
+        Long userId = expense.getUser().getId();
+        long id = expense.getId();
+        afterCommit(() -> patch(userId, snapshot -> snapshot.removeExpense(id)));
+    }
+
+    /**
+     * Reports an income that was added.
+     *
+     * @param income the saved income
+     */
+    public void incomeAdded(Income income) {
+        Long userId = income.getUser().getId();
+        long id = income.getId();
+        int epochDay = (int) ExpenseCursor.toLocalDate(income.getDate()).toEpochDay();
+        long cents = MoneyCents.of(income.getAmount());
+        String frequency = income.getPaymentFrequency();
+        String source = income.getSource();
+        afterCommit(() -> patch(userId, snapshot -> snapshot.putIncome(id, epochDay, cents, frequency, source)));
+    }
+
+    /**
+     * Reports an income that was updated.
+     *
+     * @param income the income with its new values
+     */
+    public void incomeUpdated(Income income) {
+        Long userId = income.getUser().getId();
+        long id = income.getId();
+        int epochDay = (int) ExpenseCursor.toLocalDate(income.getDate()).toEpochDay();
+        long cents = MoneyCents.of(income.getAmount());
+        String frequency = income.getPaymentFrequency();
+        String source = income.getSource();
+        afterCommit(() -> patch(userId, snapshot -> snapshot.putIncome(id, epochDay, cents, frequency, source)));
+    }
+
+    /**
+     * Reports an income that was removed.
+     *
+     * @param income the removed income
+     */
+    public void incomeRemoved(Income income) {
+        Long userId = income.getUser().getId();
+        long id = income.getId();
+        afterCommit(() -> patch(userId, snapshot -> snapshot.removeIncome(id)));
+    }
+
+    /**
+     * Discards the snapshot of a user, for example after an import. The next
+     * read loads it again.
+     *
+     * @param userId the ID of the user
+     */
+    public void evict(Long userId) {
+        afterCommit(() -> {
+            synchronized (entries) {
+                remove(userId);
+                oversized.remove(userId);
+                markLoadStale(userId);
+            }
+        });
+    }
+
+    /**
+     * Discards all snapshots, for writes whose users are not known.
+     */
+    public void clear() {
+        afterCommit(() -> {
+            synchronized (entries) {
+                entries.values().forEach(entry -> entry.evicted = true);
+                entries.clear();
+                oversized.clear();
+                loads.values().forEach(load -> load.stale = true);
+                cachedBytes = 0;
+            }
+        });
+    }
+
+    /**
+     * Gets the total size of the cached snapshots.
+     *
+     * @return the approximate size in bytes
+     */
+    public long getCachedBytes() {
+        synchronized (entries) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Checks whether the snapshot of a user is cached, without loading it or
+     * marking it as used.
+     *
+     * @param userId the ID of the user
+     * @return true if the snapshot is cached
+     */
+    public boolean isCached(Long userId) {
+        synchronized (entries) {
+            return entries.containsKey(userId);
+        }
+    }
+
+    /**
+     * Reads the expenses and incomes of a user into a new snapshot.
+     *
+     * @param userId the ID of the user
+     * @return the snapshot
+     */
+    private LedgerSnapshot load(Long userId) {
+        ExpenseColumns expenses = new ExpenseColumns(16);
+        jdbcTemplate.query(SELECT_EXPENSES_SQL, resultSet -> {
+            expenses.add(resultSet.getLong(1), (int) resultSet.getDate(2).toLocalDate().toEpochDay(),
+                    MoneyCents.of(resultSet.getBigDecimal(3)), Math.toIntExact(resultSet.getLong(4)),
+                    Math.toIntExact(resultSet.getLong(5)));
+        }, userId);
+
+        IncomeColumns incomes = new IncomeColumns(16);
+        jdbcTemplate.query(SELECT_INCOMES_SQL, resultSet -> {
+            incomes.add(resultSet.getLong(1), (int) resultSet.getDate(2).toLocalDate().toEpochDay(),
+                    MoneyCents.of(resultSet.getBigDecimal(3)), resultSet.getString(4),
+                    resultSet.getString(5));
+        }, userId);
+        return new LedgerSnapshot(expenses, incomes);
+    }
+
+    /**
+     * Adds a loaded snapshot to the cache and evicts the least recently used
+     * snapshots if the cache grows too large. Must be called while holding the
+     * lock on {@link #entries}.
+     *
+     * @param userId   the ID of the user
+     * @param snapshot the loaded snapshot
+     * @return the cached snapshot, which is an earlier snapshot if another load
+     *         of the same user finished first
+     */
+    private LedgerSnapshot install(Long userId, LedgerSnapshot snapshot) {
+        Entry existing = entries.get(userId);
+        if (existing != null) {
+            return existing.snapshot;
+        }
+        long bytes = snapshot.bytes();
+        if (bytes > maxBytes) {
+            oversized.put(userId, Boolean.TRUE);
+            return snapshot;
+        }
+        entries.put(userId, new Entry(snapshot, bytes));
+        cachedBytes += bytes;
+        evictLeastRecentlyUsed();
+        return snapshot;
+    }
+
+    /**
+     * Applies a change to the snapshot of a user if it is cached. If it is being
+     * loaded, the load may have missed the change, so its result is not cached.
+     * The change itself is applied outside the cache lock, so it only waits for
+     * reads of the same snapshot.
+     *
+     * @param userId the ID of the user
+     * @param change the change to apply
+     */
+    private void patch(Long userId, Consumer<LedgerSnapshot> change) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(userId);
+            if (entry == null) {
+                markLoadStale(userId);
+                return;
+            }
+        }
+        change.accept(entry.snapshot);
+        long bytes = entry.snapshot.bytes();
+        synchronized (entries) {
+            if (entry.evicted) {
+                return;
+            }
+            cachedBytes += bytes - entry.bytes;
+            entry.bytes = bytes;
+            if (bytes > maxBytes) {
+                remove(userId);
+                oversized.put(userId, Boolean.TRUE);
+            }
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            entry.evicted = true;
+            cachedBytes -= entry.bytes;
+            iterator.remove();
+        }
+    }
+
+    private void remove(Long userId) {
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            entry.evicted = true;
+            cachedBytes -= entry.bytes;
+        }
+    }
+
+    private void markLoadStale(Long userId) {
+        Load load = loads.get(userId);
+        if (load != null) {
+            load.stale = true;
+        }
+    }
+
+    /**
+     * Runs a change after the current transaction has committed, or right away
+     * if there is no transaction.
+     *
+     * @param change the change to run
+     */
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private static int epochDay(Expense expense) {
+        return (int) ExpenseCursor.toLocalDate(expense.getDate()).toEpochDay();
+    }
+
+    /**
+     * Converts a budget or category ID to the form stored in the columns.
+     *
+     * @param id the ID, null or 0 for none
+     * @return the ID as an int, 0 for none
+     */
+    private static int idOf(Long id) {
+        return id != null ? Math.toIntExact(id) : 0;
+    }
+
+    /**
+     * A cached snapshot and the size it was last accounted with.
+     */
+    private static final class Entry {
+
+        private final LedgerSnapshot snapshot;
+        private long bytes;
+        private boolean evicted;
+
+        private Entry(LedgerSnapshot snapshot, long bytes) {
+            this.snapshot = snapshot;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * A load of a user's snapshot that is in progress.
+     */
+    private static final class Load {
+
+        private int loaders;
+        private boolean stale;
+    }
+}
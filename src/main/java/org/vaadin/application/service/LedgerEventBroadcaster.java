@@ -0,0 +1,57 @@
+package org.vaadin.application.service;
+
+import java.util.function.Consumer;
+import org.vaadin.application.dto.LedgerEvent;
+
+/**
+ * Delivers {@link LedgerEvent}s to the listeners of the affected user, such as
+ * the views the user has open in other tabs or on other devices.
+ *
+ * <p>
+ * Services do not call the broadcaster themselves. They publish ledger events
+ * as Spring application events, and {@link LedgerEventRelay} passes them on
+ * once their transaction has committed. The transport is chosen with
+ * {@code fintrack.ledger.events.transport}: the default
+ * {@link InMemoryLedgerEventBroadcaster} delivers events within this process,
+ * and a deployment with several nodes can provide an implementation that also
+ * sends them to the other nodes.
+ * </p>
+ *
+ * <p>
+ * Implementations must deliver events published on this node to its listeners
+ * on the publishing thread before {@link #publish(LedgerEvent)} returns, so a
+ * listener can tell the changes made by its own request from those made
+ * elsewhere.
+ * </p>
+ */
+public interface LedgerEventBroadcaster {
+
+    /**
+     * Delivers an event to every listener of its user.
+     *
+     * @param event the committed change
+     */
+    void publish(LedgerEvent event);
+
+    /**
+     * Registers a listener for the events of a user.
+     *
+     * @param userId   the ID of the user
+     * @param listener called with every event of the user
+     * @return the subscription, to be cancelled when the listener is no longer
+     *         needed
+     */
+    Subscription subscribe(Long userId, Consumer<LedgerEvent> listener);
+
+    /**
+     * A registered listener.
+     */
+    @FunctionalInterface
+    interface Subscription {
+
+        /**
+         * Stops delivering events to the listener.
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,30 @@
+package org.vaadin.application.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.vaadin.application.dto.LedgerEvent;
+
+/**
+ * Passes the {@link LedgerEvent}s published by the services on to the
+ * {@link LedgerEventBroadcaster} once their transaction has committed, so
+ * listeners never see changes that are rolled back.
+ */
+@Component
+public class LedgerEventRelay {
+
+    @Autowired
+    private LedgerEventBroadcaster ledgerEventBroadcaster;
+
+    /**
+     * Broadcasts a ledger event after the transaction it was published in has
+     * committed, or right away if it was published outside a transaction.
+     * Events of rolled back transactions are dropped.
+     *
+     * @param event the published event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void relay(LedgerEvent event) {
+        ledgerEventBroadcaster.publish(event);
+    }
+}
@@ -0,0 +1,194 @@
+package org.vaadin.application.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.util.CsvWriter;
+
+/**
+ * Service class exporting a user's expenses and incomes as CSV files.
+ *
+ * <p>
+ * Rows are read with a forward-only, read-only JDBC cursor
+ * {@code fintrack.export.fetch-size} rows at a time and written to the output
+ * stream as they are read, optionally gzip compressed. The heap used by an
+ * export does not depend on the size of the ledger. With MySQL the fetch size
+ * relies on {@code useCursorFetch=true}, which is set on the datasource in
+ * {@code application.properties}.
+ * </p>
+ */
+@Service
+public class LedgerExportService {
+
+    /**
+     * The number of rows fetched per round trip if not configured.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * The content type of an uncompressed export.
+     */
+    public static final String CSV_CONTENT_TYPE = "text/csv";
+
+    /**
+     * The content type of a gzip compressed export.
+     */
+    public static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String SELECT_EXPENSES_SQL = "SELECT e.date, e.description, e.amount, b.name, c.name "
+            + "FROM expense e "
+            + "LEFT JOIN budget b ON b.id = e.budget_id "
+            + "LEFT JOIN expense_category c ON c.id = e.category_id "
+            + "WHERE e.user_id = ? "
+            + "ORDER BY e.date DESC, e.id DESC";
+
+    private static final String SELECT_INCOMES_SQL = "SELECT date, source, amount, payment_frequency "
+            + "FROM income WHERE user_id = ? "
+            + "ORDER BY date DESC, id DESC";
+
+    private static final String[] EXPENSE_HEADER = { "Date", "Description", "Amount", "Budget", "Category" };
+
+    private static final String[] INCOME_HEADER = { "Date", "Source", "Amount", "Payment Frequency" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${fintrack.export.fetch-size:" + DEFAULT_FETCH_SIZE + "}")
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * Writes the expenses of a user as CSV, newest first, with the columns
+     * date, description, amount, budget and category.
+     *
+     * @param userId the ID of the user whose expenses are exported
+     * @param out    the stream to write to, which is flushed but not closed
+     * @param gzip   whether to compress the CSV with gzip
+     * @return the number of exported expenses
+     * @throws IOException if the stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long exportExpenses(Long userId, OutputStream out, boolean gzip) throws IOException {
+        return export(SELECT_EXPENSES_SQL, userId, out, gzip, EXPENSE_HEADER, (csv, resultSet) -> csv
+                .field(resultSet.getDate(1).toString())
+                .field(resultSet.getString(2))
+                .field(resultSet.getBigDecimal(3).toPlainString())
+                .field(resultSet.getString(4))
+                .field(resultSet.getString(5)));
+    }
+
+    /**
+     * Writes the incomes of a user as CSV, newest first, with the columns date,
+     * source, amount and payment frequency.
+     *
+     * @param userId the ID of the user whose incomes are exported
+     * @param out    the stream to write to, which is flushed but not closed
+     * @param gzip   whether to compress the CSV with gzip
+     * @return the number of exported incomes
+     * @throws IOException if the stream cannot be written
+     */
+    @Transactional(readOnly = true)
+    public long exportIncomes(Long userId, OutputStream out, boolean gzip) throws IOException {
+        return export(SELECT_INCOMES_SQL, userId, out, gzip, INCOME_HEADER, (csv, resultSet) -> csv
+                .field(resultSet.getDate(1).toString())
+                .field(resultSet.getString(2))
+                .field(resultSet.getBigDecimal(3).toPlainString())
+                .field(resultSet.getString(4)));
+    }
+
+    /**
+     * Gets the file name of an export.
+     *
+     * @param name the name of the file without extension
+     * @param gzip whether the export is gzip compressed
+     * @return the file name with the extension of the export
+     */
+    public static String fileName(String name, boolean gzip) {
+        return name + (gzip ? ".csv.gz" : ".csv");
+    }
+
+    /**
+     * Gets the content type of an export.
+     *
+     * @param gzip whether the export is gzip compressed
+     * @return the content type
+     */
+    public static String contentType(boolean gzip) {
+        return gzip ? GZIP_CONTENT_TYPE : CSV_CONTENT_TYPE;
+    }
+
+    /**
+     * Runs a query of a user's rows and writes the header and every row as CSV
+     * while the rows are read.
+     *
+     * @param sql       the query, with the user ID as its only parameter
+     * @param userId    the ID of the user
+     * @param out       the stream to write to
+     * @param gzip      whether to compress the CSV with gzip
+     * @param header    the names of the columns
+     * @param rowWriter writes the fields of the current row
+     * @return the number of rows written, without the header
+     * @throws IOException if the stream cannot be written
+     */
+    private long export(String sql, Long userId, OutputStream out, boolean gzip, String[] header,
+            RowWriter rowWriter) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        CsvWriter csv = new CsvWriter(new BufferedWriter(
+                new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE));
+        csv.row(header);
+
+        PreparedStatementCreator query = connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, userId);
+            return statement;
+        };
+        long[] rows = new long[1];
+        RowCallbackHandler writeRow = resultSet -> {
+            try {
+                rowWriter.write(csv, resultSet);
+                csv.endRow();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        };
+        try {
+            jdbcTemplate.query(query, writeRow);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        csv.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        return rows[0];
+    }
+
+    /**
+     * Writes the fields of the current row of a result set.
+     */
+    @FunctionalInterface
+    private interface RowWriter {
+
+        void write(CsvWriter csv, ResultSet resultSet) throws IOException, SQLException;
+    }
+}
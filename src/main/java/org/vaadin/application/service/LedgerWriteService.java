@@ -0,0 +1,370 @@
+package org.vaadin.application.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.dto.BudgetExpenseTotal;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.dto.LedgerEvent;
+import org.vaadin.application.dto.LedgerEvent.BudgetChanged;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.ExpenseChanged;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.ExpenseCategory;
+import org.vaadin.application.model.MonthlyExpenseRollupId;
+import org.vaadin.application.repository.BudgetRepository;
+import org.vaadin.application.repository.ExpenseCategoryRepository;
+import org.vaadin.application.repository.ExpenseRepository;
+import org.vaadin.application.util.LongTotals;
+import org.vaadin.application.util.MoneyCents;
+
+/**
+ * Service class for writing expenses together with their effect on budgets.
+ *
+ * <p>
+ * Every operation runs in a single transaction that persists the expense and
+ * applies the change to the current amount of the affected budgets, so either
+ * both are stored or neither is. Budgets are updated with an atomic
+ * {@link BudgetRepository#adjustCurrentAmount(Long, BigDecimal)} statement
+ * instead of being loaded and merged. The monthly expense rollup is
+ * maintained through {@link ExpenseRollupService} in the same transaction, and
+ * every change is reported to the {@link LedgerCache}, which applies it after
+ * the commit. The cached forecasts of the affected user are evicted after the
+ * commit as well. Every change is also published as a {@link LedgerEvent}.
+ * </p>
+ *
+ * <p>
+ * Bulk imports bypass the persistence context and insert rows with JDBC
+ * batches of {@code fintrack.expense.batch-size} rows. JDBC batching works
+ * with the auto-increment IDs of the expense table, whereas Hibernate cannot
+ * batch inserts of entities with IDENTITY IDs. The IDs are kept as IDENTITY
+ * rather than moved to a pooled generator, so single writes still insert one
+ * row at a time. The datasource sets {@code rewriteBatchedStatements=true}, so
+ * MySQL receives each batch as one multi-row insert.
+ * </p>
+ */
+@Service
+public class LedgerWriteService {
+
+    /**
+     * The number of rows sent to the database in one JDBC batch if not configured.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String INSERT_EXPENSE_SQL = "INSERT INTO expense "
+            + "(description, amount, date, user_id, budget_id, category_id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository expenseCategoryRepository;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private LedgerCache ledgerCache;
+
+    @Autowired
+    private ForecastCache forecastCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${fintrack.expense.batch-size:" + DEFAULT_BATCH_SIZE + "}")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Records a new expense and adds its amount to the budget it belongs to.
+     *
+     * @param expense the expense to be recorded
+     * @return the recorded expense
+     */
+    @Transactional
+    public Expense recordExpense(Expense expense) {
+        Expense savedExpense = expenseRepository.save(expense);
+        adjustBudget(savedExpense.getBudget(), savedExpense.getAmount());
+        expenseRollupService.add(savedExpense);
+        ledgerCache.expenseRecorded(savedExpense);
+        forecastCache.evict(savedExpense.getUser().getId());
+        eventPublisher.publishEvent(new ExpenseChanged(savedExpense.getUser().getId(), Change.ADDED,
+                savedExpense.getId(), MoneyCents.of(savedExpense.getAmount())));
+        return savedExpense;
+    }
+
+    /**
+     * Records many expenses at once. Rows are inserted in JDBC batches while the
+     * expenses are read from the iterator, so only one batch is held in memory.
+     * The budget and rollup changes are summed per budget and per rollup bucket
+     * and applied with one update each after all rows are inserted. Either all expenses are recorded or,
+     * if any of them is invalid, none. One event with the total amount is
+     * published per user.
+     *
+     * @param expenses the expenses to be recorded
+     * @return the number of recorded expenses
+     * @throws IllegalArgumentException if an expense is missing required values
+     */
+    @Transactional
+    public int recordExpenses(Iterator<ExpenseImport> expenses) {
+        LongTotals budgetDeltas = new LongTotals();
+        ExpenseRollupService.Changes rollupChanges = new ExpenseRollupService.Changes();
+        LongTotals userTotals = new LongTotals();
+        List<ExpenseImport> batch = new ArrayList<>(batchSize);
+        int recorded = 0;
+
+        while (expenses.hasNext()) {
+            ExpenseImport expense = expenses.next();
+            validate(expense, recorded);
+            batch.add(expense);
+            long cents = MoneyCents.of(expense.amount());
+            if (expense.budgetId() != null) {
+                budgetDeltas.add(expense.budgetId(), cents);
+            }
+            rollupChanges.add(new MonthlyExpenseRollupId(expense.userId(), expense.date(), expense.budgetId(),
+                    expense.categoryId()), expense.amount());
+            userTotals.add(expense.userId(), cents);
+            recorded++;
+
+            if (batch.size() == batchSize) {
+                insertBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch);
+        }
+
+        for (int slot = 0; slot < budgetDeltas.slots(); slot++) {
+            if (budgetDeltas.isUsed(slot)) {
+                budgetRepository.adjustCurrentAmount(budgetDeltas.keyAt(slot),
+                        MoneyCents.toBigDecimal(budgetDeltas.valueAt(slot)));
+            }
+        }
+        if (!rollupChanges.isEmpty()) {
+            expenseRollupService.apply(rollupChanges);
+        }
+        for (int slot = 0; slot < userTotals.slots(); slot++) {
+            if (userTotals.isUsed(slot)) {
+                // The inserted rows have no IDs here, so the snapshots are loaded again
+                Long userId = userTotals.keyAt(slot);
+                ledgerCache.evict(userId);
+                forecastCache.evict(userId);
+                eventPublisher.publishEvent(new ExpenseChanged(userId, Change.ADDED, null, userTotals.valueAt(slot)));
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Amends an existing expense with the values of the given expense. The
+     * budgets are adjusted by the difference between the stored and the amended
+     * expense: the amount moves from the old to the new budget if the budget
+     * changed, otherwise only the change in amount is applied. The rollup is
+     * adjusted the same way. The stored expense is loaded here, so the changes
+     * must be a separate instance rather than the loaded entity modified in
+     * place.
+     *
+     * @param changes the expense holding the ID of the expense to amend and its new values
+     * @return the amended expense
+     * @throws IllegalArgumentException if no expense with the ID exists
+     */
+    @Transactional
+    public Expense amendExpense(Expense changes) {
+        Expense expense = findExistingExpense(changes.getId());
+        MonthlyExpenseRollupId oldBucket = ExpenseRollupService.keyOf(expense);
+
+        Budget oldBudget = expense.getBudget();
+        BigDecimal oldAmount = expense.getAmount();
+        Budget newBudget = changes.getBudget();
+        BigDecimal newAmount = changes.getAmount();
+
+        if (Objects.equals(budgetId(oldBudget), budgetId(newBudget))) {
+            adjustBudget(newBudget, newAmount.subtract(oldAmount));
+        } else {
+            adjustBudget(oldBudget, oldAmount.negate());
+            adjustBudget(newBudget, newAmount);
+        }
+
+        expense.setDescription(changes.getDescription());
+        expense.setAmount(newAmount);
+        expense.setDate(changes.getDate());
+        expense.setCategory(changes.getCategory());
+        expense.setBudget(newBudget);
+
+        MonthlyExpenseRollupId newBucket = ExpenseRollupService.keyOf(expense);
+        if (oldBucket.equals(newBucket)) {
+            expenseRollupService.apply(newBucket, newAmount.subtract(oldAmount), 0);
+        } else {
+            expenseRollupService.apply(oldBucket, oldAmount.negate(), -1);
+            expenseRollupService.apply(newBucket, newAmount, 1);
+        }
+        ledgerCache.expenseAmended(expense);
+        forecastCache.evict(expense.getUser().getId());
+        eventPublisher.publishEvent(new ExpenseChanged(expense.getUser().getId(), Change.UPDATED, expense.getId(),
+                MoneyCents.subtract(MoneyCents.of(newAmount), MoneyCents.of(oldAmount))));
+        return expense;
+    }
+
+    /**
+     * Removes an expense and subtracts its amount from the budget and the rollup
+     * bucket it belonged to.
+     *
+     * @param id the ID of the expense to be removed
+     * @throws IllegalArgumentException if no expense with the ID exists
+     */
+    @Transactional
+    public void removeExpense(Long id) {
+        Expense expense = findExistingExpense(id);
+        expenseRepository.delete(expense);
+        adjustBudget(expense.getBudget(), expense.getAmount().negate());
+        expenseRollupService.subtract(expense);
+        ledgerCache.expenseRemoved(expense);
+        forecastCache.evict(expense.getUser().getId());
+        eventPublisher.publishEvent(new ExpenseChanged(expense.getUser().getId(), Change.REMOVED, id,
+                -MoneyCents.of(expense.getAmount())));
+    }
+
+    /**
+     * Removes an expense category together with its expenses. The amounts of the
+     * removed expenses are summed per budget and subtracted from the budgets,
+     * and the rollup buckets of the category are deleted. One event with the
+     * total removed amount is published. Nothing happens if the category does
+     * not exist.
+     *
+     * @param id the ID of the expense category to be removed
+     */
+    @Transactional
+    public void removeExpenseCategory(Long id) {
+        ExpenseCategory category = expenseCategoryRepository.findById(id).orElse(null);
+        if (category == null) {
+            return;
+        }
+        Long userId = category.getUser().getId();
+
+        long removedCents = 0;
+        for (BudgetExpenseTotal budgetTotal : expenseRepository.sumTotalsByBudgetForCategory(id)) {
+            if (budgetTotal.budgetId() != null) {
+                budgetRepository.adjustCurrentAmount(budgetTotal.budgetId(), budgetTotal.total().negate());
+            }
+            removedCents = MoneyCents.add(removedCents, MoneyCents.of(budgetTotal.total()));
+        }
+        int removed = expenseRepository.deleteByCategoryId(id);
+        expenseCategoryRepository.delete(category);
+
+        if (removed > 0) {
+            expenseRollupService.subtractCategory(userId, id);
+            // The removed rows were not loaded, so the snapshot is loaded again
+            ledgerCache.evict(userId);
+            forecastCache.evict(userId);
+            eventPublisher.publishEvent(new ExpenseChanged(userId, Change.REMOVED, null, -removedCents));
+        }
+    }
+
+    /**
+     * Removes a budget. Its expenses are kept without a budget, and the rollup
+     * buckets of the budget are merged into the buckets without a budget, so
+     * the totals of the user do not change. The cached ledger and forecasts of
+     * the user are evicted after the commit. Nothing happens if the budget does
+     * not exist.
+     *
+     * @param id the ID of the budget to be removed
+     */
+    @Transactional
+    public void removeBudget(Long id) {
+        Budget budget = budgetRepository.findById(id).orElse(null);
+        if (budget == null) {
+            return;
+        }
+        Long userId = budget.getUser().getId();
+
+        int reassigned = expenseRepository.clearBudget(id);
+        expenseRollupService.moveBudgetToNone(userId, id);
+        budgetRepository.delete(budget);
+
+        if (reassigned > 0) {
+            // The changed rows were not loaded, so the snapshot is loaded again
+            ledgerCache.evict(userId);
+            forecastCache.evict(userId);
+            eventPublisher.publishEvent(new ExpenseChanged(userId, Change.UPDATED, null, 0));
+        }
+        eventPublisher.publishEvent(new BudgetChanged(userId, Change.REMOVED, id));
+    }
+
+    /**
+     * Inserts a batch of expenses with a single JDBC batch.
+     *
+     * @param batch the expenses to insert
+     */
+    private void insertBatch(List<ExpenseImport> batch) {
+        jdbcTemplate.batchUpdate(INSERT_EXPENSE_SQL, batch, batch.size(), (statement, expense) -> {
+            statement.setString(1, expense.description());
+            statement.setBigDecimal(2, expense.amount());
+            statement.setDate(3, Date.valueOf(expense.date()));
+            statement.setLong(4, expense.userId());
+            statement.setObject(5, expense.budgetId(), Types.BIGINT);
+            statement.setObject(6, expense.categoryId(), Types.BIGINT);
+        });
+    }
+
+    /**
+     * Checks that an imported expense has all required values.
+     *
+     * @param expense the expense to check
+     * @param index   the position of the expense in the import
+     * @throws IllegalArgumentException if a required value is missing or invalid
+     */
+    private void validate(ExpenseImport expense, int index) {
+        if (expense == null || expense.userId() == null || expense.description() == null
+                || expense.date() == null || expense.amount() == null || expense.amount().signum() <= 0) {
+            throw new IllegalArgumentException("Invalid expense at index " + index
+                    + ": userId, description, date and a positive amount are required");
+        }
+    }
+
+    /**
+     * Finds an expense that is expected to exist.
+     *
+     * @param id the ID of the expense to find
+     * @return the expense
+     * @throws IllegalArgumentException if no expense with the ID exists
+     */
+    private Expense findExistingExpense(Long id) {
+        return expenseRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Expense not found with ID: " + id));
+    }
+
+    /**
+     * Adds a delta to the current amount of a budget. Nothing is written if there
+     * is no budget or the delta is zero.
+     *
+     * @param budget the budget to adjust, may be null
+     * @param delta  the amount to add, negative to subtract
+     */
+    private void adjustBudget(Budget budget, BigDecimal delta) {
+        if (budget != null && delta.signum() != 0) {
+            budgetRepository.adjustCurrentAmount(budget.getId(), delta);
+        }
+    }
+
+    private static Long budgetId(Budget budget) {
+        return budget != null ? budget.getId() : null;
+    }
+}
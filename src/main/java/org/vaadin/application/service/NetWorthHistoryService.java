@@ -0,0 +1,106 @@
+package org.vaadin.application.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.dto.GoalProgress;
+import org.vaadin.application.dto.NetWorthPoint;
+import org.vaadin.application.model.NetWorthHistory;
+import org.vaadin.application.model.NetWorthHistoryId;
+import org.vaadin.application.repository.FinancialGoalRepository;
+import org.vaadin.application.repository.NetWorthHistoryRepository;
+import org.vaadin.application.util.MoneyCents;
+import org.vaadin.application.util.NetWorthSeries;
+
+/**
+ * Service class recording and reading the daily history of a user's net worth
+ * and goal progress.
+ *
+ * <p>
+ * A snapshot holds the net worth of the user, which is the total value of
+ * their assets as valued by {@link AssetValuationService} since no liabilities
+ * are tracked, and the saved and target amounts of all their financial goals.
+ * Snapshots are recorded by {@link NetWorthSnapshotJob} and stored per user and
+ * year in delta encoded rows, see {@link NetWorthHistory}, so a range of
+ * several years is served by a single query over the primary key.
+ * </p>
+ */
+@Service
+public class NetWorthHistoryService {
+
+    @Autowired
+    private NetWorthHistoryRepository netWorthHistoryRepository;
+
+    @Autowired
+    private FinancialGoalRepository financialGoalRepository;
+
+    @Autowired
+    private AssetValuationService assetValuationService;
+
+    /**
+     * Records the net worth and goal progress of a user on a date. A snapshot
+     * recorded earlier on the same date is replaced.
+     *
+     * @param userId the ID of the user
+     * @param date   the date of the snapshot, not before the last snapshot of the
+     *               user in the same year
+     * @throws IllegalArgumentException if a later snapshot was already recorded
+     *                                  in the same year
+     */
+    @Transactional
+    public void recordSnapshot(Long userId, LocalDate date) {
+        long netWorth = MoneyCents.of(assetValuationService.getTotalValue(userId, date));
+        GoalProgress goals = financialGoalRepository.sumProgressByUserId(userId);
+
+        NetWorthHistoryId id = new NetWorthHistoryId(userId, date);
+        NetWorthHistory history = netWorthHistoryRepository.findById(id).orElseGet(() -> new NetWorthHistory(id));
+        NetWorthSeries series = new NetWorthSeries(date.getDayOfYear());
+        history.decodeInto(series, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        series.put((int) date.toEpochDay(), netWorth, MoneyCents.of(goals.saved()), MoneyCents.of(goals.target()));
+        history.setSnapshots(series.encode(id.getFirstDay()));
+        netWorthHistoryRepository.save(history);
+    }
+
+    /**
+     * Gets the snapshots of a user within a range of dates.
+     *
+     * @param userId the ID of the user
+     * @param from   the first date of the range (inclusive)
+     * @param to     the last date of the range (inclusive)
+     * @return the snapshots in ascending order of days
+     */
+    @Transactional(readOnly = true)
+    public NetWorthSeries getHistory(Long userId, LocalDate from, LocalDate to) {
+        int fromDay = (int) from.toEpochDay();
+        int toDay = (int) to.toEpochDay();
+        NetWorthSeries series = new NetWorthSeries(Math.max(0, Math.min(toDay - fromDay + 1, 5 * 366)));
+        for (NetWorthHistory history : netWorthHistoryRepository.findByUserIdAndYears(userId, from.getYear(),
+                to.getYear())) {
+            history.decodeInto(series, fromDay, toDay);
+        }
+        return series;
+    }
+
+    /**
+     * Gets the snapshots of a user within a range of dates as points of a
+     * chart.
+     *
+     * @param userId the ID of the user
+     * @param from   the first date of the range (inclusive)
+     * @param to     the last date of the range (inclusive)
+     * @return one point per recorded day in ascending order of dates
+     */
+    public List<NetWorthPoint> getHistoryPoints(Long userId, LocalDate from, LocalDate to) {
+        NetWorthSeries series = getHistory(userId, from, to);
+        List<NetWorthPoint> points = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            points.add(new NetWorthPoint(LocalDate.ofEpochDay(series.dayAt(i)),
+                    MoneyCents.toBigDecimal(series.netWorthAt(i)), MoneyCents.toBigDecimal(series.goalsSavedAt(i)),
+                    MoneyCents.toBigDecimal(series.goalsTargetAt(i))));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,53 @@
+package org.vaadin.application.service;
+
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.vaadin.application.repository.UserRepository;
+
+/**
+ * Records the net worth and goal progress of every user once a day, see
+ * {@link NetWorthHistoryService}.
+ *
+ * <p>
+ * The job runs on the schedule {@code fintrack.net-worth.snapshot-cron}. A user
+ * whose snapshot fails is logged and skipped, so the other users are still
+ * recorded; running the job again on the same day replaces that day's
+ * snapshots.
+ * </p>
+ */
+@Component
+public class NetWorthSnapshotJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetWorthSnapshotJob.class);
+
+    @Autowired
+    private NetWorthHistoryService netWorthHistoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Records today's snapshot of every user.
+     *
+     * @return the number of users whose snapshot was recorded
+     */
+    @Scheduled(cron = "${fintrack.net-worth.snapshot-cron:0 30 0 * * *}")
+    public int recordSnapshots() {
+        LocalDate today = LocalDate.now();
+        int recorded = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            try {
+                netWorthHistoryService.recordSnapshot(userId, today);
+                recorded++;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not record the net worth of user {}", userId, e);
+            }
+        }
+        LOGGER.info("Recorded the net worth of {} users for {}", recorded, today);
+        return recorded;
+    }
+}
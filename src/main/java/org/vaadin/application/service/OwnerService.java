@@ -0,0 +1,56 @@
+package org.vaadin.application.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.vaadin.application.model.User;
+import org.vaadin.application.repository.UserRepository;
+
+/**
+ * Service class for resolving the user that owns newly created records.
+ *
+ * <p>
+ * The owner returned by this service is a reference to the user rather than a
+ * loaded entity: only its ID is known, which is all that is needed to write
+ * the {@code user_id} column. Setting it on a new entity therefore does not
+ * read the user from the database, so an insert is a single statement. The
+ * reference must not be used to read other properties of the user.
+ * </p>
+ */
+@Service
+public class OwnerService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
+    /**
+     * Returns a reference to the user with the given ID without loading it.
+     *
+     * @param userId the ID of the user
+     * @return a reference to the user
+     * @throws IllegalArgumentException if the ID is null
+     */
+    public User getOwner(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("The owner ID must not be null");
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    /**
+     * Returns a reference to the user logged in to the current session without
+     * loading it.
+     *
+     * @return a reference to the logged-in user
+     * @throws IllegalStateException if no user is logged in
+     */
+    public User getLoggedInOwner() {
+        Long userId = sessionService.getLoggedInUserId();
+        if (userId == null) {
+            throw new IllegalStateException("No user is logged in");
+        }
+        return getOwner(userId);
+    }
+}
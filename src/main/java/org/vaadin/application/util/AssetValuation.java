@@ -0,0 +1,206 @@
+package org.vaadin.application.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The value of a set of assets on any day.
+ *
+ * <p>
+ * Every asset has a value recorded on a day and an annual interest rate in
+ * percent. Its value on another day is compounded from the recorded value as
+ * {@code value * (1 + rate / 100) ^ years}, where {@code years} is the number
+ * of days since the recorded day divided by {@link #DAYS_PER_YEAR}. Days
+ * before the recorded day discount the value in the same way. Days are given
+ * as days since 1970-01-01.
+ * </p>
+ *
+ * <p>
+ * The assets are kept in parallel primitive arrays and every valuation is a
+ * loop over them. Values are calculated as {@code double} cents and each total
+ * is rounded half up to whole cents once, so an asset valued on its recorded
+ * day contributes exactly its recorded amount. A projection over many days
+ * compounds the values of the previous day with one growth factor per asset
+ * and day gap, which is calculated once per distinct gap length. A monthly
+ * projection therefore needs at most four exponentials per asset, for months
+ * of 28 to 31 days, and otherwise only multiplications.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe while assets are added, but may be shared
+ * once they are complete.
+ * </p>
+ */
+public final class AssetValuation {
+
+    /**
+     * The average length of a year in the Gregorian calendar.
+     */
+    public static final double DAYS_PER_YEAR = 365.2425;
+
+    /**
+     * The approximate number of bytes used per asset.
+     */
+    public static final int BYTES_PER_ASSET = Double.BYTES + Integer.BYTES + Double.BYTES;
+
+    /**
+     * Totals must stay below this number of cents to be rounded to a
+     * {@code long}.
+     */
+    private static final double MAX_CENTS = 0x1p63;
+
+    private double[] cents;
+    private int[] valuedOn;
+    private double[] growthPerDay;
+    private int size;
+
+    /**
+     * Creates an empty set of assets.
+     *
+     * @param capacity the number of assets expected
+     */
+    public AssetValuation(int capacity) {
+        int initialCapacity = Math.max(capacity, 4);
+        cents = new double[initialCapacity];
+        valuedOn = new int[initialCapacity];
+        growthPerDay = new double[initialCapacity];
+    }
+
+    /**
+     * Adds an asset.
+     *
+     * @param valueCents          the value of the asset in cents
+     * @param valuedOnDay         the day the value was recorded on
+     * @param interestRatePercent the annual interest rate in percent, null for
+     *                            none
+     * @throws IllegalArgumentException if the interest rate is -100 % or below
+     */
+    public void add(long valueCents, int valuedOnDay, BigDecimal interestRatePercent) {
+        double rate = interestRatePercent != null ? interestRatePercent.doubleValue() / 100 : 0;
+        if (!(rate > -1)) {
+            throw new IllegalArgumentException("Interest rate must be above -100 %: " + interestRatePercent);
+        }
+        if (size == cents.length) {
+            int capacity = size * 2;
+            cents = Arrays.copyOf(cents, capacity);
+            valuedOn = Arrays.copyOf(valuedOn, capacity);
+            growthPerDay = Arrays.copyOf(growthPerDay, capacity);
+        }
+        cents[size] = valueCents;
+        valuedOn[size] = valuedOnDay;
+        growthPerDay[size] = Math.log1p(rate) / DAYS_PER_YEAR;
+        size++;
+    }
+
+    /**
+     * Gets the number of assets.
+     *
+     * @return the number of assets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the approximate size of the assets in memory.
+     *
+     * @return the size in bytes
+     */
+    public long bytes() {
+        return (long) cents.length * BYTES_PER_ASSET;
+    }
+
+    /**
+     * Calculates the total value of the assets on a day.
+     *
+     * @param day the day to value the assets on
+     * @return the total value in cents
+     * @throws ArithmeticException if the total does not fit into a {@code long}
+     */
+    public long valueAt(int day) {
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += cents[i] * Math.exp(growthPerDay[i] * (day - valuedOn[i]));
+        }
+        return toCents(total);
+    }
+
+    /**
+     * Calculates the total value of the assets on each of a number of days.
+     *
+     * @param days the days to value the assets on, in ascending order
+     * @return the total values in cents, one for each day
+     * @throws IllegalArgumentException if the days are not in ascending order
+     * @throws ArithmeticException      if a total does not fit into a
+     *                                  {@code long}
+     */
+    public long[] valuesAt(int... days) {
+        long[] totals = new long[days.length];
+        if (days.length == 0) {
+            return totals;
+        }
+        double[] values = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            values[i] = cents[i] * Math.exp(growthPerDay[i] * (days[0] - valuedOn[i]));
+            total += values[i];
+        }
+        totals[0] = toCents(total);
+
+        Map<Integer, double[]> factorsByGap = new HashMap<>();
+        for (int d = 1; d < days.length; d++) {
+            int gap = days[d] - days[d - 1];
+            if (gap < 0) {
+                throw new IllegalArgumentException("Days must be in ascending order: " + days[d - 1] + ", "
+                        + days[d]);
+            }
+            double[] factors = factorsByGap.computeIfAbsent(gap, this::growthFactors);
+            // Kept apart from the sum, which must be added up in order, so that
+            // the multiplication can be vectorized
+            for (int i = 0; i < size; i++) {
+                values[i] *= factors[i];
+            }
+            total = 0;
+            for (int i = 0; i < size; i++) {
+                total += values[i];
+            }
+            totals[d] = toCents(total);
+        }
+        return totals;
+    }
+
+    /**
+     * Sets each month of a series to the total value of the assets on the first
+     * day of the month.
+     *
+     * @param series the series to fill
+     */
+    public void setMonthStartValues(MonthlySeries series) {
+        int firstIndex = MonthlySeries.toIndex(series.getFirstMonth());
+        int[] days = new int[series.length()];
+        for (int position = 0; position < days.length; position++) {
+            days[position] = MonthlySeries.firstDayOf(firstIndex + position);
+        }
+        long[] totals = valuesAt(days);
+        for (int position = 0; position < totals.length; position++) {
+            series.setCents(position, totals[position]);
+        }
+    }
+
+    private double[] growthFactors(int days) {
+        double[] factors = new double[size];
+        for (int i = 0; i < size; i++) {
+            factors[i] = Math.exp(growthPerDay[i] * days);
+        }
+        return factors;
+    }
+
+    private static long toCents(double total) {
+        if (!(Math.abs(total) < MAX_CENTS)) {
+            throw new ArithmeticException("Total value out of range: " + total);
+        }
+        return Math.round(total);
+    }
+}
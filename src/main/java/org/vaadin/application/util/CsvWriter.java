@@ -0,0 +1,105 @@
+package org.vaadin.application.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes comma separated values as described in RFC 4180, one field at a time.
+ *
+ * <p>
+ * Fields containing a comma, a double quote or a line break are enclosed in
+ * double quotes, with the double quotes inside doubled. Null values are
+ * written as empty fields, and every row ends with CRLF. Nothing is held
+ * beyond the current field, so rows can be written straight from a database
+ * cursor; the given writer should be buffered.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class CsvWriter implements Flushable {
+
+    private final Writer writer;
+    private boolean rowStarted;
+
+    /**
+     * Creates a CSV writer.
+     *
+     * @param writer the writer the values are written to
+     */
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the next field of the current row.
+     *
+     * @param value the value, or null for an empty field
+     * @return this writer
+     * @throws IOException if the value cannot be written
+     */
+    public CsvWriter field(String value) throws IOException {
+        if (rowStarted) {
+            writer.write(',');
+        }
+        rowStarted = true;
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return this;
+        }
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                writer.write(value, start, i + 1 - start);
+                start = i;
+            }
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+        return this;
+    }
+
+    /**
+     * Ends the current row.
+     *
+     * @throws IOException if the line break cannot be written
+     */
+    public void endRow() throws IOException {
+        writer.write("\r\n");
+        rowStarted = false;
+    }
+
+    /**
+     * Writes a whole row.
+     *
+     * @param values the values of the row
+     * @throws IOException if the row cannot be written
+     */
+    public void row(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        endRow();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
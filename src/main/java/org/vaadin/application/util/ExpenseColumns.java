@@ -0,0 +1,202 @@
+package org.vaadin.application.util;
+
+import java.util.Arrays;
+
+/**
+ * The expenses of one user stored column by column in primitive arrays.
+ *
+ * <p>
+ * Each expense is a row of its ID, its day as days since 1970-01-01, its
+ * amount in cents and the IDs of its budget and category, where 0 stands for
+ * none. Aggregations scan the arrays directly, so they neither box nor
+ * allocate per row. Rows are kept in no particular order; removing a row moves
+ * the last row into its place. A {@link RowIndex} maps IDs to rows, so updates
+ * and removals do not scan the columns.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe; {@link LedgerSnapshot} guards them.
+ * </p>
+ */
+public final class ExpenseColumns {
+
+    /**
+     * The number of bytes used by one row.
+     */
+    public static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private long[] ids;
+    private int[] epochDays;
+    private long[] cents;
+    private int[] budgetIds;
+    private int[] categoryIds;
+    private int size;
+    private final RowIndex index;
+
+    /**
+     * Creates empty columns.
+     *
+     * @param capacity the number of rows to make room for
+     */
+    public ExpenseColumns(int capacity) {
+        ids = new long[capacity];
+        epochDays = new int[capacity];
+        cents = new long[capacity];
+        budgetIds = new int[capacity];
+        categoryIds = new int[capacity];
+        index = new RowIndex(capacity);
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of expenses
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of bytes held by the arrays and the row index, including
+     * unused capacity.
+     *
+     * @return the size of the arrays in bytes
+     */
+    public long bytes() {
+        return (long) ids.length * BYTES_PER_ROW + index.bytes();
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param id          the ID of the expense
+     * @param epochDay    the day of the expense as days since 1970-01-01
+     * @param amountCents the amount in cents
+     * @param budgetId    the ID of the budget, or 0 for none
+     * @param categoryId  the ID of the category, or 0 for none
+     */
+    public void add(long id, int epochDay, long amountCents, int budgetId, int categoryId) {
+        if (size == ids.length) {
+            grow();
+        }
+        index.put(id, size);
+        set(size++, id, epochDay, amountCents, budgetId, categoryId);
+    }
+
+    /**
+     * Replaces the values of the row of an expense.
+     *
+     * @param id          the ID of the expense
+     * @param epochDay    the new day as days since 1970-01-01
+     * @param amountCents the new amount in cents
+     * @param budgetId    the new budget ID, or 0 for none
+     * @param categoryId  the new category ID, or 0 for none
+     * @return true if the expense has a row, false otherwise
+     */
+    public boolean update(long id, int epochDay, long amountCents, int budgetId, int categoryId) {
+        int row = index.get(id);
+        if (row < 0) {
+            return false;
+        }
+        set(row, id, epochDay, amountCents, budgetId, categoryId);
+        return true;
+    }
+
+    /**
+     * Removes the row of an expense.
+     *
+     * @param id the ID of the expense
+     * @return true if the expense had a row, false otherwise
+     */
+    public boolean remove(long id) {
+        int row = index.get(id);
+        if (row < 0) {
+            return false;
+        }
+        index.remove(id);
+        int last = --size;
+        if (row != last) {
+            index.put(ids[last], row);
+            set(row, ids[last], epochDays[last], cents[last], budgetIds[last], categoryIds[last]);
+        }
+        return true;
+    }
+
+    /**
+     * Sums the amounts of all rows.
+     *
+     * @return the sum in cents
+     */
+    public long sumCents() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum = MoneyCents.add(sum, cents[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the amounts of the rows within a range of days.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @return the sum in cents
+     */
+    public long sumCents(int fromDay, int toDay) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day >= fromDay && day <= toDay) {
+                sum = MoneyCents.add(sum, cents[i]);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the amounts of the rows per budget. Rows without a budget are added
+     * under key 0.
+     *
+     * @param totals the totals to add to, keyed by budget ID
+     */
+    public void sumCentsByBudget(LongTotals totals) {
+        for (int i = 0; i < size; i++) {
+            totals.add(budgetIds[i], cents[i]);
+        }
+    }
+
+    /**
+     * Sums the amounts of the rows within a range of days per budget and month.
+     * The totals are keyed by {@link LongTotals#key(int, int)} of the budget ID,
+     * 0 for rows without a budget, and the absolute month index.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @param totals  the totals to add to
+     */
+    public void sumCentsByBudgetAndMonth(int fromDay, int toDay, LongTotals totals) {
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day >= fromDay && day <= toDay) {
+                totals.add(LongTotals.key(budgetIds[i], MonthlySeries.toIndex(day)), cents[i]);
+            }
+        }
+    }
+
+    private void set(int row, long id, int epochDay, long amountCents, int budgetId, int categoryId) {
+        ids[row] = id;
+        epochDays[row] = epochDay;
+        cents[row] = amountCents;
+        budgetIds[row] = budgetId;
+        categoryIds[row] = categoryId;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        budgetIds = Arrays.copyOf(budgetIds, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+    }
+}
@@ -0,0 +1,254 @@
+package org.vaadin.application.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The incomes of one user stored column by column in primitive arrays.
+ *
+ * <p>
+ * Each income is a row of its ID, its day as days since 1970-01-01, its amount
+ * in cents, its source and its {@link PaySchedule}, which holds the payment
+ * frequency. Sources are stored once in a dictionary and referenced by their
+ * position in it. The schedule is created whenever a row is written, so it always matches
+ * the current version of the income. Aggregations scan the arrays directly, so
+ * they neither box nor allocate per row. Rows are kept in no particular order;
+ * removing a row moves the last row into its place. A {@link RowIndex} maps IDs
+ * to rows, so updates and removals do not scan the columns.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe; {@link LedgerSnapshot} guards them.
+ * </p>
+ */
+public final class IncomeColumns {
+
+    /**
+     * The number of bytes used by one row.
+     */
+    public static final int BYTES_PER_ROW = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES + PaySchedule.BYTES;
+
+    /**
+     * The approximate number of bytes used by a dictionary entry, excluding the
+     * characters of the source.
+     */
+    private static final int BYTES_PER_SOURCE = 96;
+
+    private long[] ids;
+    private int[] epochDays;
+    private long[] cents;
+    private int[] sources;
+    private PaySchedule[] schedules;
+    private int size;
+    private final RowIndex index;
+
+    private final List<String> sourceNames = new ArrayList<>();
+    private final Map<String, Integer> sourceIndexes = new HashMap<>();
+    private long sourceBytes;
+
+    /**
+     * Creates empty columns.
+     *
+     * @param capacity the number of rows to make room for
+     */
+    public IncomeColumns(int capacity) {
+        ids = new long[capacity];
+        epochDays = new int[capacity];
+        cents = new long[capacity];
+        sources = new int[capacity];
+        schedules = new PaySchedule[capacity];
+        index = new RowIndex(capacity);
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the number of incomes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the approximate number of bytes held by the arrays, the row index and
+     * the source dictionary, including unused capacity.
+     *
+     * @return the approximate size in bytes
+     */
+    public long bytes() {
+        return (long) ids.length * BYTES_PER_ROW + index.bytes() + sourceBytes;
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param id               the ID of the income
+     * @param epochDay         the day of the income as days since 1970-01-01
+     * @param amountCents      the amount in cents
+     * @param paymentFrequency the payment frequency, such as "Monthly"
+     * @param source           the source of the income
+     */
+    public void add(long id, int epochDay, long amountCents, String paymentFrequency, String source) {
+        if (size == ids.length) {
+            grow();
+        }
+        index.put(id, size);
+        set(size++, id, amountCents, sourceIndex(source), PaySchedule.of(epochDay, paymentFrequency));
+    }
+
+    /**
+     * Replaces the values of the row of an income.
+     *
+     * @param id               the ID of the income
+     * @param epochDay         the new day as days since 1970-01-01
+     * @param amountCents      the new amount in cents
+     * @param paymentFrequency the new payment frequency
+     * @param source           the new source
+     * @return true if the income has a row, false otherwise
+     */
+    public boolean update(long id, int epochDay, long amountCents, String paymentFrequency, String source) {
+        int row = index.get(id);
+        if (row < 0) {
+            return false;
+        }
+        set(row, id, amountCents, sourceIndex(source), PaySchedule.of(epochDay, paymentFrequency));
+        return true;
+    }
+
+    /**
+     * Removes the row of an income. The source stays in the dictionary.
+     *
+     * @param id the ID of the income
+     * @return true if the income had a row, false otherwise
+     */
+    public boolean remove(long id) {
+        int row = index.get(id);
+        if (row < 0) {
+            return false;
+        }
+        index.remove(id);
+        int last = --size;
+        if (row != last) {
+            index.put(ids[last], row);
+            set(row, ids[last], cents[last], sources[last], schedules[last]);
+        }
+        schedules[last] = null;
+        return true;
+    }
+
+    /**
+     * Sums the amounts of all rows.
+     *
+     * @return the sum in cents
+     */
+    public long sumCents() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum = MoneyCents.add(sum, cents[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the amounts of the rows within a range of days.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @return the sum in cents
+     */
+    public long sumCents(int fromDay, int toDay) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            int day = epochDays[i];
+            if (day >= fromDay && day <= toDay) {
+                sum = MoneyCents.add(sum, cents[i]);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the amounts paid within a range of days, following the
+     * {@link PaySchedule} of every row: an income counts once for every pay day
+     * in the range.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @return the sum in cents
+     */
+    public long sumScheduledCents(int fromDay, int toDay) {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum = MoneyCents.add(sum, MoneyCents.multiply(cents[i], schedules[i].count(fromDay, toDay)));
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the amounts paid in every month of a series to the series,
+     * following the {@link PaySchedule} of every row.
+     *
+     * @param series the series to add to
+     */
+    public void addScheduledCents(MonthlySeries series) {
+        int firstIndex = MonthlySeries.toIndex(series.getFirstMonth());
+        for (int position = 0; position < series.length(); position++) {
+            int fromDay = MonthlySeries.firstDayOf(firstIndex + position);
+            int toDay = MonthlySeries.firstDayOf(firstIndex + position + 1) - 1;
+            series.setCents(position, MoneyCents.add(series.getCents(position), sumScheduledCents(fromDay, toDay)));
+        }
+    }
+
+    /**
+     * Sums the amounts of the rows per source. The totals are keyed by the
+     * position of the source in the dictionary, see {@link #source(int)}.
+     *
+     * @param totals the totals to add to
+     */
+    public void sumCentsBySource(LongTotals totals) {
+        for (int i = 0; i < size; i++) {
+            totals.add(sources[i], cents[i]);
+        }
+    }
+
+    /**
+     * Gets a source from the dictionary.
+     *
+     * @param index the position of the source in the dictionary
+     * @return the source
+     */
+    public String source(int index) {
+        return sourceNames.get(index);
+    }
+
+    private int sourceIndex(String source) {
+        Integer index = sourceIndexes.get(source);
+        if (index == null) {
+            index = sourceNames.size();
+            sourceNames.add(source);
+            sourceIndexes.put(source, index);
+            sourceBytes += BYTES_PER_SOURCE + 2L * (source != null ? source.length() : 0);
+        }
+        return index;
+    }
+
+    private void set(int row, long id, long amountCents, int source, PaySchedule schedule) {
+        ids[row] = id;
+        epochDays[row] = schedule.getFirstPayDay();
+        cents[row] = amountCents;
+        sources[row] = source;
+        schedules[row] = schedule;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        sources = Arrays.copyOf(sources, capacity);
+        schedules = Arrays.copyOf(schedules, capacity);
+    }
+}
@@ -0,0 +1,279 @@
+package org.vaadin.application.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory copy of the expenses and incomes of one user, stored in
+ * {@link ExpenseColumns} and {@link IncomeColumns}.
+ *
+ * <p>
+ * A snapshot is safe for concurrent use: aggregations share a read lock and
+ * run in parallel, while changes take the write lock. Every method holds the
+ * lock only for the duration of the call.
+ * </p>
+ */
+public final class LedgerSnapshot {
+
+    private final ExpenseColumns expenses;
+    private final IncomeColumns incomes;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    /**
+     * Creates a snapshot of loaded columns. The columns must not be used
+     * directly afterwards.
+     *
+     * @param expenses the expenses of the user
+     * @param incomes  the incomes of the user
+     */
+    public LedgerSnapshot(ExpenseColumns expenses, IncomeColumns incomes) {
+        this.expenses = expenses;
+        this.incomes = incomes;
+    }
+
+    /**
+     * Gets the approximate number of bytes held by the snapshot.
+     *
+     * @return the approximate size in bytes
+     */
+    public long bytes() {
+        readLock.lock();
+        try {
+            return expenses.bytes() + incomes.bytes();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums all expenses.
+     *
+     * @return the sum in cents
+     */
+    public long sumExpenseCents() {
+        readLock.lock();
+        try {
+            return expenses.sumCents();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the expenses within a range of days.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @return the sum in cents
+     */
+    public long sumExpenseCents(int fromDay, int toDay) {
+        readLock.lock();
+        try {
+            return expenses.sumCents(fromDay, toDay);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the expenses per budget.
+     *
+     * @param totals the totals to add to, see
+     *               {@link ExpenseColumns#sumCentsByBudget(LongTotals)}
+     */
+    public void sumExpenseCentsByBudget(LongTotals totals) {
+        readLock.lock();
+        try {
+            expenses.sumCentsByBudget(totals);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the expenses within a range of days per budget and month.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @param totals  the totals to add to, see
+     *                {@link ExpenseColumns#sumCentsByBudgetAndMonth(int, int, LongTotals)}
+     */
+    public void sumExpenseCentsByBudgetAndMonth(int fromDay, int toDay, LongTotals totals) {
+        readLock.lock();
+        try {
+            expenses.sumCentsByBudgetAndMonth(fromDay, toDay, totals);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums all incomes.
+     *
+     * @return the sum in cents
+     */
+    public long sumIncomeCents() {
+        readLock.lock();
+        try {
+            return incomes.sumCents();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the incomes within a range of days.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @return the sum in cents
+     */
+    public long sumIncomeCents(int fromDay, int toDay) {
+        readLock.lock();
+        try {
+            return incomes.sumCents(fromDay, toDay);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the incomes paid within a range of days, see
+     * {@link IncomeColumns#sumScheduledCents(int, int)}.
+     *
+     * @param fromDay the first day as days since 1970-01-01 (inclusive)
+     * @param toDay   the last day as days since 1970-01-01 (inclusive)
+     * @return the sum in cents
+     */
+    public long sumScheduledIncomeCents(int fromDay, int toDay) {
+        readLock.lock();
+        try {
+            return incomes.sumScheduledCents(fromDay, toDay);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Adds the incomes paid in every month of a series to the series, see
+     * {@link IncomeColumns#addScheduledCents(MonthlySeries)}.
+     *
+     * @param series the series to add to
+     */
+    public void addScheduledIncomeCents(MonthlySeries series) {
+        readLock.lock();
+        try {
+            incomes.addScheduledCents(series);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sums the incomes per source and passes each source with its total to a
+     * consumer. The consumer is called while the read lock is held.
+     *
+     * @param consumer the consumer receiving each source and its total in cents
+     */
+    public void forEachIncomeSource(SourceTotalConsumer consumer) {
+        readLock.lock();
+        try {
+            LongTotals totals = new LongTotals();
+            incomes.sumCentsBySource(totals);
+            for (int slot = 0; slot < totals.slots(); slot++) {
+                if (totals.isUsed(slot)) {
+                    consumer.accept(incomes.source((int) totals.keyAt(slot)), totals.valueAt(slot));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Adds an expense or replaces its values if it is already part of the
+     * snapshot, so reporting the same change twice has no further effect.
+     *
+     * @param id          the ID of the expense
+     * @param epochDay    the day as days since 1970-01-01
+     * @param amountCents the amount in cents
+     * @param budgetId    the ID of the budget, or 0 for none
+     * @param categoryId  the ID of the category, or 0 for none
+     */
+    public void putExpense(long id, int epochDay, long amountCents, int budgetId, int categoryId) {
+        writeLock.lock();
+        try {
+            if (!expenses.update(id, epochDay, amountCents, budgetId, categoryId)) {
+                expenses.add(id, epochDay, amountCents, budgetId, categoryId);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes an expense if it is part of the snapshot.
+     *
+     * @param id the ID of the expense
+     */
+    public void removeExpense(long id) {
+        writeLock.lock();
+        try {
+            expenses.remove(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds an income or replaces its values if it is already part of the
+     * snapshot, so reporting the same change twice has no further effect.
+     *
+     * @param id               the ID of the income
+     * @param epochDay         the day as days since 1970-01-01
+     * @param amountCents      the amount in cents
+     * @param paymentFrequency the payment frequency
+     * @param source           the source
+     */
+    public void putIncome(long id, int epochDay, long amountCents, String paymentFrequency, String source) {
+        writeLock.lock();
+        try {
+            if (!incomes.update(id, epochDay, amountCents, paymentFrequency, source)) {
+                incomes.add(id, epochDay, amountCents, paymentFrequency, source);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes an income if it is part of the snapshot.
+     *
+     * @param id the ID of the income
+     */
+    public void removeIncome(long id) {
+        writeLock.lock();
+        try {
+            incomes.remove(id);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Receives the total of an income source.
+     */
+    @FunctionalInterface
+    public interface SourceTotalConsumer {
+
+        /**
+         * Receives the total of an income source.
+         *
+         * @param source     the source
+         * @param totalCents the total of the source in cents
+         */
+        void accept(String source, long totalCents);
+    }
+}
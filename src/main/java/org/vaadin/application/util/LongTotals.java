@@ -0,0 +1,203 @@
+package org.vaadin.application.util;
+
+import java.util.Arrays;
+
+/**
+ * Running totals in cents keyed by a {@code long}, such as a budget ID or a
+ * combination of a budget ID and a month index.
+ *
+ * <p>
+ * Keys and totals are kept in primitive arrays with open addressing, so adding
+ * to a total neither boxes nor allocates unless the table has to grow. This
+ * makes it suitable as the target of scans over many rows. Totals are iterated
+ * by slot:
+ * </p>
+ *
+ * <pre>
+ * for (int slot = 0; slot &lt; totals.slots(); slot++) {
+ *     if (totals.isUsed(slot)) {
+ *         use(totals.keyAt(slot), totals.valueAt(slot));
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class LongTotals {
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates empty totals with room for a few keys.
+     */
+    public LongTotals() {
+        this(16);
+    }
+
+    /**
+     * Creates empty totals.
+     *
+     * @param expectedKeys the number of keys expected, used to size the table
+     */
+    public LongTotals(int expectedKeys) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedKeys * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Adds an amount to the total of a key.
+     *
+     * @param key         the key
+     * @param amountCents the amount to add in cents
+     */
+    public void add(long key, long amountCents) {
+        int slot = find(key);
+        if (!used[slot]) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = find(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = MoneyCents.add(values[slot], amountCents);
+    }
+
+    /**
+     * Gets the total of a key.
+     *
+     * @param key the key
+     * @return the total in cents, 0 if nothing was added for the key
+     */
+    public long get(long key) {
+        int slot = find(key);
+        return used[slot] ? values[slot] : 0;
+    }
+
+    /**
+     * Gets the number of keys that have a total.
+     *
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots, which is the upper bound for iterating.
+     *
+     * @return the number of slots
+     */
+    public int slots() {
+        return keys.length;
+    }
+
+    /**
+     * Checks whether a slot holds a total.
+     *
+     * @param slot the slot
+     * @return true if the slot holds a total
+     */
+    public boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    /**
+     * Gets the key of a used slot.
+     *
+     * @param slot the slot
+     * @return the key
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Gets the total of a used slot.
+     *
+     * @param slot the slot
+     * @return the total in cents
+     */
+    public long valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Removes all totals, keeping the table for reuse.
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Combines two non-negative {@code int} values into one key.
+     *
+     * @param high the value in the upper 32 bits
+     * @param low  the value in the lower 32 bits
+     * @return the combined key
+     */
+    public static long key(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * Gets the upper value of a key created by {@link #key(int, int)}.
+     *
+     * @param key the combined key
+     * @return the value in the upper 32 bits
+     */
+    public static int high(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Gets the lower value of a key created by {@link #key(int, int)}.
+     *
+     * @param key the combined key
+     * @return the value in the lower 32 bits
+     */
+    public static int low(long key) {
+        return (int) key;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                int newSlot = find(oldKeys[slot]);
+                used[newSlot] = true;
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        long hash = key * 0x9E37_79B9_7F4A_7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
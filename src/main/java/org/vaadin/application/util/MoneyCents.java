@@ -0,0 +1,190 @@
+package org.vaadin.application.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic on monetary amounts held as a {@code long} number of
+ * cents.
+ *
+ * <p>
+ * Aggregations add up many amounts, and doing so with {@link BigDecimal}
+ * allocates a new object for every addition. Loops should instead convert
+ * each amount once with {@link #of(BigDecimal)}, accumulate cents with the
+ * operations of this class and convert the result back with
+ * {@link #toBigDecimal(long)}, so {@link BigDecimal} only appears where
+ * amounts enter from or leave to JPA and the UI.
+ * </p>
+ *
+ * <p>
+ * Every operation throws an {@link ArithmeticException} instead of silently
+ * overflowing, and every operation that can lose precision takes an explicit
+ * {@link RoundingMode}. None of them allocate.
+ * </p>
+ */
+public final class MoneyCents {
+
+    /**
+     * The number of decimal places of an amount in cents.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The number of cents in one unit of currency.
+     */
+    public static final long CENTS_PER_UNIT = 100;
+
+    private MoneyCents() {
+    }
+
+    /**
+     * Converts an amount to cents, rounding half up if it has more than two
+     * decimal places.
+     *
+     * @param amount the amount to convert
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit into a
+     *                             {@code long} number of cents
+     */
+    public static long of(BigDecimal amount) {
+        return of(amount, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @param amount       the amount to convert
+     * @param roundingMode how to round amounts with more than two decimal
+     *                     places
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit into a
+     *                             {@code long} number of cents, or if rounding
+     *                             is necessary with
+     *                             {@link RoundingMode#UNNECESSARY}
+     */
+    public static long of(BigDecimal amount, RoundingMode roundingMode) {
+        return amount.setScale(SCALE, roundingMode).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts cents to an amount with two decimal places.
+     *
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Adds two amounts.
+     *
+     * @param cents      the first amount in cents
+     * @param otherCents the second amount in cents
+     * @return the sum in cents
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long add(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    /**
+     * Subtracts an amount from another.
+     *
+     * @param cents      the amount in cents to subtract from
+     * @param otherCents the amount in cents to subtract
+     * @return the difference in cents
+     * @throws ArithmeticException if the difference overflows
+     */
+    public static long subtract(long cents, long otherCents) {
+        return Math.subtractExact(cents, otherCents);
+    }
+
+    /**
+     * Multiplies an amount by a whole number, such as the number of payments
+     * per month.
+     *
+     * @param cents  the amount in cents
+     * @param factor the factor
+     * @return the product in cents
+     * @throws ArithmeticException if the product overflows
+     */
+    public static long multiply(long cents, long factor) {
+        return Math.multiplyExact(cents, factor);
+    }
+
+    /**
+     * Multiplies an amount by a fraction, such as a rate or a share of a
+     * total.
+     *
+     * @param cents        the amount in cents
+     * @param numerator    the numerator of the fraction
+     * @param denominator  the denominator of the fraction
+     * @param roundingMode how to round the product to whole cents
+     * @return the product in cents
+     * @throws ArithmeticException if the intermediate product overflows, if the
+     *                             denominator is zero or if rounding is
+     *                             necessary with {@link RoundingMode#UNNECESSARY}
+     */
+    public static long multiply(long cents, long numerator, long denominator, RoundingMode roundingMode) {
+        return divide(Math.multiplyExact(cents, numerator), denominator, roundingMode);
+    }
+
+    /**
+     * Divides an amount by a whole number, such as the number of months to
+     * average over.
+     *
+     * @param cents        the amount in cents
+     * @param divisor      the divisor
+     * @param roundingMode how to round the quotient to whole cents
+     * @return the quotient in cents
+     * @throws ArithmeticException if the divisor is zero, if the quotient
+     *                             overflows or if rounding is necessary with
+     *                             {@link RoundingMode#UNNECESSARY}
+     */
+    public static long divide(long cents, long divisor, RoundingMode roundingMode) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (cents == Long.MIN_VALUE && divisor == -1) {
+            throw new ArithmeticException("long overflow");
+        }
+        long quotient = cents / divisor;
+        long remainder = cents % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int signum = (cents ^ divisor) < 0 ? -1 : 1;
+        // Compares the remainder with the rest of the divisor, so that halves are
+        // found without doubling the remainder, which could overflow
+        long absoluteRemainder = Math.abs(remainder);
+        int half = Long.compareUnsigned(absoluteRemainder, Math.abs(divisor) - absoluteRemainder);
+        boolean awayFromZero = switch (roundingMode) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> signum > 0;
+            case FLOOR -> signum < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || half == 0 && (quotient & 1) != 0;
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + signum : quotient;
+    }
+
+    /**
+     * Calculates the share of an amount in a total as a percentage with two
+     * decimal places, such as 1250 for 12.50 %.
+     *
+     * @param cents        the amount in cents
+     * @param totalCents   the total in cents
+     * @param roundingMode how to round the percentage
+     * @return the percentage in hundredths of a percent
+     * @throws ArithmeticException if the total is zero or the amount is too
+     *                             large to be scaled
+     */
+    public static long percentOf(long cents, long totalCents, RoundingMode roundingMode) {
+        return multiply(cents, 100 * CENTS_PER_UNIT, totalCents, roundingMode);
+    }
+}
@@ -0,0 +1,388 @@
+package org.vaadin.application.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+/**
+ * A series of monetary amounts for consecutive calendar months.
+ *
+ * <p>
+ * Months are addressed by their absolute month index
+ * ({@code year * 12 + month - 1}), so January of two different years never
+ * share a bucket and a series can span any number of months. Amounts are
+ * stored as cents in a {@code long[]} and calculated with {@link MoneyCents},
+ * which lets sums, deltas and means run without boxing or allocating a
+ * {@link BigDecimal} per month. {@link BigDecimal} is only used when converting
+ * values in and out.
+ * </p>
+ *
+ * <p>
+ * A series is mutable until {@link #freeze()} is called, after which any
+ * attempt to change it throws an {@link IllegalStateException}.
+ * </p>
+ */
+public final class MonthlySeries {
+
+    private final int firstIndex;
+    private final long[] cents;
+    private boolean frozen;
+
+    /**
+     * Creates a series of zero amounts.
+     *
+     * @param firstMonth the first month of the series
+     * @param length     the number of months in the series
+     */
+    public MonthlySeries(YearMonth firstMonth, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length must not be negative: " + length);
+        }
+        this.firstIndex = toIndex(firstMonth);
+        this.cents = new long[length];
+    }
+
+    /**
+     * Creates a series covering every month from {@code firstMonth} to
+     * {@code lastMonth}, both inclusive.
+     *
+     * @param firstMonth the first month of the series
+     * @param lastMonth  the last month of the series
+     * @return the new series of zero amounts
+     */
+    public static MonthlySeries between(YearMonth firstMonth, YearMonth lastMonth) {
+        return new MonthlySeries(firstMonth, toIndex(lastMonth) - toIndex(firstMonth) + 1);
+    }
+
+    /**
+     * Converts a month to its absolute month index.
+     *
+     * @param month the month to convert
+     * @return the absolute month index
+     */
+    public static int toIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    /**
+     * Converts a day, given as days since 1970-01-01, to the absolute month index
+     * of the month it falls into. Unlike going through {@link java.time.LocalDate}
+     * this does not allocate, so it can be used in scans over many rows.
+     *
+     * @param epochDay the day as days since 1970-01-01
+     * @return the absolute month index
+     */
+    public static int toIndex(int epochDay) {
+        // Civil-from-days conversion on a calendar whose years start in March
+        int shifted = epochDay + 719_468;
+        int era = Math.floorDiv(shifted, 146_097);
+        int dayOfEra = shifted - era * 146_097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * Converts an absolute month index to the first day of the month as days
+     * since 1970-01-01. Like {@link #toIndex(int)} this does not allocate.
+     *
+     * @param index the absolute month index
+     * @return the first day of the month as days since 1970-01-01
+     */
+    public static int firstDayOf(int index) {
+        // Days-from-civil conversion on a calendar whose years start in March
+        int month = Math.floorMod(index, 12) + 1;
+        int year = Math.floorDiv(index, 12) - (month <= 2 ? 1 : 0);
+        int era = Math.floorDiv(year, 400);
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * Gets the number of days of a month.
+     *
+     * @param index the absolute month index
+     * @return the number of days of the month
+     */
+    public static int lengthOf(int index) {
+        return firstDayOf(index + 1) - firstDayOf(index);
+    }
+
+    /**
+     * Converts an absolute month index back to a month.
+     *
+     * @param index the absolute month index
+     * @return the month
+     */
+    public static YearMonth toYearMonth(int index) {
+        return YearMonth.of(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1);
+    }
+
+    /**
+     * Gets the first month of the series.
+     *
+     * @return the first month
+     */
+    public YearMonth getFirstMonth() {
+        return toYearMonth(firstIndex);
+    }
+
+    /**
+     * Gets the last month of the series.
+     *
+     * @return the last month
+     */
+    public YearMonth getLastMonth() {
+        return toYearMonth(firstIndex + cents.length - 1);
+    }
+
+    /**
+     * Gets the number of months in the series.
+     *
+     * @return the length of the series
+     */
+    public int length() {
+        return cents.length;
+    }
+
+    /**
+     * Gets the month at a position of the series.
+     *
+     * @param position the position, where 0 is the first month
+     * @return the month at that position
+     */
+    public YearMonth monthAt(int position) {
+        return toYearMonth(firstIndex + position);
+    }
+
+    /**
+     * Gets the position of a month in the series.
+     *
+     * @param month the month to look up
+     * @return the position, or -1 if the month is outside the series
+     */
+    public int positionOf(YearMonth month) {
+        return positionOf(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Gets the position of a month in the series.
+     *
+     * @param year  the year of the month
+     * @param month the month of the year (1 = January)
+     * @return the position, or -1 if the month is outside the series
+     */
+    public int positionOf(int year, int month) {
+        int position = year * 12 + month - 1 - firstIndex;
+        return position >= 0 && position < cents.length ? position : -1;
+    }
+
+    /**
+     * Adds an amount in cents to a month.
+     *
+     * @param year        the year of the month
+     * @param month       the month of the year (1 = January)
+     * @param amountCents the amount to add in cents
+     * @return {@code true} if the month is part of the series and the amount
+     *         was added, {@code false} otherwise
+     */
+    public boolean addCents(int year, int month, long amountCents) {
+        int position = positionOf(year, month);
+        if (position < 0) {
+            return false;
+        }
+        checkNotFrozen();
+        cents[position] = MoneyCents.add(cents[position], amountCents);
+        return true;
+    }
+
+    /**
+     * Adds an amount to a month.
+     *
+     * @param month  the month to add the amount to
+     * @param amount the amount to add
+     * @return {@code true} if the month is part of the series and the amount
+     *         was added, {@code false} otherwise
+     */
+    public boolean add(YearMonth month, BigDecimal amount) {
+        return addCents(month.getYear(), month.getMonthValue(), MoneyCents.of(amount));
+    }
+
+    /**
+     * Adds every month of another series that overlaps with this series.
+     *
+     * @param other the series to add
+     */
+    public void addSeries(MonthlySeries other) {
+        checkNotFrozen();
+        int from = Math.max(firstIndex, other.firstIndex);
+        int to = Math.min(firstIndex + cents.length, other.firstIndex + other.cents.length);
+        for (int index = from; index < to; index++) {
+            cents[index - firstIndex] = MoneyCents.add(cents[index - firstIndex], other.cents[index - other.firstIndex]);
+        }
+    }
+
+    /**
+     * Sets the amount of a month.
+     *
+     * @param position    the position of the month
+     * @param amountCents the amount in cents
+     */
+    public void setCents(int position, long amountCents) {
+        checkNotFrozen();
+        cents[position] = amountCents;
+    }
+
+    /**
+     * Gets the amount of a month in cents.
+     *
+     * @param position the position of the month
+     * @return the amount in cents
+     */
+    public long getCents(int position) {
+        return cents[position];
+    }
+
+    /**
+     * Gets the amount of a month.
+     *
+     * @param position the position of the month
+     * @return the amount with two decimal places
+     */
+    public BigDecimal get(int position) {
+        return MoneyCents.toBigDecimal(cents[position]);
+    }
+
+    /**
+     * Sums every month of the series.
+     *
+     * @return the sum in cents
+     */
+    public long sum() {
+        return sum(0, cents.length);
+    }
+
+    /**
+     * Sums a range of months.
+     *
+     * @param from the first position (inclusive)
+     * @param to   the last position (exclusive)
+     * @return the sum in cents
+     */
+    public long sum(int from, int to) {
+        checkRange(from, to);
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum = MoneyCents.add(sum, cents[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Calculates the mean of a range of months.
+     *
+     * @param from         the first position (inclusive)
+     * @param to           the last position (exclusive)
+     * @param roundingMode the rounding mode applied to the result
+     * @return the mean in cents, or 0 for an empty range
+     */
+    public long mean(int from, int to, RoundingMode roundingMode) {
+        return to > from ? MoneyCents.divide(sum(from, to), to - from, roundingMode) : 0;
+    }
+
+    /**
+     * Gets the change of a month compared to the previous month.
+     *
+     * @param position the position of the month, which must be greater than 0
+     * @return the change in cents
+     */
+    public long delta(int position) {
+        return MoneyCents.subtract(cents[position], cents[position - 1]);
+    }
+
+    /**
+     * Calculates the mean change between consecutive months in a range. Pairs of
+     * months that both have no amount are skipped, so gaps without any data do
+     * not flatten the trend.
+     *
+     * @param from         the first position (inclusive)
+     * @param to           the last position (exclusive)
+     * @param roundingMode the rounding mode applied to the result
+     * @return the mean change in cents, or 0 if there are no changes
+     */
+    public long meanDelta(int from, int to, RoundingMode roundingMode) {
+        checkRange(from, to);
+        long totalChange = 0;
+        int changes = 0;
+        for (int i = from + 1; i < to; i++) {
+            if (cents[i] == 0 && cents[i - 1] == 0) {
+                continue;
+            }
+            totalChange = MoneyCents.add(totalChange, delta(i));
+            changes++;
+        }
+        return changes > 0 ? MoneyCents.divide(totalChange, changes, roundingMode) : 0;
+    }
+
+    /**
+     * Makes the series read-only.
+     *
+     * @return this series
+     */
+    public MonthlySeries freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Creates a mutable copy of the series.
+     *
+     * @return the copy
+     */
+    public MonthlySeries copy() {
+        MonthlySeries copy = new MonthlySeries(getFirstMonth(), cents.length);
+        System.arraycopy(cents, 0, copy.cents, 0, cents.length);
+        return copy;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MonthlySeries)) {
+            return false;
+        }
+        MonthlySeries other = (MonthlySeries) o;
+        return firstIndex == other.firstIndex && Arrays.equals(cents, other.cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * firstIndex + Arrays.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return "MonthlySeries[" + getFirstMonth() + ", " + Arrays.toString(cents) + "]";
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > cents.length || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") outside series of length "
+                    + cents.length);
+        }
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Series is read-only");
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.vaadin.application.util;
+
+import java.util.Arrays;
+
+/**
+ * Daily snapshots of a user's net worth and goal progress, in ascending order
+ * of days.
+ *
+ * <p>
+ * Each snapshot holds the net worth, the amount saved towards all financial
+ * goals and the target of all goals, in cents. Days are given as days since
+ * 1970-01-01, and there is at most one snapshot per day.
+ * </p>
+ *
+ * <p>
+ * Snapshots are stored as a compact byte sequence with {@link #encode(int)}.
+ * Every snapshot is written as the difference to the previous one, starting
+ * from zero amounts on a base day, and each difference is written as a
+ * variable-length integer of 7 bits per byte, with signed differences
+ * zig-zag encoded first. Consecutive days whose amounts did not change take
+ * four bytes, and a year of daily snapshots usually fits into a few
+ * kilobytes.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public final class NetWorthSeries {
+
+    /**
+     * The largest number of bytes a snapshot can take when encoded: the day
+     * difference as an int and three amount differences as longs.
+     */
+    public static final int MAX_BYTES_PER_SNAPSHOT = 5 + 3 * 10;
+
+    private int[] days;
+    private long[] netWorthCents;
+    private long[] goalsSavedCents;
+    private long[] goalsTargetCents;
+    private int size;
+
+    /**
+     * Creates an empty series.
+     *
+     * @param capacity the number of snapshots expected
+     */
+    public NetWorthSeries(int capacity) {
+        int initialCapacity = Math.max(capacity, 4);
+        days = new int[initialCapacity];
+        netWorthCents = new long[initialCapacity];
+        goalsSavedCents = new long[initialCapacity];
+        goalsTargetCents = new long[initialCapacity];
+    }
+
+    /**
+     * Records the snapshot of a day. A snapshot of the same day as the last
+     * one replaces it.
+     *
+     * @param day         the day of the snapshot
+     * @param netWorth    the net worth in cents
+     * @param goalsSaved  the amount saved towards all goals in cents
+     * @param goalsTarget the target amount of all goals in cents
+     * @throws IllegalArgumentException if the day is before the last snapshot
+     */
+    public void put(int day, long netWorth, long goalsSaved, long goalsTarget) {
+        if (size > 0 && day < days[size - 1]) {
+            throw new IllegalArgumentException("Snapshots must be recorded in ascending order of days: "
+                    + days[size - 1] + ", " + day);
+        }
+        int position = size > 0 && day == days[size - 1] ? size - 1 : size++;
+        if (position == days.length) {
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            netWorthCents = Arrays.copyOf(netWorthCents, capacity);
+            goalsSavedCents = Arrays.copyOf(goalsSavedCents, capacity);
+            goalsTargetCents = Arrays.copyOf(goalsTargetCents, capacity);
+        }
+        days[position] = day;
+        netWorthCents[position] = netWorth;
+        goalsSavedCents[position] = goalsSaved;
+        goalsTargetCents[position] = goalsTarget;
+    }
+
+    /**
+     * Gets the number of snapshots.
+     *
+     * @return the number of snapshots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the day of a snapshot.
+     *
+     * @param position the position of the snapshot
+     * @return the day as days since 1970-01-01
+     */
+    public int dayAt(int position) {
+        return days[checkPosition(position)];
+    }
+
+    /**
+     * Gets the net worth of a snapshot.
+     *
+     * @param position the position of the snapshot
+     * @return the net worth in cents
+     */
+    public long netWorthAt(int position) {
+        return netWorthCents[checkPosition(position)];
+    }
+
+    /**
+     * Gets the amount saved towards all goals of a snapshot.
+     *
+     * @param position the position of the snapshot
+     * @return the saved amount in cents
+     */
+    public long goalsSavedAt(int position) {
+        return goalsSavedCents[checkPosition(position)];
+    }
+
+    /**
+     * Gets the target amount of all goals of a snapshot.
+     *
+     * @param position the position of the snapshot
+     * @return the target amount in cents
+     */
+    public long goalsTargetAt(int position) {
+        return goalsTargetCents[checkPosition(position)];
+    }
+
+    /**
+     * Encodes the snapshots.
+     *
+     * @param baseDay the day the differences start from, on or before the first
+     *                snapshot
+     * @return the encoded snapshots
+     * @throws IllegalArgumentException if the first snapshot is before the base
+     *                                  day
+     */
+    public byte[] encode(int baseDay) {
+        if (size > 0 && days[0] < baseDay) {
+            throw new IllegalArgumentException("First snapshot " + days[0] + " is before base day " + baseDay);
+        }
+        byte[] bytes = new byte[size * MAX_BYTES_PER_SNAPSHOT];
+        int length = 0;
+        int previousDay = baseDay;
+        long previousNetWorth = 0;
+        long previousGoalsSaved = 0;
+        long previousGoalsTarget = 0;
+        for (int i = 0; i < size; i++) {
+            length = writeVarint(bytes, length, days[i] - previousDay);
+            length = writeVarint(bytes, length, zigZag(Math.subtractExact(netWorthCents[i], previousNetWorth)));
+            length = writeVarint(bytes, length, zigZag(Math.subtractExact(goalsSavedCents[i], previousGoalsSaved)));
+            length = writeVarint(bytes, length,
+                    zigZag(Math.subtractExact(goalsTargetCents[i], previousGoalsTarget)));
+            previousDay = days[i];
+            previousNetWorth = netWorthCents[i];
+            previousGoalsSaved = goalsSavedCents[i];
+            previousGoalsTarget = goalsTargetCents[i];
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Decodes snapshots written by {@link #encode(int)} and appends those within
+     * a range of days to this series.
+     *
+     * @param bytes   the encoded snapshots
+     * @param baseDay the base day they were encoded with
+     * @param fromDay the first day of the range
+     * @param toDay   the last day of the range
+     * @throws IllegalArgumentException if the bytes are not a valid encoding, or
+     *                                  if the decoded snapshots are before the
+     *                                  last snapshot of this series
+     */
+    public void decode(byte[] bytes, int baseDay, int fromDay, int toDay) {
+        long day = baseDay;
+        long netWorth = 0;
+        long goalsSaved = 0;
+        long goalsTarget = 0;
+        Reader reader = new Reader(bytes);
+        while (reader.hasMore()) {
+            day += reader.readVarint();
+            netWorth += unZigZag(reader.readVarint());
+            goalsSaved += unZigZag(reader.readVarint());
+            goalsTarget += unZigZag(reader.readVarint());
+            if (day > toDay) {
+                return;
+            }
+            if (day >= fromDay) {
+                put((int) day, netWorth, goalsSaved, goalsTarget);
+            }
+        }
+    }
+
+    private int checkPosition(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for size " + size);
+        }
+        return position;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] bytes, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[offset++] = (byte) value;
+        return offset;
+    }
+
+    /**
+     * Reads variable-length integers from encoded snapshots.
+     */
+    private static final class Reader {
+
+        private final byte[] bytes;
+        private int offset;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        boolean hasMore() {
+            return offset < bytes.length;
+        }
+
+        long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (offset == bytes.length) {
+                    throw new IllegalArgumentException("Truncated snapshot at byte " + offset);
+                }
+                byte b = bytes[offset++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed snapshot at byte " + offset);
+        }
+    }
+}
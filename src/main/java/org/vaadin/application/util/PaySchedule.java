@@ -0,0 +1,256 @@
+package org.vaadin.application.util;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The pay days of a recurring income.
+ *
+ * <p>
+ * A schedule starts on the date of the income, its first pay day, and repeats
+ * with the payment frequency of the income:
+ * </p>
+ * <ul>
+ * <li>weekly and biweekly incomes are paid every 7 and 14 days,</li>
+ * <li>monthly incomes are paid on the same day of every month, or on the last
+ * day of months that are too short,</li>
+ * <li>incomes with any other frequency are paid once.</li>
+ * </ul>
+ *
+ * <p>
+ * Frequencies are matched ignoring case, so "monthly" and "MONTHLY" are
+ * monthly as well.
+ * </p>
+ *
+ * <p>
+ * Days are given as days since 1970-01-01 and ranges include both ends.
+ * {@link #count(int, int)} counts the pay days in a range with a constant
+ * number of operations, however long the range, and {@link #payDays(int, int)}
+ * enumerates them lazily. Schedules are immutable.
+ * </p>
+ */
+public final class PaySchedule {
+
+    /**
+     * The approximate number of bytes used by a schedule, including the
+     * reference to it.
+     */
+    public static final int BYTES = 32;
+
+    private static final int WEEK = 7;
+
+    /**
+     * The period of a monthly schedule; other schedules have a period in days.
+     */
+    private static final int MONTHLY = -1;
+
+    /**
+     * The period of a schedule that is paid once.
+     */
+    private static final int ONCE = 0;
+
+    private final int firstPayDay;
+    private final int period;
+    private final int dayOfMonth;
+
+    private PaySchedule(int firstPayDay, int period) {
+        this.firstPayDay = firstPayDay;
+        this.period = period;
+        this.dayOfMonth = firstPayDay - MonthlySeries.firstDayOf(MonthlySeries.toIndex(firstPayDay)) + 1;
+    }
+
+    /**
+     * Creates the schedule of an income.
+     *
+     * @param firstPayDay      the date of the income as days since 1970-01-01
+     * @param paymentFrequency the payment frequency of the income, such as
+     *                         "Monthly"
+     * @return the schedule
+     */
+    public static PaySchedule of(int firstPayDay, String paymentFrequency) {
+        return new PaySchedule(firstPayDay, periodOf(paymentFrequency));
+    }
+
+    /**
+     * Creates the schedule of an income.
+     *
+     * @param firstPayDate     the date of the income
+     * @param paymentFrequency the payment frequency of the income, such as
+     *                         "Monthly"
+     * @return the schedule
+     */
+    public static PaySchedule of(LocalDate firstPayDate, String paymentFrequency) {
+        return of((int) firstPayDate.toEpochDay(), paymentFrequency);
+    }
+
+    /**
+     * Gets the first pay day.
+     *
+     * @return the first pay day as days since 1970-01-01
+     */
+    public int getFirstPayDay() {
+        return firstPayDay;
+    }
+
+    /**
+     * Counts the pay days within a range of days.
+     *
+     * @param fromDay the first day of the range
+     * @param toDay   the last day of the range
+     * @return the number of pay days in the range
+     */
+    public long count(int fromDay, int toDay) {
+        long from = Math.max(fromDay, firstPayDay);
+        long to = toDay;
+        if (from > to) {
+            return 0;
+        }
+        if (period == ONCE) {
+            return from == firstPayDay ? 1 : 0;
+        }
+        if (period == MONTHLY) {
+            int fromMonth = MonthlySeries.toIndex((int) from);
+            int toMonth = MonthlySeries.toIndex((int) to);
+            long count = toMonth - fromMonth + 1;
+            if (payDayOf(fromMonth) < from) {
+                count--;
+            }
+            if (payDayOf(toMonth) > to) {
+                count--;
+            }
+            return Math.max(0, count);
+        }
+        long first = Math.floorDiv(from - firstPayDay + period - 1, period);
+        long last = Math.floorDiv(to - firstPayDay, period);
+        return Math.max(0, last - first + 1);
+    }
+
+    /**
+     * Enumerates the pay days within a range of days in ascending order. Each
+     * pay day is calculated when it is requested.
+     *
+     * @param fromDay the first day of the range
+     * @param toDay   the last day of the range
+     * @return the pay days as days since 1970-01-01
+     */
+    public PrimitiveIterator.OfInt payDays(int fromDay, int toDay) {
+        return new PayDayIterator(Math.max(fromDay, firstPayDay), toDay);
+    }
+
+    /**
+     * Enumerates the pay dates within a range of dates in ascending order.
+     *
+     * @param from the first date of the range
+     * @param to   the last date of the range
+     * @return the pay dates
+     */
+    public Iterator<LocalDate> payDates(LocalDate from, LocalDate to) {
+        PrimitiveIterator.OfInt payDays = payDays((int) from.toEpochDay(), (int) to.toEpochDay());
+        return new Iterator<>() {
+
+            @Override
+            public boolean hasNext() {
+                return payDays.hasNext();
+            }
+
+            @Override
+            public LocalDate next() {
+                return LocalDate.ofEpochDay(payDays.nextInt());
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PaySchedule)) {
+            return false;
+        }
+        PaySchedule other = (PaySchedule) o;
+        return firstPayDay == other.firstPayDay && period == other.period;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * firstPayDay + period;
+    }
+
+    @Override
+    public String toString() {
+        String frequency = period == MONTHLY ? "monthly" : period == ONCE ? "once" : "every " + period + " days";
+        return "PaySchedule[" + LocalDate.ofEpochDay(firstPayDay) + ", " + frequency + "]";
+    }
+
+    private static int periodOf(String paymentFrequency) {
+        if ("Weekly".equalsIgnoreCase(paymentFrequency)) {
+            return WEEK;
+        }
+        if ("Biweekly".equalsIgnoreCase(paymentFrequency)) {
+            return 2 * WEEK;
+        }
+        if ("Monthly".equalsIgnoreCase(paymentFrequency)) {
+            return MONTHLY;
+        }
+        return ONCE;
+    }
+
+    /**
+     * Gets the pay day of a monthly schedule in a month.
+     *
+     * @param month the absolute month index
+     * @return the pay day as days since 1970-01-01
+     */
+    private int payDayOf(int month) {
+        return MonthlySeries.firstDayOf(month) + Math.min(dayOfMonth, MonthlySeries.lengthOf(month)) - 1;
+    }
+
+    /**
+     * Calculates the pay days of a range one after the other.
+     */
+    private final class PayDayIterator implements PrimitiveIterator.OfInt {
+
+        private final long toDay;
+        private long next;
+        private int month;
+
+        PayDayIterator(long fromDay, long toDay) {
+            this.toDay = toDay;
+            if (period == ONCE) {
+                next = fromDay == firstPayDay ? firstPayDay : Long.MAX_VALUE;
+            } else if (period == MONTHLY) {
+                month = MonthlySeries.toIndex((int) fromDay);
+                next = payDayOf(month);
+                if (next < fromDay) {
+                    next = payDayOf(++month);
+                }
+            } else {
+                next = firstPayDay + Math.floorDiv(fromDay - firstPayDay + period - 1, period) * period;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next <= toDay;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int payDay = (int) next;
+            if (period == ONCE) {
+                next = Long.MAX_VALUE;
+            } else if (period == MONTHLY) {
+                next = payDayOf(++month);
+            } else {
+                next += period;
+            }
+            return payDay;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.vaadin.application.util;
+
+/**
+ * The rows of the IDs stored in {@link ExpenseColumns} or
+ * {@link IncomeColumns}, so a row is found without scanning the columns.
+ *
+ * <p>
+ * IDs and rows are kept in primitive arrays with open addressing, like
+ * {@link LongTotals}. Removing an ID shifts the following entries of its
+ * cluster back, so lookups never have to skip deleted slots.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+final class RowIndex {
+
+    /**
+     * The number of bytes used by one slot.
+     */
+    static final int BYTES_PER_SLOT = Long.BYTES + Integer.BYTES + 1;
+
+    private long[] ids;
+    private int[] rows;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param expectedIds the number of IDs expected, used to size the table
+     */
+    RowIndex(int expectedIds) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedIds * 2 - 1)) << 1;
+        ids = new long[capacity];
+        rows = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /**
+     * Gets the number of bytes held by the table.
+     *
+     * @return the size of the table in bytes
+     */
+    long bytes() {
+        return (long) ids.length * BYTES_PER_SLOT;
+    }
+
+    /**
+     * Gets the row of an ID.
+     *
+     * @param id the ID
+     * @return the row, or -1 if the ID is not indexed
+     */
+    int get(long id) {
+        int slot = find(id);
+        return used[slot] ? rows[slot] : -1;
+    }
+
+    /**
+     * Sets the row of an ID.
+     *
+     * @param id  the ID
+     * @param row the row
+     */
+    void put(long id, int row) {
+        int slot = find(id);
+        if (!used[slot]) {
+            if ((size + 1) * 2 > ids.length) {
+                grow();
+                slot = find(id);
+            }
+            used[slot] = true;
+            ids[slot] = id;
+            size++;
+        }
+        rows[slot] = row;
+    }
+
+    /**
+     * Removes an ID.
+     *
+     * @param id the ID
+     */
+    void remove(long id) {
+        int mask = ids.length - 1;
+        int slot = find(id);
+        if (!used[slot]) {
+            return;
+        }
+        used[slot] = false;
+        size--;
+        int next = (slot + 1) & mask;
+        while (used[next]) {
+            int home = (int) mix(ids[next]) & mask;
+            // Move the entry back if its home slot is not between the gap and it
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                ids[slot] = ids[next];
+                rows[slot] = rows[next];
+                used[slot] = true;
+                used[next] = false;
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    private int find(long id) {
+        int mask = ids.length - 1;
+        int slot = (int) mix(id) & mask;
+        while (used[slot] && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldIds = ids;
+        int[] oldRows = rows;
+        boolean[] oldUsed = used;
+        ids = new long[oldIds.length * 2];
+        rows = new int[oldIds.length * 2];
+        used = new boolean[oldIds.length * 2];
+        for (int slot = 0; slot < oldIds.length; slot++) {
+            if (oldUsed[slot]) {
+                int newSlot = find(oldIds[slot]);
+                used[newSlot] = true;
+                ids[newSlot] = oldIds[slot];
+                rows[newSlot] = oldRows[slot];
+            }
+        }
+    }
+
+    private static long mix(long id) {
+        long hash = id * 0x9E37_79B9_7F4A_7C15L;
+        return hash ^ (hash >>> 32);
+    }
+}
@@ -26,7 +26,7 @@ import org.vaadin.application.MainLayout;
 import org.vaadin.application.model.Asset;
 import org.vaadin.application.service.AssetService;
 import org.vaadin.application.service.SessionService;
-import org.vaadin.application.service.UserService;
+import org.vaadin.application.service.OwnerService;
 
 @Route(value = "asset", layout = MainLayout.class)
 public class AssetView extends VerticalLayout {
@@ -39,7 +39,7 @@ public class AssetView extends VerticalLayout {
 
     private final transient AssetService assetService;
     private final transient SessionService sessionService;
-    private final transient UserService userService;
+    private final transient OwnerService ownerService;
 
     private H2 totalAssetsValue;
     private H2 totalChangeValue;
@@ -49,12 +49,12 @@ public class AssetView extends VerticalLayout {
      * 
      * @param assetService   the service for managing assets
      * @param sessionService the service for managing user sessions
-     * @param userService    the service for managing user information
+     * @param ownerService   the service used to resolve the owner of new records
      */
-    public AssetView(AssetService assetService, SessionService sessionService, UserService userService) {
+    public AssetView(AssetService assetService, SessionService sessionService, OwnerService ownerService) {
         this.assetService = assetService;
         this.sessionService = sessionService;
-        this.userService = userService;
+        this.ownerService = ownerService;
 
         configureLayout();
         listAssets();
@@ -330,7 +330,7 @@ public class AssetView extends VerticalLayout {
             asset.setValue(value);
             asset.setCategory(category);
             asset.setInterestRate(interestRate);
-            asset.setUser(userService.findUserById(sessionService.getLoggedInUserId()));
+            asset.setUser(ownerService.getLoggedInOwner());
 
             assetService.addAsset(asset);
             Notification.show("Asset added successfully", 3000, Notification.Position.TOP_CENTER);
@@ -355,15 +355,12 @@ public class AssetView extends VerticalLayout {
     }
 
     /**
-     * Updates the total value of the user's assets and displays it in the total
-     * assets card.
+     * Updates the current total value of the user's assets, including interest,
+     * and displays it in the total assets card.
      */
     private void updateTotalAssets() {
         Long userId = sessionService.getLoggedInUserId();
-        List<Asset> assets = assetService.getAssetsByUserId(userId);
-        BigDecimal totalAssets = assets.stream()
-                .map(Asset::getValue)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalAssets = assetService.getTotalAssetsCurrent(userId);
 
         totalAssetsValue.setText("$ " + totalAssets.toString());
     }
@@ -375,7 +372,8 @@ public class AssetView extends VerticalLayout {
      */
     private void updateTotalChangeInAssets() {
         Long userId = sessionService.getLoggedInUserId();
-        BigDecimal totalChange = BigDecimal.ZERO;
+        BigDecimal totalChange = assetService.getTotalAssetsCurrent(userId)
+                .subtract(assetService.getTotalAssetsLastYear(userId));
         String changeText = totalChange.compareTo(BigDecimal.ZERO) >= 0
                 ? "+$ " + totalChange.toString()
                 : "-$ " + totalChange.abs().toString();
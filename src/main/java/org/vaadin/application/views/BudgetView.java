@@ -1,5 +1,7 @@
 package org.vaadin.application.views;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.html.Div;
@@ -19,12 +21,13 @@ import java.util.List;
 import java.util.Map;
 
 import org.vaadin.application.MainLayout;
+import org.vaadin.application.dto.LedgerEvent;
 import org.vaadin.application.model.Budget;
-import org.vaadin.application.model.Expense;
 import org.vaadin.application.service.BudgetService;
 import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.LedgerEventBroadcaster;
 import org.vaadin.application.service.SessionService;
-import org.vaadin.application.service.UserService;
+import org.vaadin.application.service.OwnerService;
 
 /**
  * The BudgetView class represents the user interface for managing budgets
@@ -55,17 +58,17 @@ import org.vaadin.application.service.UserService;
  * The class relies on several services:
  * {@link org.vaadin.application.service.BudgetService} for handling
  * budget data, {@link org.vaadin.application.service.ExpenseService} for
- * retrieving expenses related to a budget,
+ * retrieving the expense totals of all budgets in one query,
  * {@link org.vaadin.application.service.SessionService} for getting the
  * logged-in user ID, and
- * {@link org.vaadin.application.service.UserService} for retrieving user
- * information.
+ * {@link org.vaadin.application.service.OwnerService} for resolving the
+ * owner of new records.
  * </p>
  * 
  * @see org.vaadin.application.service.BudgetService
  * @see org.vaadin.application.service.ExpenseService
  * @see org.vaadin.application.service.SessionService
- * @see org.vaadin.application.service.UserService
+ * @see org.vaadin.application.service.OwnerService
  */
 @Route(value = "budget", layout = MainLayout.class)
 public class BudgetView extends VerticalLayout {
@@ -73,7 +76,9 @@ public class BudgetView extends VerticalLayout {
     private final transient BudgetService budgetService;
     private final transient ExpenseService expenseService;
     private final transient SessionService sessionService;
-    private final transient UserService userService;
+    private final transient OwnerService ownerService;
+    private final transient LedgerEventBroadcaster ledgerEventBroadcaster;
+    private transient LedgerEventBroadcaster.Subscription ledgerSubscription;
 
     final TextField nameField = new TextField("Budget Name");
     final TextField amountField = new TextField("Target Amount ($)");
@@ -89,14 +94,17 @@ public class BudgetView extends VerticalLayout {
      * @param expenseService the service used to retrieve expenses data
      * @param sessionService the service used to manage session-related data,
      *                       particularly the logged-in user
-     * @param userService    the service used to manage user data
+     * @param ownerService   the service used to resolve the owner of new records
+     * @param ledgerEventBroadcaster the broadcaster of changes made in other
+     *                       sessions
      */
     public BudgetView(BudgetService budgetService, ExpenseService expenseService, SessionService sessionService,
-            UserService userService) {
+            OwnerService ownerService, LedgerEventBroadcaster ledgerEventBroadcaster) {
         this.budgetService = budgetService;
         this.expenseService = expenseService;
         this.sessionService = sessionService;
-        this.userService = userService;
+        this.ownerService = ownerService;
+        this.ledgerEventBroadcaster = ledgerEventBroadcaster;
 
         setAlignItems(Alignment.CENTER);
 
@@ -120,6 +128,43 @@ public class BudgetView extends VerticalLayout {
         listBudgets();
     }
 
+    /**
+     * Subscribes to the ledger events of the logged-in user when the view is
+     * attached, so that changes made elsewhere are shown right away.
+     * 
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        ledgerSubscription = LedgerUpdates.subscribe(ledgerEventBroadcaster, attachEvent.getUI(),
+                sessionService.getLoggedInUserId(), this::applyLedgerEvent);
+    }
+
+    /**
+     * Stops receiving ledger events when the view is detached.
+     * 
+     * @param detachEvent the detach event
+     */
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        ledgerSubscription.cancel();
+        ledgerSubscription = null;
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Lists the budgets again after a budget was added or removed, or after an
+     * expense changed the amount spent of a budget, in another session.
+     * 
+     * @param event the change
+     */
+    private void applyLedgerEvent(LedgerEvent event) {
+        if (event instanceof LedgerEvent.BudgetChanged || event instanceof LedgerEvent.ExpenseChanged) {
+            listBudgets();
+        }
+    }
+
     /**
      * Configures the input fields for budget name and target amount.
      */
@@ -140,10 +185,14 @@ public class BudgetView extends VerticalLayout {
      * Retrieves and lists all budgets for the currently logged-in user.
      */
     void listBudgets() {
+        budgetContainer.removeAll();
+        budgetCards.clear();
         Long userId = sessionService.getLoggedInUserId();
         List<Budget> budgets = budgetService.getBudgetsByUserId(userId);
+        Map<Long, BigDecimal> totalExpensesByBudget = expenseService.getTotalExpensesByBudget(userId);
         for (Budget budget : budgets) {
-            Div budgetCard = createBudgetCard(budget);
+            Div budgetCard = createBudgetCard(budget,
+                    totalExpensesByBudget.getOrDefault(budget.getId(), BigDecimal.ZERO));
             budgetCards.put(budget, budgetCard);
             budgetContainer.add(budgetCard);
         }
@@ -155,10 +204,11 @@ public class BudgetView extends VerticalLayout {
      * total expenses so far, and a progress bar indicating how much of the budget
      * has been spent.
      * 
-     * @param budget the budget to create a card for
+     * @param budget        the budget to create a card for
+     * @param totalExpenses the total expenses assigned to the budget
      * @return a Div containing the visual representation of the budget
      */
-    private Div createBudgetCard(Budget budget) {
+    private Div createBudgetCard(Budget budget, BigDecimal totalExpenses) {
         Div card = new Div();
         card.addClassName("budget-card");
 
@@ -176,8 +226,6 @@ public class BudgetView extends VerticalLayout {
         targetDiv.setText("Target: $" + budget.getAmount());
         targetDiv.addClassName("budget-target");
 
-        BigDecimal totalExpenses = getTotalExpensesForBudget(budget);
-
         Div currentAmountDiv = new Div();
         currentAmountDiv.setText("Spent so far: $" + totalExpenses.toString());
         currentAmountDiv.addClassName("current-amount");
@@ -206,19 +254,6 @@ public class BudgetView extends VerticalLayout {
         return card;
     }
 
-    /**
-     * Calculates the total expenses associated with the given budget.
-     * 
-     * @param budget the budget for which to calculate total expenses
-     * @return the total amount of expenses as a BigDecimal
-     */
-    private BigDecimal getTotalExpensesForBudget(Budget budget) {
-        List<Expense> expenses = expenseService.getExpensesByBudget(budget.getId());
-        return expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     /**
      * Adds a new budget based on the user input, saves it to the database, and
      * updates the UI
@@ -240,13 +275,13 @@ public class BudgetView extends VerticalLayout {
             budget.setName(name);
             budget.setAmount(amount);
             budget.setIcon(selectedIcon);
-            budget.setUser(userService.findUserById(sessionService.getLoggedInUserId()));
+            budget.setUser(ownerService.getLoggedInOwner());
 
             Budget savedBudget = budgetService.addBudget(budget);
             Notification.show("Budget added successfully", 3000, Notification.Position.TOP_CENTER);
 
             clearForm();
-            Div budgetCard = createBudgetCard(savedBudget);
+            Div budgetCard = createBudgetCard(savedBudget, BigDecimal.ZERO);
             budgetCards.put(savedBudget, budgetCard);
             budgetContainer.add(budgetCard);
         } catch (NumberFormatException e) {
@@ -1,22 +1,46 @@
 package org.vaadin.application.views;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.virtuallist.VirtualList;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.renderer.LitRenderer;
+import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.server.VaadinSession;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
-
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.vaadin.application.MainLayout;
-import org.vaadin.application.model.Expense;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseLine;
+import org.vaadin.application.dto.IncomeLine;
+import org.vaadin.application.dto.LedgerEvent;
 import org.vaadin.application.model.ExpenseCategory;
-import org.vaadin.application.model.Income;
+import org.vaadin.application.service.DashboardExecutor;
 import org.vaadin.application.service.ExpenseCategoryService;
 import org.vaadin.application.service.ExpenseService;
 import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerEventBroadcaster;
 
 /**
  * The DashboardView class represents the dashboard page of the application,
@@ -32,12 +56,28 @@ import org.vaadin.application.service.IncomeService;
  * Vaadin
  * components like {@link com.vaadin.flow.component.html.Div},
  * {@link com.vaadin.flow.component.html.H2},
- * {@link com.vaadin.flow.component.listbox.ListBox}, and
+ * {@link com.vaadin.flow.component.virtuallist.VirtualList}, and
  * {@link com.vaadin.flow.component.orderedlayout.HorizontalLayout}
  * to create a visually appealing and interactive UI.
  * </p>
  * 
  * <p>
+ * The category, expense and income lists are virtual lists with lazy data
+ * providers, so only the visible items are read from the database and sent
+ * to the browser, however many records the user has.
+ * </p>
+ * 
+ * <p>
+ * The view is shown with placeholders before any data has been read. Once it
+ * is attached, the card totals and the first page and size of every list are
+ * read concurrently on the {@link DashboardExecutor}, and each of them is
+ * filled in and pushed to the browser as soon as it is available. While the
+ * view is attached, expenses and incomes changed in other sessions are
+ * received from the {@link LedgerEventBroadcaster}, and the affected card and
+ * list are read again.
+ * </p>
+ * 
+ * <p>
  * The {@code @Route} annotation maps this view to the "dashboard" URL path and
  * associates
  * it with the {@link org.vaadin.application.MainLayout}.
@@ -49,14 +89,17 @@ import org.vaadin.application.service.IncomeService;
  * for retrieving expense data,
  * {@link org.vaadin.application.service.IncomeService}
  * for retrieving income data,
- * and {@link org.vaadin.application.service.ExpenseCategoryService} for
+ * {@link org.vaadin.application.service.ExpenseCategoryService} for
  * retrieving
- * the user's expense categories.
+ * the user's expense categories,
+ * and {@link org.vaadin.application.service.DashboardExecutor} for reading
+ * them in the background.
  * </p>
  * 
  * @see org.vaadin.application.service.ExpenseService
  * @see org.vaadin.application.service.IncomeService
  * @see org.vaadin.application.service.ExpenseCategoryService
+ * @see org.vaadin.application.service.DashboardExecutor
  */
 @Route(value = "dashboard", layout = MainLayout.class)
 public class DashboardView extends VerticalLayout {
@@ -64,59 +107,86 @@ public class DashboardView extends VerticalLayout {
     private final transient ExpenseService expenseService;
     private final transient IncomeService incomeService;
     private final transient ExpenseCategoryService expenseCategoryService;
+    private final transient DashboardExecutor dashboardExecutor;
+    private final transient LedgerEventBroadcaster ledgerEventBroadcaster;
+    private transient LedgerEventBroadcaster.Subscription ledgerSubscription;
+
+    /**
+     * The maximum number of page boundaries remembered for keyset pagination.
+     */
+    private static final int MAX_PAGE_BOUNDARIES = 256;
+
+    /**
+     * The number of items of every list read before the list is shown.
+     */
+    private static final int FIRST_PAGE_SIZE = 50;
+
+    private static final String PLACEHOLDER = "Loading...";
+
+    private final Long currentUserId;
+    private final H2 totalExpensesValue = new H2(PLACEHOLDER);
+    private final H2 totalIncomeValue = new H2(PLACEHOLDER);
+    private final VirtualList<ExpenseCategory> categoryList = new VirtualList<>();
+    private final VirtualList<ExpenseLine> expenseList = new VirtualList<>();
+    private final VirtualList<IncomeLine> incomeList = new VirtualList<>();
+
+    /**
+     * The last expense before each known offset of the expense list, used to
+     * continue with a keyset query instead of an offset query.
+     */
+    private final NavigableMap<Integer, ExpenseCursor> expenseBoundaries = new TreeMap<>();
+
+    /**
+     * The background reads started when the view was attached.
+     */
+    private final transient List<CompletableFuture<?>> loads = new ArrayList<>();
 
     /**
      * Constructs a new DashboardView and initializes the components and layout.
+     * No data is read until the view is attached.
      * 
      * @param expenseService         the service used to manage expense data
      * @param incomeService          the service used to manage income data
      * @param expenseCategoryService the service used to manage expense category
      *                               data
+     * @param dashboardExecutor      the executor the data is read on
+     * @param ledgerEventBroadcaster the broadcaster of changes made in other
+     *                               sessions
      */
     public DashboardView(ExpenseService expenseService, IncomeService incomeService,
-            ExpenseCategoryService expenseCategoryService) {
+            ExpenseCategoryService expenseCategoryService, DashboardExecutor dashboardExecutor,
+            LedgerEventBroadcaster ledgerEventBroadcaster) {
         this.expenseService = expenseService;
         this.incomeService = incomeService;
         this.expenseCategoryService = expenseCategoryService;
+        this.dashboardExecutor = dashboardExecutor;
+        this.ledgerEventBroadcaster = ledgerEventBroadcaster;
 
         addClassName("dashboard-view");
-        Long currentUserId = (Long) VaadinSession.getCurrent().getAttribute("userId");
-
-        // Fetch the total expenses and income for the current month
-        BigDecimal totalExpenses = expenseService.getTotalExpensesForCurrentMonth(currentUserId);
-        BigDecimal totalIncome = incomeService.getTotalIncomeForCurrentMonth(currentUserId);
-
-        // Handle null values by assigning a default value of BigDecimal.ZERO
-        if (totalExpenses == null) {
-            totalExpenses = BigDecimal.ZERO;
-        }
-
-        if (totalIncome == null) {
-            totalIncome = BigDecimal.ZERO;
-        }
+        currentUserId = (Long) VaadinSession.getCurrent().getAttribute("userId");
 
         // Dashboard title
         H2 dashboardTitle = new H2("Welcome to the Dashboard!");
         dashboardTitle.addClassName("dashboard-title");
 
-        // Cards for Total Expenses and Total Income
-        Div totalExpensesCard = createDashboardCard("Total Expenses for this Month", totalExpenses.toString());
-        Div totalIncomeCard = createDashboardCard("Total Income for this Month", totalIncome.toString());
+        // Cards for Total Expenses and Total Income, filled in once loaded
+        Div totalExpensesCard = createDashboardCard("Total Expenses for this Month", totalExpensesValue);
+        Div totalIncomeCard = createDashboardCard("Total Income for this Month", totalIncomeValue);
 
         // Layout for cards
         HorizontalLayout statsLayout = new HorizontalLayout(totalExpensesCard, totalIncomeCard);
         statsLayout.addClassName("dashboard-stats");
 
         // Create the category and expense lists
-        VerticalLayout categoryLayout = createExpenseCategoryList(currentUserId);
-        VerticalLayout expenseLayout = createExpenseList(currentUserId);
+        VerticalLayout categoryLayout = createExpenseCategoryList();
+        VerticalLayout expenseLayout = createExpenseList();
 
         // In your DashboardView or another relevant view
         HorizontalLayout categoryAndExpenseLayout = new HorizontalLayout(categoryLayout, expenseLayout);
         categoryAndExpenseLayout.addClassName("category-expense-layout");
 
         // Create the income list
-        VerticalLayout incomeLayout = createIncomeList(currentUserId);
+        VerticalLayout incomeLayout = createIncomeList();
         incomeLayout.addClassName("income-full-row");
 
         // Add all components to the main layout
@@ -125,26 +195,102 @@ public class DashboardView extends VerticalLayout {
         // Additional dashboard components and features can be added here
     }
 
+    /**
+     * Starts reading the card totals and lists of the current user in the
+     * background when the view is attached, and subscribes to the user's
+     * ledger events.
+     * 
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        UI ui = attachEvent.getUI();
+        Long userId = currentUserId;
+
+        ledgerSubscription = LedgerUpdates.subscribe(ledgerEventBroadcaster, ui, userId,
+                event -> applyLedgerEvent(ui, event));
+
+        loadCardValue(ui, totalExpensesValue, () -> expenseService.getTotalExpensesForCurrentMonth(userId));
+        loadCardValue(ui, totalIncomeValue, () -> incomeService.getTotalIncomeForCurrentMonth(userId));
+
+        loadList(ui, categoryList,
+                () -> expenseCategoryService.getExpenseCategoriesByUserId(userId, PageRequest.of(0, FIRST_PAGE_SIZE)),
+                () -> expenseCategoryService.countExpenseCategoriesByUserId(userId),
+                start -> new CallbackDataProvider<>(
+                        query -> start.fetch(query,
+                                () -> expenseCategoryService.getExpenseCategoriesByUserId(userId, toPageRequest(query)))
+                                .stream(),
+                        query -> start.count(() -> expenseCategoryService.countExpenseCategoriesByUserId(userId)),
+                        ExpenseCategory::getId));
+
+        loadList(ui, expenseList, () -> expenseService.getExpenseLines(userId, null, FIRST_PAGE_SIZE, false),
+                () -> expenseService.countExpensesByUserId(userId),
+                start -> new CallbackDataProvider<>(query -> fetchExpenses(userId, start, query),
+                        query -> start.count(() -> expenseService.countExpensesByUserId(userId)), ExpenseLine::id));
+
+        loadList(ui, incomeList, () -> incomeService.getIncomeLines(userId, PageRequest.of(0, FIRST_PAGE_SIZE)),
+                () -> incomeService.countIncomesByUserId(userId),
+                start -> new CallbackDataProvider<>(
+                        query -> start.fetch(query, () -> incomeService.getIncomeLines(userId, toPageRequest(query)))
+                                .stream(),
+                        query -> start.count(() -> incomeService.countIncomesByUserId(userId)), IncomeLine::id));
+    }
+
+    /**
+     * Stops filling in the view once it is detached. Reads that have already
+     * started still run to completion, but their results are dropped.
+     * 
+     * @param detachEvent the detach event
+     */
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        ledgerSubscription.cancel();
+        ledgerSubscription = null;
+        loads.forEach(load -> load.cancel(false));
+        loads.clear();
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Reads the card total and the list affected by an expense or income
+     * changed in another session again. The monthly totals depend on the pay
+     * days of all incomes, so they are read again instead of being adjusted.
+     * 
+     * @param ui    the UI the view is attached to
+     * @param event the change
+     */
+    private void applyLedgerEvent(UI ui, LedgerEvent event) {
+        if (event instanceof LedgerEvent.ExpenseChanged) {
+            loadCardValue(ui, totalExpensesValue,
+                    () -> expenseService.getTotalExpensesForCurrentMonth(currentUserId));
+            expenseBoundaries.clear();
+            expenseList.getDataProvider().refreshAll();
+        } else if (event instanceof LedgerEvent.IncomeChanged) {
+            loadCardValue(ui, totalIncomeValue, () -> incomeService.getTotalIncomeForCurrentMonth(currentUserId));
+            incomeList.getDataProvider().refreshAll();
+        }
+    }
+
     /**
      * Creates a card displaying a title and a value. The card is used for
      * displaying
      * total expenses and total income in the dashboard.
      * 
-     * @param title the title of the card
-     * @param value the value to be displayed in the card
+     * @param title          the title of the card
+     * @param valueComponent the value component to be displayed in the card
      * @return a Div containing the visual representation of the card
      */
-    Div createDashboardCard(String title, String value) {
+    Div createDashboardCard(String title, H2 valueComponent) {
         Div card = new Div();
         card.addClassName("dashboard-card");
 
         H2 cardTitle = new H2(title);
         cardTitle.addClassName("card-title");
 
-        H2 cardValue = new H2("$" + value);
-        cardValue.addClassName("card-value");
+        valueComponent.addClassName("card-value");
 
-        card.add(cardTitle, cardValue);
+        card.add(cardTitle, valueComponent);
         return card;
     }
 
@@ -152,42 +298,24 @@ public class DashboardView extends VerticalLayout {
      * Creates a layout that displays the user's expense categories in a list.
      * 
      * <p>
-     * The categories are retrieved based on the user ID, and each category is
-     * displayed
-     * with a border line and padding.
+     * The list is a {@link VirtualList} that renders only the visible
+     * categories, which are read page by page, newest category first, as the
+     * user scrolls. It stays empty until the view is attached.
      * </p>
      * 
-     * @param userId the ID of the user for whom the categories are fetched
      * @return a VerticalLayout containing the expense categories
      */
-    VerticalLayout createExpenseCategoryList(Long userId) {
-        List<ExpenseCategory> categories = expenseCategoryService.getExpenseCategoriesByUserId(userId);
-
+    VerticalLayout createExpenseCategoryList() {
         // Title for the categories section
         H2 categoryTitle = new H2("Expense Categories");
         categoryTitle.addClassName("category-title");
 
-        VerticalLayout categoryLayout = new VerticalLayout();
-        categoryLayout.addClassName("category-layout");
+        categoryList.addClassName("category-layout");
+        categoryList.setRenderer(LitRenderer.<ExpenseCategory>of(
+                "<div class=\"category-item\"><div class=\"category-name\">${item.name}</div></div>")
+                .withProperty("name", ExpenseCategory::getName));
 
-        // Create a custom Div for each category
-        for (ExpenseCategory category : categories) {
-            Div categoryItem = new Div();
-            categoryItem.addClassName("category-item");
-
-            // Create a span for the category name
-            Div name = new Div();
-            name.setText(category.getName());
-            name.addClassName("category-name");
-
-            // Add the category name to the category item
-            categoryItem.add(name);
-
-            // Add the category item to the layout
-            categoryLayout.add(categoryItem);
-        }
-
-        VerticalLayout mainLayout = new VerticalLayout(categoryTitle, categoryLayout);
+        VerticalLayout mainLayout = new VerticalLayout(categoryTitle, categoryList);
         mainLayout.addClassName("category-list-box");
         return mainLayout;
     }
@@ -196,93 +324,210 @@ public class DashboardView extends VerticalLayout {
      * Creates a layout that displays the users's expense in a list
      * 
      * <p>
-     * the expense are retrvied based on the user ID, each expense is displayed with
-     * a border line and padding.
+     * The list is a {@link VirtualList} that renders only the visible expenses.
+     * They are read newest first, one window at a time as the user scrolls,
+     * with keyset queries that continue after the last expense of the previous
+     * window. It stays empty until the view is attached.
      * </p>
      * 
-     * @param userId the ID of the user for whom the expenses are fetched
      * @return a VerticalLayout containing the expenses
      */
-    private VerticalLayout createExpenseList(Long userId) {
-        List<Expense> expenses = expenseService.getExpensesByUserId(userId);
-
+    private VerticalLayout createExpenseList() {
         // Title for the expenses section
         H2 expenseTitle = new H2("Expenses");
         expenseTitle.addClassName("expense-title");
 
-        VerticalLayout expenseLayout = new VerticalLayout();
-        expenseLayout.addClassName("expense-layout");
-
-        // Create a custom Div for each expense
-        for (Expense expense : expenses) {
-            Div expenseItem = new Div();
-            expenseItem.addClassName("expense-item");
-
-            // Create a span for the description
-            Div description = new Div();
-            description.setText(expense.getDescription());
-            description.addClassName("expense-description");
-
-            // Create a span for the amount
-            Div amount = new Div();
-            amount.setText("$" + expense.getAmount().toString());
-            amount.addClassName("expense-amount");
-
-            // Add the description and amount to the expense item
-            expenseItem.add(description, amount);
-
-            // Add the expense item to the layout
-            expenseLayout.add(expenseItem);
-        }
+        expenseList.addClassName("expense-layout");
+        expenseList.setRenderer(LitRenderer.<ExpenseLine>of("<div class=\"expense-item\">"
+                + "<div class=\"expense-description\">${item.description}</div>"
+                + "<div class=\"expense-amount\">${item.amount}</div></div>")
+                .withProperty("description", ExpenseLine::description)
+                .withProperty("amount", expense -> "$" + expense.amount()));
 
-        VerticalLayout mainLayout = new VerticalLayout(expenseTitle, expenseLayout);
+        VerticalLayout mainLayout = new VerticalLayout(expenseTitle, expenseList);
         mainLayout.addClassName("expense-list-box");
         return mainLayout;
     }
 
     /**
-     * Creates a layout that displays the users's income in a list
+     * Fetches one window of a user's expenses, newest first. The first window
+     * is taken from the page read in the background if it covers it. A window
+     * that starts after a known expense is read with a keyset query, any other
+     * window with an offset query.
      * 
+     * @param userId the ID of the user for whom the expenses are fetched
+     * @param start  the first page and size read in the background
+     * @param query  the window requested by the list
+     * @return the expense lines in the window
+     */
+    private Stream<ExpenseLine> fetchExpenses(Long userId, ListStart<ExpenseLine> start,
+            Query<ExpenseLine, Void> query) {
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+
+        List<ExpenseLine> expenses = start.fetch(query, () -> {
+            if (offset == 0 || expenseBoundaries.containsKey(offset)) {
+                return expenseService.getExpenseLines(userId, expenseBoundaries.get(offset), limit, false);
+            }
+            return expenseService.getExpenseLines(userId,
+                    PageRequest.of(query.getPage(), limit, Sort.by(Sort.Direction.DESC, "date", "id")));
+        });
+
+        if (!expenses.isEmpty()) {
+            if (expenseBoundaries.size() >= MAX_PAGE_BOUNDARIES) {
+                expenseBoundaries.pollFirstEntry();
+            }
+            expenseBoundaries.put(offset + expenses.size(), ExpenseCursor.of(expenses.get(expenses.size() - 1)));
+        }
+        return expenses.stream();
+    }
+
+    /**
+     * Creates a layout that displays the users's income in a list
      * 
+     * <p>
+     * The list is a {@link VirtualList} that renders only the visible incomes,
+     * which are read page by page, newest first, as the user scrolls. It stays
+     * empty until the view is attached.
+     * </p>
      * 
-     * @param userId
-     * @return
+     * @return a VerticalLayout containing the incomes
      */
-    private VerticalLayout createIncomeList(Long userId) {
-        List<Income> incomes = incomeService.getIncomesByUserId(userId);
-
+    private VerticalLayout createIncomeList() {
         // Title for the incomes section
         H2 incomeTitle = new H2("Incomes");
         incomeTitle.addClassName("income-title");
 
-        VerticalLayout incomeLayout = new VerticalLayout();
-        incomeLayout.addClassName("income-layout");
+        // Use the "source" field as the description
+        incomeList.addClassName("income-layout");
+        incomeList.setRenderer(LitRenderer.<IncomeLine>of("<div class=\"income-item\">"
+                + "<div class=\"income-description\">${item.source}</div>"
+                + "<div class=\"income-amount\">${item.amount}</div></div>")
+                .withProperty("source", IncomeLine::source)
+                .withProperty("amount", income -> "$" + income.amount()));
 
-        // Create a custom Div for each income
-        for (Income income : incomes) {
-            Div incomeItem = new Div();
-            incomeItem.addClassName("income-item");
+        VerticalLayout mainLayout = new VerticalLayout(incomeTitle, incomeList);
+        mainLayout.addClassName("income-list-box");
+        return mainLayout;
+    }
 
-            // Use the "source" field as the description
-            Div description = new Div();
-            description.setText(income.getSource());
-            description.addClassName("income-description");
+    /**
+     * Reads a card total in the background and shows it once it is read. A
+     * missing total is shown as zero.
+     * 
+     * @param ui        the UI the view is attached to
+     * @param cardValue the value component of the card
+     * @param total     reads the total
+     */
+    private void loadCardValue(UI ui, H2 cardValue, Supplier<BigDecimal> total) {
+        whenLoaded(ui, dashboardExecutor.supply(total),
+                value -> cardValue.setText("$" + (value != null ? value : BigDecimal.ZERO)));
+    }
 
-            // Create a span for the amount
-            Div amount = new Div();
-            amount.setText("$" + income.getAmount().toString());
-            amount.addClassName("income-amount");
+    /**
+     * Reads the first page and the size of a list concurrently in the
+     * background, and connects the list to its data provider once both are
+     * read.
+     * 
+     * @param <T>          the type of the items
+     * @param ui           the UI the view is attached to
+     * @param list         the list to fill
+     * @param firstPage    reads the first {@link #FIRST_PAGE_SIZE} items
+     * @param size         counts the items
+     * @param dataProvider creates the data provider of the list
+     */
+    private <T> void loadList(UI ui, VirtualList<T> list, Supplier<List<T>> firstPage, LongSupplier size,
+            Function<ListStart<T>, CallbackDataProvider<T, Void>> dataProvider) {
+        CompletableFuture<ListStart<T>> load = dashboardExecutor.supply(firstPage)
+                .thenCombine(dashboardExecutor.supply(size::getAsLong), ListStart::new);
+        whenLoaded(ui, load, start -> list.setItems(dataProvider.apply(start)));
+    }
+
+    /**
+     * Runs a change of the view with the result of a background read, as soon
+     * as the read has finished and the UI is free. The change is pushed to the
+     * browser. Nothing is changed if the view has been detached in the
+     * meantime, and a notification is shown if the read failed.
+     * 
+     * @param <T>  the type of the result
+     * @param ui   the UI the view is attached to
+     * @param load the background read
+     * @param show changes the view with the result
+     */
+    private <T> void whenLoaded(UI ui, CompletableFuture<T> load, SerializableConsumer<T> show) {
+        loads.add(load);
+        load.whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                return;
+            }
+            ui.accessLater(() -> {
+                if (error != null) {
+                    Notification.show("Some of the dashboard could not be loaded. Please reload the page.");
+                } else {
+                    show.accept(result);
+                }
+            }, null).run();
+        });
+    }
+
+    /**
+     * Converts the window requested by a list to a page request. Lists request
+     * windows of a fixed size, so every window is a whole page.
+     * 
+     * @param query the window requested by the list
+     * @return the page request
+     */
+    private static PageRequest toPageRequest(Query<?, ?> query) {
+        return PageRequest.of(query.getPage(), query.getPageSize());
+    }
+
+    /**
+     * The first page and the size of a list, read in the background before the
+     * list is shown. Each of them answers the first request of the list that it
+     * covers; every other request is read when the list makes it.
+     * 
+     * @param <T> the type of the items
+     */
+    private static final class ListStart<T> {
 
-            // Add the description and amount to the income item
-            incomeItem.add(description, amount);
+        private List<T> firstPage;
+        private Long size;
 
-            // Add the income item to the layout
-            incomeLayout.add(incomeItem);
+        private ListStart(List<T> firstPage, Long size) {
+            this.firstPage = firstPage;
+            this.size = size;
         }
 
-        VerticalLayout mainLayout = new VerticalLayout(incomeTitle, incomeLayout);
-        mainLayout.addClassName("income-list-box");
-        return mainLayout;
-    }
+        /**
+         * Gets the items of a window, from the first page if it covers the
+         * window and has not been used yet.
+         * 
+         * @param query the window requested by the list
+         * @param read  reads the window otherwise
+         * @return the items in the window
+         */
+        private List<T> fetch(Query<T, Void> query, Supplier<List<T>> read) {
+            List<T> page = firstPage;
+            firstPage = null;
+            // A page shorter than requested holds all items
+            if (page != null && query.getOffset() == 0
+                    && (query.getLimit() <= page.size() || page.size() < FIRST_PAGE_SIZE)) {
+                return page.subList(0, Math.min(query.getLimit(), page.size()));
+            }
+            return read.get();
+        }
 
+        /**
+         * Gets the size of the list, from the size read in the background if it
+         * has not been used yet.
+         * 
+         * @param count counts the items otherwise
+         * @return the number of items
+         */
+        private int count(LongSupplier count) {
+            Long knownSize = size;
+            size = null;
+            return (int) (knownSize != null ? knownSize : count.getAsLong());
+        }
+    }
 }
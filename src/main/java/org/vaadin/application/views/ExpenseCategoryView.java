@@ -2,6 +2,7 @@ package org.vaadin.application.views;
 
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.dataview.GridListDataView;
 import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
@@ -14,7 +15,7 @@ import org.vaadin.application.MainLayout;
 import org.vaadin.application.model.ExpenseCategory;
 import org.vaadin.application.service.ExpenseCategoryService;
 import org.vaadin.application.service.SessionService;
-import org.vaadin.application.service.UserService;
+import org.vaadin.application.service.OwnerService;
 
 /**
  * The ExpenseCategoryView class provides the user interface for managing
@@ -44,23 +45,24 @@ import org.vaadin.application.service.UserService;
  * for managing expense category data,
  * {@link org.vaadin.application.service.SessionService} for managing
  * session-related data,
- * and {@link org.vaadin.application.service.UserService} for retrieving user
- * information.
+ * and {@link org.vaadin.application.service.OwnerService} for resolving the
+ * owner of new records.
  * </p>
  * 
  * @see org.vaadin.application.service.ExpenseCategoryService
  * @see org.vaadin.application.service.SessionService
- * @see org.vaadin.application.service.UserService
+ * @see org.vaadin.application.service.OwnerService
  */
 @Route(value = "category", layout = MainLayout.class)
 public class ExpenseCategoryView extends VerticalLayout {
 
     private final Grid<ExpenseCategory> grid = new Grid<>(ExpenseCategory.class);
     private final TextField nameField = new TextField("Category Name");
+    private GridListDataView<ExpenseCategory> categoryDataView;
 
     private final transient ExpenseCategoryService expenseCategoryService;
     private final transient SessionService sessionService;
-    private final transient UserService userService;
+    private final transient OwnerService ownerService;
 
     /**
      * Constructs a new ExpenseCategoryView and initializes the components and
@@ -70,13 +72,13 @@ public class ExpenseCategoryView extends VerticalLayout {
      *                               data
      * @param sessionService         the service used to manage session-related
      *                               data, particularly the logged-in user
-     * @param userService            the service used to manage user data
+     * @param ownerService           the service used to resolve the owner of new records
      */
     public ExpenseCategoryView(ExpenseCategoryService expenseCategoryService, SessionService sessionService,
-            UserService userService) {
+            OwnerService ownerService) {
         this.expenseCategoryService = expenseCategoryService;
         this.sessionService = sessionService;
-        this.userService = userService;
+        this.ownerService = ownerService;
 
         configureGrid();
 
@@ -105,13 +107,14 @@ public class ExpenseCategoryView extends VerticalLayout {
     private void listCategories() {
         Long userId = sessionService.getLoggedInUserId();
         List<ExpenseCategory> categories = expenseCategoryService.getExpenseCategoriesByUserId(userId);
-        grid.setItems(categories);
+        categoryDataView = grid.setItems(categories);
+        categoryDataView.setIdentifierProvider(ExpenseCategory::getId);
     }
 
     /**
      * Adds a new expense category based on the user input, saves it to the
      * database,
-     * and updates the grid to display the new category.
+     * and adds it to the grid without listing the categories again.
      * 
      * <p>
      * If the user inputs an empty category name, a notification will be displayed.
@@ -127,12 +130,12 @@ public class ExpenseCategoryView extends VerticalLayout {
 
         ExpenseCategory category = new ExpenseCategory();
         category.setName(name);
-        category.setUser(userService.findUserById(sessionService.getLoggedInUserId()));
+        category.setUser(ownerService.getLoggedInOwner());
 
-        expenseCategoryService.addExpenseCategory(category);
+        ExpenseCategory savedCategory = expenseCategoryService.addExpenseCategory(category);
         Notification.show("Category added successfully", 3000, Notification.Position.TOP_CENTER);
         clearForm();
-        listCategories();
+        categoryDataView.addItem(savedCategory);
     }
 
     /**
@@ -148,7 +151,7 @@ public class ExpenseCategoryView extends VerticalLayout {
         if (selectedCategory != null) {
             expenseCategoryService.deleteExpenseCategory(selectedCategory.getId());
             Notification.show("Category deleted successfully", 3000, Notification.Position.TOP_CENTER);
-            listCategories();
+            categoryDataView.removeItem(selectedCategory);
         } else {
             Notification.show("Please select a category to delete", 3000, Notification.Position.TOP_CENTER);
         }
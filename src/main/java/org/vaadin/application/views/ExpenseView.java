@@ -1,8 +1,11 @@
 package org.vaadin.application.views;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridSortOrder;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.component.html.H2;
@@ -12,19 +15,36 @@ import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.provider.CallbackDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.spring.data.VaadinSpringDataHelpers;
 import java.math.BigDecimal;
-import java.sql.Date;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.vaadin.application.MainLayout;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseLine;
+import org.vaadin.application.dto.LedgerEvent;
 import org.vaadin.application.model.Budget;
 import org.vaadin.application.model.Expense;
 import org.vaadin.application.service.BudgetService;
 import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.LedgerEventBroadcaster;
+import org.vaadin.application.service.LedgerExportService;
+import org.vaadin.application.service.LedgerWriteService;
 import org.vaadin.application.service.SessionService;
-import org.vaadin.application.service.UserService;
+import org.vaadin.application.service.OwnerService;
+import org.vaadin.application.util.MoneyCents;
 
 import com.vaadin.flow.component.combobox.ComboBox;
 
@@ -41,7 +61,8 @@ import com.vaadin.flow.component.combobox.ComboBox;
  * {@link com.vaadin.flow.component.orderedlayout.VerticalLayout} to organize
  * the components vertically on the page. It includes a
  * {@link com.vaadin.flow.component.grid.Grid}
- * to display the list of expenses,
+ * to display the list of expenses, which is loaded lazily page by page as
+ * read-only {@link org.vaadin.application.dto.ExpenseLine} projections,
  * {@link com.vaadin.flow.component.textfield.TextField} and
  * {@link com.vaadin.flow.component.datepicker.DatePicker} for user input, and
  * {@link com.vaadin.flow.component.combobox.ComboBox}
@@ -57,24 +78,27 @@ import com.vaadin.flow.component.combobox.ComboBox;
  * <p>
  * This class interacts with the following services:
  * {@link org.vaadin.application.service.ExpenseService}
- * for managing expense data,
+ * for reading expense data,
+ * {@link org.vaadin.application.service.LedgerWriteService} for writing
+ * expenses together with their budget changes,
  * {@link org.vaadin.application.service.BudgetService} for managing budget
  * data,
  * {@link org.vaadin.application.service.SessionService} for managing
  * session-related data, and
- * {@link org.vaadin.application.service.UserService} for retrieving user
- * information.
+ * {@link org.vaadin.application.service.OwnerService} for resolving the
+ * owner of new records.
  * </p>
  * 
  * @see org.vaadin.application.service.ExpenseService
+ * @see org.vaadin.application.service.LedgerWriteService
  * @see org.vaadin.application.service.BudgetService
  * @see org.vaadin.application.service.SessionService
- * @see org.vaadin.application.service.UserService
+ * @see org.vaadin.application.service.OwnerService
  */
 @Route(value = "expense", layout = MainLayout.class)
 public class ExpenseView extends VerticalLayout {
 
-    private final Grid<Expense> grid = new Grid<>(Expense.class);
+    private final Grid<ExpenseLine> grid = new Grid<>();
     private final TextField descriptionField = new TextField("Description");
     private final TextField amountField = new TextField("Amount");
     private final DatePicker datePicker = new DatePicker("Date");
@@ -82,12 +106,43 @@ public class ExpenseView extends VerticalLayout {
 
     private final transient ExpenseService expenseService;
     private final transient SessionService sessionService;
-    private final transient UserService userService;
+    private final transient OwnerService ownerService;
     private final transient BudgetService budgetService;
+    private final transient LedgerWriteService ledgerWriteService;
+    private final transient LedgerEventBroadcaster ledgerEventBroadcaster;
+    private final transient LedgerExportService ledgerExportService;
+    private transient LedgerEventBroadcaster.Subscription ledgerSubscription;
+
+    /**
+     * The maximum number of page boundaries remembered for keyset pagination.
+     */
+    private static final int MAX_PAGE_BOUNDARIES = 256;
 
     private H2 totalExpensesValue;
+
+    /**
+     * The total of the logged-in user's expenses, read once when the view is
+     * created and afterwards changed by the amount of every expense added,
+     * updated or deleted in this view.
+     */
+    private long totalExpensesCents;
     private Div totalExpensesCard;
-    private Expense selectedExpense;
+    private List<Budget> budgets = List.of();
+    private ExpenseLine selectedExpense;
+
+    /**
+     * The last expense before each known page offset in the current date order,
+     * used to continue with a keyset query instead of an offset query.
+     */
+    private final NavigableMap<Integer, ExpenseCursor> pageBoundaries = new TreeMap<>();
+    private boolean pageBoundariesAscending;
+
+    /**
+     * The number of the logged-in user's expenses, read by the first count the
+     * grid asks for and afterwards changed by every expense added or deleted in
+     * this view; -1 if it has to be read.
+     */
+    private int expenseCount = -1;
 
     /**
      * Constructs a new ExpenseView and initializes the components and layout.
@@ -95,15 +150,25 @@ public class ExpenseView extends VerticalLayout {
      * @param expenseService the service used to manage expense data
      * @param sessionService the service used to manage session-related data,
      *                       particularly the logged-in user
-     * @param userService    the service used to manage user data
+     * @param ownerService   the service used to resolve the owner of new records
      * @param budgetService  the service used to manage budget data
+     * @param ledgerWriteService the service used to write expenses and their
+     *                       budget changes in one transaction
+     * @param ledgerEventBroadcaster the broadcaster of changes made in other
+     *                       sessions
+     * @param ledgerExportService the service used to download the expenses as
+     *                       CSV
      */
-    public ExpenseView(ExpenseService expenseService, SessionService sessionService, UserService userService,
-            BudgetService budgetService) {
+    public ExpenseView(ExpenseService expenseService, SessionService sessionService, OwnerService ownerService,
+            BudgetService budgetService, LedgerWriteService ledgerWriteService,
+            LedgerEventBroadcaster ledgerEventBroadcaster, LedgerExportService ledgerExportService) {
         this.expenseService = expenseService;
         this.sessionService = sessionService;
-        this.userService = userService;
+        this.ownerService = ownerService;
         this.budgetService = budgetService;
+        this.ledgerWriteService = ledgerWriteService;
+        this.ledgerEventBroadcaster = ledgerEventBroadcaster;
+        this.ledgerExportService = ledgerExportService;
 
         configureGrid();
         configureForm();
@@ -121,17 +186,62 @@ public class ExpenseView extends VerticalLayout {
     
         H1 logo = new H1("Expenses");
 
+        HorizontalLayout exportLayout = LedgerDownloads.create("Export to CSV", "expenses",
+                sessionService.getLoggedInUserId(),
+                (userId, out, gzip) -> this.ledgerExportService.exportExpenses(userId, out, gzip));
+
         VerticalLayout mainLayout = new VerticalLayout();
-        mainLayout.add(logo, totalExpensesCard, formLayout, grid);
+        mainLayout.add(logo, totalExpensesCard, formLayout, grid, exportLayout);
         mainLayout.setSpacing(false);
 
         add(mainLayout);
 
         listBudgets();
-        listExpenses();
+        configureDataProvider();
         updateTotalExpenses();
     }
 
+    /**
+     * Subscribes to the ledger events of the logged-in user when the view is
+     * attached, so that changes made elsewhere are shown right away.
+     * 
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        ledgerSubscription = LedgerUpdates.subscribe(ledgerEventBroadcaster, attachEvent.getUI(),
+                sessionService.getLoggedInUserId(), this::applyLedgerEvent);
+    }
+
+    /**
+     * Stops receiving ledger events when the view is detached.
+     * 
+     * @param detachEvent the detach event
+     */
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        ledgerSubscription.cancel();
+        ledgerSubscription = null;
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Applies a change made in another session: the expense total is changed by
+     * the amount of the change and the rows the grid shows are read again, and
+     * the budgets to choose from are listed again when they changed.
+     * 
+     * @param event the change
+     */
+    private void applyLedgerEvent(LedgerEvent event) {
+        if (event instanceof LedgerEvent.ExpenseChanged expenseChanged) {
+            listExpenses();
+            changeTotalExpenses(expenseChanged.amountCents());
+        } else if (event instanceof LedgerEvent.BudgetChanged) {
+            listBudgets();
+        }
+    }
+
     /**
      * Configures the grid to display the list of expenses, including the
      * description, amount,
@@ -140,12 +250,12 @@ public class ExpenseView extends VerticalLayout {
      */
 
     private void configureGrid() {
-        grid.setColumns("description", "amount", "date");
+        grid.addColumn(ExpenseLine::description).setHeader("Description").setSortProperty("description");
+        grid.addColumn(ExpenseLine::amount).setHeader("Amount").setSortProperty("amount");
+        grid.addColumn(ExpenseLine::date).setHeader("Date").setSortProperty("date");
 
-        grid.addColumn(expense -> {
-            Budget budget = expense.getBudget();
-            return budget != null ? budget.getName() : "No Budget";
-        }).setHeader("Budget");
+        grid.addColumn(expense -> expense.budgetName() != null ? expense.budgetName() : "No Budget")
+                .setHeader("Budget").setSortProperty("budgetName");
 
         grid.addComponentColumn(expense -> {
             Button editButton = new Button("Edit");
@@ -171,19 +281,179 @@ public class ExpenseView extends VerticalLayout {
      */
     private void listBudgets() {
         Long userId = sessionService.getLoggedInUserId();
-        List<Budget> budgets = budgetService.getBudgetsByUserId(userId);
+        budgets = budgetService.getBudgetsByUserId(userId);
         budgetComboBox.setItems(budgets);
         budgetComboBox.setItemLabelGenerator(Budget::getName);
     }
 
     /**
-     * Fetches and lists the expenses for the currently logged-in user in the grid.
+     * Connects the grid to a lazy data provider, so that only the rows the
+     * client asks for are read from the database. Sorting is done by the
+     * database.
      */
+    private void configureDataProvider() {
+        grid.setItems(new CallbackDataProvider<>(this::fetchExpenses, query -> countExpenses(), ExpenseLine::id));
+    }
 
-    private void listExpenses() {
+    /**
+     * Counts the logged-in user's expenses for the grid, reading the count from
+     * the database only if it is not known yet.
+     *
+     * @return the number of expenses
+     */
+    private int countExpenses() {
+        if (expenseCount < 0) {
+            expenseCount = (int) expenseService.countExpensesByUserId(sessionService.getLoggedInUserId());
+        }
+        return expenseCount;
+    }
+
+    /**
+     * Fetches one window of the logged-in user's expenses for the grid.
+     *
+     * <p>
+     * When the grid is sorted by date (or not sorted at all, which shows the
+     * newest expenses first), pages are read with keyset queries on (date, id)
+     * that continue after the last row of the previous page. Other sort orders,
+     * and jumps to offsets without a known previous row, fall back to an offset
+     * query with the sort order pushed down to the database.
+     * </p>
+     *
+     * @param query the window and sort order requested by the grid
+     * @return the expense lines in the window
+     */
+    private Stream<ExpenseLine> fetchExpenses(Query<ExpenseLine, Void> query) {
         Long userId = sessionService.getLoggedInUserId();
-        List<Expense> expenses = expenseService.getExpensesByUserId(userId);
-        grid.setItems(expenses);
+        int offset = query.getOffset();
+        int limit = query.getLimit();
+        List<QuerySortOrder> sortOrders = query.getSortOrders();
+
+        boolean sortedByDate = sortOrders.isEmpty()
+                || sortOrders.size() == 1 && "date".equals(sortOrders.get(0).getSorted());
+        if (!sortedByDate) {
+            return expenseService.getExpenseLines(userId, VaadinSpringDataHelpers.toSpringPageRequest(query)).stream();
+        }
+
+        boolean ascending = !sortOrders.isEmpty() && sortOrders.get(0).getDirection() == SortDirection.ASCENDING;
+        if (ascending != pageBoundariesAscending) {
+            pageBoundaries.clear();
+            pageBoundariesAscending = ascending;
+        }
+
+        List<ExpenseLine> expenses;
+        if (offset == 0 || pageBoundaries.containsKey(offset)) {
+            expenses = expenseService.getExpenseLines(userId, pageBoundaries.get(offset), limit, ascending);
+        } else {
+            Sort sort = Sort.by(ascending ? Sort.Direction.ASC : Sort.Direction.DESC, "date", "id");
+            expenses = expenseService.getExpenseLines(userId, PageRequest.of(query.getPage(), limit, sort));
+        }
+
+        if (!expenses.isEmpty()) {
+            if (pageBoundaries.size() >= MAX_PAGE_BOUNDARIES) {
+                pageBoundaries.pollFirstEntry();
+            }
+            pageBoundaries.put(offset + expenses.size(), ExpenseCursor.of(expenses.get(expenses.size() - 1)));
+        }
+        return expenses.stream();
+    }
+
+    /**
+     * Reloads the expenses shown in the grid from scratch: the count is read
+     * again and the known page boundaries are dropped. Used when expenses were
+     * changed in a way this view cannot follow row by row, such as changes made
+     * in another session.
+     */
+    private void listExpenses() {
+        pageBoundaries.clear();
+        expenseCount = -1;
+        grid.getDataProvider().refreshAll();
+    }
+
+    /**
+     * Shows an expense added in this view. The known page boundaries after the
+     * expense move one row down and the count grows by one, so the rows in view
+     * are read again with keyset queries and without counting the expenses.
+     *
+     * @param line the grid line of the added expense
+     */
+    private void showAddedExpense(ExpenseLine line) {
+        shiftPageBoundaries(line, 1);
+        if (expenseCount >= 0) {
+            expenseCount++;
+        }
+        refreshRowsInView();
+    }
+
+    /**
+     * Shows an expense deleted in this view. The known page boundaries from the
+     * expense on move one row up and the count shrinks by one, so the rows in
+     * view are read again with keyset queries and without counting the
+     * expenses.
+     *
+     * @param line the grid line of the deleted expense
+     */
+    private void showRemovedExpense(ExpenseLine line) {
+        shiftPageBoundaries(line, -1);
+        if (expenseCount > 0) {
+            expenseCount--;
+        }
+        refreshRowsInView();
+    }
+
+    /**
+     * Shows an expense updated in this view that moved to another row: it is
+     * taken out at its old position and put in at its new one.
+     *
+     * @param before the grid line of the expense before the update
+     * @param after  the grid line of the expense after the update
+     */
+    private void showMovedExpense(ExpenseLine before, ExpenseLine after) {
+        shiftPageBoundaries(before, -1);
+        shiftPageBoundaries(after, 1);
+        refreshRowsInView();
+    }
+
+    /**
+     * Moves the known page boundaries that lie after an expense in the date
+     * order by a number of rows. A boundary stays valid as long as its offset
+     * is the number of rows up to its cursor, so only the boundaries whose
+     * cursor is the expense or comes after it move.
+     *
+     * @param line  the grid line of the expense that was added or removed
+     * @param delta 1 if the expense was added, -1 if it was removed
+     */
+    private void shiftPageBoundaries(ExpenseLine line, int delta) {
+        ExpenseCursor position = ExpenseCursor.of(line);
+        NavigableMap<Integer, ExpenseCursor> shifted = new TreeMap<>();
+        pageBoundaries.forEach((offset, cursor) -> shifted.put(
+                compareInPageOrder(position, cursor) <= 0 ? offset + delta : offset, cursor));
+        pageBoundaries.clear();
+        pageBoundaries.putAll(shifted);
+    }
+
+    /**
+     * Compares two positions in the date order the page boundaries were taken
+     * in.
+     *
+     * @param first  the first position
+     * @param second the second position
+     * @return a negative number, zero or a positive number if the first
+     *         position comes before, at or after the second
+     */
+    private int compareInPageOrder(ExpenseCursor first, ExpenseCursor second) {
+        int order = first.date().compareTo(second.date());
+        if (order == 0) {
+            order = first.id().compareTo(second.id());
+        }
+        return pageBoundariesAscending ? order : -order;
+    }
+
+    /**
+     * Sends the rows the client shows again, together with the count. Rows
+     * outside the range in view are not read.
+     */
+    private void refreshRowsInView() {
+        grid.getDataCommunicator().reset();
     }
 
     /**
@@ -229,50 +499,63 @@ public class ExpenseView extends VerticalLayout {
         expense.setDescription(description);
         expense.setAmount(amount);
         expense.setDate(date != null ? java.sql.Date.valueOf(date) : null);
-        expense.setUser(userService.findUserById(sessionService.getLoggedInUserId()));
+        expense.setUser(ownerService.getLoggedInOwner());
         expense.setBudget(selectedBudget);
 
-        expenseService.addExpense(expense);
+        Expense savedExpense = ledgerWriteService.recordExpense(expense);
         Notification.show("Expense added successfully");
 
-        if (selectedBudget != null) {
-            selectedBudget.setCurrentAmount(selectedBudget.getCurrentAmount().add(amount));
-            budgetService.addBudget(selectedBudget);
-        }
-
-        listExpenses();
-        updateTotalExpenses();
+        showAddedExpense(new ExpenseLine(savedExpense.getId(), description, amount, date,
+                selectedBudget != null ? selectedBudget.getId() : null,
+                selectedBudget != null ? selectedBudget.getName() : null));
+        changeTotalExpenses(MoneyCents.of(amount));
         clearForm();
     }
 
     /**
-     * Updates the details of an existing expense in the database and updates the
-     * associated
-     * budget's current amount.
+     * Updates the details of an existing expense in the database and moves the
+     * difference to the associated budgets' current amounts.
      * 
-     * @param expense        the expense to be updated
+     * @param line           the grid line of the expense to be updated
      * @param description    the updated description of the expense
      * @param amount         the updated amount of the expense
      * @param date           the updated date of the expense
      * @param selectedBudget the updated budget associated with the expense
      */
-    private void updateExpense(Expense expense, String description, BigDecimal amount, LocalDate date,
+    private void updateExpense(ExpenseLine line, String description, BigDecimal amount, LocalDate date,
             Budget selectedBudget) {
-        expense.setDescription(description);
-        expense.setAmount(amount);
-        expense.setDate(date != null ? java.sql.Date.valueOf(date) : null);
-        expense.setBudget(selectedBudget);
-
-        expenseService.updateExpense(expense);
+        Expense stored = expenseService.findExpenseById(line.id());
+        if (stored == null) {
+            Notification.show("The expense no longer exists");
+            listExpenses();
+            updateTotalExpenses();
+            clearForm();
+            return;
+        }
+        long previousCents = MoneyCents.of(stored.getAmount());
+
+        // The stored expense is left untouched, so the service compares the new
+        // values with the persisted ones it loads itself
+        Expense changes = new Expense();
+        changes.setId(stored.getId());
+        changes.setDescription(description);
+        changes.setAmount(amount);
+        changes.setDate(date != null ? java.sql.Date.valueOf(date) : null);
+        changes.setCategory(stored.getCategory());
+        changes.setBudget(selectedBudget);
+
+        ledgerWriteService.amendExpense(changes);
         Notification.show("Expense updated successfully");
 
-        if (selectedBudget != null) {
-            selectedBudget.setCurrentAmount(selectedBudget.getCurrentAmount().add(amount));
-            budgetService.addBudget(selectedBudget);
+        ExpenseLine updatedLine = new ExpenseLine(line.id(), description, amount, date,
+                selectedBudget != null ? selectedBudget.getId() : null,
+                selectedBudget != null ? selectedBudget.getName() : null);
+        if (keepsPosition(line, updatedLine)) {
+            grid.getDataProvider().refreshItem(updatedLine);
+        } else {
+            showMovedExpense(line, updatedLine);
         }
-
-        listExpenses();
-        updateTotalExpenses();
+        changeTotalExpenses(MoneyCents.subtract(MoneyCents.of(amount), previousCents));
         clearForm();
         selectedExpense = null;
     }
@@ -280,15 +563,18 @@ public class ExpenseView extends VerticalLayout {
     /**
      * Prepares the form with the selected expense's details for editing.
      * 
-     * @param expense the expense to be edited
+     * @param expense the grid line of the expense to be edited
      */
-    private void editExpense(Expense expense) {
+    private void editExpense(ExpenseLine expense) {
         selectedExpense = expense;
 
-        descriptionField.setValue(expense.getDescription());
-        amountField.setValue(expense.getAmount().toString());
-        datePicker.setValue(((Date) expense.getDate()).toLocalDate());
-        budgetComboBox.setValue(expense.getBudget());
+        descriptionField.setValue(expense.description());
+        amountField.setValue(expense.amount().toString());
+        datePicker.setValue(expense.date());
+        budgetComboBox.setValue(budgets.stream()
+                .filter(budget -> budget.getId().equals(expense.budgetId()))
+                .findFirst()
+                .orElse(null));
     }
 
     /**
@@ -298,20 +584,12 @@ public class ExpenseView extends VerticalLayout {
      * prompting the user to select one.
      */
     private void deleteExpense() {
-        Expense selectedExpenseToDelete = grid.asSingleSelect().getValue();
+        ExpenseLine selectedExpenseToDelete = grid.asSingleSelect().getValue();
         if (selectedExpenseToDelete != null) {
-            Budget associatedBudget = selectedExpenseToDelete.getBudget();
-            if (associatedBudget != null) {
-                associatedBudget
-                        .setCurrentAmount(
-                                associatedBudget.getCurrentAmount().subtract(selectedExpenseToDelete.getAmount()));
-                budgetService.addBudget(associatedBudget);
-            }
-
-            expenseService.deleteExpense(selectedExpenseToDelete.getId());
+            ledgerWriteService.removeExpense(selectedExpenseToDelete.id());
             Notification.show("Expense deleted successfully");
-            listExpenses();
-            updateTotalExpenses();
+            showRemovedExpense(selectedExpenseToDelete);
+            changeTotalExpenses(-MoneyCents.of(selectedExpenseToDelete.amount()));
         } else {
             Notification.show("Please select an expense to delete");
         }
@@ -352,16 +630,65 @@ public class ExpenseView extends VerticalLayout {
     }
 
     /**
-     * Updates the total expenses displayed on the dashboard by calculating the sum
-     * of all expenses for the currently logged-in user.
+     * Checks whether an updated expense stays in the same row of the grid, which
+     * is the case if none of the values the grid is sorted by has changed.
+     *
+     * @param before the grid line of the expense before the update
+     * @param after  the grid line of the expense after the update
+     * @return true if the expense keeps its row
+     */
+    private boolean keepsPosition(ExpenseLine before, ExpenseLine after) {
+        List<GridSortOrder<ExpenseLine>> sortOrder = grid.getSortOrder();
+        if (sortOrder.isEmpty()) {
+            return Objects.equals(before.date(), after.date());
+        }
+        return sortOrder.stream()
+                .flatMap(order -> order.getSorted().getSortOrder(order.getDirection()))
+                .allMatch(order -> Objects.equals(sortValue(before, order.getSorted()),
+                        sortValue(after, order.getSorted())));
+    }
+
+    /**
+     * Gets the value of an expense line that the grid sorts by for a sort
+     * property.
+     *
+     * @param line     the expense line
+     * @param property the sort property of a grid column
+     * @return the value of the line for the property
+     */
+    private static Object sortValue(ExpenseLine line, String property) {
+        return switch (property) {
+            case "description" -> line.description();
+            case "amount" -> line.amount();
+            case "date" -> line.date();
+            case "budgetName" -> line.budgetName();
+            default -> line.id();
+        };
+    }
+
+    /**
+     * Updates the total expenses displayed on the dashboard with the sum of all
+     * expenses for the currently logged-in user, calculated by the database.
      */
     private void updateTotalExpenses() {
         Long userId = sessionService.getLoggedInUserId();
-        List<Expense> expenses = expenseService.getExpensesByUserId(userId);
-        BigDecimal totalExpenses = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        totalExpensesCents = MoneyCents.of(expenseService.getTotalExpenses(userId));
+        showTotalExpenses();
+    }
+
+    /**
+     * Changes the total expenses displayed on the dashboard by the amount of an
+     * expense that was added, updated or deleted, without reading the expenses
+     * again.
+     *
+     * @param deltaCents the change of the total in cents
+     */
+    private void changeTotalExpenses(long deltaCents) {
+        totalExpensesCents = MoneyCents.add(totalExpensesCents, deltaCents);
+        showTotalExpenses();
+    }
 
-        totalExpensesValue.setText("$ " + totalExpenses.toString());
+    private void showTotalExpenses() {
+        totalExpensesValue.setText("$ " + MoneyCents.toBigDecimal(totalExpensesCents));
     }
 }
@@ -1,5 +1,7 @@
 package org.vaadin.application.views;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.icon.VaadinIcon;
@@ -21,10 +23,12 @@ import java.math.RoundingMode;
 import java.util.List;
 
 import org.vaadin.application.MainLayout;
+import org.vaadin.application.dto.LedgerEvent;
 import org.vaadin.application.model.FinancialGoal;
 import org.vaadin.application.service.FinancialGoalService;
+import org.vaadin.application.service.LedgerEventBroadcaster;
 import org.vaadin.application.service.SessionService;
-import org.vaadin.application.service.UserService;
+import org.vaadin.application.service.OwnerService;
 
 /**
  * The FinancialGoalView class provides the user interface for managing
@@ -58,13 +62,13 @@ import org.vaadin.application.service.UserService;
  * for managing financial goal data,
  * {@link org.vaadin.application.service.SessionService} for managing
  * session-related data,
- * and {@link org.vaadin.application.service.UserService} for retrieving user
- * information.
+ * and {@link org.vaadin.application.service.OwnerService} for resolving the
+ * owner of new records.
  * </p>
  * 
  * @see org.vaadin.application.service.FinancialGoalService
  * @see org.vaadin.application.service.SessionService
- * @see org.vaadin.application.service.UserService
+ * @see org.vaadin.application.service.OwnerService
  */
 
 @Route(value = "goal", layout = MainLayout.class)
@@ -77,7 +81,9 @@ public class FinancialGoalView extends VerticalLayout {
 
     private final transient FinancialGoalService financialGoalService;
     private final transient SessionService sessionService;
-    private final transient UserService userService;
+    private final transient OwnerService ownerService;
+    private final transient LedgerEventBroadcaster ledgerEventBroadcaster;
+    private transient LedgerEventBroadcaster.Subscription ledgerSubscription;
 
     /**
      * Constructs a new FinancialGoalView and initializes the components and layout.
@@ -85,19 +91,58 @@ public class FinancialGoalView extends VerticalLayout {
      * @param financialGoalService the service used to manage financial goal data
      * @param sessionService       the service used to manage session-related data,
      *                             particularly the logged-in user
-     * @param userService          the service used to manage user data
+     * @param ownerService         the service used to resolve the owner of new records
+     * @param ledgerEventBroadcaster the broadcaster of changes made in other
+     *                             sessions
      */
     public FinancialGoalView(FinancialGoalService financialGoalService, SessionService sessionService,
-            UserService userService) {
+            OwnerService ownerService, LedgerEventBroadcaster ledgerEventBroadcaster) {
         this.financialGoalService = financialGoalService;
         this.sessionService = sessionService;
-        this.userService = userService;
+        this.ownerService = ownerService;
+        this.ledgerEventBroadcaster = ledgerEventBroadcaster;
 
         configureLayout();
         createLayout();
         listGoals();
     }
 
+    /**
+     * Subscribes to the ledger events of the logged-in user when the view is
+     * attached, so that changes made elsewhere are shown right away.
+     * 
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        ledgerSubscription = LedgerUpdates.subscribe(ledgerEventBroadcaster, attachEvent.getUI(),
+                sessionService.getLoggedInUserId(), this::applyLedgerEvent);
+    }
+
+    /**
+     * Stops receiving ledger events when the view is detached.
+     * 
+     * @param detachEvent the detach event
+     */
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        ledgerSubscription.cancel();
+        ledgerSubscription = null;
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Lists the goals again after a goal was changed in another session.
+     * 
+     * @param event the change
+     */
+    private void applyLedgerEvent(LedgerEvent event) {
+        if (event instanceof LedgerEvent.GoalChanged) {
+            listGoals();
+        }
+    }
+
     /**
      * Configures the layout of the financial goals section, ensuring a responsive
      * design with
@@ -395,7 +440,7 @@ public class FinancialGoalView extends VerticalLayout {
         goal.setDescription(description);
         goal.setTargetAmount(targetAmount);
         goal.setSavedAmount(savedAmount);
-        goal.setUser(userService.findUserById(sessionService.getLoggedInUserId()));
+        goal.setUser(ownerService.getLoggedInOwner());
 
         financialGoalService.addFinancialGoal(goal);
         Notification.show("Goal added successfully", 3000, Notification.Position.TOP_CENTER);
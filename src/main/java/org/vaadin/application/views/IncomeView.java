@@ -1,9 +1,12 @@
 package org.vaadin.application.views;
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.dataview.GridListDataView;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.component.html.H2;
@@ -16,19 +19,27 @@ import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.router.Route;
 import java.math.BigDecimal;
-import java.sql.Date;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.vaadin.application.MainLayout;
+import org.vaadin.application.dto.IncomeLine;
+import org.vaadin.application.dto.LedgerEvent;
 import org.vaadin.application.model.Income;
 import org.vaadin.application.model.Note;
 import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerEventBroadcaster;
+import org.vaadin.application.service.LedgerExportService;
 import org.vaadin.application.service.NoteService;
 import org.vaadin.application.service.SessionService;
-import org.vaadin.application.service.UserService;
+import org.vaadin.application.service.OwnerService;
+import org.vaadin.application.util.MoneyCents;
 
 /**
  * The IncomeView class provides the user interface for managing income entries
@@ -62,19 +73,19 @@ import org.vaadin.application.service.UserService;
  * for managing notes,
  * {@link org.vaadin.application.service.SessionService} for managing
  * session-related data, and
- * {@link org.vaadin.application.service.UserService} for retrieving user
- * information.
+ * {@link org.vaadin.application.service.OwnerService} for resolving the
+ * owner of new records.
  * </p>
  * 
  * @see org.vaadin.application.service.IncomeService
  * @see org.vaadin.application.service.NoteService
  * @see org.vaadin.application.service.SessionService
- * @see org.vaadin.application.service.UserService
+ * @see org.vaadin.application.service.OwnerService
  */
 @Route(value = "income", layout = MainLayout.class)
 public class IncomeView extends VerticalLayout {
 
-    private final Grid<Income> grid = new Grid<>(Income.class);
+    private final Grid<IncomeLine> grid = new Grid<>();
     private final TextField sourceField = new TextField("Source");
     private final TextField amountField = new TextField("Amount");
     private final DatePicker datePicker = new DatePicker("Date");
@@ -83,14 +94,41 @@ public class IncomeView extends VerticalLayout {
     private final transient IncomeService incomeService;
     private final transient NoteService noteService;
     private final transient SessionService sessionService;
-    private final transient UserService userService;
+    private final transient OwnerService ownerService;
+    private final transient LedgerEventBroadcaster ledgerEventBroadcaster;
+    private final transient LedgerExportService ledgerExportService;
+    private transient LedgerEventBroadcaster.Subscription ledgerSubscription;
 
     private H2 cardValue;
     private Div totalIncomeCard;
     private Div incomeSourcesCard;
     private Div notesSection;
 
-    private Income selectedIncome;
+    private IncomeLine selectedIncome;
+
+    /**
+     * The order of the incomes in the grid, newest first.
+     */
+    private static final Comparator<IncomeLine> NEWEST_FIRST = Comparator
+            .comparing(IncomeLine::date, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(IncomeLine::id)
+            .reversed();
+
+    /**
+     * The incomes shown in the grid in {@link #NEWEST_FIRST} order. Incomes
+     * added, updated or deleted in this view or in another session are changed
+     * in place.
+     */
+    private List<IncomeLine> incomes = new ArrayList<>();
+    private GridListDataView<IncomeLine> incomeDataView;
+
+    /**
+     * The total of all incomes and of every source, read once when the view is
+     * created and afterwards changed by the amount of every income added,
+     * updated or deleted in this view or in another session.
+     */
+    private long totalIncomeCents;
+    private final Map<String, Long> sourceTotalCents = new HashMap<>();
 
     /**
      * Constructs a new IncomeView and initializes the components and layout.
@@ -99,17 +137,25 @@ public class IncomeView extends VerticalLayout {
      * @param noteService    the service used to manage notes
      * @param sessionService the service used to manage session-related data,
      *                       particularly the logged-in user
-     * @param userService    the service used to manage user data
+     * @param ownerService   the service used to resolve the owner of new records
+     * @param ledgerEventBroadcaster the broadcaster of changes made in other
+     *                       sessions
+     * @param ledgerExportService the service used to download the incomes as
+     *                       CSV
      */
     public IncomeView(
             IncomeService incomeService,
             NoteService noteService,
             SessionService sessionService,
-            UserService userService) {
+            OwnerService ownerService,
+            LedgerEventBroadcaster ledgerEventBroadcaster,
+            LedgerExportService ledgerExportService) {
         this.incomeService = incomeService;
         this.noteService = noteService;
         this.sessionService = sessionService;
-        this.userService = userService;
+        this.ownerService = ownerService;
+        this.ledgerEventBroadcaster = ledgerEventBroadcaster;
+        this.ledgerExportService = ledgerExportService;
 
         configureGrid();
         configureForm();
@@ -158,8 +204,12 @@ public class IncomeView extends VerticalLayout {
         cardsAndGridLayout.setFlexGrow(1, incomeSourcesCard);
         cardsAndGridLayout.setAlignItems(FlexComponent.Alignment.START);
 
+        HorizontalLayout exportLayout = LedgerDownloads.create("Export to CSV", "incomes",
+                sessionService.getLoggedInUserId(),
+                (userId, out, gzip) -> this.ledgerExportService.exportIncomes(userId, out, gzip));
+
         VerticalLayout mainLayout = new VerticalLayout();
-        mainLayout.add(logo, cardsAndGridLayout, formLayout, grid);
+        mainLayout.add(logo, cardsAndGridLayout, formLayout, grid, exportLayout);
         mainLayout.setSpacing(false);
 
         add(mainLayout);
@@ -169,6 +219,50 @@ public class IncomeView extends VerticalLayout {
         updateTotalIncome();
     }
 
+    /**
+     * Subscribes to the ledger events of the logged-in user when the view is
+     * attached, so that changes made elsewhere are shown right away.
+     * 
+     * @param attachEvent the attach event
+     */
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        ledgerSubscription = LedgerUpdates.subscribe(ledgerEventBroadcaster, attachEvent.getUI(),
+                sessionService.getLoggedInUserId(), this::applyLedgerEvent);
+    }
+
+    /**
+     * Stops receiving ledger events when the view is detached.
+     * 
+     * @param detachEvent the detach event
+     */
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        ledgerSubscription.cancel();
+        ledgerSubscription = null;
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Applies a change made in another session to the grid and the totals the
+     * same way as a change made in this view.
+     * 
+     * @param event the change
+     */
+    private void applyLedgerEvent(LedgerEvent event) {
+        if (event instanceof LedgerEvent.IncomeChanged incomeChanged) {
+            if (incomeChanged.before() != null) {
+                incomeDataView.removeItem(incomeChanged.before());
+                changeTotalIncome(incomeChanged.before(), -1);
+            }
+            if (incomeChanged.after() != null) {
+                insertIncome(incomeChanged.after());
+                changeTotalIncome(incomeChanged.after(), 1);
+            }
+        }
+    }
+
     /**
      * Configures the grid to display the list of incomes, including source, amount,
      * date,
@@ -176,7 +270,10 @@ public class IncomeView extends VerticalLayout {
      * income entry.
      */
     private void configureGrid() {
-        grid.setColumns("source", "amount", "date", "paymentFrequency");
+        grid.addColumn(IncomeLine::source).setHeader("Source");
+        grid.addColumn(IncomeLine::amount).setHeader("Amount");
+        grid.addColumn(IncomeLine::date).setHeader("Date");
+        grid.addColumn(IncomeLine::paymentFrequency).setHeader("Payment Frequency");
         grid.addComponentColumn(income -> {
             Button editButton = new Button("Edit");
             editButton.addClickListener(event -> editIncome(income));
@@ -213,8 +310,20 @@ public class IncomeView extends VerticalLayout {
      */
     private void listIncomes() {
         Long userId = sessionService.getLoggedInUserId();
-        List<Income> incomes = incomeService.getIncomesByUserId(userId);
-        grid.setItems(incomes);
+        incomes = new ArrayList<>(incomeService.getIncomeLines(userId));
+        incomeDataView = grid.setItems(incomes);
+        incomeDataView.setIdentifierProvider(IncomeLine::id);
+    }
+
+    /**
+     * Inserts an income into the grid at its position in the date order.
+     *
+     * @param line the grid line of the income
+     */
+    private void insertIncome(IncomeLine line) {
+        int index = Collections.binarySearch(incomes, line, NEWEST_FIRST);
+        incomes.add(index < 0 ? -index - 1 : index, line);
+        incomeDataView.refreshAll();
     }
 
     /**
@@ -267,12 +376,12 @@ public class IncomeView extends VerticalLayout {
         income.setAmount(amount);
         income.setDate(java.sql.Date.valueOf(date)); // Convert LocalDate to java.sql.Date
         income.setPaymentFrequency(paymentFrequency);
-        income.setUser(userService.findUserById(sessionService.getLoggedInUserId()));
+        income.setUser(ownerService.getLoggedInOwner());
 
-        incomeService.addIncome(income);
+        IncomeLine line = IncomeLine.of(incomeService.addIncome(income));
         Notification.show("Income added successfully");
-        listIncomes();
-        updateTotalIncome();
+        insertIncome(line);
+        changeTotalIncome(line, 1);
         clearForm();
     }
 
@@ -289,15 +398,39 @@ public class IncomeView extends VerticalLayout {
 
     private void updateIncome(String source, BigDecimal amount, LocalDate date, String paymentFrequency) {
         if (selectedIncome != null) {
-            selectedIncome.setSource(source);
-            selectedIncome.setAmount(amount);
-            selectedIncome.setDate(java.sql.Date.valueOf(date));
-            selectedIncome.setPaymentFrequency(paymentFrequency);
+            Income income = incomeService.findIncomeById(selectedIncome.id());
+            if (income == null) {
+                Notification.show("The income no longer exists");
+                listIncomes();
+                updateTotalIncome();
+                clearForm();
+                return;
+            }
+            IncomeLine previous = IncomeLine.of(income);
+            income.setSource(source);
+            income.setAmount(amount);
+            income.setDate(java.sql.Date.valueOf(date));
+            income.setPaymentFrequency(paymentFrequency);
 
-            incomeService.updateIncome(selectedIncome);
+            Income savedIncome = incomeService.updateIncome(income);
             Notification.show("Income updated successfully");
-            listIncomes();
-            updateTotalIncome();
+            int index = Collections.binarySearch(incomes, selectedIncome, NEWEST_FIRST);
+            if (savedIncome == null || index < 0) {
+                // Changed elsewhere in the meantime, so the grid is out of date
+                listIncomes();
+                updateTotalIncome();
+            } else {
+                IncomeLine line = IncomeLine.of(savedIncome);
+                if (NEWEST_FIRST.compare(selectedIncome, line) == 0) {
+                    incomes.set(index, line);
+                    incomeDataView.refreshItem(line);
+                } else {
+                    incomes.remove(index);
+                    insertIncome(line);
+                }
+                changeTotalIncome(previous, -1);
+                changeTotalIncome(line, 1);
+            }
             clearForm();
             selectedIncome = null;
         }
@@ -306,15 +439,15 @@ public class IncomeView extends VerticalLayout {
     /**
      * Prepares the form with the selected income's details for editing.
      * 
-     * @param income the income entry to be edited
+     * @param income the grid line of the income entry to be edited
      */
-    private void editIncome(Income income) {
+    private void editIncome(IncomeLine income) {
         selectedIncome = income;
 
-        sourceField.setValue(income.getSource());
-        amountField.setValue(income.getAmount().toString());
-        datePicker.setValue(((Date) income.getDate()).toLocalDate());
-        frequencyField.setValue(income.getPaymentFrequency());
+        sourceField.setValue(income.source());
+        amountField.setValue(income.amount().toString());
+        datePicker.setValue(income.date());
+        frequencyField.setValue(income.paymentFrequency());
     }
 
     /**
@@ -323,12 +456,12 @@ public class IncomeView extends VerticalLayout {
      * select one.
      */
     private void deleteIncome() {
-        Income selectedIncomeToDelete = grid.asSingleSelect().getValue();
+        IncomeLine selectedIncomeToDelete = grid.asSingleSelect().getValue();
         if (selectedIncomeToDelete != null) {
-            incomeService.deleteIncome(selectedIncomeToDelete.getId());
+            incomeService.deleteIncome(selectedIncomeToDelete.id());
             Notification.show("Income deleted successfully");
-            listIncomes();
-            updateTotalIncome();
+            incomeDataView.removeItem(selectedIncomeToDelete);
+            changeTotalIncome(selectedIncomeToDelete, -1);
         } else {
             Notification.show("Please select an income to delete");
         }
@@ -397,12 +530,38 @@ public class IncomeView extends VerticalLayout {
      */
     private void updateTotalIncome() {
         Long userId = sessionService.getLoggedInUserId();
-        List<Income> incomes = incomeService.getIncomesByUserId(userId);
-        BigDecimal totalIncome = incomes.stream().map(Income::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        totalIncomeCents = MoneyCents.of(incomeService.getTotalIncome(userId));
+        sourceTotalCents.clear();
+        incomeService.getTotalIncomeBySource(userId)
+                .forEach((source, total) -> sourceTotalCents.put(source, MoneyCents.of(total)));
+        showTotalIncome();
+    }
 
-        cardValue.setText("$ " + totalIncome.toString());
+    /**
+     * Adds the amount of an income to the displayed totals, or removes it,
+     * without reading the incomes again. A source whose total drops to zero is
+     * no longer shown.
+     *
+     * @param line the income that was added, updated or deleted
+     * @param sign 1 to add the income, -1 to remove it
+     */
+    private void changeTotalIncome(IncomeLine line, int sign) {
+        long deltaCents = MoneyCents.multiply(MoneyCents.of(line.amount()), sign);
+        totalIncomeCents = MoneyCents.add(totalIncomeCents, deltaCents);
+        sourceTotalCents.merge(line.source(), deltaCents, (total, delta) -> {
+            long sum = MoneyCents.add(total, delta);
+            return sum != 0 ? sum : null;
+        });
+        showTotalIncome();
+    }
 
-        updateIncomeSourcesCard(incomes, totalIncome);
+    private void showTotalIncome() {
+        BigDecimal totalIncome = MoneyCents.toBigDecimal(totalIncomeCents);
+        cardValue.setText("$ " + totalIncome);
+
+        Map<String, BigDecimal> sourceTotals = new HashMap<>();
+        sourceTotalCents.forEach((source, cents) -> sourceTotals.put(source, MoneyCents.toBigDecimal(cents)));
+        updateIncomeSourcesCard(sourceTotals, totalIncome);
     }
 
     /**
@@ -410,16 +569,11 @@ public class IncomeView extends VerticalLayout {
      * contribution
      * of each income source to the total income.
      * 
-     * @param incomes     the list of incomes to be displayed
-     * @param totalIncome the total income to be used for calculating percentages
+     * @param sourceTotals the total income of each source
+     * @param totalIncome  the total income to be used for calculating
+     *                     percentages
      */
-    private void updateIncomeSourcesCard(List<Income> incomes, BigDecimal totalIncome) {
-        Map<String, BigDecimal> sourcePercentages = incomes.stream()
-                .collect(
-                        Collectors.groupingBy(
-                                Income::getSource,
-                                Collectors.reducing(BigDecimal.ZERO, Income::getAmount, BigDecimal::add)));
-
+    private void updateIncomeSourcesCard(Map<String, BigDecimal> sourceTotals, BigDecimal totalIncome) {
         Div content = new Div();
 
         // Add the header only if it hasn't been added yet
@@ -432,12 +586,11 @@ public class IncomeView extends VerticalLayout {
             content.add(cardTitle);
         }
 
-        sourcePercentages.forEach(
+        long totalCents = MoneyCents.of(totalIncome);
+        sourceTotals.forEach(
                 (source, amount) -> {
-                    @SuppressWarnings("deprecation")
-                    BigDecimal percentage = amount
-                            .multiply(BigDecimal.valueOf(100))
-                            .divide(totalIncome, 2, BigDecimal.ROUND_HALF_UP);
+                    BigDecimal percentage = MoneyCents.toBigDecimal(
+                            MoneyCents.percentOf(MoneyCents.of(amount), totalCents, RoundingMode.HALF_UP));
 
                     Div sourceContainer = new Div();
                     sourceContainer.addClassName("source-container");
@@ -0,0 +1,62 @@
+package org.vaadin.application.views;
+
+import com.vaadin.flow.component.checkbox.Checkbox;
+import com.vaadin.flow.component.html.Anchor;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.server.StreamResource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+import org.vaadin.application.service.LedgerExportService;
+
+/**
+ * Creates the links views use to download the ledger of the logged-in user as
+ * a CSV file. The file is written by the export while the browser downloads
+ * it, so it is never held in memory.
+ */
+final class LedgerDownloads {
+
+    private LedgerDownloads() {
+    }
+
+    /**
+     * Writes the export of a user to a stream.
+     */
+    @FunctionalInterface
+    interface Export extends Serializable {
+
+        void write(Long userId, OutputStream out, boolean gzip) throws IOException;
+    }
+
+    /**
+     * Creates a download link together with a checkbox choosing whether the
+     * file is gzip compressed.
+     *
+     * @param text   the text of the link
+     * @param name   the name of the file without extension
+     * @param userId the ID of the user whose ledger is exported
+     * @param export writes the export
+     * @return the layout holding the link and the checkbox
+     */
+    static HorizontalLayout create(String text, String name, Long userId, Export export) {
+        Anchor link = new Anchor(resource(name, userId, export, false), text);
+        link.getElement().setAttribute("download", true);
+
+        Checkbox gzip = new Checkbox("Compress (gzip)");
+        gzip.addValueChangeListener(event -> link.setHref(resource(name, userId, export, event.getValue())));
+
+        HorizontalLayout layout = new HorizontalLayout(link, gzip);
+        layout.setDefaultVerticalComponentAlignment(FlexComponent.Alignment.CENTER);
+        return layout;
+    }
+
+    private static StreamResource resource(String name, Long userId, Export export, boolean gzip) {
+        StreamResource resource = new StreamResource(LedgerExportService.fileName(name, gzip),
+                (out, session) -> export.write(userId, out, gzip));
+        resource.setContentType(LedgerExportService.contentType(gzip));
+        resource.setCacheTime(0);
+        return resource;
+    }
+}
@@ -0,0 +1,45 @@
+package org.vaadin.application.views;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.function.SerializableConsumer;
+
+import org.vaadin.application.dto.LedgerEvent;
+import org.vaadin.application.service.LedgerEventBroadcaster;
+
+/**
+ * Connects views to the {@link LedgerEvent}s of the logged-in user, so that
+ * changes made in other tabs, on other devices or through the REST API are
+ * shown without a reload.
+ */
+final class LedgerUpdates {
+
+    private LedgerUpdates() {
+    }
+
+    /**
+     * Subscribes a view to the ledger events of a user while it is attached to
+     * a UI. Every event is applied while holding the session lock and pushed to
+     * the browser. Events of changes made by a request of the same UI are
+     * skipped, since the view has already applied them itself.
+     *
+     * @param broadcaster the broadcaster of the ledger events
+     * @param ui          the UI the view is attached to
+     * @param userId      the ID of the logged-in user
+     * @param apply       applies an event to the view
+     * @return the subscription, to be cancelled when the view is detached
+     */
+    static LedgerEventBroadcaster.Subscription subscribe(LedgerEventBroadcaster broadcaster, UI ui, Long userId,
+            SerializableConsumer<LedgerEvent> apply) {
+        return broadcaster.subscribe(userId, event -> {
+            if (UI.getCurrent() == ui) {
+                return;
+            }
+            try {
+                ui.access(() -> apply.accept(event));
+            } catch (UIDetachedException e) {
+                // The view is being closed and cancels its subscription
+            }
+        });
+    }
+}
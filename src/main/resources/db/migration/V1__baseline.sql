@@ -0,0 +1,83 @@
+-- Schema of FinTrack as created by Hibernate before migrations were introduced.
+-- Databases that already contain these tables are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and only receive the later migrations.
+
+CREATE TABLE user (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_name UNIQUE (name)
+);
+
+CREATE TABLE budget (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    amount DECIMAL(38, 2) NOT NULL,
+    current_amount DECIMAL(38, 2),
+    icon VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_budget_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE expense_category (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_expense_category_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE expense (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(38, 2) NOT NULL,
+    date DATE NOT NULL,
+    category_id BIGINT,
+    budget_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_expense_user FOREIGN KEY (user_id) REFERENCES user (id),
+    CONSTRAINT fk_expense_category FOREIGN KEY (category_id) REFERENCES expense_category (id),
+    CONSTRAINT fk_expense_budget FOREIGN KEY (budget_id) REFERENCES budget (id)
+);
+
+CREATE TABLE income (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    source VARCHAR(255) NOT NULL,
+    amount DECIMAL(38, 2) NOT NULL,
+    date DATE NOT NULL,
+    payment_frequency VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_income_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE financial_goal (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    target_amount DECIMAL(38, 2) NOT NULL,
+    amount_saved DECIMAL(38, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_financial_goal_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE asset (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    value DECIMAL(38, 2) NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    interest_rate DECIMAL(38, 2),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_asset_user FOREIGN KEY (user_id) REFERENCES user (id)
+);
+
+CREATE TABLE note (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT,
+    content VARCHAR(255),
+    PRIMARY KEY (id)
+);
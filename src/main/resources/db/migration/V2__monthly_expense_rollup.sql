@@ -0,0 +1,16 @@
+-- Monthly expense rollup maintained by LedgerWriteService.
+-- The table only holds derived data. It is recreated so that the primary key
+-- starts with (user_id, month_index) even where Hibernate already created it,
+-- and is refilled from the expense table by ExpenseRollupRebuildJob on startup.
+
+DROP TABLE IF EXISTS monthly_expense_rollup;
+
+CREATE TABLE monthly_expense_rollup (
+    user_id BIGINT NOT NULL,
+    month_index INT NOT NULL,
+    budget_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    total DECIMAL(19, 2) NOT NULL,
+    expense_count BIGINT NOT NULL,
+    PRIMARY KEY (user_id, month_index, budget_id, category_id)
+);
@@ -0,0 +1,12 @@
+-- Composite indexes for the expense and income queries of the repositories.
+
+-- Period totals and date ranges per user; amount is included so that the
+-- sums are answered from the index alone
+CREATE INDEX idx_expense_user_date_amount ON expense (user_id, date, amount);
+CREATE INDEX idx_income_user_date_amount ON income (user_id, date, amount);
+
+-- Expenses and totals per budget
+CREATE INDEX idx_expense_budget_amount ON expense (budget_id, amount);
+
+-- Budgets used by the expenses of a user
+CREATE INDEX idx_expense_user_budget ON expense (user_id, budget_id);
@@ -0,0 +1,9 @@
+-- The day on which the value of an asset was recorded. Interest compounds from
+-- this day, see AssetValuationService. Existing values count as recorded on the
+-- day of the migration.
+
+ALTER TABLE asset ADD COLUMN valued_on DATE;
+
+UPDATE asset SET valued_on = CURRENT_DATE;
+
+ALTER TABLE asset MODIFY COLUMN valued_on DATE NOT NULL;
@@ -0,0 +1,13 @@
+-- Daily net worth and goal progress per user, written by NetWorthSnapshotJob.
+-- There is one row per user and calendar year holding the delta encoded
+-- snapshots of that year (see NetWorthSeries), so a chart over several years
+-- is read from a handful of consecutive primary key entries. The history is
+-- deleted together with its user.
+
+CREATE TABLE net_worth_history (
+    user_id BIGINT NOT NULL,
+    snapshot_year INT NOT NULL,
+    snapshots VARBINARY(16384) NOT NULL,
+    PRIMARY KEY (user_id, snapshot_year),
+    CONSTRAINT fk_net_worth_history_user FOREIGN KEY (user_id) REFERENCES user (id) ON DELETE CASCADE
+);
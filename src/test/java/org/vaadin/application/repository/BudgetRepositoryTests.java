@@ -0,0 +1,103 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.BudgetService;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(BudgetService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BudgetRepositoryTests {
+
+    private static final int THREADS = 32;
+    private static final int INCREMENTS_PER_THREAD = 50;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    private Budget budget;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("budget-counter-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        budget = new Budget();
+        budget.setName("Groceries");
+        budget.setAmount(new BigDecimal("500.00"));
+        budget.setUser(user);
+        budget = budgetRepository.save(budget);
+    }
+
+    @AfterEach
+    void tearDown() {
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testAdjustCurrentAmount() {
+        assertEquals(1, budgetRepository.adjustCurrentAmount(budget.getId(), new BigDecimal("20.00")));
+        assertEquals(1, budgetRepository.adjustCurrentAmount(budget.getId(), new BigDecimal("-5.50")));
+        assertEquals(0, budgetRepository.adjustCurrentAmount(-1L, BigDecimal.ONE));
+
+        assertEquals(0, new BigDecimal("14.50")
+                .compareTo(budgetRepository.findById(budget.getId()).orElseThrow().getCurrentAmount()));
+    }
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < INCREMENTS_PER_THREAD; j++) {
+                        budgetService.increaseCurrentAmount(budget.getId(), new BigDecimal("1.25"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BigDecimal expected = new BigDecimal("1.25").multiply(BigDecimal.valueOf(THREADS * INCREMENTS_PER_THREAD));
+        assertEquals(0, expected.compareTo(budgetRepository.findById(budget.getId()).orElseThrow().getCurrentAmount()));
+    }
+}
@@ -0,0 +1,139 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ExpenseBatchInsertTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpenseBatchInsertTests.class);
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    private User user;
+    private Budget budget;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("batch-insert-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        budget = new Budget();
+        budget.setName("Groceries");
+        budget.setAmount(new BigDecimal("500.00"));
+        budget.setUser(user);
+        budget = budgetRepository.save(budget);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        expenseRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testRecordExpensesInsertsEveryRowAndUpdatesBudget() {
+        int recorded = ledgerWriteService.recordExpenses(createImports(1234).iterator());
+
+        assertEquals(1234, recorded);
+        assertEquals(1234, expenseRepository.countByUserId(user.getId()));
+        assertEquals(0, new BigDecimal("1234.00")
+                .compareTo(budgetRepository.findById(budget.getId()).orElseThrow().getCurrentAmount()));
+        assertEquals(0, new BigDecimal("1234.00").compareTo(rollupRepository.sumTotalByUserId(user.getId())));
+    }
+
+    /**
+     * Compares the throughput of inserting expenses one by one with the batch
+     * import, logs both and checks that the batch import is faster. Run with
+     * {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkSingleAndBatchInserts() {
+        int rows = 20_000;
+
+        long singleStart = System.nanoTime();
+        for (ExpenseImport expenseImport : createImports(rows)) {
+            ledgerWriteService.recordExpense(toExpense(expenseImport));
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        ledgerWriteService.recordExpenses(createImports(rows).iterator());
+        long batchNanos = System.nanoTime() - batchStart;
+
+        LOGGER.info("single inserts: {} rows/s", Math.round(rows / (singleNanos / 1e9)));
+        LOGGER.info("batch inserts: {} rows/s", Math.round(rows / (batchNanos / 1e9)));
+        assertEquals(2L * rows, expenseRepository.countByUserId(user.getId()));
+        assertTrue(batchNanos < singleNanos, batchNanos + " < " + singleNanos + " ns");
+    }
+
+    private List<ExpenseImport> createImports(int count) {
+        List<ExpenseImport> imports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            imports.add(new ExpenseImport(user.getId(), "Expense " + i, BigDecimal.ONE,
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), budget.getId(), null));
+        }
+        return imports;
+    }
+
+    private Expense toExpense(ExpenseImport expenseImport) {
+        Expense expense = new Expense();
+        expense.setDescription(expenseImport.description());
+        expense.setAmount(expenseImport.amount());
+        expense.setDate(Date.valueOf(expenseImport.date()));
+        expense.setUser(user);
+        expense.setBudget(budget);
+        return expense;
+    }
+}
@@ -0,0 +1,289 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+import org.vaadin.application.util.MonthlySeries;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ ExpenseService.class, LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ExpenseFetchTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpenseFetchTests.class);
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private LedgerCache ledgerCache;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private List<Budget> budgets;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        user = new User();
+        user.setName("fetch-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        budgets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Budget budget = new Budget();
+            budget.setName("Budget " + i);
+            budget.setAmount(new BigDecimal("500.00"));
+            budget.setUser(user);
+            budgets.add(budgetRepository.save(budget));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerCache.clear();
+        ReflectionTestUtils.setField(ledgerCache, "maxBytes", LedgerCache.DEFAULT_MAX_BYTES);
+        rollupRepository.deleteAll();
+        expenseRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testFindByUserIdLoadsOnlyExpenseColumns() {
+        recordExpenses(200);
+        statistics.clear();
+
+        List<Expense> expenses = expenseRepository.findByUserId(user.getId());
+
+        assertEquals(200, expenses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(Hibernate.isInitialized(expenses.get(0).getUser()));
+        assertFalse(Hibernate.isInitialized(expenses.get(0).getBudget()));
+    }
+
+    @Test
+    void testGridPageLoadsBudgetsWithTheExpenses() {
+        recordExpenses(200);
+        statistics.clear();
+
+        List<Expense> expenses = expenseRepository.findByUserId(user.getId(),
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "date", "id")));
+
+        assertEquals(50, expenses.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        for (Expense expense : expenses) {
+            assertTrue(Hibernate.isInitialized(expense.getBudget()));
+            assertTrue(expense.getBudget().getName().startsWith("Budget "));
+        }
+        assertFalse(Hibernate.isInitialized(expenses.get(0).getUser()));
+    }
+
+    @Test
+    void testMonthlyTotalsOfFifteenBudgetsAreReadWithOneStatementFromTheRollup() {
+        recordMonthlyExpenses(15);
+        // Reject the ledger from the cache up front, so the totals come from the rollup
+        ReflectionTestUtils.setField(ledgerCache, "maxBytes", 1L);
+        ledgerCache.get(user.getId());
+        statistics.clear();
+
+        Map<String, MonthlySeries> totals = expenseService.getExpensesForPreviousMonthsByBudget(user.getId(), 6);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertMonthlyTotalsOfFifteenBudgets(totals);
+    }
+
+    @Test
+    void testMonthlyTotalsOfFifteenBudgetsAreReadWithOneStatementFromTheCachedLedger() {
+        recordMonthlyExpenses(15);
+        ledgerCache.get(user.getId());
+        statistics.clear();
+
+        Map<String, MonthlySeries> totals = expenseService.getExpensesForPreviousMonthsByBudget(user.getId(), 6);
+
+        // Only the budget names are read; the amounts are summed from the snapshot
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertMonthlyTotalsOfFifteenBudgets(totals);
+    }
+
+    @Test
+    void testEagerAssociationsCostOneStatementPerReferencedRow() {
+        recordExpenses(200);
+
+        statistics.clear();
+        List<Expense> eager = findWithAssociationsInitialized();
+        long eagerStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<Expense> lazy = expenseRepository.findByUserId(user.getId());
+        long lazyStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(200, eager.size());
+        assertEquals(200, lazy.size());
+        // The expenses, their user and each of the 20 budgets
+        assertEquals(2 + budgets.size(), eagerStatements);
+        assertEquals(1, lazyStatements);
+    }
+
+    /**
+     * Compares loading 50k expenses with all associations, as the eager mappings
+     * did, against loading only the expense columns, and logs the statements
+     * and the heap of each. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkLazyAndEagerLoading() {
+        recordExpenses(50_000);
+
+        statistics.clear();
+        long heapBefore = usedHeap();
+        List<Expense> eager = findWithAssociationsInitialized();
+        long eagerHeap = usedHeap() - heapBefore;
+        long eagerStatements = statistics.getPrepareStatementCount();
+        int eagerSize = eager.size();
+        eager = null;
+
+        statistics.clear();
+        heapBefore = usedHeap();
+        List<Expense> lazy = expenseRepository.findByUserId(user.getId());
+        long lazyHeap = usedHeap() - heapBefore;
+        long lazyStatements = statistics.getPrepareStatementCount();
+
+        LOGGER.info("eager: {} expenses, {} statements, {} bytes of heap", eagerSize, eagerStatements, eagerHeap);
+        LOGGER.info("lazy: {} expenses, {} statements, {} bytes of heap", lazy.size(), lazyStatements, lazyHeap);
+        assertEquals(eagerSize, lazy.size());
+        assertEquals(2 + budgets.size(), eagerStatements);
+        assertEquals(1, lazyStatements);
+        assertTrue(lazyHeap < eagerHeap, lazyHeap + " < " + eagerHeap + " bytes");
+    }
+
+    /**
+     * Loads the expenses of the user and initializes their user, budget and
+     * category, as the eager mappings did: every referenced row not yet in the
+     * persistence context is read with its own statement.
+     */
+    private List<Expense> findWithAssociationsInitialized() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            List<Expense> expenses = entityManager
+                    .createQuery("SELECT e FROM Expense e WHERE e.user.id = :userId", Expense.class)
+                    .setParameter("userId", user.getId())
+                    .getResultList();
+            for (Expense expense : expenses) {
+                Hibernate.initialize(expense.getUser());
+                Hibernate.initialize(expense.getBudget());
+                Hibernate.initialize(expense.getCategory());
+            }
+            return expenses;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Records an expense of 1.00 in each of the last six months for each of the
+     * first budgets, and one expense of 0.50 without a budget this month.
+     */
+    private void recordMonthlyExpenses(int budgetCount) {
+        YearMonth currentMonth = YearMonth.now();
+        List<ExpenseImport> expenses = new ArrayList<>();
+        for (Budget budget : budgets.subList(0, budgetCount)) {
+            for (int month = 0; month < 6; month++) {
+                expenses.add(new ExpenseImport(user.getId(), budget.getName(), BigDecimal.ONE,
+                        currentMonth.minusMonths(month).atDay(1), budget.getId(), null));
+            }
+        }
+        expenses.add(new ExpenseImport(user.getId(), "No budget", new BigDecimal("0.50"), currentMonth.atDay(1),
+                null, null));
+        ledgerWriteService.recordExpenses(expenses.iterator());
+    }
+
+    private static void assertMonthlyTotalsOfFifteenBudgets(Map<String, MonthlySeries> totals) {
+        assertEquals(16, totals.size());
+        assertEquals(ExpenseService.NO_BUDGET, new ArrayList<>(totals.keySet()).get(15));
+        for (int i = 0; i < 15; i++) {
+            MonthlySeries series = totals.get("Budget " + i);
+            assertEquals(0, series.get(0).signum());
+            for (int month = 1; month <= 6; month++) {
+                assertEquals(0, BigDecimal.ONE.compareTo(series.get(month)));
+            }
+        }
+        assertEquals(0, new BigDecimal("0.50").compareTo(totals.get(ExpenseService.NO_BUDGET).get(6)));
+    }
+
+    private void recordExpenses(int count) {
+        List<ExpenseImport> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(new ExpenseImport(user.getId(), "Expense " + i, BigDecimal.ONE,
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), budgets.get(i % budgets.size()).getId(), null));
+        }
+        ledgerWriteService.recordExpenses(expenses.iterator());
+    }
+}
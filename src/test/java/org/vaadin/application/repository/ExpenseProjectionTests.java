@@ -0,0 +1,154 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.dto.ExpenseLine;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ ExpenseService.class, LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ExpenseProjectionTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExpenseProjectionTests.class);
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    private User user;
+    private Budget budget;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("projection-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        budget = new Budget();
+        budget.setName("Groceries");
+        budget.setAmount(new BigDecimal("500.00"));
+        budget.setUser(user);
+        budget = budgetRepository.save(budget);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        expenseRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSortingByBudgetNameKeepsExpensesWithoutBudget() {
+        recordExpenses(10);
+
+        List<ExpenseLine> lines = expenseService.getExpenseLines(user.getId(),
+                PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "budgetName")));
+
+        assertEquals(10, lines.size());
+        assertEquals("Groceries", lines.get(0).budgetName());
+        assertNull(lines.get(9).budgetName());
+    }
+
+    @Test
+    void testDashboardLinesAreNewestFirst() {
+        recordExpenses(10);
+
+        List<ExpenseLine> lines = expenseService.getExpenseLines(user.getId());
+
+        assertEquals(10, lines.size());
+        assertEquals(LocalDate.of(2024, 1, 10), lines.get(0).date());
+        assertEquals(LocalDate.of(2024, 1, 1), lines.get(9).date());
+    }
+
+    /**
+     * Compares the bytes allocated to list 50k expenses as managed entities with
+     * the bytes allocated to list them as read-only projections, logs both and
+     * checks that the projections allocate less once the first round has warmed
+     * up the queries. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkEntityAndProjectionAllocation() {
+        recordExpenses(50_000);
+
+        for (int round = 0; round < 5; round++) {
+            long entityBytes = allocatedBytes(() -> expenseService.getExpensesByUserId(user.getId()));
+            long lineBytes = allocatedBytes(() -> expenseService.getExpenseLines(user.getId()));
+            LOGGER.info("round {}: entities {} bytes, projections {} bytes", round, entityBytes, lineBytes);
+            if (round > 0) {
+                assertTrue(lineBytes < entityBytes, lineBytes + " < " + entityBytes + " bytes");
+            }
+        }
+    }
+
+    private static long allocatedBytes(Supplier<List<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long before = threads.getCurrentThreadAllocatedBytes();
+        List<?> result = query.get();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertEquals(50_000, result.size());
+        return allocated;
+    }
+
+    private void recordExpenses(int count) {
+        List<ExpenseImport> expenses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expenses.add(new ExpenseImport(user.getId(), "Expense " + i, BigDecimal.ONE,
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), i % 2 == 0 ? budget.getId() : null, null));
+        }
+        ledgerWriteService.recordExpenses(expenses.iterator());
+    }
+}
@@ -0,0 +1,214 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+import org.vaadin.application.util.LedgerSnapshot;
+import org.vaadin.application.util.LongTotals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ ExpenseService.class, LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LedgerCacheTests {
+
+    @Autowired
+    private LedgerCache ledgerCache;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Budget groceries;
+
+    @BeforeEach
+    void setUp() {
+        user = saveUser("cache-user");
+
+        groceries = new Budget();
+        groceries.setName("Groceries");
+        groceries.setAmount(new BigDecimal("500.00"));
+        groceries.setUser(user);
+        groceries = budgetRepository.save(groceries);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledgerCache.clear();
+        ReflectionTestUtils.setField(ledgerCache, "maxBytes", LedgerCache.DEFAULT_MAX_BYTES);
+        ReflectionTestUtils.setField(ledgerCache, "maxOversizedUsers", LedgerCache.DEFAULT_MAX_OVERSIZED_USERS);
+        rollupRepository.deleteAll();
+        expenseRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testCommittedWritesArePatchedIntoSnapshot() {
+        Expense napkins = ledgerWriteService.recordExpense(createExpense(user, "25.00", groceries));
+        LedgerSnapshot snapshot = ledgerCache.get(user.getId());
+        assertEquals(2_500, snapshot.sumExpenseCents());
+
+        ledgerWriteService.recordExpense(createExpense(user, "15.50", groceries));
+        Expense coffee = ledgerWriteService.recordExpense(createExpense(user, "3.20", null));
+        Expense changed = createExpense(user, "30.00", null);
+        changed.setId(napkins.getId());
+        ledgerWriteService.amendExpense(changed);
+        ledgerWriteService.removeExpense(coffee.getId());
+
+        assertSame(snapshot, ledgerCache.get(user.getId()));
+        assertEquals(4_550, snapshot.sumExpenseCents());
+        LongTotals byBudget = new LongTotals();
+        snapshot.sumExpenseCentsByBudget(byBudget);
+        assertEquals(1_550, byBudget.get(groceries.getId()));
+        assertEquals(3_000, byBudget.get(0));
+
+        // The patched snapshot agrees with a fresh load and with the rollup
+        ledgerCache.evict(user.getId());
+        assertEquals(4_550, ledgerCache.get(user.getId()).sumExpenseCents());
+        assertEquals(0, new BigDecimal("45.50").compareTo(rollupRepository.sumTotalByUserId(user.getId())));
+        assertEquals(0, new BigDecimal("45.50").compareTo(expenseService.getTotalExpenses(user.getId())));
+    }
+
+    @Test
+    void testRolledBackWritesAreNotPatchedIntoSnapshot() {
+        LedgerSnapshot snapshot = ledgerCache.get(user.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            ledgerWriteService.recordExpense(createExpense(user, "99.00", groceries));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, snapshot.sumExpenseCents());
+        assertEquals(0, expenseRepository.count());
+    }
+
+    @Test
+    void testImportsEvictSnapshot() {
+        ledgerCache.get(user.getId());
+
+        ledgerWriteService.recordExpenses(List.of(
+                new ExpenseImport(user.getId(), "Bread", new BigDecimal("4.10"), LocalDate.of(2024, 2, 3),
+                        groceries.getId(), null),
+                new ExpenseImport(user.getId(), "Milk", new BigDecimal("1.90"), LocalDate.of(2024, 2, 3),
+                        groceries.getId(), null)).iterator());
+
+        assertFalse(ledgerCache.isCached(user.getId()));
+        assertEquals(600, ledgerCache.get(user.getId()).sumExpenseCents());
+    }
+
+    @Test
+    void testLeastRecentlyUsedSnapshotIsEvicted() {
+        User second = saveUser("cache-user-2");
+        User third = saveUser("cache-user-3");
+        long bytes = ledgerCache.get(user.getId()).bytes();
+        ledgerCache.clear();
+        ReflectionTestUtils.setField(ledgerCache, "maxBytes", 2 * bytes);
+
+        ledgerCache.get(user.getId());
+        ledgerCache.get(second.getId());
+        ledgerCache.get(user.getId());
+        ledgerCache.get(third.getId());
+
+        assertTrue(ledgerCache.isCached(user.getId()));
+        assertFalse(ledgerCache.isCached(second.getId()));
+        assertTrue(ledgerCache.isCached(third.getId()));
+        assertEquals(2 * bytes, ledgerCache.getCachedBytes());
+    }
+
+    @Test
+    void testOversizedLedgersAreReadFromDatabase() {
+        ledgerWriteService.recordExpense(createExpense(user, "12.34", groceries));
+        ReflectionTestUtils.setField(ledgerCache, "maxBytes", 1L);
+
+        assertNotNull(ledgerCache.get(user.getId()));
+        assertFalse(ledgerCache.isCached(user.getId()));
+        assertNull(ledgerCache.get(user.getId()));
+        assertEquals(0, ledgerCache.getCachedBytes());
+        assertEquals(0, new BigDecimal("12.34").compareTo(expenseService.getTotalExpenses(user.getId())));
+    }
+
+    @Test
+    void testOnlyRecentlyRejectedLedgersAreRemembered() {
+        User second = saveUser("cache-user-2");
+        ReflectionTestUtils.setField(ledgerCache, "maxBytes", 1L);
+        ReflectionTestUtils.setField(ledgerCache, "maxOversizedUsers", 1);
+
+        assertNotNull(ledgerCache.get(user.getId()));
+        assertNull(ledgerCache.get(user.getId()));
+        assertNotNull(ledgerCache.get(second.getId()));
+
+        // The first user was forgotten, so the next read loads and checks the ledger again
+        assertNotNull(ledgerCache.get(user.getId()));
+        assertNull(ledgerCache.get(user.getId()));
+        assertFalse(ledgerCache.isCached(user.getId()));
+    }
+
+    private User saveUser(String name) {
+        User newUser = new User();
+        newUser.setName(name);
+        newUser.setPassword("secret");
+        return userRepository.save(newUser);
+    }
+
+    private Expense createExpense(User owner, String amount, Budget budget) {
+        Expense expense = new Expense();
+        expense.setDescription("Expense");
+        expense.setAmount(new BigDecimal(amount));
+        expense.setDate(Date.valueOf(LocalDate.of(2024, 1, 10)));
+        expense.setUser(owner);
+        expense.setBudget(budget);
+        return expense;
+    }
+}
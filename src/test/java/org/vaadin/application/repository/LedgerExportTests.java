@@ -0,0 +1,220 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.ExpenseCategory;
+import org.vaadin.application.model.Income;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.LedgerExportService;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import(LedgerExportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LedgerExportTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerExportTests.class);
+
+    @Autowired
+    private LedgerExportService ledgerExportService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("export-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM expense WHERE user_id = ?", user.getId());
+        incomeRepository.deleteAll();
+        categoryRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testExpensesAreExportedNewestFirstWithBudgetAndCategory() throws IOException {
+        Budget budget = new Budget();
+        budget.setName("Groceries");
+        budget.setAmount(new BigDecimal("500.00"));
+        budget.setUser(user);
+        budget = budgetRepository.save(budget);
+
+        ExpenseCategory category = new ExpenseCategory();
+        category.setName("Food, drinks");
+        category.setUser(user);
+        category = categoryRepository.save(category);
+
+        saveExpense("Milk", "2.50", LocalDate.of(2024, 1, 12), budget, null);
+        saveExpense("12\" pizza", "25.00", LocalDate.of(2024, 1, 13), budget, category);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ledgerExportService.exportExpenses(user.getId(), out, false);
+
+        assertEquals(2, rows);
+        assertEquals("Date,Description,Amount,Budget,Category\r\n"
+                + "2024-01-13,\"12\"\" pizza\",25.00,Groceries,\"Food, drinks\"\r\n"
+                + "2024-01-12,Milk,2.50,Groceries,\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testIncomesAreExportedGzipCompressed() throws IOException {
+        Income income = new Income();
+        income.setSource("Salary");
+        income.setAmount(new BigDecimal("3200.00"));
+        income.setDate(Date.valueOf(LocalDate.of(2024, 2, 1)));
+        income.setPaymentFrequency("Monthly");
+        income.setUser(user);
+        incomeRepository.save(income);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ledgerExportService.exportIncomes(user.getId(), out, true);
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(1, rows);
+        assertEquals("Date,Source,Amount,Payment Frequency\r\n2024-02-01,Salary,3200.00,Monthly\r\n", csv);
+    }
+
+    @Test
+    void testExportOfUserWithoutExpensesHasOnlyTheHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, ledgerExportService.exportExpenses(user.getId(), out, false));
+        assertEquals("Date,Description,Amount,Budget,Category\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Exports a million expenses under a heap of at most 256 MB and checks that
+     * the heap used while doing so stays within 32 MB of the heap used before
+     * the export started, instead of growing with the file. Run with
+     * {@code -Dbenchmark=true -DargLine=-Xmx256m}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkExportOfOneMillionExpenses() throws IOException {
+        int count = 1_000_000;
+        jdbcTemplate.update("INSERT INTO expense (user_id, description, amount, date) "
+                + "SELECT ?, CONCAT('Expense ', X), MOD(X, 10000) / 100.0, "
+                + "DATEADD('DAY', -MOD(X, 3650), DATE '2024-12-31') FROM SYSTEM_RANGE(1, ?)", user.getId(), count);
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        assertTrue(maxHeap <= 256L * 1024 * 1024, "heap capped at " + maxHeap + " bytes, run with -Xmx256m");
+
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(10 * 1024 * 1024);
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        long rows = ledgerExportService.exportExpenses(user.getId(), out, false);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        long growth = out.maxHeap - heapBefore;
+        LOGGER.info("exported {} expenses, {} bytes in {} ms under a {} byte heap, heap grew by {} bytes", rows,
+                out.bytes, millis, maxHeap, growth);
+        assertEquals(count, rows);
+        assertTrue(growth < 32L * 1024 * 1024, "heap grew by " + growth + " bytes");
+    }
+
+    private void saveExpense(String description, String amount, LocalDate date, Budget budget,
+            ExpenseCategory category) {
+        Expense expense = new Expense();
+        expense.setDescription(description);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setDate(Date.valueOf(date));
+        expense.setBudget(budget);
+        expense.setCategory(category);
+        expense.setUser(user);
+        expenseRepository.save(expense);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards what is written and samples the used heap every given number of
+     * bytes.
+     */
+    private static class HeapSamplingOutputStream extends OutputStream {
+
+        private final long sampleInterval;
+        private long bytes;
+        private long nextSample;
+        private long maxHeap;
+
+        HeapSamplingOutputStream(long sampleInterval) {
+            this.sampleInterval = sampleInterval;
+        }
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(int length) {
+            bytes += length;
+            if (bytes < nextSample) {
+                return;
+            }
+            nextSample = bytes + sampleInterval;
+            maxHeap = Math.max(maxHeap, usedHeap());
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Income;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+
+/**
+ * Runs the hot expense and income queries against the migrated schema and
+ * checks with EXPLAIN that none of them scans the whole table.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.vaadin.application.repository.LedgerQueryPlanTests$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LedgerQueryPlanTests {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Budget budget;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("query-plan-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        List<Budget> budgets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Budget newBudget = new Budget();
+            newBudget.setName("Budget " + i);
+            newBudget.setAmount(new BigDecimal("500.00"));
+            newBudget.setUser(user);
+            budgets.add(budgetRepository.save(newBudget));
+        }
+        budget = budgets.get(0);
+
+        List<ExpenseImport> expenses = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            expenses.add(new ExpenseImport(user.getId(), "Expense " + i, BigDecimal.ONE,
+                    LocalDate.of(2023, 1, 1).plusDays(i % 730), budgets.get(i % budgets.size()).getId(), null));
+        }
+        ledgerWriteService.recordExpenses(expenses.iterator());
+
+        for (int i = 0; i < 200; i++) {
+            Income income = new Income();
+            income.setSource("Salary");
+            income.setAmount(new BigDecimal("1000.00"));
+            income.setDate(Date.valueOf(LocalDate.of(2023, 1, 1).plusDays(i * 3)));
+            income.setPaymentFrequency("Monthly");
+            income.setUser(user);
+            incomeRepository.save(income);
+        }
+
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        incomeRepository.deleteAll();
+        expenseRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testTotalExpensesForPeriodUsesIndex() {
+        String sql = capture(() -> expenseRepository.findTotalExpensesForPeriod(user.getId(), START, END));
+        assertNoTableScan(sql, "EXPENSE", user.getId(), START, END);
+    }
+
+    @Test
+    void testExpensesBetweenDatesUseIndex() {
+        String sql = capture(() -> expenseRepository.findByUserIdAndDateBetween(user.getId(), START, END));
+        assertNoTableScan(sql, "EXPENSE", user.getId(), START, END);
+    }
+
+    @Test
+    void testExpensesByBudgetUseIndex() {
+        String sql = capture(() -> expenseRepository.findByBudgetId(budget.getId()));
+        assertNoTableScan(sql, "EXPENSE", budget.getId());
+    }
+
+    @Test
+    void testDistinctBudgetsUseIndex() {
+        String sql = capture(() -> expenseRepository.getDistinctBudgets(user.getId()));
+        assertNoTableScan(sql, "EXPENSE", user.getId());
+    }
+
+    @Test
+    void testIncomeLinesUseIndex() {
+        String sql = capture(() -> incomeRepository.findLinesByUserId(user.getId()));
+        assertNoTableScan(sql, "INCOME", user.getId());
+    }
+
+    /**
+     * Runs a repository call and returns the first SQL statement it issued.
+     */
+    private String capture(Runnable query) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        query.run();
+        assertFalse(RecordingStatementInspector.STATEMENTS.isEmpty(), "The query issued no SQL statement");
+        return RecordingStatementInspector.STATEMENTS.get(0);
+    }
+
+    /**
+     * Explains a statement with the given parameters and fails if the plan reads
+     * every row of the table.
+     */
+    private void assertNoTableScan(String sql, String table, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+        assertTrue(plan.toUpperCase().contains(table), "The plan does not read " + table + ": " + plan);
+        assertFalse(plan.toUpperCase().contains(table + ".TABLESCAN"), "Full scan of " + table + ": " + plan);
+    }
+
+    /**
+     * Records the SQL statements issued by Hibernate.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.dto.MonthlyExpenseTotal;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.ExpenseCategory;
+import org.vaadin.application.model.MonthlyExpenseRollup;
+import org.vaadin.application.model.MonthlyExpenseRollupId;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+import org.vaadin.application.util.MonthlySeries;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class MonthlyExpenseRollupTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MonthlyExpenseRollupTests.class);
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Budget groceries;
+    private Budget rent;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("rollup-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        groceries = saveBudget("Groceries");
+        rent = saveBudget("Rent");
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        expenseRepository.deleteAll();
+        categoryRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testIncrementalRollupMatchesRebuild() {
+        Expense napkins = ledgerWriteService.recordExpense(createExpense("Napkins", "25.00", 2024, 1, groceries));
+        ledgerWriteService.recordExpense(createExpense("Peaches", "15.50", 2024, 1, groceries));
+        Expense january = ledgerWriteService.recordExpense(createExpense("January rent", "900.00", 2024, 1, rent));
+        ledgerWriteService.recordExpense(createExpense("Coffee", "3.20", 2024, 2, null));
+        ledgerWriteService.recordExpenses(List.of(
+                new ExpenseImport(user.getId(), "Bread", new BigDecimal("4.10"), LocalDate.of(2024, 2, 3),
+                        groceries.getId(), null),
+                new ExpenseImport(user.getId(), "Milk", new BigDecimal("1.90"), LocalDate.of(2024, 2, 3),
+                        groceries.getId(), null)).iterator());
+
+        Expense moved = createExpense("Napkins", "30.00", 2024, 2, rent);
+        moved.setId(napkins.getId());
+        ledgerWriteService.amendExpense(moved);
+        ledgerWriteService.removeExpense(january.getId());
+
+        Map<MonthlyExpenseRollupId, String> incremental = readRollup();
+        expenseRollupService.rebuild();
+
+        assertEquals(readRollup(), incremental);
+        assertEquals(0, new BigDecimal("54.70").compareTo(rollupRepository.sumTotalByUserId(user.getId())));
+    }
+
+    @Test
+    void testCategoryRemovalKeepsRollupAndBudgetsInStep() {
+        ExpenseCategory food = saveCategory("Food");
+        ExpenseCategory home = saveCategory("Home");
+        ledgerWriteService.recordExpense(withCategory(createExpense("Napkins", "25.00", 2024, 1, groceries), home));
+        ledgerWriteService.recordExpense(withCategory(createExpense("Peaches", "15.50", 2024, 1, groceries), food));
+        ledgerWriteService.recordExpense(withCategory(createExpense("Bread", "4.10", 2024, 2, groceries), food));
+        ledgerWriteService.recordExpense(withCategory(createExpense("Lunch", "12.00", 2024, 2, null), food));
+        ledgerWriteService.recordExpense(createExpense("January rent", "900.00", 2024, 1, rent));
+
+        ledgerWriteService.removeExpenseCategory(food.getId());
+
+        Map<MonthlyExpenseRollupId, String> incremental = readRollup();
+        expenseRollupService.rebuild();
+
+        assertEquals(readRollup(), incremental);
+        assertEquals(2, expenseRepository.count());
+        assertFalse(categoryRepository.existsById(food.getId()));
+        assertEquals(0, new BigDecimal("925.00").compareTo(rollupRepository.sumTotalByUserId(user.getId())));
+        assertEquals(0, new BigDecimal("25.00").compareTo(
+                budgetRepository.findById(groceries.getId()).orElseThrow().getCurrentAmount()));
+        assertEquals(0, new BigDecimal("900.00").compareTo(
+                budgetRepository.findById(rent.getId()).orElseThrow().getCurrentAmount()));
+    }
+
+    @Test
+    void testBudgetRemovalKeepsItsExpensesWithoutBudget() {
+        ExpenseCategory food = saveCategory("Food");
+        ledgerWriteService.recordExpense(withCategory(createExpense("Peaches", "15.50", 2024, 1, groceries), food));
+        ledgerWriteService.recordExpense(withCategory(createExpense("Bread", "4.10", 2024, 1, null), food));
+        ledgerWriteService.recordExpense(createExpense("Napkins", "25.00", 2024, 2, groceries));
+        ledgerWriteService.recordExpense(createExpense("January rent", "900.00", 2024, 1, rent));
+
+        ledgerWriteService.removeBudget(groceries.getId());
+
+        Map<MonthlyExpenseRollupId, String> incremental = readRollup();
+        expenseRollupService.rebuild();
+
+        assertEquals(readRollup(), incremental);
+        assertTrue(rollupRepository.findByUserIdAndBudgetId(user.getId(), groceries.getId()).isEmpty());
+        assertFalse(budgetRepository.existsById(groceries.getId()));
+        assertEquals(4, expenseRepository.count());
+        assertEquals(0, new BigDecimal("944.60").compareTo(rollupRepository.sumTotalByUserId(user.getId())));
+    }
+
+    @Test
+    void testMonthlyTotalsAreGroupedByMonthAndBudget() {
+        ledgerWriteService.recordExpense(createExpense("Napkins", "25.00", 2023, 12, groceries));
+        ledgerWriteService.recordExpense(createExpense("Peaches", "15.00", 2024, 1, groceries));
+        ledgerWriteService.recordExpense(createExpense("Rent", "900.00", 2024, 1, rent));
+        ledgerWriteService.recordExpense(createExpense("Coffee", "3.00", 2024, 1, null));
+
+        List<MonthlyExpenseTotal> totals = rollupRepository.sumMonthlyTotalsByBudget(user.getId(),
+                MonthlySeries.toIndex(YearMonth.of(2024, 1)), MonthlySeries.toIndex(YearMonth.of(2024, 1)));
+
+        Map<String, BigDecimal> byBudget = new HashMap<>();
+        for (MonthlyExpenseTotal total : totals) {
+            assertEquals(2024, total.year());
+            assertEquals(1, total.month());
+            byBudget.put(total.budgetName(), total.total());
+        }
+        assertEquals(3, byBudget.size());
+        assertEquals(0, new BigDecimal("15.00").compareTo(byBudget.get("Groceries")));
+        assertEquals(0, new BigDecimal("3.00").compareTo(byBudget.get(null)));
+        assertEquals(0, new BigDecimal("40.00").compareTo(rollupRepository.sumTotalsByBudget(user.getId()).stream()
+                .filter(total -> total.budgetId().equals(groceries.getId())).findFirst().orElseThrow().total()));
+    }
+
+    /**
+     * Times the monthly totals per budget of the last twelve months as the
+     * service reads them, from {@link MonthlyExpenseRollupRepository}, at 10k,
+     * 100k and 1M expenses, and compares them with loading every expense of the
+     * user and summing in Java, as the service originally did. Each way runs
+     * three times and the fastest run is logged. The rollup must hold at most
+     * one bucket per month and budget whatever the number of expenses. Run with
+     * {@code -Dbenchmark=true}; loading a million expenses as entities needs a
+     * heap of about 2 GB ({@code -DargLine=-Xmx2g}).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkMonthlyTotalsByBudget() {
+        YearMonth lastMonth = YearMonth.now();
+        YearMonth firstMonth = lastMonth.minusMonths(12);
+        int inserted = 0;
+        try {
+            for (int rows : new int[] { 10_000, 100_000, 1_000_000 }) {
+                insertExpenses(inserted + 1, rows);
+                inserted = rows;
+                expenseRollupService.rebuild(user.getId());
+
+                Map<String, BigDecimal> loaded = sumLoadedExpenses(firstMonth, lastMonth);
+                assertEquals(loaded, sumRollup(firstMonth, lastMonth));
+                // Ten years of expenses in three budget buckets, whatever their number
+                assertTrue(rollupRepository.count() <= 121 * 3, rollupRepository.count() + " buckets");
+
+                long loadMillis = fastestMillis(() -> sumLoadedExpenses(firstMonth, lastMonth));
+                long rollupMillis = fastestMillis(() -> sumRollup(firstMonth, lastMonth));
+                LOGGER.info("{} expenses, {} totals: load all {} ms, rollup {} ms", rows, loaded.size(), loadMillis,
+                        rollupMillis);
+            }
+        } finally {
+            jdbcTemplate.update("DELETE FROM expense WHERE user_id = ?", user.getId());
+        }
+    }
+
+    /**
+     * Inserts expenses spread over the last ten years, a third each for
+     * groceries, rent and no budget.
+     */
+    private void insertExpenses(int first, int last) {
+        jdbcTemplate.update("INSERT INTO expense (user_id, description, amount, date, budget_id) "
+                + "SELECT ?, CONCAT('Expense ', X), MOD(X, 10000) / 100.0, "
+                + "DATEADD('DAY', -MOD(X, 3650), CURRENT_DATE), "
+                + "CASE MOD(X, 3) WHEN 0 THEN ? WHEN 1 THEN ? END FROM SYSTEM_RANGE(?, ?)",
+                user.getId(), groceries.getId(), rent.getId(), first, last);
+    }
+
+    private Map<String, BigDecimal> sumLoadedExpenses(YearMonth firstMonth, YearMonth lastMonth) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Map<String, BigDecimal> totals = new HashMap<>();
+            for (Expense expense : entityManager
+                    .createQuery("SELECT e FROM Expense e WHERE e.user.id = :userId", Expense.class)
+                    .setParameter("userId", user.getId())
+                    .getResultList()) {
+                YearMonth month = YearMonth.from(ExpenseCursor.toLocalDate(expense.getDate()));
+                if (!month.isBefore(firstMonth) && !month.isAfter(lastMonth)) {
+                    String budgetName = expense.getBudget() != null ? expense.getBudget().getName() : null;
+                    totals.merge(month + " " + budgetName, expense.getAmount(), BigDecimal::add);
+                }
+            }
+            return normalize(totals);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private Map<String, BigDecimal> sumRollup(YearMonth firstMonth, YearMonth lastMonth) {
+        return toMap(rollupRepository.sumMonthlyTotalsByBudget(user.getId(), MonthlySeries.toIndex(firstMonth),
+                MonthlySeries.toIndex(lastMonth)));
+    }
+
+    private static Map<String, BigDecimal> toMap(List<MonthlyExpenseTotal> monthlyTotals) {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (MonthlyExpenseTotal total : monthlyTotals) {
+            totals.merge(YearMonth.of(total.year(), total.month()) + " " + total.budgetName(), total.total(),
+                    BigDecimal::add);
+        }
+        return normalize(totals);
+    }
+
+    private static Map<String, BigDecimal> normalize(Map<String, BigDecimal> totals) {
+        totals.replaceAll((key, total) -> total.setScale(2));
+        return totals;
+    }
+
+    private static long fastestMillis(Runnable query) {
+        long fastest = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            query.run();
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest / 1_000_000;
+    }
+
+    private Map<MonthlyExpenseRollupId, String> readRollup() {
+        Map<MonthlyExpenseRollupId, String> buckets = new HashMap<>();
+        for (MonthlyExpenseRollup rollup : rollupRepository.findAll()) {
+            if (rollup.getExpenseCount() > 0) {
+                buckets.put(rollup.getId(), rollup.getTotal().setScale(2) + " x " + rollup.getExpenseCount());
+            }
+        }
+        return buckets;
+    }
+
+    private Budget saveBudget(String name) {
+        Budget budget = new Budget();
+        budget.setName(name);
+        budget.setAmount(new BigDecimal("1000.00"));
+        budget.setUser(user);
+        return budgetRepository.save(budget);
+    }
+
+    private ExpenseCategory saveCategory(String name) {
+        ExpenseCategory category = new ExpenseCategory();
+        category.setName(name);
+        category.setUser(user);
+        return categoryRepository.save(category);
+    }
+
+    private static Expense withCategory(Expense expense, ExpenseCategory category) {
+        expense.setCategory(category);
+        return expense;
+    }
+
+    private Expense createExpense(String description, String amount, int year, int month, Budget budget) {
+        Expense expense = new Expense();
+        expense.setDescription(description);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setDate(Date.valueOf(LocalDate.of(year, month, 10)));
+        expense.setUser(user);
+        expense.setBudget(budget);
+        return expense;
+    }
+}
@@ -0,0 +1,169 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.dto.NetWorthPoint;
+import org.vaadin.application.model.Asset;
+import org.vaadin.application.model.FinancialGoal;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.AssetValuationService;
+import org.vaadin.application.service.NetWorthHistoryService;
+
+/**
+ * Records daily net worth snapshots against the migrated schema and checks
+ * that a range of several years is read with one indexed query.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.vaadin.application.repository.NetWorthHistoryTests$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ NetWorthHistoryService.class, AssetValuationService.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class NetWorthHistoryTests {
+
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @Autowired
+    private NetWorthHistoryService netWorthHistoryService;
+
+    @Autowired
+    private NetWorthHistoryRepository netWorthHistoryRepository;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private FinancialGoalRepository financialGoalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setName("net-worth-user");
+        user.setPassword("secret");
+        user = userRepository.save(user);
+
+        Asset asset = new Asset();
+        asset.setName("Savings account");
+        asset.setCategory("Cash");
+        asset.setValue(new BigDecimal("10000.00"));
+        asset.setInterestRate(BigDecimal.ZERO);
+        asset.setValuedOn(Date.valueOf(START));
+        asset.setUser(user);
+        assetRepository.save(asset);
+
+        FinancialGoal goal = new FinancialGoal();
+        goal.setDescription("Holiday");
+        goal.setTargetAmount(new BigDecimal("2000.00"));
+        goal.setSavedAmount(new BigDecimal("500.00"));
+        goal.setUser(user);
+        financialGoalRepository.save(goal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        netWorthHistoryRepository.deleteAll();
+        financialGoalRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testSnapshotsAreStoredPerYear() {
+        for (LocalDate date = START; date.isBefore(START.plusYears(5)); date = date.plusDays(1)) {
+            netWorthHistoryService.recordSnapshot(user.getId(), date);
+        }
+        // Recording a day again replaces its snapshot
+        netWorthHistoryService.recordSnapshot(user.getId(), START.plusYears(5).minusDays(1));
+
+        assertEquals(5, netWorthHistoryRepository.count());
+        netWorthHistoryRepository.findAll().forEach(history -> assertTrue(
+                history.getSnapshots().length < 4 * 366 + 32, () -> history.getId() + " takes "
+                        + history.getSnapshots().length + " bytes"));
+
+        List<NetWorthPoint> points = netWorthHistoryService.getHistoryPoints(user.getId(), START.plusDays(10),
+                START.plusYears(5));
+        assertEquals(ChronoUnit.DAYS.between(START.plusDays(10), START.plusYears(5)), points.size());
+        NetWorthPoint first = points.get(0);
+        assertEquals(START.plusDays(10), first.date());
+        assertEquals(0, new BigDecimal("10000.00").compareTo(first.netWorth()));
+        assertEquals(0, new BigDecimal("500.00").compareTo(first.goalsSaved()));
+        assertEquals(0, new BigDecimal("2000.00").compareTo(first.goalsTarget()));
+        assertEquals(START.plusYears(5).minusDays(1), points.get(points.size() - 1).date());
+    }
+
+    @Test
+    void testHistoryIsDeletedWithItsUser() {
+        User other = new User();
+        other.setName("net-worth-user-2");
+        other.setPassword("secret");
+        other = userRepository.save(other);
+        netWorthHistoryService.recordSnapshot(user.getId(), START);
+        netWorthHistoryService.recordSnapshot(other.getId(), START);
+        netWorthHistoryService.recordSnapshot(other.getId(), START.plusYears(1));
+
+        userRepository.delete(other);
+
+        assertEquals(1, netWorthHistoryRepository.count());
+        assertEquals(user.getId(), netWorthHistoryRepository.findAll().get(0).getId().getUserId());
+    }
+
+    @Test
+    void testRangeIsReadWithOneIndexedQuery() {
+        for (int year = 0; year < 5; year++) {
+            netWorthHistoryService.recordSnapshot(user.getId(), START.plusYears(year));
+        }
+        jdbcTemplate.execute("ANALYZE");
+
+        RecordingStatementInspector.STATEMENTS.clear();
+        int size = netWorthHistoryService.getHistory(user.getId(), START, START.plusYears(5)).size();
+
+        assertEquals(5, size);
+        List<String> statements = RecordingStatementInspector.STATEMENTS;
+        assertEquals(1, statements.size(), statements::toString);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + statements.get(0),
+                String.class, user.getId(), START.getYear(), START.getYear() + 5);
+        assertFalse(plan.toUpperCase().contains("NET_WORTH_HISTORY.TABLESCAN"), "Full scan: " + plan);
+    }
+
+    /**
+     * Records the SQL statements issued by Hibernate.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package org.vaadin.application.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.model.Asset;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.ExpenseCategory;
+import org.vaadin.application.model.FinancialGoal;
+import org.vaadin.application.model.Income;
+import org.vaadin.application.model.User;
+import org.vaadin.application.service.AssetService;
+import org.vaadin.application.service.AssetValuationService;
+import org.vaadin.application.service.BudgetService;
+import org.vaadin.application.service.ExpenseCategoryService;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.FinancialGoalService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+import org.vaadin.application.service.OwnerService;
+import org.vaadin.application.service.SessionService;
+
+/**
+ * Runs the write paths of the views with the owner resolved by
+ * {@link OwnerService} and checks that each of them inserts its row without
+ * reading the user first.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.vaadin.application.repository.OwnerReferenceInsertTests$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Import({ OwnerService.class, SessionService.class, AssetService.class, AssetValuationService.class,
+        BudgetService.class, ExpenseCategoryService.class, FinancialGoalService.class, IncomeService.class,
+        LedgerWriteService.class, ExpenseRollupService.class, LedgerCache.class,
+        ForecastCache.class, CacheConfiguration.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OwnerReferenceInsertTests {
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private BudgetService budgetService;
+
+    @Autowired
+    private ExpenseCategoryService expenseCategoryService;
+
+    @Autowired
+    private FinancialGoalService financialGoalService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private AssetRepository assetRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private ExpenseCategoryRepository expenseCategoryRepository;
+
+    @Autowired
+    private FinancialGoalRepository financialGoalRepository;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("owner-user");
+        user.setPassword("secret");
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAll();
+        incomeRepository.deleteAll();
+        expenseRepository.deleteAll();
+        assetRepository.deleteAll();
+        financialGoalRepository.deleteAll();
+        expenseCategoryRepository.deleteAll();
+        budgetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testAddAssetIsSingleInsert() {
+        List<String> statements = capture(() -> {
+            Asset asset = new Asset();
+            asset.setName("Savings account");
+            asset.setValue(new BigDecimal("1000.00"));
+            asset.setCategory("Cash");
+            asset.setUser(ownerService.getOwner(userId));
+            assetService.addAsset(asset);
+        });
+
+        assertSingleInsert(statements, "asset");
+    }
+
+    @Test
+    void testAddBudgetIsSingleInsert() {
+        List<String> statements = capture(() -> {
+            Budget budget = new Budget();
+            budget.setName("Groceries");
+            budget.setAmount(new BigDecimal("500.00"));
+            budget.setUser(ownerService.getOwner(userId));
+            budgetService.addBudget(budget);
+        });
+
+        assertSingleInsert(statements, "budget");
+    }
+
+    @Test
+    void testAddExpenseCategoryIsSingleInsert() {
+        List<String> statements = capture(() -> {
+            ExpenseCategory category = new ExpenseCategory();
+            category.setName("Food");
+            category.setUser(ownerService.getOwner(userId));
+            expenseCategoryService.addExpenseCategory(category);
+        });
+
+        assertSingleInsert(statements, "expense_category");
+    }
+
+    @Test
+    void testAddFinancialGoalIsSingleInsert() {
+        List<String> statements = capture(() -> {
+            FinancialGoal goal = new FinancialGoal();
+            goal.setDescription("Holiday");
+            goal.setTargetAmount(new BigDecimal("2000.00"));
+            goal.setSavedAmount(BigDecimal.ZERO);
+            goal.setUser(ownerService.getOwner(userId));
+            financialGoalService.addFinancialGoal(goal);
+        });
+
+        assertSingleInsert(statements, "financial_goal");
+    }
+
+    @Test
+    void testAddIncomeIsSingleInsert() {
+        List<String> statements = capture(() -> {
+            Income income = new Income();
+            income.setSource("Salary");
+            income.setAmount(new BigDecimal("3000.00"));
+            income.setDate(Date.valueOf(LocalDate.of(2024, 1, 31)));
+            income.setPaymentFrequency("Monthly");
+            income.setUser(ownerService.getOwner(userId));
+            incomeService.addIncome(income);
+        });
+
+        assertSingleInsert(statements, "income");
+    }
+
+    /**
+     * Recording an expense also updates its rollup bucket, so besides the insert
+     * of the expense it issues the rollup statement, but still no SELECT.
+     */
+    @Test
+    void testRecordExpenseInsertsWithoutSelect() {
+        List<String> statements = capture(() -> {
+            Expense expense = new Expense();
+            expense.setDescription("Lunch");
+            expense.setAmount(new BigDecimal("12.50"));
+            expense.setDate(Date.valueOf(LocalDate.of(2024, 1, 15)));
+            expense.setUser(ownerService.getOwner(userId));
+            ledgerWriteService.recordExpense(expense);
+        });
+
+        assertEquals(1, statements.stream().filter(sql -> isInsertInto(sql, "expense")).count(),
+                statements::toString);
+        assertTrue(statements.stream().noneMatch(OwnerReferenceInsertTests::isSelect), statements::toString);
+        assertEquals(userId, expenseRepository.findByUserId(userId).get(0).getUser().getId());
+    }
+
+    private static void assertSingleInsert(List<String> statements, String table) {
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(isInsertInto(statements.get(0), table), statements::toString);
+    }
+
+    private static boolean isInsertInto(String sql, String table) {
+        return sql.toLowerCase().startsWith("insert into " + table + " ");
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.toLowerCase().startsWith("select");
+    }
+
+    /**
+     * Runs a write and returns the SQL statements it issued.
+     */
+    private static List<String> capture(Runnable write) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        write.run();
+        return List.copyOf(RecordingStatementInspector.STATEMENTS);
+    }
+
+    /**
+     * Records the SQL statements issued by Hibernate.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.vaadin.application.model.Asset;
+import org.vaadin.application.model.User;
+import org.vaadin.application.repository.AssetRepository;
+import org.vaadin.application.service.AssetService;
+import org.vaadin.application.service.AssetValuationService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public class AssetServiceTests {
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @Mock
+    private AssetValuationService assetValuationService;
+
+    @InjectMocks
+    private AssetService assetService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testAddAssetIsValuedToday() {
+        Asset asset = asset(1L, "1000.00", "2.50");
+        when(assetRepository.save(asset)).thenReturn(asset);
+
+        Asset result = assetService.addAsset(asset);
+
+        assertEquals(java.sql.Date.valueOf(LocalDate.now()), result.getValuedOn());
+        verify(assetValuationService, times(1)).assetsChanged(1L);
+    }
+
+    @Test
+    void testUpdateAssetKeepsValuationDateUnlessRevalued() {
+        java.sql.Date valuedOn = java.sql.Date.valueOf(LocalDate.of(2023, 6, 1));
+        Asset existing = asset(1L, "1000.00", "2.50");
+        existing.setValuedOn(valuedOn);
+        when(assetRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(assetRepository.save(existing)).thenReturn(existing);
+
+        Asset renamed = asset(1L, "1000.0", "2.5");
+        renamed.setName("Renamed");
+        assetService.updateAsset(renamed);
+        assertEquals(valuedOn, existing.getValuedOn());
+
+        assetService.updateAsset(asset(1L, "1200.00", "2.50"));
+        assertEquals(java.sql.Date.valueOf(LocalDate.now()), existing.getValuedOn());
+        verify(assetValuationService, times(2)).assetsChanged(1L);
+    }
+
+    @Test
+    void testTotalsAreValuedByValuationService() {
+        when(assetValuationService.getTotalValue(1L, LocalDate.now())).thenReturn(new BigDecimal("1050.00"));
+        when(assetValuationService.getTotalValue(1L, LocalDate.now().minusYears(1)))
+                .thenReturn(new BigDecimal("1000.00"));
+
+        assertEquals(new BigDecimal("1050.00"), assetService.getTotalAssetsCurrent(1L));
+        assertEquals(new BigDecimal("1000.00"), assetService.getTotalAssetsLastYear(1L));
+    }
+
+    @Test
+    void testDeleteMissingAssetChangesNothing() {
+        when(assetRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assetService.deleteAsset(1L);
+
+        verify(assetValuationService, never()).assetsChanged(1L);
+    }
+
+    private static Asset asset(Long id, String value, String interestRate) {
+        User user = new User();
+        user.setId(1L);
+        Asset asset = new Asset();
+        asset.setId(id);
+        asset.setName("Savings account");
+        asset.setCategory("Savings");
+        asset.setValue(new BigDecimal(value));
+        asset.setInterestRate(new BigDecimal(interestRate));
+        asset.setUser(user);
+        return asset;
+    }
+}
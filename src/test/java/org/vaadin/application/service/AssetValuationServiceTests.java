@@ -0,0 +1,110 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.vaadin.application.model.Asset;
+import org.vaadin.application.model.User;
+import org.vaadin.application.repository.AssetRepository;
+import org.vaadin.application.service.AssetValuationService;
+import org.vaadin.application.util.MonthlySeries;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+public class AssetValuationServiceTests {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @InjectMocks
+    private AssetValuationService assetValuationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testTotalsCompoundFromValuationDate() {
+        LocalDate valuedOn = LocalDate.of(2024, 1, 1);
+        when(assetRepository.findByUserId(USER_ID)).thenReturn(List.of(
+                asset("10000.00", "5.00", valuedOn),
+                asset("2500.50", null, valuedOn)));
+
+        assertEquals(new BigDecimal("12500.50"), assetValuationService.getTotalValue(USER_ID, valuedOn));
+        // 10,000.00 at 5 % for 100 days
+        BigDecimal expected = new BigDecimal(1_000_000 * Math.pow(1.05, 100 / 365.2425) + 250_050)
+                .setScale(0, java.math.RoundingMode.HALF_UP).movePointLeft(2);
+        assertEquals(expected, assetValuationService.getTotalValue(USER_ID, valuedOn.plusDays(100)));
+    }
+
+    @Test
+    void testResultsAreMemoisedUntilAssetsChange() {
+        LocalDate valuedOn = LocalDate.of(2024, 1, 1);
+        when(assetRepository.findByUserId(USER_ID)).thenReturn(List.of(asset("1000.00", "3.00", valuedOn)));
+
+        BigDecimal total = assetValuationService.getTotalValue(USER_ID, valuedOn.plusYears(1));
+        assertEquals(total, assetValuationService.getTotalValue(USER_ID, valuedOn.plusYears(1)));
+        MonthlySeries projection = assetValuationService.getProjection(USER_ID, YearMonth.of(2024, 1), 360);
+        assertEquals(projection, assetValuationService.getProjection(USER_ID, YearMonth.of(2024, 1), 360));
+        verify(assetRepository, times(1)).findByUserId(USER_ID);
+        assertEquals(0, assetValuationService.getVersion(USER_ID));
+
+        when(assetRepository.findByUserId(USER_ID)).thenReturn(List.of(
+                asset("1000.00", "3.00", valuedOn),
+                asset("500.00", null, valuedOn)));
+        assetValuationService.assetsChanged(USER_ID);
+
+        assertEquals(1, assetValuationService.getVersion(USER_ID));
+        assertEquals(new BigDecimal("1500.00"), assetValuationService.getTotalValue(USER_ID, valuedOn));
+        assertEquals(total.add(new BigDecimal("500.00")),
+                assetValuationService.getTotalValue(USER_ID, valuedOn.plusYears(1)));
+        verify(assetRepository, times(2)).findByUserId(USER_ID);
+    }
+
+    @Test
+    void testProjectionStartsOnFirstDayOfEachMonth() {
+        when(assetRepository.findByUserId(USER_ID)).thenReturn(List.of(
+                asset("1000.00", "12.00", LocalDate.of(2024, 3, 1))));
+
+        MonthlySeries projection = assetValuationService.getProjection(USER_ID, YearMonth.of(2024, 1), 24);
+
+        assertEquals(24, projection.length());
+        assertEquals(new BigDecimal("1000.00"), projection.get(2));
+        for (int position = 0; position < projection.length(); position++) {
+            LocalDate firstDay = projection.monthAt(position).atDay(1);
+            assertEquals(assetValuationService.getTotalValue(USER_ID, firstDay), projection.get(position));
+        }
+
+        // Callers get their own copy of the memoised projection
+        projection.setCents(0, 0);
+        MonthlySeries again = assetValuationService.getProjection(USER_ID, YearMonth.of(2024, 1), 24);
+        assertEquals(assetValuationService.getTotalValue(USER_ID, LocalDate.of(2024, 1, 1)), again.get(0));
+        assertThrows(IllegalArgumentException.class, () -> assetValuationService.getProjection(USER_ID,
+                YearMonth.of(2024, 1), -1));
+    }
+
+    private static Asset asset(String value, String interestRate, LocalDate valuedOn) {
+        User user = new User();
+        user.setId(USER_ID);
+        Asset asset = new Asset();
+        asset.setValue(new BigDecimal(value));
+        asset.setInterestRate(interestRate != null ? new BigDecimal(interestRate) : null);
+        asset.setValuedOn(java.sql.Date.valueOf(valuedOn));
+        asset.setUser(user);
+        return asset;
+    }
+}
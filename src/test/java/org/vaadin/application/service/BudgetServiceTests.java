@@ -1,8 +1,11 @@
 package org.vaadin.example.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
@@ -15,15 +18,26 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.vaadin.application.dto.LedgerEvent.BudgetChanged;
+import org.vaadin.application.dto.LedgerEvent.Change;
 import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.User;
 import org.vaadin.application.repository.BudgetRepository;
 import org.vaadin.application.service.BudgetService;
+import org.vaadin.application.service.LedgerWriteService;
 
 public class BudgetServiceTests {
 
     @Mock
     private BudgetRepository budgetRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LedgerWriteService ledgerWriteService;
+
     @InjectMocks
     private BudgetService budgetService;
 
@@ -63,12 +77,14 @@ public class BudgetServiceTests {
         budget.setName("Groceries");
         budget.setAmount(new BigDecimal("500.00"));
         budget.setId(1L);
+        budget.setUser(createUser());
 
         when(budgetRepository.save(budget)).thenReturn(budget);
 
         Budget result = budgetService.addBudget(budget);
         assertEquals(budget, result);
         verify(budgetRepository, times(1)).save(budget);
+        verify(eventPublisher, times(1)).publishEvent(new BudgetChanged(7L, Change.ADDED, 1L));
     }
 
     @Test
@@ -98,10 +114,35 @@ public class BudgetServiceTests {
     }
 
     @Test
-    void testDeleteBudget() {
-        Long id = 1L;
-        budgetService.deleteBudget(id);
-        verify(budgetRepository, times(1)).deleteById(id);
+    void testDeleteBudgetGoesThroughLedgerWriteService() {
+        budgetService.deleteBudget(1L);
+
+        verify(ledgerWriteService, times(1)).removeBudget(1L);
+        verify(budgetRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
     }
 
+    @Test
+    void testIncreaseCurrentAmountUsesAtomicUpdate() {
+        budgetService.increaseCurrentAmount(1L, new BigDecimal("12.50"));
+
+        verify(budgetRepository, times(1)).adjustCurrentAmount(1L, new BigDecimal("12.50"));
+        verify(budgetRepository, never()).findById(any());
+        verify(budgetRepository, never()).save(any());
+    }
+
+    @Test
+    void testDecreaseCurrentAmountUsesAtomicUpdate() {
+        budgetService.decreaseCurrentAmount(1L, new BigDecimal("12.50"));
+
+        verify(budgetRepository, times(1)).adjustCurrentAmount(1L, new BigDecimal("-12.50"));
+        verify(budgetRepository, never()).findById(any());
+        verify(budgetRepository, never()).save(any());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setId(7L);
+        return user;
+    }
 }
@@ -0,0 +1,85 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vaadin.application.service.DashboardExecutor;
+
+public class DashboardExecutorTests {
+
+    private final DashboardExecutor dashboardExecutor = new DashboardExecutor();
+
+    @AfterEach
+    void tearDown() {
+        dashboardExecutor.stop();
+    }
+
+    @Test
+    void testTasksRunConcurrently() throws Exception {
+        dashboardExecutor.start();
+        CountDownLatch started = new CountDownLatch(2);
+
+        // Each task waits for the other, so they only finish if both run at once
+        CompletableFuture<String> first = dashboardExecutor.supply(() -> awaitOther(started));
+        CompletableFuture<String> second = dashboardExecutor.supply(() -> awaitOther(started));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).startsWith("dashboard-"));
+        assertTrue(second.get(5, TimeUnit.SECONDS).startsWith("dashboard-"));
+    }
+
+    @Test
+    void testFullQueueRunsTaskOnCaller() throws Exception {
+        ReflectionTestUtils.setField(dashboardExecutor, "threads", 1);
+        ReflectionTestUtils.setField(dashboardExecutor, "queueCapacity", 1);
+        dashboardExecutor.start();
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> running = dashboardExecutor.supply(() -> awaitRelease(release));
+        CompletableFuture<String> queued = dashboardExecutor.supply(() -> Thread.currentThread().getName());
+        CompletableFuture<String> overflow = dashboardExecutor.supply(() -> Thread.currentThread().getName());
+
+        assertEquals(Thread.currentThread().getName(), overflow.get(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals("dashboard-1", running.get(5, TimeUnit.SECONDS));
+        assertEquals("dashboard-1", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailuresCompleteExceptionally() {
+        dashboardExecutor.start();
+
+        CompletableFuture<Object> failed = dashboardExecutor.supply(() -> {
+            throw new IllegalStateException("Database unavailable");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    private static String awaitOther(CountDownLatch started) {
+        started.countDown();
+        try {
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return Thread.currentThread().getName();
+    }
+
+    private static String awaitRelease(CountDownLatch release) {
+        try {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        return Thread.currentThread().getName();
+    }
+}
@@ -1,23 +1,49 @@
 package org.vaadin.example.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.doNothing;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Arrays;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.vaadin.application.dto.BudgetExpenseTotal;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseLine;
+import org.vaadin.application.dto.ExpensePage;
+import org.vaadin.application.dto.MonthlyExpenseTotal;
+import org.vaadin.application.model.Budget;
 import org.vaadin.application.model.Expense;
+import org.vaadin.application.repository.BudgetRepository;
 import org.vaadin.application.repository.ExpenseRepository;
+import org.vaadin.application.repository.MonthlyExpenseRollupRepository;
 import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.util.ExpenseColumns;
+import org.vaadin.application.util.IncomeColumns;
+import org.vaadin.application.util.LedgerSnapshot;
+import org.vaadin.application.util.MonthlySeries;
 
 import java.sql.Date;
 import java.time.LocalDate;
@@ -29,6 +55,15 @@ public class ExpenceServiceTest {
     @Mock
     private ExpenseRepository expenseRepository;
 
+    @Mock
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private LedgerCache ledgerCache;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -63,24 +98,6 @@ public class ExpenceServiceTest {
         verify(expenseRepository, times(1)).findByUserId(userId);
     }
 
-    @Test
-    void testAddExpense() {
-        Expense expense = new Expense();
-        expense.setId(1L);
-        expense.setDescription("Napkins");
-        expense.setAmount(new BigDecimal("25.00"));
-        expense.setDate(Date.valueOf(LocalDate.of(2021, 10, 15)));
-
-        when(expenseRepository.save(expense)).thenReturn(expense);
-
-        Expense result = expenseService.addExpense(expense);
-        assertEquals(1L, result.getId());
-        assertEquals("Napkins", result.getDescription());
-        assertEquals(new BigDecimal("25.00"), result.getAmount());
-        assertEquals(Date.valueOf(LocalDate.of(2021, 10, 15)), result.getDate());
-        verify(expenseRepository, times(1)).save(expense);
-    }
-
     @Test
     void testFindExpenseById() {
         Long id = 1L;
@@ -100,26 +117,267 @@ public class ExpenceServiceTest {
         verify(expenseRepository, times(1)).findById(id);
     }
 
-    @Test
-    void testDeleteExpense() {
-        Long id = 1L;
-        doNothing().when(expenseRepository).deleteById(id);
-        expenseService.deleteExpense(id);
-        verify(expenseRepository, times(1)).deleteById(id);
-    }
-
     @Test
     void testGetTotalExpensesForCurrentMonth() {
         Long userId = 1L;
         BigDecimal totalExpenses = new BigDecimal("100.00");
 
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        LocalDate endOfMonth = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
+        int currentMonth = MonthlySeries.toIndex(YearMonth.now());
 
-        when(expenseRepository.findTotalExpensesForPeriod(userId, startOfMonth, endOfMonth)).thenReturn(totalExpenses);
+        when(rollupRepository.sumTotalForMonths(userId, currentMonth, currentMonth)).thenReturn(totalExpenses);
 
         BigDecimal result = expenseService.getTotalExpensesForCurrentMonth(userId);
         assertEquals(new BigDecimal("100.00"), result);
-        verify(expenseRepository, times(1)).findTotalExpensesForPeriod(userId, startOfMonth, endOfMonth);
+        verify(rollupRepository, times(1)).sumTotalForMonths(userId, currentMonth, currentMonth);
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    void testGetExpensesForPreviousMonths() {
+        Long userId = 1L;
+        LocalDate now = LocalDate.now();
+        LocalDate lastMonth = now.minusMonths(1);
+
+        List<MonthlyExpenseTotal> monthlyTotals = Arrays.asList(
+                new MonthlyExpenseTotal(now.getYear(), now.getMonthValue(), "Groceries", new BigDecimal("40.00")),
+                new MonthlyExpenseTotal(lastMonth.getYear(), lastMonth.getMonthValue(), "groceries",
+                        new BigDecimal("60.00")),
+                new MonthlyExpenseTotal(now.getYear(), now.getMonthValue(), "Rent", new BigDecimal("900.00")),
+                new MonthlyExpenseTotal(now.getYear(), now.getMonthValue(), null, new BigDecimal("15.00")));
+
+        when(rollupRepository.sumMonthlyTotalsByBudget(eq(userId), anyInt(), anyInt())).thenReturn(monthlyTotals);
+
+        MonthlySeries groceries = expenseService.getExpensesForPreviousMonths(userId, 3, "Groceries");
+        assertEquals(4, groceries.length());
+        assertEquals(YearMonth.now(), groceries.getLastMonth());
+        assertEquals(4000, groceries.getCents(3));
+        assertEquals(6000, groceries.getCents(2));
+
+        MonthlySeries noBudget = expenseService.getExpensesForPreviousMonths(userId, 3, "no-budget");
+        assertEquals(1500, noBudget.getCents(3));
+        assertEquals(0, noBudget.getCents(2));
+
+        verify(expenseRepository, never()).findByUserId(anyLong());
+    }
+
+    @Test
+    void testGetExpensesForPreviousMonthsByBudgetAlwaysIncludesNoBudget() {
+        Long userId = 1L;
+        when(rollupRepository.sumMonthlyTotalsByBudget(eq(userId), anyInt(), anyInt())).thenReturn(new ArrayList<>());
+
+        Map<String, MonthlySeries> result = expenseService.getExpensesForPreviousMonthsByBudget(userId, 3);
+
+        assertEquals(1, result.size());
+        assertEquals(4, result.get(ExpenseService.NO_BUDGET).length());
+    }
+
+    @Test
+    void testGetExpensesForPreviousMonthsByBudgetIgnoresCaseLikeSingleBudget() {
+        Long userId = 1L;
+        YearMonth now = YearMonth.now();
+        YearMonth lastMonth = now.minusMonths(1);
+
+        List<MonthlyExpenseTotal> monthlyTotals = Arrays.asList(
+                new MonthlyExpenseTotal(now.getYear(), now.getMonthValue(), "Groceries", new BigDecimal("40.00")),
+                new MonthlyExpenseTotal(lastMonth.getYear(), lastMonth.getMonthValue(), "groceries",
+                        new BigDecimal("60.00")),
+                new MonthlyExpenseTotal(now.getYear(), now.getMonthValue(), "groceries", new BigDecimal("5.00")));
+
+        when(rollupRepository.sumMonthlyTotalsByBudget(eq(userId), anyInt(), anyInt())).thenReturn(monthlyTotals);
+
+        Map<String, MonthlySeries> result = expenseService.getExpensesForPreviousMonthsByBudget(userId, 3);
+        MonthlySeries single = expenseService.getExpensesForPreviousMonths(userId, 3, "GROCERIES");
+
+        assertEquals(2, result.size());
+        MonthlySeries groceries = result.get("Groceries");
+        assertEquals(4500, groceries.getCents(3));
+        assertEquals(6000, groceries.getCents(2));
+        assertEquals(groceries.getCents(3), single.getCents(3));
+        assertEquals(groceries.getCents(2), single.getCents(2));
+    }
+
+    @Test
+    void testGetExpensesForPreviousMonthsKeepsYearsApart() {
+        Long userId = 1L;
+        YearMonth currentMonth = YearMonth.now();
+        YearMonth sameMonthLastYear = currentMonth.minusYears(1);
+
+        List<MonthlyExpenseTotal> monthlyTotals = Arrays.asList(
+                new MonthlyExpenseTotal(currentMonth.getYear(), currentMonth.getMonthValue(), "Rent",
+                        new BigDecimal("900.00")),
+                new MonthlyExpenseTotal(sameMonthLastYear.getYear(), sameMonthLastYear.getMonthValue(), "Rent",
+                        new BigDecimal("800.00")));
+
+        when(rollupRepository.sumMonthlyTotalsByBudget(eq(userId), anyInt(), anyInt())).thenReturn(monthlyTotals);
+
+        MonthlySeries rent = expenseService.getExpensesForPreviousMonths(userId, 24, "Rent");
+
+        assertEquals(25, rent.length());
+        assertEquals(90000, rent.getCents(rent.positionOf(currentMonth)));
+        assertEquals(80000, rent.getCents(rent.positionOf(sameMonthLastYear)));
+        verify(rollupRepository).sumMonthlyTotalsByBudget(userId,
+                MonthlySeries.toIndex(currentMonth.minusMonths(24)), MonthlySeries.toIndex(currentMonth));
+    }
+
+    @Test
+    void testGetTotalExpensesByBudget() {
+        Long userId = 1L;
+        List<BudgetExpenseTotal> budgetTotals = Arrays.asList(
+                new BudgetExpenseTotal(10L, new BigDecimal("120.50")),
+                new BudgetExpenseTotal(11L, new BigDecimal("30.00")));
+
+        when(rollupRepository.sumTotalsByBudget(userId)).thenReturn(budgetTotals);
+
+        Map<Long, BigDecimal> result = expenseService.getTotalExpensesByBudget(userId);
+
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("120.50"), result.get(10L));
+        assertEquals(new BigDecimal("30.00"), result.get(11L));
+        verify(rollupRepository, times(1)).sumTotalsByBudget(userId);
+        verify(expenseRepository, never()).findByBudgetId(anyLong());
+    }
+
+    @Test
+    void testGetFirstExpensesPageIsNewestFirst() {
+        Long userId = 1L;
+        expenseService.getExpensesPage(userId, null, 50, false);
+
+        verify(expenseRepository, times(1)).findByUserId(userId,
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "date", "id")));
+    }
+
+    @Test
+    void testGetNextExpensesPageUsesKeyset() {
+        Long userId = 1L;
+        Date date = Date.valueOf(LocalDate.of(2024, 1, 13));
+
+        expenseService.getExpensesPage(userId, new ExpenseCursor(date, 42L), 50, false);
+        expenseService.getExpensesPage(userId, new ExpenseCursor(date, 42L), 50, true);
+
+        verify(expenseRepository, times(1)).findByUserIdBefore(userId, date, 42L, PageRequest.of(0, 50));
+        verify(expenseRepository, times(1)).findByUserIdAfter(userId, date, 42L, PageRequest.of(0, 50));
+        verify(expenseRepository, never()).findByUserId(eq(userId), any(Pageable.class));
+    }
+
+    @Test
+    void testGetExpensesPageAddsIdToSortOrder() {
+        Long userId = 1L;
+        expenseService.getExpensesPage(userId, PageRequest.of(3, 50, Sort.by(Sort.Direction.DESC, "amount")));
+
+        verify(expenseRepository, times(1)).findByUserId(userId,
+                PageRequest.of(3, 50, Sort.by(Sort.Direction.DESC, "amount").and(Sort.by("id"))));
+    }
+
+    @Test
+    void testGetExpenseLinePageReturnsCursorOfNextPage() {
+        Long userId = 1L;
+        List<ExpenseLine> lines = Arrays.asList(
+                new ExpenseLine(3L, "Rent", new BigDecimal("900.00"), LocalDate.of(2024, 3, 1), null, null),
+                new ExpenseLine(2L, "Napkins", new BigDecimal("25.00"), LocalDate.of(2024, 2, 1), 10L, "Groceries"),
+                new ExpenseLine(1L, "Peaches", new BigDecimal("15.00"), LocalDate.of(2024, 1, 1), 10L, "Groceries"));
+
+        when(expenseRepository.findLinesByUserId(userId, PageRequest.of(0, 3))).thenReturn(lines);
+
+        ExpensePage page = expenseService.getExpenseLinePage(userId, null, 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals("2024-02-01_2", page.next());
+
+        ExpenseCursor cursor = ExpenseCursor.fromToken(page.next());
+        when(expenseRepository.findLinesByUserIdBefore(userId, cursor.date(), cursor.id(), PageRequest.of(0, 3)))
+                .thenReturn(lines.subList(2, 3));
+
+        ExpensePage lastPage = expenseService.getExpenseLinePage(userId, cursor, 2);
+
+        assertEquals(1, lastPage.items().size());
+        assertEquals(null, lastPage.next());
+    }
+
+    @Test
+    void testStreamExpenseLinesPassesEveryLine() {
+        Long userId = 1L;
+        ExpenseLine line = new ExpenseLine(1L, "Peaches", new BigDecimal("15.00"), LocalDate.of(2024, 1, 1), null,
+                null);
+        when(expenseRepository.streamLinesByUserId(userId)).thenReturn(Stream.of(line, line));
+
+        List<ExpenseLine> received = new ArrayList<>();
+        expenseService.streamExpenseLines(userId, received::add);
+
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    void testInvalidCursorTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.fromToken("yesterday"));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseCursor.fromToken("2024-13-01_1"));
+    }
+
+    @Test
+    void testExpenseLinesAreSortedByBudgetNameAndId() {
+        Long userId = 1L;
+        expenseService.getExpenseLines(userId, PageRequest.of(2, 50, Sort.by(Sort.Direction.DESC, "budgetName")));
+
+        verify(expenseRepository, times(1)).findLinePageByUserId(userId,
+                PageRequest.of(2, 50, Sort.by(Sort.Order.desc("b.name"), Sort.Order.asc("id"))));
+    }
+
+    @Test
+    void testExpenseLinesRejectUnknownSortProperty() {
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getExpenseLines(1L,
+                PageRequest.of(0, 50, Sort.by("user.password"))));
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    void testFirstAscendingExpenseLinesAreOldestFirst() {
+        Long userId = 1L;
+        expenseService.getExpenseLines(userId, null, 50, true);
+
+        verify(expenseRepository, times(1)).findLinePageByUserId(userId,
+                PageRequest.of(0, 50, Sort.by(Sort.Direction.ASC, "date", "id")));
+    }
+
+    @Test
+    void testTotalsAreScannedFromCachedSnapshot() {
+        Long userId = 1L;
+        LocalDate today = LocalDate.now();
+        ExpenseColumns expenses = new ExpenseColumns(4);
+        expenses.add(1L, (int) today.withDayOfMonth(1).toEpochDay(), 1_050, 10, 0);
+        expenses.add(2L, (int) today.withDayOfMonth(1).minusMonths(1).toEpochDay(), 2_000, 10, 0);
+        expenses.add(3L, (int) today.toEpochDay(), 325, 0, 0);
+        when(ledgerCache.get(userId)).thenReturn(new LedgerSnapshot(expenses, new IncomeColumns(0)));
+
+        assertEquals(new BigDecimal("33.75"), expenseService.getTotalExpenses(userId));
+        assertEquals(new BigDecimal("13.75"), expenseService.getTotalExpensesForCurrentMonth(userId));
+        Map<Long, BigDecimal> budgetTotals = expenseService.getTotalExpensesByBudget(userId);
+        assertEquals(1, budgetTotals.size());
+        assertEquals(new BigDecimal("30.50"), budgetTotals.get(10L));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void testPreviousMonthsByBudgetAreScannedFromCachedSnapshot() {
+        Long userId = 1L;
+        YearMonth currentMonth = YearMonth.now();
+        ExpenseColumns expenses = new ExpenseColumns(4);
+        expenses.add(1L, (int) currentMonth.atDay(3).toEpochDay(), 1_000, 10, 0);
+        expenses.add(2L, (int) currentMonth.minusMonths(1).atDay(3).toEpochDay(), 500, 10, 0);
+        expenses.add(3L, (int) currentMonth.minusMonths(1).atDay(4).toEpochDay(), 250, 0, 0);
+        expenses.add(4L, (int) currentMonth.minusMonths(5).atDay(1).toEpochDay(), 9_999, 10, 0);
+        when(ledgerCache.get(userId)).thenReturn(new LedgerSnapshot(expenses, new IncomeColumns(0)));
+        Budget groceries = new Budget();
+        groceries.setId(10L);
+        groceries.setName("Groceries");
+        when(budgetRepository.findByUserId(userId)).thenReturn(List.of(groceries));
+
+        Map<String, MonthlySeries> result = expenseService.getExpensesForPreviousMonthsByBudget(userId, 2);
+
+        MonthlySeries groceriesSeries = result.get("Groceries");
+        assertEquals(3, groceriesSeries.length());
+        assertEquals(0, groceriesSeries.getCents(0));
+        assertEquals(500, groceriesSeries.getCents(1));
+        assertEquals(1_000, groceriesSeries.getCents(2));
+        assertEquals(250, result.get(ExpenseService.NO_BUDGET).getCents(1));
+        verifyNoInteractions(rollupRepository);
     }
 }
@@ -5,18 +5,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.vaadin.application.model.Expense;
+import org.springframework.data.domain.PageRequest;
 import org.vaadin.application.model.ExpenseCategory;
 import org.vaadin.application.model.User;
 import org.vaadin.application.repository.ExpenseCategoryRepository;
 import org.vaadin.application.service.ExpenseCategoryService;
+import org.vaadin.application.service.LedgerWriteService;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -26,6 +27,9 @@ public class ExpenseCategoryServiceTests {
     @Mock
     private ExpenseCategoryRepository expenseCategoryRepository;
 
+    @Mock
+    private LedgerWriteService ledgerWriteService;
+
     @InjectMocks
     private ExpenseCategoryService expenseCategoryService;
 
@@ -60,6 +64,20 @@ public class ExpenseCategoryServiceTests {
         assertEquals(expenseCategory2, result.get(1));
     }
 
+    @Test
+    void testGetExpenseCategoriesPage() {
+        ExpenseCategory expenseCategory = new ExpenseCategory();
+        expenseCategory.setId(7L);
+        expenseCategory.setName("Travel");
+        PageRequest page = PageRequest.of(1, 50);
+
+        when(expenseCategoryRepository.findPageByUserId(1L, page)).thenReturn(List.of(expenseCategory));
+        when(expenseCategoryRepository.countByUserId(1L)).thenReturn(51L);
+
+        assertEquals(List.of(expenseCategory), expenseCategoryService.getExpenseCategoriesByUserId(1L, page));
+        assertEquals(51L, expenseCategoryService.countExpenseCategoriesByUserId(1L));
+    }
+
     @Test
     void testAddExpenseCategory() {
         User user = new User();
@@ -109,9 +127,9 @@ public class ExpenseCategoryServiceTests {
     @Test
     void testDeleteExpenseCategory() {
         Long id = 1L;
-        doNothing().when(expenseCategoryRepository).deleteById(id);
         expenseCategoryService.deleteExpenseCategory(id);
-        verify(expenseCategoryRepository, times(1)).deleteById(id);
+        verify(ledgerWriteService, times(1)).removeExpenseCategory(id);
+        verifyNoInteractions(expenseCategoryRepository);
     }
 
     @Test
@@ -5,6 +5,9 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.GoalChanged;
 import org.vaadin.application.model.FinancialGoal;
 import org.vaadin.application.model.User;
 import org.vaadin.application.repository.FinancialGoalRepository;
@@ -27,6 +30,9 @@ public class FinancialGoalServiceTests {
     @Mock
     private FinancialGoalRepository financialGoalRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private FinancialGoalService financialGoalService;
 
@@ -81,6 +87,7 @@ public class FinancialGoalServiceTests {
 
         assertEquals(financialGoal, result);
         verify(financialGoalRepository, times(1)).save(financialGoal);
+        verify(eventPublisher, times(1)).publishEvent(new GoalChanged(1L, Change.ADDED, 1L));
     }
 
     @Test
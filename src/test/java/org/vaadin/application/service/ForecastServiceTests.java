@@ -0,0 +1,325 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.vaadin.application.CacheConfiguration;
+import org.vaadin.application.dto.IncomeLine;
+import org.vaadin.application.dto.MonthlyExpenseTotal;
+import org.vaadin.application.dto.NetCashflowForecast;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.Income;
+import org.vaadin.application.model.User;
+import org.vaadin.application.repository.BudgetRepository;
+import org.vaadin.application.repository.ExpenseCategoryRepository;
+import org.vaadin.application.repository.ExpenseRepository;
+import org.vaadin.application.repository.IncomeRepository;
+import org.vaadin.application.repository.MonthlyExpenseRollupRepository;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.ForecastService;
+import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+import org.vaadin.application.util.MonthlySeries;
+
+@SpringJUnitConfig
+public class ForecastServiceTests {
+
+    @Configuration
+    @Import(CacheConfiguration.class)
+    static class Config {
+
+        @Bean
+        ExpenseService expenseService() {
+            return new ExpenseService();
+        }
+
+        @Bean
+        IncomeService incomeService() {
+            return new IncomeService();
+        }
+
+        @Bean
+        ForecastService forecastService() {
+            return new ForecastService();
+        }
+
+        @Bean
+        ForecastCache forecastCache() {
+            return new ForecastCache();
+        }
+
+        @Bean
+        LedgerWriteService ledgerWriteService() {
+            return new LedgerWriteService();
+        }
+    }
+
+    @MockBean
+    private ExpenseRepository expenseRepository;
+
+    @MockBean
+    private MonthlyExpenseRollupRepository rollupRepository;
+
+    @MockBean
+    private IncomeRepository incomeRepository;
+
+    @MockBean
+    private BudgetRepository budgetRepository;
+
+    @MockBean
+    private ExpenseCategoryRepository expenseCategoryRepository;
+
+    @MockBean
+    private ExpenseRollupService expenseRollupService;
+
+    @MockBean
+    private LedgerCache ledgerCache;
+
+    @MockBean
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ForecastService forecastService;
+
+    @Autowired
+    private LedgerWriteService ledgerWriteService;
+
+    @Autowired
+    private IncomeService incomeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(ForecastService.FORECAST_CACHE).clear();
+        reset(expenseRepository, rollupRepository, incomeRepository);
+    }
+
+    @Test
+    void testForecastIsFlatForConstantExpenses() {
+        Long userId = 1L;
+        LocalDate now = LocalDate.now();
+        List<MonthlyExpenseTotal> monthlyTotals = Arrays.asList(
+                new MonthlyExpenseTotal(now.getYear(), now.getMonthValue(), "Groceries", new BigDecimal("100.00")),
+                new MonthlyExpenseTotal(now.minusMonths(1).getYear(), now.minusMonths(1).getMonthValue(), "Groceries",
+                        new BigDecimal("100.00")),
+                new MonthlyExpenseTotal(now.minusMonths(2).getYear(), now.minusMonths(2).getMonthValue(), "Groceries",
+                        new BigDecimal("100.00")),
+                new MonthlyExpenseTotal(now.minusMonths(3).getYear(), now.minusMonths(3).getMonthValue(), "Groceries",
+                        new BigDecimal("100.00")));
+
+        IncomeLine salary = new IncomeLine(1L, "Salary", new BigDecimal("500.00"), now, "Monthly");
+
+        when(rollupRepository.sumMonthlyTotalsByBudget(eq(userId), anyInt(), anyInt())).thenReturn(monthlyTotals);
+        when(incomeRepository.findLinesByUserId(userId)).thenReturn(Arrays.asList(salary));
+
+        NetCashflowForecast forecast = forecastService.getForecast(userId, 3, ForecastService.FORECAST_MONTHS);
+
+        YearMonth nextMonth = YearMonth.now().plusMonths(1);
+        assertEquals(ForecastService.FORECAST_MONTHS, forecast.monthLabels().size());
+        assertEquals(nextMonth.getMonth() + " " + nextMonth.getYear(), forecast.monthLabels().get(0));
+        assertEquals(Arrays.asList("Groceries", ExpenseService.NO_BUDGET),
+                List.copyOf(forecast.predictedExpensesByBudget().keySet()));
+
+        for (int i = 0; i < ForecastService.FORECAST_MONTHS; i++) {
+            assertEquals(10000, forecast.predictedExpensesByBudget().get("Groceries").getCents(i));
+            assertEquals(40000, forecast.predictedNetCashflow().getCents(i));
+        }
+    }
+
+    @Test
+    void testForecastSupportsMultiYearHorizon() {
+        Long userId = 1L;
+        YearMonth currentMonth = YearMonth.now();
+        List<MonthlyExpenseTotal> monthlyTotals = Arrays.asList(
+                new MonthlyExpenseTotal(currentMonth.minusMonths(1).getYear(), currentMonth.minusMonths(1).getMonthValue(),
+                        "Rent", new BigDecimal("100.00")),
+                new MonthlyExpenseTotal(currentMonth.getYear(), currentMonth.getMonthValue(), "Rent",
+                        new BigDecimal("110.00")));
+
+        when(rollupRepository.sumMonthlyTotalsByBudget(eq(userId), anyInt(), anyInt())).thenReturn(monthlyTotals);
+
+        NetCashflowForecast forecast = forecastService.getForecast(userId, 1, 60);
+
+        MonthlySeries rent = forecast.predictedExpensesByBudget().get("Rent");
+        assertEquals(60, forecast.months());
+        assertEquals(currentMonth.plusMonths(60), rent.getLastMonth());
+        // average 105.00 plus a trend of 10.00 per month
+        assertEquals(11500, rent.getCents(0));
+        assertEquals(11500 + 59 * 1000, rent.getCents(59));
+        assertNotEquals(forecast.monthLabels().get(0), forecast.monthLabels().get(12));
+    }
+
+    @Test
+    void testForecastIsZeroWithoutIncome() {
+        Long userId = 1L;
+
+        NetCashflowForecast forecast = forecastService.getForecast(userId, 3, ForecastService.FORECAST_MONTHS);
+
+        assertEquals(ForecastService.FORECAST_MONTHS, forecast.predictedNetCashflow().length());
+        assertEquals(0, forecast.predictedNetCashflow().sum());
+    }
+
+    @Test
+    void testForecastFollowsWeeklyPayDays() {
+        Long userId = 1L;
+        LocalDate firstPayDay = LocalDate.of(2024, 1, 5);
+        IncomeLine tutoring = new IncomeLine(1L, "Tutoring", new BigDecimal("100.00"), firstPayDay, "Weekly");
+        when(incomeRepository.findLinesByUserId(userId)).thenReturn(Arrays.asList(tutoring));
+
+        NetCashflowForecast forecast = forecastService.getForecast(userId, 3, ForecastService.FORECAST_MONTHS);
+
+        YearMonth month = YearMonth.now().plusMonths(1);
+        for (int i = 0; i < ForecastService.FORECAST_MONTHS; i++, month = month.plusMonths(1)) {
+            long payDays = 0;
+            for (LocalDate day = month.atDay(1); !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+                if (day.getDayOfWeek() == firstPayDay.getDayOfWeek()) {
+                    payDays++;
+                }
+            }
+            assertEquals(payDays * 10000, forecast.predictedNetCashflow().getCents(i), month::toString);
+        }
+    }
+
+    @Test
+    void testForecastIsCachedPerUserAndMonths() {
+        NetCashflowForecast first = forecastService.getForecast(1L, 3, 12);
+        NetCashflowForecast second = forecastService.getForecast(1L, 3, 12);
+        forecastService.getForecast(1L, 6, 12);
+        forecastService.getForecast(1L, 3, 24);
+        forecastService.getForecast(2L, 3, 12);
+
+        assertSame(first, second);
+        verify(rollupRepository, times(3)).sumMonthlyTotalsByBudget(eq(1L), anyInt(), anyInt());
+        verify(rollupRepository, times(1)).sumMonthlyTotalsByBudget(eq(2L), anyInt(), anyInt());
+        verify(incomeRepository, times(4)).findLinesByUserId(any());
+    }
+
+    @Test
+    void testExpenseWritesEvictOnlyTheForecastsOfTheirUser() {
+        Expense expense = createExpense(1L, 1L);
+        when(expenseRepository.save(expense)).thenReturn(expense);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+
+        NetCashflowForecast otherUser = forecastService.getForecast(2L, 3, 12);
+        forecastService.getForecast(1L, 3, 12);
+        ledgerWriteService.recordExpense(expense);
+        forecastService.getForecast(1L, 3, 12);
+        ledgerWriteService.amendExpense(createExpense(1L, 1L));
+        forecastService.getForecast(1L, 3, 12);
+        ledgerWriteService.removeExpense(1L);
+        forecastService.getForecast(1L, 3, 12);
+
+        assertSame(otherUser, forecastService.getForecast(2L, 3, 12));
+        verify(rollupRepository, times(4)).sumMonthlyTotalsByBudget(eq(1L), anyInt(), anyInt());
+        verify(rollupRepository, times(1)).sumMonthlyTotalsByBudget(eq(2L), anyInt(), anyInt());
+    }
+
+    @Test
+    void testIncomeWritesEvictOnlyTheForecastsOfTheirUser() {
+        Income income = createIncome(1L, 1L);
+        when(incomeRepository.save(income)).thenReturn(income);
+        when(incomeRepository.findById(1L)).thenReturn(Optional.of(income));
+
+        NetCashflowForecast otherUser = forecastService.getForecast(2L, 3, 12);
+        forecastService.getForecast(1L, 3, 12);
+        incomeService.addIncome(income);
+        forecastService.getForecast(1L, 3, 12);
+        incomeService.updateIncome(createIncome(1L, 1L));
+        forecastService.getForecast(1L, 3, 12);
+        incomeService.deleteIncome(1L);
+        forecastService.getForecast(1L, 3, 12);
+
+        assertSame(otherUser, forecastService.getForecast(2L, 3, 12));
+        verify(incomeRepository, times(4)).findLinesByUserId(1L);
+        verify(incomeRepository, times(1)).findLinesByUserId(2L);
+    }
+
+    @Test
+    void testEvictionInTransactionTakesEffectAfterCommit() {
+        Expense expense = createExpense(1L, 1L);
+        when(expenseRepository.save(expense)).thenReturn(expense);
+        NetCashflowForecast before = forecastService.getForecast(1L, 3, 12);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledgerWriteService.recordExpense(expense);
+            assertSame(before, forecastService.getForecast(1L, 3, 12));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotSame(before, forecastService.getForecast(1L, 3, 12));
+    }
+
+    @Test
+    void testForecastCacheIsBounded() {
+        Object nativeCache = cacheManager.getCache(ForecastService.FORECAST_CACHE).getNativeCache();
+        Policy<?, ?> policy = ((com.github.benmanes.caffeine.cache.Cache<?, ?>) nativeCache).policy();
+
+        assertEquals(10000, policy.eviction().orElseThrow().getMaximum());
+        assertTrue(policy.expireAfterAccess().isPresent());
+    }
+
+    private Expense createExpense(Long id, Long userId) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setDescription("Napkins");
+        expense.setAmount(new BigDecimal("25.00"));
+        expense.setDate(Date.valueOf(LocalDate.now()));
+        expense.setUser(createUser(userId));
+        return expense;
+    }
+
+    private Income createIncome(Long id, Long userId) {
+        Income income = new Income();
+        income.setId(id);
+        income.setSource("Salary");
+        income.setAmount(new BigDecimal("500.00"));
+        income.setDate(Date.valueOf(LocalDate.now()));
+        income.setPaymentFrequency("Monthly");
+        income.setUser(createUser(userId));
+        return income;
+    }
+
+    private User createUser(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
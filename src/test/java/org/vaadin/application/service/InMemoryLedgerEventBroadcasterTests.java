@@ -0,0 +1,65 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.vaadin.application.dto.LedgerEvent;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.ExpenseChanged;
+import org.vaadin.application.dto.LedgerEvent.GoalChanged;
+import org.vaadin.application.service.InMemoryLedgerEventBroadcaster;
+import org.vaadin.application.service.LedgerEventBroadcaster;
+
+public class InMemoryLedgerEventBroadcasterTests {
+
+    private final InMemoryLedgerEventBroadcaster broadcaster = new InMemoryLedgerEventBroadcaster();
+
+    @Test
+    void testEventsReachOnlyListenersOfTheirUser() {
+        List<LedgerEvent> firstTab = new ArrayList<>();
+        List<LedgerEvent> secondTab = new ArrayList<>();
+        List<LedgerEvent> otherUser = new ArrayList<>();
+        broadcaster.subscribe(1L, firstTab::add);
+        broadcaster.subscribe(1L, secondTab::add);
+        broadcaster.subscribe(2L, otherUser::add);
+
+        LedgerEvent event = new ExpenseChanged(1L, Change.ADDED, 10L, 2500);
+        broadcaster.publish(event);
+
+        assertEquals(List.of(event), firstTab);
+        assertEquals(List.of(event), secondTab);
+        assertTrue(otherUser.isEmpty());
+    }
+
+    @Test
+    void testCancelledSubscriptionReceivesNoEvents() {
+        List<LedgerEvent> cancelled = new ArrayList<>();
+        List<LedgerEvent> open = new ArrayList<>();
+        LedgerEventBroadcaster.Subscription subscription = broadcaster.subscribe(1L, cancelled::add);
+        broadcaster.subscribe(1L, open::add);
+
+        subscription.cancel();
+        subscription.cancel();
+        broadcaster.publish(new GoalChanged(1L, Change.REMOVED, 3L));
+
+        assertTrue(cancelled.isEmpty());
+        assertEquals(1, open.size());
+    }
+
+    @Test
+    void testFailingListenerDoesNotStopOthers() {
+        List<String> threads = new ArrayList<>();
+        broadcaster.subscribe(1L, event -> {
+            throw new IllegalStateException("UI closed");
+        });
+        broadcaster.subscribe(1L, event -> threads.add(Thread.currentThread().getName()));
+
+        broadcaster.publish(new ExpenseChanged(1L, Change.REMOVED, 10L, -2500));
+
+        // Delivered on the publishing thread before publish returns
+        assertEquals(List.of(Thread.currentThread().getName()), threads);
+    }
+}
@@ -2,6 +2,7 @@ package org.vaadin.example.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -11,15 +12,28 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.vaadin.application.dto.IncomeLine;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.IncomeChanged;
 import org.vaadin.application.model.Expense;
 import org.vaadin.application.model.Income;
 import org.vaadin.application.model.User;
 import org.vaadin.application.repository.IncomeRepository;
+import org.vaadin.application.service.ForecastCache;
 import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.util.ExpenseColumns;
+import org.vaadin.application.util.IncomeColumns;
+import org.vaadin.application.util.LedgerSnapshot;
+import org.vaadin.application.util.MonthlySeries;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.math.BigDecimal;
 
 public class IncomeServiceTests {
@@ -27,6 +41,15 @@ public class IncomeServiceTests {
     @Mock
     private IncomeRepository incomeRepository;
 
+    @Mock
+    private LedgerCache ledgerCache;
+
+    @Mock
+    private ForecastCache forecastCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private IncomeService incomeService;
 
@@ -58,6 +81,7 @@ public class IncomeServiceTests {
     void testAddIncome() {
         Income income = new Income();
         income.setId(1L);
+        income.setUser(createUser());
 
         when(incomeRepository.save(income)).thenReturn(income);
 
@@ -65,6 +89,8 @@ public class IncomeServiceTests {
 
         assertEquals(income, result);
         verify(incomeRepository, times(1)).save(income);
+        verify(eventPublisher, times(1)).publishEvent(new IncomeChanged(1L, Change.ADDED, null,
+                new IncomeLine(1L, null, null, (LocalDate) null, null)));
     }
 
     @Test
@@ -95,27 +121,155 @@ public class IncomeServiceTests {
     @Test
     void testDeleteIncome() {
         Long id = 1L;
+        Income income = new Income();
+        income.setId(id);
+        income.setUser(createUser());
 
-        doNothing().when(incomeRepository).deleteById(id);
+        when(incomeRepository.findById(id)).thenReturn(java.util.Optional.of(income));
+        doNothing().when(incomeRepository).delete(income);
 
         incomeService.deleteIncome(id);
 
-        verify(incomeRepository, times(1)).deleteById(id);
+        verify(incomeRepository, times(1)).delete(income);
+        verify(ledgerCache, times(1)).incomeRemoved(income);
     }
 
     @Test
     void getTotalIncomeForCurrentMonth() {
         Long userId = 1L;
-        BigDecimal totalIncome = new BigDecimal("100.00");
+        YearMonth currentMonth = YearMonth.now();
+        List<IncomeLine> lines = Arrays.asList(
+                new IncomeLine(1L, "Salary", new BigDecimal("3000.00"), currentMonth.minusMonths(3).atDay(1),
+                        "Monthly"),
+                new IncomeLine(2L, "Tutoring", new BigDecimal("100.00"), currentMonth.atDay(1), "Weekly"),
+                new IncomeLine(3L, "Bonus", new BigDecimal("500.00"), currentMonth.minusMonths(1).atDay(1),
+                        "One-off"));
+        when(incomeRepository.findLinesByUserId(userId)).thenReturn(lines);
+
+        BigDecimal result = incomeService.getTotalIncomeForCurrentMonth(userId);
 
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        LocalDate endOfMonth = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
+        // Weekly from the first of the month: 5 pay days in months of 29 to 31 days
+        int weeks = (currentMonth.lengthOfMonth() + 6) / 7;
+        assertEquals(new BigDecimal("3000.00").add(new BigDecimal("100.00").multiply(BigDecimal.valueOf(weeks))),
+                result);
+    }
 
-        when(incomeRepository.findTotalIncomeForPeriod(userId, startOfMonth, endOfMonth)).thenReturn(totalIncome);
+    @Test
+    void testScheduledIncomeFollowsPayDays() {
+        Long userId = 1L;
+        List<IncomeLine> lines = Arrays.asList(
+                new IncomeLine(1L, "Salary", new BigDecimal("3000.00"), LocalDate.of(2024, 1, 31), "Monthly"),
+                new IncomeLine(2L, "Tutoring", new BigDecimal("100.00"), LocalDate.of(2024, 1, 5), "Weekly"),
+                new IncomeLine(3L, "Freelance", new BigDecimal("400.00"), LocalDate.of(2024, 2, 2), "Biweekly"));
+        when(incomeRepository.findLinesByUserId(userId)).thenReturn(lines);
+
+        MonthlySeries income = incomeService.getScheduledIncome(userId, YearMonth.of(2023, 12), 4);
+
+        assertEquals(0, income.getCents(0));
+        // January: salary on the 31st, tutoring on 4 Fridays
+        assertEquals(300_000 + 4 * 10_000, income.getCents(1));
+        // February 2024: salary on the 29th, 4 Fridays, freelance on the 2nd and 16th
+        assertEquals(300_000 + 4 * 10_000 + 2 * 40_000, income.getCents(2));
+        // March: salary on the 31st, 5 Fridays, freelance on the 1st, 15th and 29th
+        assertEquals(300_000 + 5 * 10_000 + 3 * 40_000, income.getCents(3));
+    }
 
-        BigDecimal result = incomeService.getTotalIncomeForCurrentMonth(userId);
+    @Test
+    void testGetIncomeLines() {
+        Long userId = 1L;
+        List<IncomeLine> lines = Arrays.asList(
+                new IncomeLine(2L, "Salary", new BigDecimal("1000.00"), LocalDate.of(2024, 2, 1), "Monthly"),
+                new IncomeLine(1L, "Salary", new BigDecimal("1000.00"), LocalDate.of(2024, 1, 1), "Monthly"));
+        when(incomeRepository.findLinesByUserId(userId)).thenReturn(lines);
 
-        assertEquals(totalIncome, result);
-        verify(incomeRepository, times(1)).findTotalIncomeForPeriod(userId, startOfMonth, endOfMonth);
+        List<IncomeLine> result = incomeService.getIncomeLines(userId);
+
+        assertEquals(lines, result);
+        verify(incomeRepository, times(1)).findLinesByUserId(userId);
+        verify(incomeRepository, never()).findByUserId(userId);
+    }
+
+    @Test
+    void testGetIncomeLinesPage() {
+        Long userId = 1L;
+        PageRequest page = PageRequest.of(2, 50);
+        List<IncomeLine> lines = List.of(
+                new IncomeLine(1L, "Salary", new BigDecimal("1000.00"), LocalDate.of(2024, 1, 1), "Monthly"));
+        when(incomeRepository.findLinesByUserId(userId, page)).thenReturn(lines);
+        when(incomeRepository.countByUserId(userId)).thenReturn(101L);
+
+        assertEquals(lines, incomeService.getIncomeLines(userId, page));
+        assertEquals(101L, incomeService.countIncomesByUserId(userId));
+        verify(incomeRepository, never()).findLinesByUserId(userId);
+    }
+
+    @Test
+    void testTotalsAreScannedFromCachedSnapshot() {
+        Long userId = 1L;
+        YearMonth currentMonth = YearMonth.now();
+        IncomeColumns incomes = new IncomeColumns(4);
+        incomes.add(1L, (int) currentMonth.atEndOfMonth().toEpochDay(), 300_000, "Monthly", "Salary");
+        incomes.add(2L, (int) currentMonth.minusMonths(1).atDay(1).toEpochDay(), 300_000, "Monthly", "Salary");
+        incomes.add(3L, (int) currentMonth.atEndOfMonth().toEpochDay(), 10_000, "Weekly", "Tutoring");
+        when(ledgerCache.get(userId)).thenReturn(new LedgerSnapshot(new ExpenseColumns(0), incomes));
+
+        assertEquals(new BigDecimal("6100.00"), incomeService.getTotalIncome(userId));
+        // Every income has exactly one pay day in the current month
+        assertEquals(new BigDecimal("6100.00"), incomeService.getTotalIncomeForCurrentMonth(userId));
+        assertEquals(610_000, incomeService.getScheduledIncome(userId, currentMonth, 1).getCents(0));
+        Map<String, BigDecimal> sources = incomeService.getTotalIncomeBySource(userId);
+        assertEquals(new BigDecimal("6000.00"), sources.get("Salary"));
+        assertEquals(new BigDecimal("100.00"), sources.get("Tutoring"));
+        verify(incomeRepository, never()).findByUserId(userId);
+    }
+
+    @Test
+    void testTotalsAreSummedFromLinesWithoutCachedSnapshot() {
+        Long userId = 1L;
+        List<IncomeLine> lines = Arrays.asList(
+                new IncomeLine(1L, "Salary", new BigDecimal("3000.00"), LocalDate.of(2024, 2, 1), "Monthly"),
+                new IncomeLine(2L, "Tutoring", new BigDecimal("100.005"), LocalDate.of(2024, 2, 1), "Weekly"),
+                new IncomeLine(3L, "Tutoring", new BigDecimal("50.00"), LocalDate.of(2024, 2, 1), "Biweekly"),
+                new IncomeLine(4L, "Gift", new BigDecimal("20.00"), LocalDate.of(2024, 2, 1), "Yearly"));
+        when(incomeRepository.findLinesByUserId(userId)).thenReturn(lines);
+
+        assertEquals(new BigDecimal("3170.01"), incomeService.getTotalIncome(userId));
+        Map<String, BigDecimal> sources = incomeService.getTotalIncomeBySource(userId);
+        assertEquals(new BigDecimal("3000.00"), sources.get("Salary"));
+        assertEquals(new BigDecimal("150.01"), sources.get("Tutoring"));
+        assertEquals(new BigDecimal("20.00"), sources.get("Gift"));
+        verify(incomeRepository, never()).findByUserId(userId);
+    }
+
+    @Test
+    void testUpdateIncomePublishesIncomeBeforeAndAfter() {
+        Income stored = new Income();
+        stored.setId(1L);
+        stored.setSource("Salary");
+        stored.setAmount(new BigDecimal("3000.00"));
+        stored.setDate(java.sql.Date.valueOf(LocalDate.of(2024, 1, 1)));
+        stored.setPaymentFrequency("Monthly");
+        stored.setUser(createUser());
+        Income changes = new Income();
+        changes.setId(1L);
+        changes.setSource("Salary");
+        changes.setAmount(new BigDecimal("3200.00"));
+        changes.setDate(java.sql.Date.valueOf(LocalDate.of(2024, 2, 1)));
+        changes.setPaymentFrequency("Monthly");
+
+        when(incomeRepository.findById(1L)).thenReturn(java.util.Optional.of(stored));
+        when(incomeRepository.save(stored)).thenReturn(stored);
+
+        incomeService.updateIncome(changes);
+
+        verify(eventPublisher, times(1)).publishEvent(new IncomeChanged(1L, Change.UPDATED,
+                new IncomeLine(1L, "Salary", new BigDecimal("3000.00"), LocalDate.of(2024, 1, 1), "Monthly"),
+                new IncomeLine(1L, "Salary", new BigDecimal("3200.00"), LocalDate.of(2024, 2, 1), "Monthly")));
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setId(1L);
+        return user;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,308 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.vaadin.application.dto.BudgetExpenseTotal;
+import org.vaadin.application.dto.ExpenseImport;
+import org.vaadin.application.dto.LedgerEvent.BudgetChanged;
+import org.vaadin.application.dto.LedgerEvent.Change;
+import org.vaadin.application.dto.LedgerEvent.ExpenseChanged;
+import org.vaadin.application.model.Budget;
+import org.vaadin.application.model.Expense;
+import org.vaadin.application.model.ExpenseCategory;
+import org.vaadin.application.model.MonthlyExpenseRollupId;
+import org.vaadin.application.model.User;
+import org.vaadin.application.repository.BudgetRepository;
+import org.vaadin.application.repository.ExpenseCategoryRepository;
+import org.vaadin.application.repository.ExpenseRepository;
+import org.vaadin.application.service.ExpenseRollupService;
+import org.vaadin.application.service.ForecastCache;
+import org.vaadin.application.service.LedgerCache;
+import org.vaadin.application.service.LedgerWriteService;
+
+public class LedgerWriteServiceTests {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private ExpenseCategoryRepository expenseCategoryRepository;
+
+    @Mock
+    private ExpenseRollupService expenseRollupService;
+
+    @Mock
+    private LedgerCache ledgerCache;
+
+    @Mock
+    private ForecastCache forecastCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LedgerWriteService ledgerWriteService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testRecordExpenseAddsAmountToBudget() {
+        Expense expense = createExpense(null, "Napkins", "25.00", createBudget(10L));
+        when(expenseRepository.save(expense)).thenReturn(expense);
+
+        Expense result = ledgerWriteService.recordExpense(expense);
+
+        assertSame(expense, result);
+        verify(expenseRepository, times(1)).save(expense);
+        verify(budgetRepository, times(1)).adjustCurrentAmount(10L, new BigDecimal("25.00"));
+        verify(expenseRollupService, times(1)).add(expense);
+        verify(ledgerCache, times(1)).expenseRecorded(expense);
+        verify(forecastCache, times(1)).evict(1L);
+        verify(eventPublisher, times(1)).publishEvent(new ExpenseChanged(1L, Change.ADDED, null, 2500));
+    }
+
+    @Test
+    void testRecordExpenseWithoutBudget() {
+        Expense expense = createExpense(null, "Napkins", "25.00", null);
+        when(expenseRepository.save(expense)).thenReturn(expense);
+
+        ledgerWriteService.recordExpense(expense);
+
+        verifyNoInteractions(budgetRepository);
+    }
+
+    @Test
+    void testAmendExpenseAppliesDifferenceToSameBudget() {
+        Expense stored = createExpense(1L, "Napkins", "25.00", createBudget(10L));
+        Expense changes = createExpense(1L, "Paper napkins", "40.00", createBudget(10L));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        Expense result = ledgerWriteService.amendExpense(changes);
+
+        assertEquals("Paper napkins", result.getDescription());
+        assertEquals(new BigDecimal("40.00"), result.getAmount());
+        verify(budgetRepository, times(1)).adjustCurrentAmount(10L, new BigDecimal("15.00"));
+        verify(expenseRollupService, times(1)).apply(ExpenseRollupService.keyOf(stored), new BigDecimal("15.00"), 0);
+        verify(eventPublisher, times(1)).publishEvent(new ExpenseChanged(1L, Change.UPDATED, 1L, 1500));
+    }
+
+    @Test
+    void testAmendExpenseMovesAmountBetweenBudgets() {
+        Expense stored = createExpense(1L, "Napkins", "25.00", createBudget(10L));
+        Expense changes = createExpense(1L, "Napkins", "30.00", createBudget(11L));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(stored));
+        MonthlyExpenseRollupId oldBucket = ExpenseRollupService.keyOf(stored);
+
+        ledgerWriteService.amendExpense(changes);
+
+        verify(expenseRollupService, times(1)).apply(oldBucket, new BigDecimal("-25.00"), -1);
+        verify(expenseRollupService, times(1)).apply(ExpenseRollupService.keyOf(stored), new BigDecimal("30.00"), 1);
+        verify(budgetRepository, times(1)).adjustCurrentAmount(10L, new BigDecimal("-25.00"));
+        verify(budgetRepository, times(1)).adjustCurrentAmount(11L, new BigDecimal("30.00"));
+        assertEquals(11L, stored.getBudget().getId());
+    }
+
+    @Test
+    void testAmendExpenseWithoutChangeInAmountSkipsBudgetUpdate() {
+        Expense stored = createExpense(1L, "Napkins", "25.00", createBudget(10L));
+        Expense changes = createExpense(1L, "Tissues", "25.00", createBudget(10L));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        ledgerWriteService.amendExpense(changes);
+
+        verifyNoInteractions(budgetRepository);
+    }
+
+    @Test
+    void testAmendMissingExpenseThrows() {
+        when(expenseRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ledgerWriteService.amendExpense(createExpense(1L, "Napkins", "25.00", null)));
+        verifyNoInteractions(budgetRepository);
+    }
+
+    @Test
+    void testRemoveExpenseSubtractsAmountFromBudget() {
+        Expense stored = createExpense(1L, "Napkins", "25.00", createBudget(10L));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        ledgerWriteService.removeExpense(1L);
+
+        verify(expenseRepository, times(1)).delete(stored);
+        verify(budgetRepository, times(1)).adjustCurrentAmount(10L, new BigDecimal("-25.00"));
+        verify(budgetRepository, never()).save(any());
+        verify(expenseRollupService, times(1)).subtract(stored);
+        verify(ledgerCache, times(1)).expenseRemoved(stored);
+        verify(forecastCache, times(1)).evict(1L);
+        verify(eventPublisher, times(1)).publishEvent(new ExpenseChanged(1L, Change.REMOVED, 1L, -2500));
+    }
+
+    @Test
+    void testRecordExpensesInsertsInBatches() {
+        ReflectionTestUtils.setField(ledgerWriteService, "batchSize", 500);
+        List<ExpenseImport> expenses = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            expenses.add(new ExpenseImport(1L, "Expense " + i, new BigDecimal("1.50"), LocalDate.of(2024, 1, 13),
+                    i % 2 == 0 ? 10L : null, null));
+        }
+
+        int recorded = ledgerWriteService.recordExpenses(expenses.iterator());
+
+        assertEquals(1200, recorded);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), eq(500), any());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), eq(200), any());
+        verify(budgetRepository, times(1)).adjustCurrentAmount(10L, new BigDecimal("900.00"));
+        verify(expenseRollupService, times(1)).apply(any(ExpenseRollupService.Changes.class));
+        verify(expenseRepository, never()).save(any());
+        verify(ledgerCache, times(1)).evict(1L);
+        verify(forecastCache, times(1)).evict(1L);
+        verify(eventPublisher, times(1)).publishEvent(new ExpenseChanged(1L, Change.ADDED, null, 180000));
+    }
+
+    @Test
+    void testRecordExpensesRejectsInvalidExpense() {
+        List<ExpenseImport> expenses = Arrays.asList(
+                new ExpenseImport(1L, "Napkins", new BigDecimal("25.00"), LocalDate.of(2024, 1, 13), null, null),
+                new ExpenseImport(1L, "Refund", new BigDecimal("-5.00"), LocalDate.of(2024, 1, 13), null, null));
+
+        assertThrows(IllegalArgumentException.class, () -> ledgerWriteService.recordExpenses(expenses.iterator()));
+        verifyNoInteractions(budgetRepository, expenseRollupService, ledgerCache, eventPublisher);
+    }
+
+    @Test
+    void testRemoveExpenseCategorySubtractsItsExpensesFromBudgetsAndRollup() {
+        ExpenseCategory category = new ExpenseCategory();
+        category.setId(5L);
+        category.setUser(createUser());
+        when(expenseCategoryRepository.findById(5L)).thenReturn(Optional.of(category));
+        when(expenseRepository.sumTotalsByBudgetForCategory(5L)).thenReturn(List.of(
+                new BudgetExpenseTotal(10L, new BigDecimal("40.50")),
+                new BudgetExpenseTotal(null, new BigDecimal("9.50"))));
+        when(expenseRepository.deleteByCategoryId(5L)).thenReturn(3);
+
+        ledgerWriteService.removeExpenseCategory(5L);
+
+        verify(budgetRepository, times(1)).adjustCurrentAmount(10L, new BigDecimal("-40.50"));
+        verify(budgetRepository, times(1)).adjustCurrentAmount(any(), any());
+        verify(expenseRepository, times(1)).deleteByCategoryId(5L);
+        verify(expenseCategoryRepository, times(1)).delete(category);
+        verify(expenseRollupService, times(1)).subtractCategory(1L, 5L);
+        verify(ledgerCache, times(1)).evict(1L);
+        verify(forecastCache, times(1)).evict(1L);
+        verify(eventPublisher, times(1)).publishEvent(new ExpenseChanged(1L, Change.REMOVED, null, -5000));
+    }
+
+    @Test
+    void testRemoveMissingExpenseCategoryDoesNothing() {
+        when(expenseCategoryRepository.findById(5L)).thenReturn(Optional.empty());
+
+        ledgerWriteService.removeExpenseCategory(5L);
+
+        verifyNoInteractions(expenseRepository, budgetRepository, expenseRollupService, ledgerCache, eventPublisher);
+    }
+
+    @Test
+    void testRemoveBudgetKeepsItsExpensesWithoutBudget() {
+        Budget budget = createBudget(10L);
+        budget.setUser(createUser());
+        when(budgetRepository.findById(10L)).thenReturn(Optional.of(budget));
+        when(expenseRepository.clearBudget(10L)).thenReturn(4);
+
+        ledgerWriteService.removeBudget(10L);
+
+        verify(expenseRepository, times(1)).clearBudget(10L);
+        verify(expenseRollupService, times(1)).moveBudgetToNone(1L, 10L);
+        verify(budgetRepository, times(1)).delete(budget);
+        verify(ledgerCache, times(1)).evict(1L);
+        verify(forecastCache, times(1)).evict(1L);
+        verify(eventPublisher, times(1)).publishEvent(new ExpenseChanged(1L, Change.UPDATED, null, 0));
+        verify(eventPublisher, times(1)).publishEvent(new BudgetChanged(1L, Change.REMOVED, 10L));
+    }
+
+    @Test
+    void testRemoveBudgetWithoutExpensesKeepsCachedLedger() {
+        Budget budget = createBudget(10L);
+        budget.setUser(createUser());
+        when(budgetRepository.findById(10L)).thenReturn(Optional.of(budget));
+
+        ledgerWriteService.removeBudget(10L);
+
+        verify(budgetRepository, times(1)).delete(budget);
+        verify(expenseRollupService, times(1)).moveBudgetToNone(1L, 10L);
+        verifyNoInteractions(ledgerCache, forecastCache);
+        verify(eventPublisher, times(1)).publishEvent(new BudgetChanged(1L, Change.REMOVED, 10L));
+        verify(eventPublisher, times(1)).publishEvent(any());
+    }
+
+    @Test
+    void testRemoveMissingBudgetDoesNothing() {
+        when(budgetRepository.findById(10L)).thenReturn(Optional.empty());
+
+        ledgerWriteService.removeBudget(10L);
+
+        verify(budgetRepository, never()).delete(any());
+        verifyNoInteractions(expenseRepository, expenseRollupService, ledgerCache, eventPublisher);
+    }
+
+    private Expense createExpense(Long id, String description, String amount, Budget budget) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setDescription(description);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setDate(Date.valueOf(LocalDate.of(2024, 1, 13)));
+        expense.setBudget(budget);
+        expense.setUser(createUser());
+        return expense;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("ledger-user");
+        return user;
+    }
+
+    private Budget createBudget(Long id) {
+        Budget budget = new Budget();
+        budget.setId(id);
+        budget.setName("Budget " + id);
+        budget.setAmount(new BigDecimal("500.00"));
+        return budget;
+    }
+}
@@ -0,0 +1,66 @@
+package org.vaadin.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.vaadin.application.model.User;
+import org.vaadin.application.repository.UserRepository;
+import org.vaadin.application.service.OwnerService;
+import org.vaadin.application.service.SessionService;
+
+public class OwnerServiceTests {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SessionService sessionService;
+
+    @InjectMocks
+    private OwnerService ownerService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetOwnerReturnsReference() {
+        User reference = new User();
+        when(userRepository.getReferenceById(1L)).thenReturn(reference);
+
+        assertSame(reference, ownerService.getOwner(1L));
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetOwnerRejectsNullId() {
+        assertThrows(IllegalArgumentException.class, () -> ownerService.getOwner(null));
+    }
+
+    @Test
+    void testGetLoggedInOwner() {
+        User reference = new User();
+        when(sessionService.getLoggedInUserId()).thenReturn(2L);
+        when(userRepository.getReferenceById(2L)).thenReturn(reference);
+
+        assertSame(reference, ownerService.getLoggedInOwner());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetLoggedInOwnerWithoutSession() {
+        when(sessionService.getLoggedInUserId()).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> ownerService.getLoggedInOwner());
+    }
+}
@@ -0,0 +1,126 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AssetValuationTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AssetValuationTests.class);
+
+    private static final int JANUARY_1 = day(2024, 1, 1);
+
+    @Test
+    void testAssetsAreWorthTheirRecordedValueOnTheRecordedDay() {
+        AssetValuation valuation = new AssetValuation(0);
+        valuation.add(1_000_001, JANUARY_1, new BigDecimal("5.00"));
+        valuation.add(250_099, JANUARY_1, null);
+        valuation.add(3, JANUARY_1, new BigDecimal("12.34"));
+
+        assertEquals(3, valuation.size());
+        assertEquals(1_250_103, valuation.valueAt(JANUARY_1));
+        assertEquals(0, new AssetValuation(0).valueAt(JANUARY_1));
+    }
+
+    @Test
+    void testInterestCompoundsAnnually() {
+        AssetValuation valuation = new AssetValuation(2);
+        valuation.add(1_000_000, JANUARY_1, new BigDecimal("5.00"));
+        valuation.add(500_000, JANUARY_1, BigDecimal.ZERO);
+
+        // Whole and partial years compound at the same rate
+        for (int days : new int[] { 1, 100, 365, 366, 730, 3_652 }) {
+            double growth = Math.pow(1.05, days / AssetValuation.DAYS_PER_YEAR);
+            assertEquals(1_000_000 * growth + 500_000, valuation.valueAt(JANUARY_1 + days), 0.5);
+            assertEquals(1_000_000 / growth + 500_000, valuation.valueAt(JANUARY_1 - days), 0.5);
+        }
+        // 10,000.00 at 5 % is worth 16,288.95 after ten average years
+        assertEquals(2_128_895, valuation.valueAt(JANUARY_1 + (int) (10 * AssetValuation.DAYS_PER_YEAR)), 100.0);
+    }
+
+    @Test
+    void testProjectionMatchesSingleValuations() {
+        Random random = new Random(42);
+        AssetValuation valuation = new AssetValuation(0);
+        for (int i = 0; i < 1_000; i++) {
+            valuation.add(random.nextInt(10_000_000), JANUARY_1 - random.nextInt(3_650),
+                    BigDecimal.valueOf(random.nextInt(1_500), 2));
+        }
+
+        MonthlySeries projection = new MonthlySeries(YearMonth.of(2024, 1), 120);
+        valuation.setMonthStartValues(projection);
+
+        for (int position = 0; position < projection.length(); position++) {
+            YearMonth month = projection.monthAt(position);
+            long expected = valuation.valueAt((int) month.atDay(1).toEpochDay());
+            assertEquals(expected, projection.getCents(position), 1.0, month::toString);
+        }
+        assertTrue(projection.getCents(119) > projection.getCents(0));
+    }
+
+    @Test
+    void testValuesAtRejectsDescendingDays() {
+        AssetValuation valuation = new AssetValuation(1);
+        valuation.add(100, JANUARY_1, BigDecimal.ONE);
+
+        assertArrayEquals(new long[0], valuation.valuesAt());
+        assertArrayEquals(new long[] { 100, 100 }, valuation.valuesAt(JANUARY_1, JANUARY_1));
+        assertThrows(IllegalArgumentException.class, () -> valuation.valuesAt(JANUARY_1, JANUARY_1 - 1));
+        assertThrows(IllegalArgumentException.class, () -> valuation.add(100, JANUARY_1, new BigDecimal("-100")));
+    }
+
+    /**
+     * Projects 10,000 assets over 30 years month by month, once with
+     * {@link AssetValuation#setMonthStartValues(MonthlySeries)} and once by
+     * valuing every month on its own with {@link AssetValuation#valueAt(int)},
+     * which needs one exponential per asset and month. Both must agree to the
+     * cent within rounding; the time of each round is logged. Run with
+     * {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkThirtyYearProjection() {
+        Random random = new Random(42);
+        AssetValuation valuation = new AssetValuation(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            valuation.add(random.nextInt(100_000_000), JANUARY_1 - random.nextInt(3_650),
+                    BigDecimal.valueOf(random.nextInt(1_000), 2));
+        }
+
+        for (int round = 0; round < 10; round++) {
+            MonthlySeries projection = new MonthlySeries(YearMonth.of(2024, 1), 30 * 12);
+            long start = System.nanoTime();
+            valuation.setMonthStartValues(projection);
+            long projectionNanos = System.nanoTime() - start;
+
+            long[] monthly = new long[projection.length()];
+            start = System.nanoTime();
+            for (int position = 0; position < monthly.length; position++) {
+                monthly[position] = valuation.valueAt((int) projection.getFirstMonth().plusMonths(position)
+                        .atDay(1).toEpochDay());
+            }
+            long monthlyNanos = System.nanoTime() - start;
+
+            for (int position = 0; position < monthly.length; position++) {
+                assertEquals(monthly[position], projection.getCents(position), monthly[position] * 1e-9 + 1);
+            }
+            assertTrue(projection.getCents(projection.length() - 1) > projection.getCents(0));
+            LOGGER.info("round {}: projection {} us, month by month {} us", round, projectionNanos / 1_000,
+                    monthlyNanos / 1_000);
+        }
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
@@ -0,0 +1,44 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.Test;
+
+public class CsvWriterTests {
+
+    @Test
+    void testPlainFieldsAreWrittenAsIs() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.row("Date", "Description", "Amount");
+        csv.field("2024-01-13").field("Napkins").field("25.00");
+        csv.endRow();
+
+        assertEquals("Date,Description,Amount\r\n2024-01-13,Napkins,25.00\r\n", out.toString());
+    }
+
+    @Test
+    void testFieldsWithSeparatorsQuotesOrLineBreaksAreQuoted() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.row("Milk, eggs", "12\" pizza", "\"quoted\"", "two\nlines", "cr\r");
+
+        assertEquals("\"Milk, eggs\",\"12\"\" pizza\",\"\"\"quoted\"\"\",\"two\nlines\",\"cr\r\"\r\n",
+                out.toString());
+    }
+
+    @Test
+    void testNullAndEmptyValuesAreEmptyFields() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter csv = new CsvWriter(out);
+
+        csv.row(null, "", null);
+        csv.row("only");
+
+        assertEquals(",,\r\nonly\r\n", out.toString());
+    }
+}
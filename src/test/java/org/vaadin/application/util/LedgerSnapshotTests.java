@@ -0,0 +1,205 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class LedgerSnapshotTests {
+
+    private static final int JANUARY_10 = day(2024, 1, 10);
+    private static final int JANUARY_31 = day(2024, 1, 31);
+    private static final int FEBRUARY_1 = day(2024, 2, 1);
+    private static final int FEBRUARY_29 = day(2024, 2, 29);
+
+    @Test
+    void testExpenseSums() {
+        LedgerSnapshot snapshot = new LedgerSnapshot(new ExpenseColumns(16), new IncomeColumns(16));
+        snapshot.putExpense(1L, JANUARY_10, 1_250, 7, 3);
+        snapshot.putExpense(2L, JANUARY_31, 800, 8, 3);
+        snapshot.putExpense(3L, FEBRUARY_1, 99, 7, 0);
+        snapshot.putExpense(4L, FEBRUARY_29, 1, 0, 0);
+
+        assertEquals(2_150, snapshot.sumExpenseCents());
+        assertEquals(2_050, snapshot.sumExpenseCents(day(2024, 1, 1), JANUARY_31));
+        assertEquals(100, snapshot.sumExpenseCents(FEBRUARY_1, FEBRUARY_29));
+
+        LongTotals byBudget = new LongTotals();
+        snapshot.sumExpenseCentsByBudget(byBudget);
+        assertEquals(3, byBudget.size());
+        assertEquals(1_349, byBudget.get(7));
+        assertEquals(800, byBudget.get(8));
+        assertEquals(1, byBudget.get(0));
+
+        LongTotals byBudgetAndMonth = new LongTotals();
+        snapshot.sumExpenseCentsByBudgetAndMonth(JANUARY_10, FEBRUARY_1, byBudgetAndMonth);
+        int january = MonthlySeries.toIndex(JANUARY_10);
+        assertEquals(3, byBudgetAndMonth.size());
+        assertEquals(1_250, byBudgetAndMonth.get(LongTotals.key(7, january)));
+        assertEquals(800, byBudgetAndMonth.get(LongTotals.key(8, january)));
+        assertEquals(99, byBudgetAndMonth.get(LongTotals.key(7, january + 1)));
+    }
+
+    @Test
+    void testExpenseChangesAreIdempotent() {
+        LedgerSnapshot snapshot = new LedgerSnapshot(new ExpenseColumns(0), new IncomeColumns(0));
+        snapshot.putExpense(1L, JANUARY_10, 500, 7, 0);
+        snapshot.putExpense(2L, JANUARY_10, 300, 7, 0);
+        snapshot.putExpense(1L, JANUARY_10, 500, 7, 0);
+        assertEquals(800, snapshot.sumExpenseCents());
+
+        snapshot.putExpense(1L, FEBRUARY_1, 600, 8, 0);
+        assertEquals(900, snapshot.sumExpenseCents());
+        assertEquals(300, snapshot.sumExpenseCents(JANUARY_10, JANUARY_31));
+
+        snapshot.removeExpense(1L);
+        snapshot.removeExpense(1L);
+        assertEquals(300, snapshot.sumExpenseCents());
+
+        snapshot.removeExpense(2L);
+        assertEquals(0, snapshot.sumExpenseCents());
+    }
+
+    @Test
+    void testColumnsGrowAndRemoveBySwappingWithLastRow() {
+        ExpenseColumns columns = new ExpenseColumns(0);
+        for (int id = 1; id <= 100; id++) {
+            columns.add(id, JANUARY_10, id, 0, 0);
+        }
+        assertEquals(100, columns.size());
+        assertEquals(5_050, columns.sumCents());
+        assertTrue(columns.bytes() >= 100L * ExpenseColumns.BYTES_PER_ROW);
+
+        assertTrue(columns.remove(1L));
+        assertFalse(columns.remove(1L));
+        assertTrue(columns.update(100L, JANUARY_10, 0, 0, 0));
+        assertEquals(99, columns.size());
+        assertEquals(4_949, columns.sumCents());
+    }
+
+    @Test
+    void testRowsAreFoundByIdAfterManyChanges() {
+        ExpenseColumns expenses = new ExpenseColumns(0);
+        IncomeColumns incomes = new IncomeColumns(0);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            // IDs collide often enough to exercise updates and removals of moved rows
+            long id = random.nextInt(2_000) * 1_024L;
+            long cents = random.nextInt(10_000);
+            if (random.nextInt(3) == 0) {
+                boolean present = expected.remove(id) != null;
+                assertEquals(present, expenses.remove(id));
+                assertEquals(present, incomes.remove(id));
+            } else if (expected.put(id, cents) != null) {
+                assertTrue(expenses.update(id, JANUARY_10, cents, 0, 0));
+                assertTrue(incomes.update(id, JANUARY_10, cents, "Monthly", "Salary"));
+            } else {
+                expenses.add(id, JANUARY_10, cents, 0, 0);
+                incomes.add(id, JANUARY_10, cents, "Monthly", "Salary");
+            }
+        }
+
+        long sum = expected.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(expected.size(), expenses.size());
+        assertEquals(expected.size(), incomes.size());
+        assertEquals(sum, expenses.sumCents());
+        assertEquals(sum, incomes.sumCents());
+    }
+
+    @Test
+    void testIncomeSums() {
+        LedgerSnapshot snapshot = new LedgerSnapshot(new ExpenseColumns(16), new IncomeColumns(16));
+        snapshot.putIncome(1L, JANUARY_10, 100_000, "Monthly", "Salary");
+        snapshot.putIncome(2L, JANUARY_31, 20_000, "Weekly", "Tutoring");
+        snapshot.putIncome(3L, FEBRUARY_1, 5_000, "Biweekly", "Tutoring");
+        snapshot.putIncome(4L, FEBRUARY_29, 700, "Yearly", "Gift");
+
+        assertEquals(125_700, snapshot.sumIncomeCents());
+        assertEquals(120_000, snapshot.sumIncomeCents(JANUARY_10, JANUARY_31));
+
+        Map<String, Long> bySource = new HashMap<>();
+        snapshot.forEachIncomeSource(bySource::put);
+        assertEquals(Map.of("Salary", 100_000L, "Tutoring", 25_000L, "Gift", 700L), bySource);
+
+        snapshot.putIncome(2L, JANUARY_31, 20_000, "Monthly", "Salary");
+        snapshot.removeIncome(4L);
+        bySource.clear();
+        snapshot.forEachIncomeSource(bySource::put);
+        assertEquals(Map.of("Salary", 120_000L, "Tutoring", 5_000L), bySource);
+    }
+
+    @Test
+    void testScheduledIncomeSums() {
+        LedgerSnapshot snapshot = new LedgerSnapshot(new ExpenseColumns(0), new IncomeColumns(0));
+        snapshot.putIncome(1L, JANUARY_31, 100_000, "Monthly", "Salary");
+        snapshot.putIncome(2L, JANUARY_10, 5_000, "Biweekly", "Tutoring");
+        snapshot.putIncome(3L, FEBRUARY_1, 700, "Yearly", "Gift");
+
+        // January 10 and 24 for tutoring, February 7 and 21
+        assertEquals(100_000 + 2 * 5_000, snapshot.sumScheduledIncomeCents(day(2024, 1, 1), JANUARY_31));
+        assertEquals(100_000 + 2 * 5_000 + 700, snapshot.sumScheduledIncomeCents(FEBRUARY_1, FEBRUARY_29));
+
+        MonthlySeries series = new MonthlySeries(YearMonth.of(2023, 12), 4);
+        snapshot.addScheduledIncomeCents(series);
+        assertEquals(0, series.getCents(0));
+        assertEquals(110_000, series.getCents(1));
+        assertEquals(110_700, series.getCents(2));
+        // March 6 and 20 for tutoring
+        assertEquals(110_000, series.getCents(3));
+
+        snapshot.putIncome(2L, JANUARY_10, 5_000, "Weekly", "Tutoring");
+        assertEquals(100_000 + 4 * 5_000, snapshot.sumScheduledIncomeCents(day(2024, 1, 1), JANUARY_31));
+    }
+
+    @Test
+    void testScansDoNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        ExpenseColumns expenses = new ExpenseColumns(0);
+        for (int id = 1; id <= 100_000; id++) {
+            expenses.add(id, JANUARY_10 + id % 60, id % 1_000, id % 10, 0);
+        }
+        LedgerSnapshot snapshot = new LedgerSnapshot(expenses, new IncomeColumns(0));
+        LongTotals totals = new LongTotals(64);
+
+        long checksum = 0;
+        for (int round = 0; round < 20; round++) {
+            totals.clear();
+            checksum += scan(snapshot, totals);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int round = 0; round < 20; round++) {
+            totals.clear();
+            checksum += scan(snapshot, totals);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum > 0);
+        // Leaves room for allocations of the measurement itself, far below one
+        // object per row
+        assertTrue(allocated < 10_000, "Scans allocated " + allocated + " bytes");
+    }
+
+    private static long scan(LedgerSnapshot snapshot, LongTotals totals) {
+        snapshot.sumExpenseCentsByBudgetAndMonth(JANUARY_10, FEBRUARY_29, totals);
+        return snapshot.sumExpenseCents() + snapshot.sumExpenseCents(JANUARY_10, JANUARY_31) + totals.size();
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
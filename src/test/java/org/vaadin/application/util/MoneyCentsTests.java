@@ -0,0 +1,132 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class MoneyCentsTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MoneyCentsTests.class);
+
+    @Test
+    void testConversion() {
+        assertEquals(1234, MoneyCents.of(new BigDecimal("12.34")));
+        assertEquals(1235, MoneyCents.of(new BigDecimal("12.345")));
+        assertEquals(-1235, MoneyCents.of(new BigDecimal("-12.345")));
+        assertEquals(1234, MoneyCents.of(new BigDecimal("12.345"), RoundingMode.HALF_EVEN));
+        assertEquals(500, MoneyCents.of(new BigDecimal("5")));
+        assertEquals(new BigDecimal("12.34"), MoneyCents.toBigDecimal(1234));
+        assertEquals(new BigDecimal("-0.05"), MoneyCents.toBigDecimal(-5));
+        assertThrows(ArithmeticException.class,
+                () -> MoneyCents.of(new BigDecimal("12.345"), RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.of(new BigDecimal("1E+20")));
+    }
+
+    @Test
+    void testArithmeticIsOverflowChecked() {
+        assertEquals(1_500, MoneyCents.add(1_000, 500));
+        assertEquals(500, MoneyCents.subtract(1_000, 500));
+        assertEquals(4_000, MoneyCents.multiply(1_000, 4));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.subtract(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.multiply(Long.MAX_VALUE / 2, 3));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.divide(Long.MIN_VALUE, -1, RoundingMode.DOWN));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.divide(100, 0, RoundingMode.HALF_UP));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.divide(100, 3, RoundingMode.UNNECESSARY));
+        assertEquals(25, MoneyCents.divide(100, 4, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void testDivisionRoundsLikeBigDecimal() {
+        Random random = new Random(42);
+        long[] edges = { 0, 1, -1, 2, -2, 3, 5, -5, 7, 10, Long.MAX_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE };
+        for (RoundingMode roundingMode : RoundingMode.values()) {
+            if (roundingMode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long dividend : edges) {
+                for (long divisor : edges) {
+                    if (divisor != 0 && !(dividend == Long.MIN_VALUE && divisor == -1)) {
+                        assertDivision(dividend, divisor, roundingMode);
+                    }
+                }
+            }
+            for (int i = 0; i < 10_000; i++) {
+                long divisor = random.nextInt(200) - 100;
+                if (divisor != 0) {
+                    assertDivision(random.nextInt(2_000_001) - 1_000_000, divisor, roundingMode);
+                    assertDivision(random.nextLong(), divisor, roundingMode);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFractionsAndPercentages() {
+        // A third of 100.00 and two thirds of 100.00
+        assertEquals(3_333, MoneyCents.multiply(10_000, 1, 3, RoundingMode.HALF_UP));
+        assertEquals(6_667, MoneyCents.multiply(10_000, 2, 3, RoundingMode.HALF_UP));
+        assertEquals(6_666, MoneyCents.multiply(10_000, 2, 3, RoundingMode.DOWN));
+        // 12.50 % and 33.33 %
+        assertEquals(1_250, MoneyCents.percentOf(2_500, 20_000, RoundingMode.HALF_UP));
+        assertEquals(3_333, MoneyCents.percentOf(1_000, 3_000, RoundingMode.HALF_UP));
+        assertThrows(ArithmeticException.class, () -> MoneyCents.percentOf(1_000, 0, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * Compares the per-budget aggregation loop as it was before amounts were
+     * summed as cents, merging {@link BigDecimal} amounts into a map, with the
+     * loop that adds cents to {@link LongTotals}, over 1M expenses in 20
+     * budgets. Both must give the same totals; the time of each round is
+     * logged. Run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkBudgetTotalsAggregation() {
+        int count = 1_000_000;
+        Random random = new Random(42);
+        long[] budgetIds = new long[count];
+        BigDecimal[] amounts = new BigDecimal[count];
+        for (int i = 0; i < count; i++) {
+            budgetIds[i] = 1 + random.nextInt(20);
+            amounts[i] = MoneyCents.toBigDecimal(random.nextInt(1_000_000));
+        }
+
+        for (int round = 0; round < 10; round++) {
+            long start = System.nanoTime();
+            Map<Long, BigDecimal> bigDecimalTotals = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                bigDecimalTotals.merge(budgetIds[i], amounts[i], BigDecimal::add);
+            }
+            long bigDecimalNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            LongTotals centsTotals = new LongTotals();
+            for (int i = 0; i < count; i++) {
+                centsTotals.add(budgetIds[i], MoneyCents.of(amounts[i]));
+            }
+            long centsNanos = System.nanoTime() - start;
+
+            assertEquals(bigDecimalTotals.size(), centsTotals.size());
+            bigDecimalTotals.forEach((budgetId, total) -> assertEquals(MoneyCents.of(total),
+                    centsTotals.get(budgetId)));
+            LOGGER.info("round {}: BigDecimal map {} us, LongTotals {} us", round, bigDecimalNanos / 1_000,
+                    centsNanos / 1_000);
+        }
+    }
+
+    private static void assertDivision(long dividend, long divisor, RoundingMode roundingMode) {
+        long expected = new BigDecimal(dividend).divide(new BigDecimal(divisor), 0, roundingMode).longValueExact();
+        assertEquals(expected, MoneyCents.divide(dividend, divisor, roundingMode),
+                dividend + " / " + divisor + " " + roundingMode);
+    }
+}
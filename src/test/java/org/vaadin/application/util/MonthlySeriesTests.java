@@ -0,0 +1,109 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import org.junit.jupiter.api.Test;
+
+public class MonthlySeriesTests {
+
+    @Test
+    void testSameMonthOfDifferentYearsIsKeptApart() {
+        MonthlySeries series = MonthlySeries.between(YearMonth.of(2023, 1), YearMonth.of(2024, 12));
+
+        series.add(YearMonth.of(2023, 1), new BigDecimal("10.00"));
+        series.add(YearMonth.of(2024, 1), new BigDecimal("25.50"));
+
+        assertEquals(24, series.length());
+        assertEquals(1000, series.getCents(0));
+        assertEquals(2550, series.getCents(12));
+        assertEquals(new BigDecimal("25.50"), series.get(12));
+    }
+
+    @Test
+    void testMonthsOutsideTheSeriesAreIgnored() {
+        MonthlySeries series = new MonthlySeries(YearMonth.of(2024, 11), 3);
+
+        assertTrue(series.addCents(2025, 1, 100));
+        assertFalse(series.addCents(2024, 10, 100));
+        assertFalse(series.addCents(2025, 2, 100));
+
+        assertEquals(YearMonth.of(2025, 1), series.getLastMonth());
+        assertEquals(100, series.sum());
+    }
+
+    @Test
+    void testRangeSumsMeansAndDeltas() {
+        MonthlySeries series = new MonthlySeries(YearMonth.of(2024, 1), 5);
+        long[] values = {0, 0, 1000, 1500, 1250};
+        for (int i = 0; i < values.length; i++) {
+            series.setCents(i, values[i]);
+        }
+
+        assertEquals(3750, series.sum());
+        assertEquals(2750, series.sum(3, 5));
+        assertEquals(750, series.mean(0, 5, RoundingMode.HALF_UP));
+        assertEquals(500, series.delta(3));
+        // 0 -> 0 is skipped, leaving the changes +1000, +500 and -250
+        assertEquals(417, series.meanDelta(0, 5, RoundingMode.HALF_UP));
+        assertEquals(0, series.meanDelta(0, 2, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void testAddSeriesAlignsByMonth() {
+        MonthlySeries total = new MonthlySeries(YearMonth.of(2024, 12), 3);
+        MonthlySeries other = new MonthlySeries(YearMonth.of(2025, 1), 3);
+        other.setCents(0, 100);
+        other.setCents(1, 200);
+        other.setCents(2, 300);
+
+        total.addSeries(other);
+
+        assertEquals(0, total.getCents(0));
+        assertEquals(100, total.getCents(1));
+        assertEquals(200, total.getCents(2));
+    }
+
+    @Test
+    void testFrozenSeriesCannotBeChanged() {
+        MonthlySeries series = new MonthlySeries(YearMonth.of(2024, 1), 60).freeze();
+
+        assertThrows(IllegalStateException.class, () -> series.setCents(0, 1));
+        assertThrows(IllegalStateException.class, () -> series.addCents(2024, 1, 1));
+        series.copy().setCents(59, 1);
+    }
+
+    @Test
+    void testIndexRoundTrip() {
+        YearMonth month = YearMonth.of(2029, 12);
+        assertEquals(month, MonthlySeries.toYearMonth(MonthlySeries.toIndex(month)));
+        assertEquals(MonthlySeries.toIndex(month) + 1, MonthlySeries.toIndex(YearMonth.of(2030, 1)));
+    }
+
+    @Test
+    void testEpochDayIndexMatchesCalendar() {
+        LocalDate day = LocalDate.of(1899, 12, 31);
+        while (day.getYear() < 2101) {
+            assertEquals(MonthlySeries.toIndex(YearMonth.from(day)), MonthlySeries.toIndex((int) day.toEpochDay()),
+                    day::toString);
+            day = day.plusDays(1);
+        }
+    }
+
+    @Test
+    void testFirstDayAndLengthMatchCalendar() {
+        YearMonth month = YearMonth.of(1600, 1);
+        while (month.getYear() < 2401) {
+            int index = MonthlySeries.toIndex(month);
+            assertEquals(month.atDay(1).toEpochDay(), MonthlySeries.firstDayOf(index), month::toString);
+            assertEquals(month.lengthOfMonth(), MonthlySeries.lengthOf(index), month::toString);
+            month = month.plusMonths(1);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class NetWorthSeriesTests {
+
+    private static final int JANUARY_1 = day(2024, 1, 1);
+
+    @Test
+    void testEncodedSnapshotsDecodeToTheSameValues() {
+        Random random = new Random(42);
+        NetWorthSeries series = new NetWorthSeries(0);
+        int day = JANUARY_1;
+        for (int i = 0; i < 300; i++) {
+            day += 1 + random.nextInt(3);
+            series.put(day, random.nextLong() / 4, random.nextInt(1_000_000), -random.nextInt(1_000));
+        }
+
+        NetWorthSeries decoded = new NetWorthSeries(0);
+        decoded.decode(series.encode(JANUARY_1), JANUARY_1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(series.size(), decoded.size());
+        for (int i = 0; i < series.size(); i++) {
+            assertEquals(series.dayAt(i), decoded.dayAt(i));
+            assertEquals(series.netWorthAt(i), decoded.netWorthAt(i));
+            assertEquals(series.goalsSavedAt(i), decoded.goalsSavedAt(i));
+            assertEquals(series.goalsTargetAt(i), decoded.goalsTargetAt(i));
+        }
+    }
+
+    @Test
+    void testUnchangedDaysTakeFourBytes() {
+        NetWorthSeries series = new NetWorthSeries(366);
+        for (int i = 0; i < 366; i++) {
+            series.put(JANUARY_1 + i, 12_345_678, 50_000, 100_000);
+        }
+
+        byte[] bytes = series.encode(JANUARY_1);
+
+        // The first snapshot spells out the amounts, every later one only the day
+        assertEquals(1 + 4 + 3 + 3 + 365 * 4, bytes.length);
+    }
+
+    @Test
+    void testWorstCaseYearFitsMaximumSize() {
+        NetWorthSeries series = new NetWorthSeries(366);
+        for (int i = 0; i < 366; i++) {
+            long sign = i % 2 == 0 ? 1 : -1;
+            series.put(JANUARY_1 + i, sign * (Long.MAX_VALUE / 2), sign * (Long.MAX_VALUE / 2),
+                    sign * (Long.MAX_VALUE / 2));
+        }
+
+        assertTrue(series.encode(JANUARY_1).length <= 366 * NetWorthSeries.MAX_BYTES_PER_SNAPSHOT);
+    }
+
+    @Test
+    void testSameDayReplacesLastSnapshot() {
+        NetWorthSeries series = new NetWorthSeries(0);
+        series.put(JANUARY_1, 100, 10, 1);
+        series.put(JANUARY_1 + 1, 200, 20, 2);
+        series.put(JANUARY_1 + 1, 300, 30, 3);
+
+        assertEquals(2, series.size());
+        assertEquals(300, series.netWorthAt(1));
+        assertThrows(IllegalArgumentException.class, () -> series.put(JANUARY_1, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> series.encode(JANUARY_1 + 1));
+    }
+
+    @Test
+    void testDecodeKeepsRangeAndAppends() {
+        NetWorthSeries january = new NetWorthSeries(0);
+        for (int i = 0; i < 31; i++) {
+            january.put(JANUARY_1 + i, i, 0, 0);
+        }
+        int february1 = JANUARY_1 + 31;
+        NetWorthSeries february = new NetWorthSeries(0);
+        for (int i = 0; i < 29; i++) {
+            february.put(february1 + i, 100 + i, 0, 0);
+        }
+
+        NetWorthSeries range = new NetWorthSeries(0);
+        range.decode(january.encode(JANUARY_1), JANUARY_1, JANUARY_1 + 20, february1 + 9);
+        range.decode(february.encode(JANUARY_1), JANUARY_1, JANUARY_1 + 20, february1 + 9);
+
+        assertEquals(21, range.size());
+        assertEquals(JANUARY_1 + 20, range.dayAt(0));
+        assertEquals(20, range.netWorthAt(0));
+        assertEquals(february1 + 9, range.dayAt(20));
+        assertEquals(109, range.netWorthAt(20));
+    }
+
+    @Test
+    void testTruncatedBytesAreRejected() {
+        NetWorthSeries series = new NetWorthSeries(0);
+        series.put(JANUARY_1, 1_000_000, 0, 0);
+        byte[] bytes = series.encode(JANUARY_1);
+
+        byte[] truncated = Arrays.copyOf(bytes, 2);
+        assertThrows(IllegalArgumentException.class,
+                () -> new NetWorthSeries(0).decode(truncated, JANUARY_1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
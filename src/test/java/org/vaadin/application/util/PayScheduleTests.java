@@ -0,0 +1,139 @@
+package org.vaadin.application.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PayScheduleTests {
+
+    private static final String[] FREQUENCIES = { "Weekly", "Biweekly", "Monthly", "One-off" };
+
+    @Test
+    void testMonthlyPayDaysMoveToEndOfShortMonths() {
+        PaySchedule schedule = PaySchedule.of(LocalDate.of(2024, 1, 31), "Monthly");
+
+        List<LocalDate> payDates = payDates(schedule, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 5, 31));
+
+        assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31),
+                LocalDate.of(2024, 4, 30), LocalDate.of(2024, 5, 31)), payDates);
+    }
+
+    @Test
+    void testWeeklyAndBiweeklyPayDays() {
+        PaySchedule weekly = PaySchedule.of(LocalDate.of(2024, 1, 5), "Weekly");
+        PaySchedule biweekly = PaySchedule.of(LocalDate.of(2024, 1, 5), "Biweekly");
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 9), LocalDate.of(2024, 2, 16),
+                LocalDate.of(2024, 2, 23)), payDates(weekly, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertEquals(List.of(LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 16)),
+                payDates(biweekly, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertEquals(0, weekly.count(day(2024, 1, 6), day(2024, 1, 11)));
+        assertEquals(1, weekly.count(day(2024, 1, 12), day(2024, 1, 12)));
+    }
+
+    @Test
+    void testFrequenciesIgnoreCase() {
+        LocalDate firstPayDate = LocalDate.of(2024, 1, 5);
+
+        assertEquals(PaySchedule.of(firstPayDate, "Weekly"), PaySchedule.of(firstPayDate, "weekly"));
+        assertEquals(PaySchedule.of(firstPayDate, "Biweekly"), PaySchedule.of(firstPayDate, "BIWEEKLY"));
+        assertEquals(PaySchedule.of(firstPayDate, "Monthly"), PaySchedule.of(firstPayDate, "monthly"));
+        assertEquals(12, PaySchedule.of(firstPayDate, "monthly").count(day(2024, 1, 1), day(2024, 12, 31)));
+    }
+
+    @Test
+    void testOtherFrequenciesArePaidOnce() {
+        PaySchedule schedule = PaySchedule.of(LocalDate.of(2024, 3, 15), "Yearly");
+
+        assertEquals(List.of(LocalDate.of(2024, 3, 15)),
+                payDates(schedule, LocalDate.of(2024, 1, 1), LocalDate.of(2030, 1, 1)));
+        assertEquals(1, schedule.count(day(2024, 3, 15), day(2024, 3, 15)));
+        assertEquals(0, schedule.count(day(2024, 3, 16), day(2030, 1, 1)));
+        assertEquals(schedule, PaySchedule.of(LocalDate.of(2024, 3, 15), null));
+    }
+
+    @Test
+    void testNothingIsPaidBeforeFirstPayDayOrInEmptyRanges() {
+        for (String frequency : FREQUENCIES) {
+            PaySchedule schedule = PaySchedule.of(LocalDate.of(2024, 3, 15), frequency);
+
+            assertEquals(0, schedule.count(day(2000, 1, 1), day(2024, 3, 14)), frequency);
+            assertEquals(0, schedule.count(day(2024, 3, 20), day(2024, 3, 19)), frequency);
+            assertFalse(schedule.payDays(day(2000, 1, 1), day(2024, 3, 14)).hasNext(), frequency);
+        }
+    }
+
+    @Test
+    void testCountMatchesEnumeratedPayDays() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            String frequency = FREQUENCIES[random.nextInt(FREQUENCIES.length)];
+            int firstPayDay = day(2020, 1, 1) + random.nextInt(2_000);
+            int fromDay = day(2019, 1, 1) + random.nextInt(3_000);
+            int toDay = fromDay + random.nextInt(800) - 10;
+            PaySchedule schedule = PaySchedule.of(firstPayDay, frequency);
+
+            long enumerated = 0;
+            int previous = Integer.MIN_VALUE;
+            PrimitiveIterator.OfInt payDays = schedule.payDays(fromDay, toDay);
+            while (payDays.hasNext()) {
+                int payDay = payDays.nextInt();
+                assertTrue(payDay > previous && payDay >= fromDay && payDay <= toDay, schedule::toString);
+                previous = payDay;
+                enumerated++;
+            }
+            assertEquals(enumerated, schedule.count(fromDay, toDay), schedule::toString);
+            assertEquals(bruteForceCount(LocalDate.ofEpochDay(firstPayDay), frequency, fromDay, toDay),
+                    enumerated, schedule::toString);
+        }
+    }
+
+    @Test
+    void testIteratorIsExhausted() {
+        PrimitiveIterator.OfInt payDays = PaySchedule.of(LocalDate.of(2024, 1, 5), "Weekly")
+                .payDays(day(2024, 1, 1), day(2024, 1, 7));
+
+        assertEquals(day(2024, 1, 5), payDays.nextInt());
+        assertFalse(payDays.hasNext());
+        assertThrows(NoSuchElementException.class, payDays::nextInt);
+    }
+
+    private static long bruteForceCount(LocalDate firstPayDate, String frequency, int fromDay, int toDay) {
+        long count = 0;
+        for (int i = 0;; i++) {
+            LocalDate payDate = switch (frequency) {
+                case "Weekly" -> firstPayDate.plusWeeks(i);
+                case "Biweekly" -> firstPayDate.plusWeeks(2L * i);
+                case "Monthly" -> firstPayDate.plusMonths(i);
+                default -> i == 0 ? firstPayDate : LocalDate.MAX;
+            };
+            if (payDate.toEpochDay() > toDay) {
+                return count;
+            }
+            if (payDate.toEpochDay() >= fromDay) {
+                count++;
+            }
+        }
+    }
+
+    private static List<LocalDate> payDates(PaySchedule schedule, LocalDate from, LocalDate to) {
+        List<LocalDate> payDates = new ArrayList<>();
+        Iterator<LocalDate> iterator = schedule.payDates(from, to);
+        iterator.forEachRemaining(payDates::add);
+        return payDates;
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return (int) LocalDate.of(year, month, dayOfMonth).toEpochDay();
+    }
+}
@@ -0,0 +1,204 @@
+package org.vaadin.application.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinSession;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vaadin.application.dto.ExpenseCursor;
+import org.vaadin.application.dto.ExpenseLine;
+import org.vaadin.application.service.DashboardExecutor;
+import org.vaadin.application.service.ExpenseCategoryService;
+import org.vaadin.application.service.ExpenseService;
+import org.vaadin.application.service.IncomeService;
+import org.vaadin.application.service.LedgerEventBroadcaster;
+
+/**
+ * Checks the server-side cost of the dashboard of a user with 20k expenses:
+ * the number of state nodes kept for the browser and the heap held by the UI.
+ * The {@link DashboardView} with its virtual lists is compared with the three
+ * divs per expense the view used to build. The view runs in a UI without a
+ * servlet container; background reads and UI access run on the test thread.
+ */
+public class DashboardViewTests {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DashboardViewTests.class);
+
+    private static final Long USER_ID = 1L;
+
+    private static final int EXPENSES = 20_000;
+
+    private VaadinSession session;
+
+    @BeforeEach
+    void setUp() {
+        VaadinService service = mock(VaadinService.class, RETURNS_DEEP_STUBS);
+        when(service.accessSession(any(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(1, Command.class).execute();
+            return CompletableFuture.completedFuture(null);
+        });
+        session = new VaadinSession(service) {
+            @Override
+            public boolean hasLock() {
+                return true;
+            }
+
+            @Override
+            public void lock() {
+            }
+
+            @Override
+            public void unlock() {
+            }
+        };
+        VaadinSession.setCurrent(session);
+        session.setAttribute("userId", USER_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    /**
+     * The virtual lists send only the rows in view, so the number of state
+     * nodes of the dashboard does not depend on the number of expenses.
+     */
+    @Test
+    void testDashboardNodesDoNotGrowWithExpenses() {
+        int fewNodes = countNodes(attach(createDashboardView(createExpenses(1_000))));
+        int manyNodes = countNodes(attach(createDashboardView(createExpenses(EXPENSES))));
+
+        assertEquals(fewNodes, manyNodes);
+        assertTrue(manyNodes < 100, manyNodes + " nodes");
+    }
+
+    /**
+     * Attaches the dashboard of a user with 20k expenses and, separately, the
+     * expense list as it was built before the lists were virtual, and logs the
+     * number of state nodes and the heap held by each. Run with
+     * {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkNodesAndHeapOfDashboardWithTwentyThousandExpenses() {
+        List<ExpenseLine> expenses = createExpenses(EXPENSES);
+
+        long heapBefore = usedHeap();
+        UI dashboardUi = attach(createDashboardView(expenses));
+        long dashboardHeap = usedHeap() - heapBefore;
+        int dashboardNodes = countNodes(dashboardUi);
+
+        heapBefore = usedHeap();
+        UI legacyUi = attach(createLegacyExpenseList(expenses));
+        long legacyHeap = usedHeap() - heapBefore;
+        int legacyNodes = countNodes(legacyUi);
+
+        LOGGER.info("dashboard with virtual lists: {} nodes, {} bytes of heap", dashboardNodes, dashboardHeap);
+        LOGGER.info("expense list of divs: {} nodes, {} bytes of heap", legacyNodes, legacyHeap);
+        assertTrue(dashboardNodes < 100, dashboardNodes + " nodes");
+        assertTrue(legacyNodes > 3 * EXPENSES, legacyNodes + " nodes");
+        assertTrue(dashboardHeap < legacyHeap, dashboardHeap + " < " + legacyHeap + " bytes");
+    }
+
+    private DashboardView createDashboardView(List<ExpenseLine> expenses) {
+        ExpenseService expenseService = mock(ExpenseService.class);
+        when(expenseService.getTotalExpensesForCurrentMonth(USER_ID)).thenReturn(new BigDecimal("1234.00"));
+        when(expenseService.countExpensesByUserId(USER_ID)).thenReturn((long) expenses.size());
+        when(expenseService.getExpenseLines(eq(USER_ID), nullable(ExpenseCursor.class), anyInt(), eq(false)))
+                .thenAnswer(invocation -> expenses.subList(0,
+                        Math.min(expenses.size(), invocation.getArgument(2, Integer.class))));
+
+        DashboardExecutor dashboardExecutor = mock(DashboardExecutor.class);
+        when(dashboardExecutor.supply(any())).thenAnswer(
+                invocation -> CompletableFuture.completedFuture(invocation.getArgument(0, Supplier.class).get()));
+
+        LedgerEventBroadcaster broadcaster = mock(LedgerEventBroadcaster.class);
+        when(broadcaster.subscribe(any(), any())).thenReturn(mock(LedgerEventBroadcaster.Subscription.class));
+
+        return new DashboardView(expenseService, mock(IncomeService.class), mock(ExpenseCategoryService.class),
+                dashboardExecutor, broadcaster);
+    }
+
+    /**
+     * Builds the expense list the way the dashboard did before it used a
+     * virtual list: a div with a description div and an amount div for every
+     * expense.
+     */
+    private VerticalLayout createLegacyExpenseList(List<ExpenseLine> expenses) {
+        VerticalLayout expenseLayout = new VerticalLayout();
+        expenseLayout.addClassName("expense-layout");
+        for (ExpenseLine expense : expenses) {
+            Div description = new Div();
+            description.setText(expense.description());
+            description.addClassName("expense-description");
+
+            Div amount = new Div();
+            amount.setText("$" + expense.amount());
+            amount.addClassName("expense-amount");
+
+            Div expenseItem = new Div(description, amount);
+            expenseItem.addClassName("expense-item");
+            expenseLayout.add(expenseItem);
+        }
+        return expenseLayout;
+    }
+
+    /**
+     * Adds a component to a new UI and attaches the UI to the session, which
+     * attaches the component and runs the tasks waiting for the next response.
+     */
+    private UI attach(Component component) {
+        UI ui = new UI();
+        ui.add(component);
+        ui.getInternals().setSession(session);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        return ui;
+    }
+
+    private static int countNodes(UI ui) {
+        int[] nodes = new int[1];
+        ui.getElement().getNode().visitNodeTree(node -> nodes[0]++);
+        return nodes[0];
+    }
+
+    private static List<ExpenseLine> createExpenses(int count) {
+        List<ExpenseLine> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(new ExpenseLine((long) i + 1, "Expense " + i, new BigDecimal("12.34"),
+                    LocalDate.of(2024, 1, 1).plusDays(i % 365), null, null));
+        }
+        return lines;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}